@@ -16,51 +16,49 @@
 
 package de.adorsys.psd2.scheduler;
 
-import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.scheduler.batch.PartitionedBatchProcessor;
 import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.Collections;
+import java.time.OffsetDateTime;
 import java.util.EnumSet;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
-import static de.adorsys.psd2.xs2a.core.consent.ConsentStatus.RECEIVED;
-import static de.adorsys.psd2.xs2a.core.consent.ConsentStatus.VALID;
+import static de.adorsys.psd2.xs2a.core.consent.ConsentStatus.*;
 
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class ConsentScheduleTask {
+    private static final Set<ConsentStatus> AVAILABLE_CONSENT_STATUSES = EnumSet.of(RECEIVED, VALID);
+    private static final String LOCK_NAME = "ConsentScheduleTask";
+
     private final ConsentJpaRepository consentJpaRepository;
+    private final PartitionedBatchProcessor partitionedBatchProcessor;
+    private final SchedulerLockService schedulerLockService;
 
     @Scheduled(cron = "${consent.cron.expression}")
-    @Transactional
     public void checkConsentStatus() {
-        log.info("Consent schedule task is run!");
-        List<ConsentEntity> availableConsents = Optional.ofNullable(consentJpaRepository.findByConsentStatusIn(EnumSet.of(RECEIVED, VALID)))
-                                                 .orElse(Collections.emptyList());
-        consentJpaRepository.saveAll(updateConsent(availableConsents));
+        schedulerLockService.executeWithLock(LOCK_NAME, this::expireConsentsByDate);
     }
 
-    private List<ConsentEntity> updateConsent(List<ConsentEntity> availableConsents) {
-        return availableConsents.stream()
-                   .filter(ConsentEntity::isExpiredByDate)
-                   .map(this::updateConsentParameters)
-                   .collect(Collectors.toList());
-    }
+    private void expireConsentsByDate() {
+        log.info("Consent schedule task is run!");
+        LocalDate currentDate = LocalDate.now();
+        OffsetDateTime statusChangeTimestamp = OffsetDateTime.now();
 
-    private ConsentEntity updateConsentParameters(ConsentEntity consent) {
-        consent.setConsentStatus(ConsentStatus.EXPIRED);
-        consent.setExpireDate(LocalDate.now());
-        return consent;
+        partitionedBatchProcessor.process("Consent schedule task",
+                                          consentJpaRepository.findMinId().orElse(null),
+                                          consentJpaRepository.findMaxId().orElse(null),
+                                          (lastId, maxId, batchSize) -> consentJpaRepository.findExpiredByDateConsentIds(lastId, maxId, AVAILABLE_CONSENT_STATUSES, currentDate, PageRequest.of(0, batchSize)),
+                                          ids -> consentJpaRepository.expireConsentsByIds(ids, AVAILABLE_CONSENT_STATUSES, EXPIRED, currentDate, statusChangeTimestamp));
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler;
+
+import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
+import de.adorsys.psd2.consent.service.DataRetentionService;
+import de.adorsys.psd2.scheduler.batch.BatchProcessingResult;
+import de.adorsys.psd2.scheduler.batch.PartitionedBatchProcessor;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Deletes consents and payments that have been in finalised status for longer than the retention period,
+ * together with their authorisations, usages, actions, PSU data and ASPSP consent data.
+ * Rows are deleted in keyset batches, each batch in its own transaction, with an optional pause between batches
+ * to limit the load on the database.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class DataRetentionScheduleTask {
+    private static final String LOCK_NAME = "DataRetentionScheduleTask";
+
+    private final DataRetentionService dataRetentionService;
+    private final ConsentJpaRepository consentJpaRepository;
+    private final PisCommonPaymentDataRepository paymentDataRepository;
+    private final PartitionedBatchProcessor partitionedBatchProcessor;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${data-retention.enabled:false}")
+    private boolean retentionEnabled;
+
+    @Value("${data-retention.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${data-retention.batch-pause-ms:0}")
+    private long batchPauseMs;
+
+    @Scheduled(cron = "${data-retention.cron.expression:0 0 2 * * *}")
+    public void purgeFinalisedData() {
+        if (!retentionEnabled) {
+            return;
+        }
+
+        schedulerLockService.executeWithLock(LOCK_NAME, this::purge);
+    }
+
+    private void purge() {
+        log.info("Data retention schedule task is run!");
+        OffsetDateTime finalisedBefore = OffsetDateTime.now().minusDays(retentionDays);
+
+        BatchProcessingResult consents = partitionedBatchProcessor.process("Data retention schedule task (consents)",
+                                                                           consentJpaRepository.findMinId().orElse(null),
+                                                                           consentJpaRepository.findMaxId().orElse(null),
+                                                                           (lastId, maxId, limit) -> dataRetentionService.findFinalisedConsentIds(lastId, maxId, finalisedBefore, limit),
+                                                                           dataRetentionService::deleteConsents,
+                                                                           batchPauseMs);
+        BatchProcessingResult payments = partitionedBatchProcessor.process("Data retention schedule task (payments)",
+                                                                           paymentDataRepository.findMinId().orElse(null),
+                                                                           paymentDataRepository.findMaxId().orElse(null),
+                                                                           (lastId, maxId, limit) -> dataRetentionService.findFinalisedPaymentIds(lastId, maxId, finalisedBefore, limit),
+                                                                           dataRetentionService::deletePayments,
+                                                                           batchPauseMs);
+        log.info("Data retention schedule task has deleted {} consents and {} payments finalised before {} in {} ms",
+                 consents.getUpdated(), payments.getUpdated(), finalisedBefore, consents.getDurationMs() + payments.getDurationMs());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler;
+
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
+import de.adorsys.psd2.scheduler.partition.EventPartition;
+import de.adorsys.psd2.scheduler.partition.EventPartitionInterval;
+import de.adorsys.psd2.scheduler.partition.EventPartitionRepository;
+import de.adorsys.psd2.scheduler.partition.EventPartitionRetentionMode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Maintains partitions of the event table, if it was partitioned by the optional liquibase changeset:
+ * creates partitions for upcoming intervals in advance and removes partitions older than retention period.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class EventPartitionScheduleTask {
+    private static final String LOCK_NAME = "EventPartitionScheduleTask";
+
+    private final EventPartitionRepository eventPartitionRepository;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${event-partitioning.enabled:false}")
+    private boolean partitioningEnabled;
+
+    @Value("${event-partitioning.interval:DAY}")
+    private EventPartitionInterval partitionInterval;
+
+    @Value("${event-partitioning.precreate-count:7}")
+    private int precreateCount;
+
+    @Value("${event-partitioning.retention-days:0}")
+    private int retentionDays;
+
+    @Value("${event-partitioning.retention-mode:DROP}")
+    private EventPartitionRetentionMode retentionMode;
+
+    @Scheduled(cron = "${event-partitioning.cron.expression:0 30 0 * * *}")
+    public void maintainEventPartitions() {
+        if (!partitioningEnabled) {
+            return;
+        }
+
+        schedulerLockService.executeWithLock(LOCK_NAME, this::maintainPartitions);
+    }
+
+    private void maintainPartitions() {
+        log.info("Event partition schedule task is run!");
+        if (!eventPartitionRepository.isEventTablePartitioned()) {
+            log.warn("Event partitioning is enabled, but event table is not partitioned");
+            return;
+        }
+
+        List<EventPartition> partitions = eventPartitionRepository.findPartitions();
+        createUpcomingPartitions(partitions);
+        removeExpiredPartitions(partitions);
+    }
+
+    private void createUpcomingPartitions(List<EventPartition> partitions) {
+        LocalDateTime currentIntervalStart = partitionInterval.truncate(LocalDateTime.now());
+        LocalDateTime horizon = currentIntervalStart;
+        for (int i = 0; i <= precreateCount; i++) {
+            horizon = partitionInterval.next(horizon);
+        }
+
+        LocalDateTime from = partitions.stream()
+                                 .map(EventPartition::getTo)
+                                 .max(Comparator.naturalOrder())
+                                 .orElse(currentIntervalStart);
+
+        while (from.isBefore(horizon)) {
+            LocalDateTime to = partitionInterval.next(from);
+            try {
+                String partitionName = eventPartitionRepository.createPartition(from, to);
+                log.info("Event partition {} for period [{}, {}) has been created", partitionName, from, to);
+            } catch (DataAccessException e) {
+                // following partitions can't be created without a gap, the next run retries from this period
+                log.error("Event partition for period [{}, {}) couldn't be created: {}", from, to, e.getMessage());
+                return;
+            }
+            from = to;
+        }
+    }
+
+    private void removeExpiredPartitions(List<EventPartition> partitions) {
+        if (retentionDays <= 0) {
+            return;
+        }
+
+        LocalDateTime retentionThreshold = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        partitions.stream()
+            .filter(partition -> !partition.getTo().isAfter(retentionThreshold))
+            .map(EventPartition::getName)
+            .forEach(this::removePartition);
+    }
+
+    private void removePartition(String partitionName) {
+        if (retentionMode == EventPartitionRetentionMode.DETACH) {
+            eventPartitionRepository.detachPartition(partitionName);
+        } else {
+            eventPartitionRepository.dropPartition(partitionName);
+        }
+        log.info("Expired event partition {} has been removed, retention mode: {}", partitionName, retentionMode);
+    }
+}
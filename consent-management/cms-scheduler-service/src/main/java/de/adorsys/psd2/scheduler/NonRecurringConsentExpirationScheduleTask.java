@@ -18,11 +18,13 @@ package de.adorsys.psd2.scheduler;
 
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.EnumSet;
@@ -35,11 +37,21 @@ import static de.adorsys.psd2.xs2a.core.consent.ConsentStatus.*;
 @Component
 @RequiredArgsConstructor
 public class NonRecurringConsentExpirationScheduleTask {
+    private static final String LOCK_NAME = "NonRecurringConsentExpirationScheduleTask";
+
     private final ConsentJpaRepository consentJpaRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final PlatformTransactionManager transactionManager;
 
     @Scheduled(cron = "${used-non-recurring-consent-expiration.cron.expression}")
-    @Transactional
     public void expireUsedNonRecurringConsent() {
+        schedulerLockService.executeWithLock(LOCK_NAME, () -> {
+            // the transaction must be committed before the lock is released
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> expireUsedNonRecurringConsents());
+        });
+    }
+
+    private void expireUsedNonRecurringConsents() {
         log.info("Non-recurring consent expiration task has started!");
         List<ConsentEntity> consents = consentJpaRepository.findUsedNonRecurringConsents(EnumSet.of(RECEIVED, VALID),
                                                                                       LocalDate.now())
@@ -16,40 +16,38 @@
 
 package de.adorsys.psd2.scheduler;
 
-import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
 import de.adorsys.psd2.consent.service.AisConsentConfirmationExpirationService;
-import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.psd2.scheduler.batch.PartitionedBatchProcessor;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.util.EnumSet;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
 @Component
 public class NotConfirmedConsentExpirationScheduleTask {
+    private static final String LOCK_NAME = "NotConfirmedConsentExpirationScheduleTask";
+
     private final AisConsentConfirmationExpirationService aisConsentConfirmationExpirationService;
     private final ConsentJpaRepository consentJpaRepository;
+    private final PartitionedBatchProcessor partitionedBatchProcessor;
+    private final SchedulerLockService schedulerLockService;
 
     @Scheduled(cron = "${not-confirmed-consent-expiration.cron.expression}")
-    @Transactional
     public void obsoleteNotConfirmedConsentIfExpired() {
-        log.info("Not confirmed consent expiration schedule task is run!");
+        schedulerLockService.executeWithLock(LOCK_NAME, this::obsoleteNotConfirmedConsents);
+    }
 
-        List<ConsentEntity> expiredNotConfirmedConsents = consentJpaRepository.findByConsentStatusIn(EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED))
-                                                              .stream()
-                                                              .filter(aisConsentConfirmationExpirationService::isConfirmationExpired)
-                                                              .collect(Collectors.toList());
+    private void obsoleteNotConfirmedConsents() {
+        log.info("Not confirmed consent expiration schedule task is run!");
 
-        if (CollectionUtils.isNotEmpty(expiredNotConfirmedConsents)) {
-            aisConsentConfirmationExpirationService.updateConsentListOnConfirmationExpiration(expiredNotConfirmedConsents);
-        }
+        partitionedBatchProcessor.process("Not confirmed consent expiration schedule task",
+                                          consentJpaRepository.findMinId().orElse(null),
+                                          consentJpaRepository.findMaxId().orElse(null),
+                                          aisConsentConfirmationExpirationService::findConfirmationExpiredConsentIds,
+                                          aisConsentConfirmationExpirationService::updateConsentsOnConfirmationExpiration);
     }
 }
@@ -16,40 +16,38 @@
 
 package de.adorsys.psd2.scheduler;
 
-import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
 import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
 import de.adorsys.psd2.consent.service.PisCommonPaymentConfirmationExpirationService;
-import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
+import de.adorsys.psd2.scheduler.batch.PartitionedBatchProcessor;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.util.EnumSet;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @RequiredArgsConstructor
 @Component
 public class NotConfirmedPaymentExpirationScheduleTask {
+    private static final String LOCK_NAME = "NotConfirmedPaymentExpirationScheduleTask";
+
     private final PisCommonPaymentConfirmationExpirationService pisCommonPaymentConfirmationExpirationService;
     private final PisCommonPaymentDataRepository paymentDataRepository;
+    private final PartitionedBatchProcessor partitionedBatchProcessor;
+    private final SchedulerLockService schedulerLockService;
 
     @Scheduled(cron = "${not-confirmed-payment-expiration.cron.expression}")
-    @Transactional
     public void obsoleteNotConfirmedPaymentIfExpired() {
-        log.info("Not confirmed payment expiration schedule task is run!");
+        schedulerLockService.executeWithLock(LOCK_NAME, this::obsoleteNotConfirmedPayments);
+    }
 
-        List<PisCommonPaymentData> expiredNotConfirmedPaymentDatas = paymentDataRepository.findByTransactionStatusIn(EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC))
-                                                                         .stream()
-                                                                         .filter(pisCommonPaymentConfirmationExpirationService::isConfirmationExpired)
-                                                                         .collect(Collectors.toList());
+    private void obsoleteNotConfirmedPayments() {
+        log.info("Not confirmed payment expiration schedule task is run!");
 
-        if (CollectionUtils.isNotEmpty(expiredNotConfirmedPaymentDatas)) {
-            pisCommonPaymentConfirmationExpirationService.updatePaymentDataListOnConfirmationExpiration(expiredNotConfirmedPaymentDatas);
-        }
+        partitionedBatchProcessor.process("Not confirmed payment expiration schedule task",
+                                          paymentDataRepository.findMinId().orElse(null),
+                                          paymentDataRepository.findMaxId().orElse(null),
+                                          pisCommonPaymentConfirmationExpirationService::findConfirmationExpiredPaymentIds,
+                                          pisCommonPaymentConfirmationExpirationService::updatePaymentsOnConfirmationExpiration);
     }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler;
+
+import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.service.migration.ObsoleteConsentMigrationService;
+import de.adorsys.psd2.scheduler.batch.BatchProcessingResult;
+import de.adorsys.psd2.scheduler.batch.PartitionedBatchProcessor;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migrates obsolete AIS and PIIS consents in the background, so that they don't have to be migrated lazily on read.
+ * <p>
+ * Consents without data are read in keyset batches, each batch is migrated in its own transaction. Migrated consents
+ * are no longer selected, so an interrupted run is resumed by the next one. After a run, that left no migratable
+ * consents without data, the task reports completion and is not executed again on this node, lazy migration can then
+ * be disabled with {@code consent-migration.lazy.enabled=false}. Consents without data, that have no obsolete consent,
+ * can't be migrated and don't prevent the completion, their amount is logged.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class ObsoleteConsentMigrationScheduleTask {
+    private static final String LOCK_NAME = "ObsoleteConsentMigrationScheduleTask";
+
+    private final ObsoleteConsentMigrationService obsoleteConsentMigrationService;
+    private final ConsentJpaRepository consentJpaRepository;
+    private final PartitionedBatchProcessor partitionedBatchProcessor;
+    private final SchedulerLockService schedulerLockService;
+
+    @Value("${consent-migration.enabled:false}")
+    private boolean migrationEnabled;
+
+    @Value("${consent-migration.batch-pause-ms:0}")
+    private long batchPauseMs;
+
+    private volatile boolean migrationCompleted;
+
+    @Scheduled(cron = "${consent-migration.cron.expression:0 0 3 * * *}")
+    public void migrateObsoleteConsents() {
+        if (!migrationEnabled || migrationCompleted) {
+            return;
+        }
+
+        schedulerLockService.executeWithLock(LOCK_NAME, this::migrate);
+    }
+
+    private void migrate() {
+        log.info("Obsolete consent migration schedule task is run!");
+
+        BatchProcessingResult result = partitionedBatchProcessor.process("Obsolete consent migration schedule task",
+                                                                         consentJpaRepository.findMinId().orElse(null),
+                                                                         consentJpaRepository.findMaxId().orElse(null),
+                                                                         obsoleteConsentMigrationService::findNotMigratedConsentIds,
+                                                                         obsoleteConsentMigrationService::migrateConsents,
+                                                                         batchPauseMs);
+        long notMigrated = obsoleteConsentMigrationService.countNotMigratedConsents();
+        if (notMigrated > 0) {
+            log.warn("Obsolete consent migration schedule task: {} consents migrated in {} ms, {} consents without data are still not migrated, the task will be run again",
+                     result.getUpdated(), result.getDurationMs(), notMigrated);
+            return;
+        }
+        log.info("Obsolete consent migration is completed: {} consents migrated in {} ms, lazy migration can be disabled with consent-migration.lazy.enabled=false",
+                 result.getUpdated(), result.getDurationMs());
+        long notMigratable = obsoleteConsentMigrationService.countNotMigratableConsents();
+        if (notMigratable > 0) {
+            log.warn("Obsolete consent migration schedule task: {} consents without data have no obsolete consent and can't be migrated",
+                     notMigratable);
+        }
+        migrationCompleted = true;
+    }
+}
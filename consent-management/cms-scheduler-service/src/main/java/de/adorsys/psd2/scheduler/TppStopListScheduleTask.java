@@ -19,11 +19,13 @@ package de.adorsys.psd2.scheduler;
 import de.adorsys.psd2.consent.domain.TppStopListEntity;
 import de.adorsys.psd2.consent.repository.TppStopListRepository;
 import de.adorsys.psd2.xs2a.core.tpp.TppStatus;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -33,11 +35,21 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Component
 public class TppStopListScheduleTask {
+    private static final String LOCK_NAME = "TppStopListScheduleTask";
+
     private final TppStopListRepository tppStopListRepository;
+    private final SchedulerLockService schedulerLockService;
+    private final PlatformTransactionManager transactionManager;
 
     @Scheduled(cron = "${stoplist.cron.expression}")
-    @Transactional
     public void unblockTppIfBlockingExpired() {
+        schedulerLockService.executeWithLock(LOCK_NAME, () -> {
+            // the transaction must be committed before the lock is released
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> unblockExpiredTpps());
+        });
+    }
+
+    private void unblockExpiredTpps() {
         log.info("Tpp Stop List schedule task is run!");
 
         List<TppStopListEntity> blockedWithExpirationTpps = tppStopListRepository.findAllByStatusAndBlockingExpirationTimestampLessThanEqual(TppStatus.BLOCKED, OffsetDateTime.now());
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.batch;
+
+import lombok.Value;
+
+/**
+ * Progress of one run of {@link KeysetBatchProcessor} or {@link PartitionedBatchProcessor}.
+ */
+@Value
+public class BatchProcessingResult {
+    private int batches;
+    private long candidates;
+    private long updated;
+    private long durationMs;
+
+    public static BatchProcessingResult empty() {
+        return new BatchProcessingResult(0, 0, 0, 0);
+    }
+
+    /**
+     * Sums up progress of ranges processed concurrently. Duration is the longest one of both.
+     */
+    public BatchProcessingResult merge(BatchProcessingResult other) {
+        return new BatchProcessingResult(batches + other.batches,
+                                         candidates + other.candidates,
+                                         updated + other.updated,
+                                         Math.max(durationMs, other.durationMs));
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.batch;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Range of ids, exclusive at the lower bound and inclusive at the upper bound.
+ */
+@Value
+public class IdRange {
+    private long fromIdExclusive;
+    private long toIdInclusive;
+
+    /**
+     * Splits ids from minId to maxId (both inclusive) into the given amount of ranges of nearly equal size.
+     * Less ranges are returned if there are less ids than requested ranges.
+     *
+     * @param minId smallest id
+     * @param maxId largest id
+     * @param count amount of ranges
+     * @return consecutive ranges covering all ids from minId to maxId
+     */
+    public static List<IdRange> split(long minId, long maxId, int count) {
+        long size = maxId - minId + 1;
+        long rangeCount = Math.max(1, Math.min(count, size));
+        List<IdRange> ranges = new ArrayList<>();
+        long fromIdExclusive = minId - 1;
+        for (long i = 1; i <= rangeCount; i++) {
+            long toIdInclusive = i == rangeCount
+                                     ? maxId
+                                     : minId - 1 + size * i / rangeCount;
+            ranges.add(new IdRange(fromIdExclusive, toIdInclusive));
+            fromIdExclusive = toIdInclusive;
+        }
+        return ranges;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+/**
+ * Processes rows of a table in batches of ids, each batch is updated in its own transaction.
+ * <p>
+ * Ids are loaded with keyset pagination: every query returns the next ids greater than the last id of the previous
+ * batch in ascending order, so neither the amount of candidates nor rows skipped by the update slow down
+ * later batches. The memory used by a run is bounded by the batch size. An interrupted run, e.g. after its scheduler
+ * lock has been lost, stops before the next batch.
+ *
+ * @see PartitionedBatchProcessor
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KeysetBatchProcessor {
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${scheduler.batch.size:1000}")
+    private int batchSize;
+
+    /**
+     * Runs the batches within the range until no more ids are found.
+     *
+     * @param taskName  name of the task, used for logging
+     * @param range     range of ids to be processed
+     * @param idLoader  returns the next batch of ids within the range
+     * @param processor processes the batch of ids and returns the amount of updated rows
+     * @return progress of the run
+     */
+    public BatchProcessingResult process(String taskName,
+                                         IdRange range,
+                                         RangeIdLoader idLoader,
+                                         ToIntFunction<List<Long>> processor) {
+        return process(taskName, range, idLoader, processor, 0);
+    }
+
+    /**
+     * Runs the batches within the range until no more ids are found, pausing between the batches.
+     * The pause is made outside of transactions, so no database connection or lock is held meanwhile.
+     *
+     * @param taskName     name of the task, used for logging
+     * @param range        range of ids to be processed
+     * @param idLoader     returns the next batch of ids within the range
+     * @param processor    processes the batch of ids and returns the amount of updated rows
+     * @param batchPauseMs pause after every batch in milliseconds, 0 for no pause
+     * @return progress of the run
+     */
+    public BatchProcessingResult process(String taskName,
+                                         IdRange range,
+                                         RangeIdLoader idLoader,
+                                         ToIntFunction<List<Long>> processor,
+                                         long batchPauseMs) {
+        TransactionTemplate readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long startTime = System.currentTimeMillis();
+        int batches = 0;
+        long candidates = 0;
+        long updated = 0;
+        long lastId = range.getFromIdExclusive();
+
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                log.warn("{} has been interrupted, remaining batches are skipped", taskName);
+                break;
+            }
+
+            long fromId = lastId;
+            List<Long> ids = Optional.ofNullable(readOnlyTransactionTemplate.execute(status -> idLoader.load(fromId, range.getToIdInclusive(), batchSize)))
+                                 .orElseGet(Collections::emptyList);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            Integer batchUpdated = transactionTemplate.execute(status -> processor.applyAsInt(ids));
+            batches++;
+            candidates += ids.size();
+            updated += Optional.ofNullable(batchUpdated).orElse(0);
+            lastId = ids.get(ids.size() - 1);
+            log.debug("{}: batch {} processed, {} rows updated so far", taskName, batches, updated);
+
+            if (ids.size() < batchSize || !pause(taskName, batchPauseMs)) {
+                break;
+            }
+        }
+
+        BatchProcessingResult result = new BatchProcessingResult(batches, candidates, updated, System.currentTimeMillis() - startTime);
+        log.debug("{}: range {} has finished: {} batches, {} candidates, {} rows updated in {} ms",
+                  taskName, range, result.getBatches(), result.getCandidates(), result.getUpdated(), result.getDurationMs());
+        return result;
+    }
+
+    private boolean pause(String taskName, long batchPauseMs) {
+        if (batchPauseMs <= 0) {
+            return true;
+        }
+
+        try {
+            Thread.sleep(batchPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("{} has been interrupted, remaining batches are skipped", taskName);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
+
+/**
+ * Splits the id keyspace of a table into ranges and processes the ranges concurrently with {@link KeysetBatchProcessor}.
+ * <p>
+ * The keyspace is split into more ranges than there are threads, so that threads that finished sparse ranges
+ * pick up the remaining ones. Every batch is still updated in its own transaction, so each thread holds at most one
+ * database connection at a time. With parallelism of 1 the whole keyspace is processed by the calling thread.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PartitionedBatchProcessor {
+    private static final int RANGES_PER_THREAD = 4;
+
+    private final KeysetBatchProcessor keysetBatchProcessor;
+
+    @Value("${scheduler.batch.parallelism:1}")
+    private int parallelism;
+
+    /**
+     * Processes all ids from minId to maxId.
+     *
+     * @param taskName  name of the task, used for logging and naming the threads
+     * @param minId     smallest id of the table, <code>null</code> if the table is empty
+     * @param maxId     largest id of the table, <code>null</code> if the table is empty
+     * @param idLoader  returns the next batch of ids within the range
+     * @param processor processes the batch of ids and returns the amount of updated rows
+     * @return aggregated progress of all ranges
+     */
+    public BatchProcessingResult process(String taskName,
+                                         @Nullable Long minId,
+                                         @Nullable Long maxId,
+                                         RangeIdLoader idLoader,
+                                         ToIntFunction<List<Long>> processor) {
+        return process(taskName, minId, maxId, idLoader, processor, 0);
+    }
+
+    /**
+     * Processes all ids from minId to maxId, every thread pauses after each of its batches.
+     *
+     * @param taskName     name of the task, used for logging and naming the threads
+     * @param minId        smallest id of the table, <code>null</code> if the table is empty
+     * @param maxId        largest id of the table, <code>null</code> if the table is empty
+     * @param idLoader     returns the next batch of ids within the range
+     * @param processor    processes the batch of ids and returns the amount of updated rows
+     * @param batchPauseMs pause after every batch in milliseconds, 0 for no pause
+     * @return aggregated progress of all ranges
+     */
+    public BatchProcessingResult process(String taskName,
+                                         @Nullable Long minId,
+                                         @Nullable Long maxId,
+                                         RangeIdLoader idLoader,
+                                         ToIntFunction<List<Long>> processor,
+                                         long batchPauseMs) {
+        long startTime = System.currentTimeMillis();
+        BatchProcessingResult result = BatchProcessingResult.empty();
+
+        if (minId != null && maxId != null) {
+            int threads = Math.max(1, parallelism);
+            List<IdRange> ranges = IdRange.split(minId, maxId, threads == 1 ? 1 : threads * RANGES_PER_THREAD);
+            result = threads == 1
+                         ? keysetBatchProcessor.process(taskName, ranges.get(0), idLoader, processor, batchPauseMs)
+                         : processConcurrently(taskName, ranges, threads, idLoader, processor, batchPauseMs);
+        }
+
+        result = new BatchProcessingResult(result.getBatches(), result.getCandidates(), result.getUpdated(), System.currentTimeMillis() - startTime);
+        log.info("{} has finished: {} batches, {} candidates, {} rows updated in {} ms",
+                 taskName, result.getBatches(), result.getCandidates(), result.getUpdated(), result.getDurationMs());
+        return result;
+    }
+
+    private BatchProcessingResult processConcurrently(String taskName, List<IdRange> ranges, int threads,
+                                                      RangeIdLoader idLoader, ToIntFunction<List<Long>> processor,
+                                                      long batchPauseMs) {
+        ExecutorService executorService = Executors.newFixedThreadPool(Math.min(threads, ranges.size()),
+                                                                       new CustomizableThreadFactory(taskName.replace(' ', '-') + "-"));
+        try {
+            List<Future<BatchProcessingResult>> futures = new ArrayList<>();
+            for (IdRange range : ranges) {
+                futures.add(executorService.submit(() -> keysetBatchProcessor.process(taskName, range, idLoader, processor, batchPauseMs)));
+            }
+
+            BatchProcessingResult result = BatchProcessingResult.empty();
+            RuntimeException failure = null;
+            for (Future<BatchProcessingResult> future : futures) {
+                try {
+                    result = result.merge(future.get());
+                } catch (ExecutionException e) {
+                    log.error("{}: processing of id range has failed: {}", taskName, e.getCause().getMessage());
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException
+                                      ? (RuntimeException) e.getCause()
+                                      : new IllegalStateException(e.getCause());
+                    }
+                }
+            }
+
+            if (failure != null) {
+                log.warn("{} has failed after {} batches, {} rows updated", taskName, result.getBatches(), result.getUpdated());
+                throw failure;
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(taskName + " has been interrupted", e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.batch;
+
+import java.util.List;
+
+/**
+ * Loads the next batch of ids to be processed within a range of ids.
+ */
+@FunctionalInterface
+public interface RangeIdLoader {
+    /**
+     * @param lastId id of the last row of the previous batch, only greater ids are returned
+     * @param maxId  only ids not greater than this one are returned
+     * @param limit  maximum amount of ids
+     * @return ids ordered ascending
+     */
+    List<Long> load(long lastId, long maxId, int limit);
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.expiry;
+
+import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
+import de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate;
+import de.adorsys.psd2.consent.service.AisConsentConfirmationExpirationService;
+import de.adorsys.psd2.consent.service.ConfirmationExpirationCandidateEvent;
+import de.adorsys.psd2.consent.service.ConfirmationExpirationObjectType;
+import de.adorsys.psd2.consent.service.PisCommonPaymentConfirmationExpirationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import static de.adorsys.psd2.consent.service.ConfirmationExpirationObjectType.CONSENT;
+import static de.adorsys.psd2.consent.service.ConfirmationExpirationObjectType.PAYMENT;
+
+/**
+ * Expires not confirmed consents and payments close to their confirmation deadline.
+ * <p>
+ * On startup all not confirmed consents and payments are loaded from the database in keyset batches into a
+ * {@link HierarchicalTimingWheel}, newly created ones are added after their transaction has been committed.
+ * Due items are rejected with the same bulk updates as used by the schedule tasks, which skip items that have been
+ * confirmed in the meantime. The wheel is kept in memory of every instance, so the not confirmed expiration schedule
+ * tasks remain enabled as a safety sweep for items created on other instances, items over the capacity limit and
+ * failed updates.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConfirmationExpiryEngine {
+    private final AisConsentConfirmationExpirationService aisConsentConfirmationExpirationService;
+    private final PisCommonPaymentConfirmationExpirationService pisCommonPaymentConfirmationExpirationService;
+    private final AspspProfileService aspspProfileService;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    Clock clock = Clock.systemDefaultZone();
+
+    @Value("${expiry-engine.enabled:false}")
+    private boolean enabled;
+    @Value("${expiry-engine.tick-ms:1000}")
+    private long tickMs;
+    @Value("${expiry-engine.wheel-size:64}")
+    private int wheelSize;
+    @Value("${expiry-engine.max-items:1000000}")
+    private int maxItems;
+    @Value("${scheduler.batch.size:1000}")
+    private int batchSize;
+
+    private volatile HierarchicalTimingWheel<ConfirmationExpiryItem> timingWheel;
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void loadNotConfirmedItems() {
+        if (!enabled || !started.compareAndSet(false, true)) {
+            return;
+        }
+
+        long startTime = clock.millis();
+        timingWheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, startTime);
+        int consents = load(CONSENT, aisConsentConfirmationExpirationService::findNotConfirmedConsents);
+        int payments = load(PAYMENT, pisCommonPaymentConfirmationExpirationService::findNotConfirmedPayments);
+        log.info("Confirmation expiry engine has loaded {} consents and {} payments in {} ms",
+                 consents, payments, clock.millis() - startTime);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConfirmationExpirationCandidate(ConfirmationExpirationCandidateEvent event) {
+        add(event.getObjectType(), event.getId(), event.getCreationTimestamp());
+    }
+
+    @Scheduled(fixedDelayString = "${expiry-engine.tick-ms:1000}")
+    public void expireDueItems() {
+        HierarchicalTimingWheel<ConfirmationExpiryItem> wheel = timingWheel;
+        if (wheel == null) {
+            return;
+        }
+
+        List<ConfirmationExpiryItem> dueItems = wheel.advance(clock.millis());
+        if (dueItems.isEmpty()) {
+            return;
+        }
+
+        int consents = expire(CONSENT, dueItems, aisConsentConfirmationExpirationService::updateConsentsOnConfirmationExpiration);
+        int payments = expire(PAYMENT, dueItems, pisCommonPaymentConfirmationExpirationService::updatePaymentsOnConfirmationExpiration);
+        log.debug("Confirmation expiry engine has processed {} due items: {} consents and {} payments rejected",
+                  dueItems.size(), consents, payments);
+    }
+
+    private int load(ConfirmationExpirationObjectType objectType, BiFunction<Long, Integer, List<ConfirmationExpirationCandidate>> loader) {
+        long lastId = Long.MIN_VALUE;
+        int loaded = 0;
+        List<ConfirmationExpirationCandidate> candidates;
+        do {
+            candidates = loader.apply(lastId, batchSize);
+            for (ConfirmationExpirationCandidate candidate : candidates) {
+                add(objectType, candidate.getId(), candidate.getCreationTimestamp());
+                lastId = candidate.getId();
+            }
+            loaded += candidates.size();
+        } while (candidates.size() == batchSize);
+        return loaded;
+    }
+
+    private void add(ConfirmationExpirationObjectType objectType, Long id, OffsetDateTime creationTimestamp) {
+        HierarchicalTimingWheel<ConfirmationExpiryItem> wheel = timingWheel;
+        if (wheel == null || id == null || creationTimestamp == null) {
+            return;
+        }
+
+        if (wheel.size() >= maxItems) {
+            log.debug("Confirmation expiry engine is full, {} with ID [{}] is left to the schedule task", objectType, id);
+            return;
+        }
+
+        wheel.add(new ConfirmationExpiryItem(objectType, id), creationTimestamp.toInstant().toEpochMilli() + getExpirationPeriodMs(objectType));
+    }
+
+    private long getExpirationPeriodMs(ConfirmationExpirationObjectType objectType) {
+        return objectType == CONSENT
+                   ? aspspProfileService.getAspspSettings().getAis().getConsentTypes().getNotConfirmedConsentExpirationTimeMs()
+                   : aspspProfileService.getAspspSettings().getPis().getNotConfirmedPaymentExpirationTimeMs();
+    }
+
+    private int expire(ConfirmationExpirationObjectType objectType, List<ConfirmationExpiryItem> dueItems, ToIntFunction<List<Long>> updater) {
+        List<Long> ids = dueItems.stream()
+                             .filter(item -> item.getObjectType() == objectType)
+                             .map(ConfirmationExpiryItem::getId)
+                             .collect(Collectors.toList());
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            try {
+                updated += updater.applyAsInt(batch);
+            } catch (RuntimeException e) {
+                log.warn("Confirmation expiry engine couldn't expire {} {} items, they are left to the schedule task: {}",
+                         batch.size(), objectType, e.getMessage());
+            }
+        }
+        return updated;
+    }
+}
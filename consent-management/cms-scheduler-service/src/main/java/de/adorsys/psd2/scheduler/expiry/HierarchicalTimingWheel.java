@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.expiry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Hierarchical timing wheel for items with a deadline.
+ * <p>
+ * The lowest wheel has buckets of <code>tickMs</code> each and covers <code>tickMs * wheelSize</code>. Items with
+ * later deadlines are put into overflow wheels, whose buckets are as wide as the whole lower wheel. Overflow wheels are
+ * created on demand, so adding an item costs O(1) regardless of how far away its deadline is. Only non-empty buckets are
+ * queued by their expiration, so advancing the clock never walks over empty ticks. When a bucket of an overflow wheel
+ * expires, its items are moved down to the finer wheels until they become due.
+ * <p>
+ * Deadlines are rounded down to <code>tickMs</code>, so items are returned at most one tick early.
+ *
+ * @param <T> type of the items
+ */
+public class HierarchicalTimingWheel<T> {
+    private final PriorityQueue<Bucket<T>> queue = new PriorityQueue<>((first, second) -> Long.compare(first.expiration, second.expiration));
+    private final List<T> dueItems = new ArrayList<>();
+    private final Wheel<T> wheel;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        wheel = new Wheel<>(tickMs, wheelSize, startMs, queue);
+    }
+
+    /**
+     * Adds the item to the wheel. Items with deadlines in the past are returned by the next call of {@link #advance(long)}.
+     *
+     * @param item       item to be added
+     * @param deadlineMs deadline of the item in epoch milliseconds
+     */
+    public synchronized void add(T item, long deadlineMs) {
+        Entry<T> entry = new Entry<>(item, deadlineMs);
+        if (!wheel.add(entry)) {
+            dueItems.add(item);
+        }
+        size++;
+    }
+
+    /**
+     * Moves the clock of the wheel forward and removes all items whose deadlines have been reached.
+     *
+     * @param nowMs current time in epoch milliseconds
+     * @return items that are due, in no particular order
+     */
+    public synchronized List<T> advance(long nowMs) {
+        List<T> result = new ArrayList<>(dueItems);
+        dueItems.clear();
+
+        Bucket<T> bucket = queue.peek();
+        while (bucket != null && bucket.expiration <= nowMs) {
+            queue.poll();
+            wheel.advanceClock(bucket.expiration);
+            for (Entry<T> entry : bucket.flush()) {
+                if (!wheel.add(entry)) {
+                    result.add(entry.item);
+                }
+            }
+            bucket = queue.peek();
+        }
+
+        size -= result.size();
+        return result.isEmpty() ? Collections.emptyList() : result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private static class Wheel<T> {
+        private final long tickMs;
+        private final int wheelSize;
+        private final long interval;
+        private final List<Bucket<T>> buckets;
+        private final PriorityQueue<Bucket<T>> queue;
+        private long currentTime;
+        private Wheel<T> overflowWheel;
+
+        private Wheel(long tickMs, int wheelSize, long startMs, PriorityQueue<Bucket<T>> queue) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.queue = queue;
+            this.currentTime = startMs - startMs % tickMs;
+            this.buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new Bucket<>());
+            }
+        }
+
+        /**
+         * @return <code>false</code> if the entry is already due and was not added
+         */
+        private boolean add(Entry<T> entry) {
+            long deadline = entry.deadlineMs;
+            if (deadline < currentTime + tickMs) {
+                return false;
+            }
+
+            if (deadline < currentTime + interval) {
+                long virtualId = deadline / tickMs;
+                Bucket<T> bucket = buckets.get((int) (virtualId % wheelSize));
+                bucket.entries.add(entry);
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    queue.offer(bucket);
+                }
+                return true;
+            }
+
+            if (overflowWheel == null) {
+                overflowWheel = new Wheel<>(interval, wheelSize, currentTime, queue);
+            }
+            return overflowWheel.add(entry);
+        }
+
+        private void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - timeMs % tickMs;
+                if (overflowWheel != null) {
+                    overflowWheel.advanceClock(currentTime);
+                }
+            }
+        }
+    }
+
+    private static class Bucket<T> {
+        private List<Entry<T>> entries = new ArrayList<>();
+        private long expiration = -1;
+
+        private boolean setExpiration(long expiration) {
+            boolean changed = this.expiration != expiration;
+            this.expiration = expiration;
+            return changed;
+        }
+
+        private List<Entry<T>> flush() {
+            List<Entry<T>> flushed = entries;
+            entries = new ArrayList<>();
+            expiration = -1;
+            return flushed;
+        }
+    }
+
+    private static class Entry<T> {
+        private final T item;
+        private final long deadlineMs;
+
+        private Entry(T item, long deadlineMs) {
+            this.item = item;
+            this.deadlineMs = deadlineMs;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.lock;
+
+import de.adorsys.psd2.consent.repository.SchedulerLockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes sure that a scheduled task is executed by only one CMS node at a time.
+ * <p>
+ * Before running the task the node acquires a lease row in the scheduler_lock table. Nodes that can't acquire the lease
+ * skip the run. The lease is shortened after the task is finished, but is kept for at least the minimal lease duration,
+ * so that nodes with slightly shifted clocks don't repeat the run for the same cron tick. If a node dies while
+ * holding the lease, another node takes it over after the lease duration.
+ * <p>
+ * While the task is running, the lease is renewed by a heartbeat every third of the lease duration, so that long runs
+ * aren't taken over by another node. If the lease couldn't be renewed, because it has expired or has been taken over
+ * in the meantime, the task thread is interrupted and the run is reported as failed.
+ */
+@Slf4j
+@Component
+public class SchedulerLockService {
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String owner;
+    private final ScheduledExecutorService heartbeatExecutor;
+    private Clock clock = Clock.systemDefaultZone();
+
+    @Value("${scheduler.lock.enabled:true}")
+    private boolean lockEnabled;
+
+    @Value("${scheduler.lock.lease-duration-ms:600000}")
+    private long leaseDurationMs;
+
+    @Value("${scheduler.lock.min-lease-duration-ms:30000}")
+    private long minLeaseDurationMs;
+
+    public SchedulerLockService(SchedulerLockRepository schedulerLockRepository, PlatformTransactionManager transactionManager) {
+        this.schedulerLockRepository = schedulerLockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // lease operations must be committed immediately, even if the task itself is transactional
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.owner = buildOwner();
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scheduler-lock-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeatExecutor.shutdownNow();
+    }
+
+    /**
+     * Executes the task, if the lock could be acquired by this node
+     *
+     * @param lockName name of the lock, unique per scheduled task
+     * @param task     task to be executed
+     * @return <code>true</code> if the task has been executed, <code>false</code> if the lock is held by another node
+     * or has been lost while the task was running
+     */
+    public boolean executeWithLock(String lockName, Runnable task) {
+        if (!lockEnabled) {
+            task.run();
+            return true;
+        }
+
+        OffsetDateTime lockedAt = OffsetDateTime.now(clock);
+        if (!acquireLock(lockName, lockedAt)) {
+            log.info("Scheduled task [{}] is skipped, as it is locked by another node", lockName);
+            return false;
+        }
+
+        Lease lease = new Lease(lockName, Thread.currentThread());
+        long heartbeatIntervalMs = Math.max(1, leaseDurationMs / 3);
+        ScheduledFuture<?> heartbeat = heartbeatExecutor.scheduleAtFixedRate(() -> renewLease(lease), heartbeatIntervalMs,
+                                                                             heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        try {
+            task.run();
+        } finally {
+            heartbeat.cancel(false);
+            synchronized (lease) {
+                lease.finished = true;
+            }
+            if (!lease.lost) {
+                releaseLock(lockName, lockedAt);
+            }
+        }
+
+        if (lease.lost) {
+            // the interruption is meant only for the task
+            Thread.interrupted();
+            log.error("Scheduled task [{}] has been aborted, as its lock has been lost", lockName);
+            return false;
+        }
+        return true;
+    }
+
+    private void renewLease(Lease lease) {
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        OffsetDateTime lockedUntil = now.plus(leaseDurationMs, ChronoUnit.MILLIS);
+        Integer renewed;
+        try {
+            renewed = transactionTemplate.execute(status -> schedulerLockRepository.extendLock(lease.lockName, owner, now, lockedUntil));
+        } catch (DataAccessException e) {
+            // the lease is still valid for the rest of its duration, renewal is retried with the next heartbeat
+            log.warn("Lock of scheduled task [{}] couldn't be renewed: {}", lease.lockName, e.getMessage());
+            return;
+        }
+
+        if (renewed == null || renewed == 0) {
+            synchronized (lease) {
+                if (!lease.finished) {
+                    lease.lost = true;
+                    lease.taskThread.interrupt();
+                }
+            }
+            log.error("Lock of scheduled task [{}] has expired or has been taken over by another node", lease.lockName);
+            throw new IllegalStateException("Lock " + lease.lockName + " has been lost");
+        }
+    }
+
+    private boolean acquireLock(String lockName, OffsetDateTime now) {
+        OffsetDateTime lockedUntil = now.plus(leaseDurationMs, ChronoUnit.MILLIS);
+        Integer updated = transactionTemplate.execute(status -> schedulerLockRepository.updateExpiredLock(lockName, owner, now, lockedUntil));
+        if (updated != null && updated > 0) {
+            return true;
+        }
+
+        try {
+            Integer inserted = transactionTemplate.execute(status -> schedulerLockRepository.insertLock(lockName, owner, now, lockedUntil));
+            return inserted != null && inserted > 0;
+        } catch (DataIntegrityViolationException e) {
+            // lease row has been created by another node in the meantime
+            return false;
+        }
+    }
+
+    private void releaseLock(String lockName, OffsetDateTime lockedAt) {
+        OffsetDateTime minLockedUntil = lockedAt.plus(minLeaseDurationMs, ChronoUnit.MILLIS);
+        OffsetDateTime now = OffsetDateTime.now(clock);
+        OffsetDateTime lockedUntil = now.isAfter(minLockedUntil) ? now : minLockedUntil;
+        try {
+            transactionTemplate.execute(status -> schedulerLockRepository.releaseLock(lockName, owner, lockedUntil));
+        } catch (DataAccessException e) {
+            log.warn("Lock of scheduled task [{}] couldn't be released and will expire after lease duration: {}", lockName, e.getMessage());
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Lease {
+        private final String lockName;
+        private final Thread taskThread;
+        private volatile boolean lost;
+        private boolean finished;
+    }
+
+    private String buildOwner() {
+        String hostName;
+        try {
+            hostName = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            hostName = "unknown";
+        }
+        return hostName + "-" + UUID.randomUUID();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.partition;
+
+import lombok.Value;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Value
+public class EventPartition {
+    private static final Pattern RANGE_BOUND_PATTERN = Pattern.compile("FOR VALUES FROM \\((.+?)\\) TO \\((.+?)\\)");
+    private static final String MIN_VALUE = "MINVALUE";
+    private static final DateTimeFormatter BOUND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private String name;
+    @Nullable
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    /**
+     * Creates partition from the bound expression returned by PostgreSQL, e.g.
+     * <code>FOR VALUES FROM ('2020-04-01 00:00:00') TO ('2020-04-02 00:00:00')</code>
+     *
+     * @param name  partition table name
+     * @param bound partition bound expression
+     * @return partition or empty value for the default partition
+     */
+    public static Optional<EventPartition> fromBound(String name, String bound) {
+        Matcher matcher = RANGE_BOUND_PATTERN.matcher(bound);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new EventPartition(name, parseBoundValue(matcher.group(1)), parseBoundValue(matcher.group(2))));
+    }
+
+    private static LocalDateTime parseBoundValue(String value) {
+        if (MIN_VALUE.equalsIgnoreCase(value)) {
+            return null;
+        }
+        String timestamp = value.replace("'", "");
+        return LocalDateTime.parse(timestamp.substring(0, Math.min(timestamp.length(), 19)), BOUND_FORMATTER);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.partition;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum EventPartitionInterval {
+    DAY {
+        @Override
+        public LocalDateTime truncate(LocalDateTime dateTime) {
+            return dateTime.truncatedTo(ChronoUnit.DAYS);
+        }
+
+        @Override
+        public LocalDateTime next(LocalDateTime dateTime) {
+            return truncate(dateTime).plusDays(1);
+        }
+    },
+    MONTH {
+        @Override
+        public LocalDateTime truncate(LocalDateTime dateTime) {
+            return dateTime.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        }
+
+        @Override
+        public LocalDateTime next(LocalDateTime dateTime) {
+            return truncate(dateTime).plusMonths(1);
+        }
+    };
+
+    /**
+     * Returns the beginning of the interval the given date time belongs to
+     *
+     * @param dateTime date time
+     * @return beginning of the interval
+     */
+    public abstract LocalDateTime truncate(LocalDateTime dateTime);
+
+    /**
+     * Returns the beginning of the interval following the one the given date time belongs to
+     *
+     * @param dateTime date time
+     * @return beginning of the next interval
+     */
+    public abstract LocalDateTime next(LocalDateTime dateTime);
+}
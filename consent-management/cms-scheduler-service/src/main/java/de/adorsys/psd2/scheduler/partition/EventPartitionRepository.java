@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.partition;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains range partitions of the PostgreSQL event table
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class EventPartitionRepository {
+    private static final String EVENT_TABLE = "event";
+    private static final String PARTITION_NAME_PREFIX = "event_p";
+    private static final DateTimeFormatter PARTITION_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter BOUND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String COUNT_PARTITIONED_TABLES_SQL = "SELECT COUNT(*) " +
+                                                                   "FROM pg_partitioned_table pt " +
+                                                                   "JOIN pg_class c ON c.oid = pt.partrelid " +
+                                                                   "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                                                                   "WHERE c.relname = ? AND n.nspname = ?";
+    private static final String FIND_PARTITIONS_SQL = "SELECT c.relname AS partition_name, pg_get_expr(c.relpartbound, c.oid) AS partition_bound " +
+                                                          "FROM pg_inherits i " +
+                                                          "JOIN pg_class c ON c.oid = i.inhrelid " +
+                                                          "JOIN pg_class p ON p.oid = i.inhparent " +
+                                                          "JOIN pg_namespace n ON n.oid = p.relnamespace " +
+                                                          "WHERE p.relname = ? AND n.nspname = ?";
+    private static final String FIND_DEFAULT_PARTITION_SQL = "SELECT c.relname " +
+                                                                 "FROM pg_inherits i " +
+                                                                 "JOIN pg_class c ON c.oid = i.inhrelid " +
+                                                                 "JOIN pg_class p ON p.oid = i.inhparent " +
+                                                                 "JOIN pg_namespace n ON n.oid = p.relnamespace " +
+                                                                 "WHERE p.relname = ? AND n.nspname = ? AND pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT'";
+    private static final String FIND_PAYLOAD_TYPE_SQL = "SELECT data_type FROM information_schema.columns " +
+                                                            "WHERE table_name = ? AND table_schema = ? AND column_name = 'payload'";
+    private static final String LARGE_OBJECT_TYPE = "oid";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.default_schema}")
+    private String schemaName;
+
+    public boolean isEventTablePartitioned() {
+        Integer count = jdbcTemplate.queryForObject(COUNT_PARTITIONED_TABLES_SQL, Integer.class, EVENT_TABLE, getSchemaName());
+        return count != null && count > 0;
+    }
+
+    public List<EventPartition> findPartitions() {
+        return jdbcTemplate.query(FIND_PARTITIONS_SQL,
+                                  (rs, rowNum) -> EventPartition.fromBound(rs.getString("partition_name"), rs.getString("partition_bound")),
+                                  EVENT_TABLE, getSchemaName())
+                   .stream()
+                   .filter(Optional::isPresent)
+                   .map(Optional::get)
+                   .collect(Collectors.toList());
+    }
+
+    /**
+     * Creates partition for the given range of timestamps. PostgreSQL doesn't allow to create a partition, if the default
+     * partition already contains rows of its range, so such rows are moved from the detached default partition into
+     * the new partition before the default partition is attached again.
+     *
+     * @param from inclusive lower bound of the partition
+     * @param to   exclusive upper bound of the partition
+     * @return name of the created partition
+     */
+    @Transactional
+    public String createPartition(LocalDateTime from, LocalDateTime to) {
+        String partitionName = PARTITION_NAME_PREFIX + PARTITION_NAME_FORMATTER.format(from);
+        Optional<String> defaultPartitionOptional = findDefaultPartitionName()
+                                                        .filter(defaultPartition -> containsEvents(defaultPartition, from, to));
+        if (!defaultPartitionOptional.isPresent()) {
+            createRangePartition(partitionName, from, to);
+            return partitionName;
+        }
+
+        String defaultPartition = defaultPartitionOptional.get();
+        jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s", qualify(EVENT_TABLE), qualify(defaultPartition)));
+        createRangePartition(partitionName, from, to);
+        jdbcTemplate.update(String.format("INSERT INTO %s SELECT * FROM %s WHERE timestamp >= ? AND timestamp < ?",
+                                          qualify(partitionName), qualify(defaultPartition)),
+                            Timestamp.valueOf(from), Timestamp.valueOf(to));
+        jdbcTemplate.update(String.format("DELETE FROM %s WHERE timestamp >= ? AND timestamp < ?", qualify(defaultPartition)),
+                            Timestamp.valueOf(from), Timestamp.valueOf(to));
+        jdbcTemplate.execute(String.format("ALTER TABLE %s ATTACH PARTITION %s DEFAULT", qualify(EVENT_TABLE), qualify(defaultPartition)));
+        return partitionName;
+    }
+
+    /**
+     * Drops the partition together with its events. Payloads stored as large objects aren't removed by PostgreSQL together
+     * with the rows referencing them, so they are unlinked in the same transaction before the partition is dropped.
+     *
+     * @param partitionName name of the partition
+     */
+    @Transactional
+    public void dropPartition(String partitionName) {
+        if (isPayloadLargeObject()) {
+            Integer unlinkedCount = jdbcTemplate.queryForObject(String.format("SELECT COUNT(lo_unlink(e.payload)) FROM %s e " +
+                                                                                  "WHERE e.payload IS NOT NULL " +
+                                                                                  "AND EXISTS (SELECT 1 FROM pg_largeobject_metadata m WHERE m.oid = e.payload)",
+                                                                              qualify(partitionName)),
+                                                                Integer.class);
+            log.debug("{} event payloads of partition {} have been unlinked", unlinkedCount, partitionName);
+        }
+        jdbcTemplate.execute(String.format("DROP TABLE IF EXISTS %s", qualify(partitionName)));
+    }
+
+    /**
+     * Detaches the partition from the event table. The detached table keeps its events and payload large objects,
+     * which have to be unlinked, when the table is dropped after archiving.
+     *
+     * @param partitionName name of the partition
+     */
+    public void detachPartition(String partitionName) {
+        jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s", qualify(EVENT_TABLE), qualify(partitionName)));
+    }
+
+    private boolean isPayloadLargeObject() {
+        return jdbcTemplate.queryForList(FIND_PAYLOAD_TYPE_SQL, String.class, EVENT_TABLE, getSchemaName())
+                   .contains(LARGE_OBJECT_TYPE);
+    }
+
+    private Optional<String> findDefaultPartitionName() {
+        return jdbcTemplate.queryForList(FIND_DEFAULT_PARTITION_SQL, String.class, EVENT_TABLE, getSchemaName())
+                   .stream()
+                   .findFirst();
+    }
+
+    private boolean containsEvents(String partitionName, LocalDateTime from, LocalDateTime to) {
+        Boolean exists = jdbcTemplate.queryForObject(String.format("SELECT EXISTS (SELECT 1 FROM %s WHERE timestamp >= ? AND timestamp < ?)", qualify(partitionName)),
+                                                     Boolean.class, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private void createRangePartition(String partitionName, LocalDateTime from, LocalDateTime to) {
+        jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                                           qualify(partitionName), qualify(EVENT_TABLE),
+                                           BOUND_FORMATTER.format(from), BOUND_FORMATTER.format(to)));
+    }
+
+    private String qualify(String tableName) {
+        return getSchemaName() + "." + tableName;
+    }
+
+    private String getSchemaName() {
+        return schemaName.toLowerCase();
+    }
+}
@@ -16,98 +16,101 @@
 
 package de.adorsys.psd2.scheduler;
 
-import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
-import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
-import org.jetbrains.annotations.NotNull;
+import de.adorsys.psd2.scheduler.batch.KeysetBatchProcessor;
+import de.adorsys.psd2.scheduler.batch.PartitionedBatchProcessor;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 
 import static de.adorsys.psd2.xs2a.core.consent.ConsentStatus.*;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ConsentScheduleTaskTest {
+    private static final int BATCH_SIZE = 2;
+    private static final long MAX_ID = 10L;
 
-    @InjectMocks
     private ConsentScheduleTask scheduleTask;
 
     @Mock
     private ConsentJpaRepository consentJpaRepository;
-
-    @Captor
-    private ArgumentCaptor<ArrayList<ConsentEntity>> consentCaptor;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @BeforeEach
+    void setUp() {
+        KeysetBatchProcessor keysetBatchProcessor = new KeysetBatchProcessor(transactionManager);
+        ReflectionTestUtils.setField(keysetBatchProcessor, "batchSize", BATCH_SIZE);
+        PartitionedBatchProcessor partitionedBatchProcessor = new PartitionedBatchProcessor(keysetBatchProcessor);
+        ReflectionTestUtils.setField(partitionedBatchProcessor, "parallelism", 1);
+        when(consentJpaRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(consentJpaRepository.findMaxId()).thenReturn(Optional.of(MAX_ID));
+        scheduleTask = new ConsentScheduleTask(consentJpaRepository, partitionedBatchProcessor, schedulerLockService);
+        when(schedulerLockService.executeWithLock(eq("ConsentScheduleTask"), any(Runnable.class)))
+            .thenAnswer(invocation -> {
+                invocation.getArgument(1, Runnable.class).run();
+                return true;
+            });
+    }
 
     @Test
-    void checkConsentStatus_allConsentsExpired() {
-        List<ConsentEntity> availableConsents = new ArrayList<>();
-        availableConsents.add(createConsent(RECEIVED));
-        availableConsents.add(createConsent(VALID));
-        when(consentJpaRepository.findByConsentStatusIn(EnumSet.of(RECEIVED, VALID))).thenReturn(availableConsents);
-
-        when(consentJpaRepository.saveAll(consentCaptor.capture())).thenReturn(Collections.emptyList());
+    void checkConsentStatus_expiredConsentsUpdatedInBatches() {
+        List<Long> firstBatch = Arrays.asList(1L, 5L);
+        List<Long> secondBatch = Collections.singletonList(8L);
+        when(consentJpaRepository.findExpiredByDateConsentIds(eq(0L), eq(MAX_ID), eq(EnumSet.of(RECEIVED, VALID)), eq(LocalDate.now()), eq(PageRequest.of(0, BATCH_SIZE))))
+            .thenReturn(firstBatch);
+        when(consentJpaRepository.findExpiredByDateConsentIds(eq(5L), eq(MAX_ID), eq(EnumSet.of(RECEIVED, VALID)), eq(LocalDate.now()), eq(PageRequest.of(0, BATCH_SIZE))))
+            .thenReturn(secondBatch);
+        when(consentJpaRepository.expireConsentsByIds(eq(firstBatch), eq(EnumSet.of(RECEIVED, VALID)), eq(EXPIRED), eq(LocalDate.now()), any()))
+            .thenReturn(2);
+        when(consentJpaRepository.expireConsentsByIds(eq(secondBatch), eq(EnumSet.of(RECEIVED, VALID)), eq(EXPIRED), eq(LocalDate.now()), any()))
+            .thenReturn(1);
 
         scheduleTask.checkConsentStatus();
 
-        assertEquals(2, consentCaptor.getValue().size());
-        consentCaptor.getValue().forEach(c -> assertEquals(EXPIRED, c.getConsentStatus()));
-
-        verify(consentJpaRepository, times(1)).findByConsentStatusIn(EnumSet.of(RECEIVED, VALID));
-        verify(consentJpaRepository, times(1)).saveAll(anyList());
+        verify(consentJpaRepository, times(2)).findExpiredByDateConsentIds(anyLong(), anyLong(), anySet(), any(), any());
+        verify(consentJpaRepository, times(2)).expireConsentsByIds(anyList(), anySet(), any(), any(), any());
     }
 
     @Test
-    void checkConsentStatus_notAllConsentsExpired() {
-        List<ConsentEntity> availableConsents = new ArrayList<>();
-        availableConsents.add(createConsent(RECEIVED));
-        ConsentEntity consent = createConsent(VALID);
-        consent.setValidUntil(LocalDate.now().plusDays(1));
-        availableConsents.add(consent);
-        when(consentJpaRepository.findByConsentStatusIn(EnumSet.of(RECEIVED, VALID))).thenReturn(availableConsents);
-
-        when(consentJpaRepository.saveAll(consentCaptor.capture())).thenReturn(Collections.emptyList());
+    void checkConsentStatus_fullLastBatch() {
+        List<Long> firstBatch = Arrays.asList(1L, 5L);
+        when(consentJpaRepository.findExpiredByDateConsentIds(eq(0L), eq(MAX_ID), eq(EnumSet.of(RECEIVED, VALID)), eq(LocalDate.now()), eq(PageRequest.of(0, BATCH_SIZE))))
+            .thenReturn(firstBatch);
+        when(consentJpaRepository.findExpiredByDateConsentIds(eq(5L), eq(MAX_ID), eq(EnumSet.of(RECEIVED, VALID)), eq(LocalDate.now()), eq(PageRequest.of(0, BATCH_SIZE))))
+            .thenReturn(Collections.emptyList());
+        when(consentJpaRepository.expireConsentsByIds(eq(firstBatch), eq(EnumSet.of(RECEIVED, VALID)), eq(EXPIRED), eq(LocalDate.now()), any()))
+            .thenReturn(2);
 
         scheduleTask.checkConsentStatus();
 
-        assertEquals(1, consentCaptor.getValue().size());
-        assertEquals("RECEIVED", consentCaptor.getValue().get(0).getExternalId());
-        consentCaptor.getValue().forEach(c -> assertEquals(EXPIRED, c.getConsentStatus()));
-
-        verify(consentJpaRepository, times(1)).findByConsentStatusIn(EnumSet.of(RECEIVED, VALID));
-        verify(consentJpaRepository, times(1)).saveAll(anyList());
+        verify(consentJpaRepository, times(1)).expireConsentsByIds(anyList(), anySet(), any(), any(), any());
     }
 
     @Test
-    void checkConsentStatus_nullValue() {
-
-        when(consentJpaRepository.findByConsentStatusIn(EnumSet.of(RECEIVED, VALID))).thenReturn(null);
-
-        when(consentJpaRepository.saveAll(Collections.emptyList())).thenReturn(Collections.emptyList());
+    void checkConsentStatus_noExpiredConsents() {
+        when(consentJpaRepository.findExpiredByDateConsentIds(eq(0L), eq(MAX_ID), eq(EnumSet.of(RECEIVED, VALID)), eq(LocalDate.now()), eq(PageRequest.of(0, BATCH_SIZE))))
+            .thenReturn(Collections.emptyList());
 
         scheduleTask.checkConsentStatus();
 
-        verify(consentJpaRepository, times(1)).findByConsentStatusIn(EnumSet.of(RECEIVED, VALID));
-        verify(consentJpaRepository, times(1)).saveAll(Collections.emptyList());
-    }
-
-    @NotNull
-    private ConsentEntity createConsent(ConsentStatus consentStatus) {
-        ConsentEntity aisConsent = new ConsentEntity();
-        aisConsent.setConsentStatus(consentStatus);
-        aisConsent.setExternalId(consentStatus.toString());
-        aisConsent.setValidUntil(LocalDate.now().minusDays(1));
-        return aisConsent;
+        verify(consentJpaRepository, never()).expireConsentsByIds(anyList(), anySet(), any(), any(), any());
     }
 }
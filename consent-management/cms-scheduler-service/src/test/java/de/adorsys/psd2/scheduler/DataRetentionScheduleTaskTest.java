@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler;
+
+import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
+import de.adorsys.psd2.consent.service.DataRetentionService;
+import de.adorsys.psd2.scheduler.batch.KeysetBatchProcessor;
+import de.adorsys.psd2.scheduler.batch.PartitionedBatchProcessor;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataRetentionScheduleTaskTest {
+    private static final int BATCH_SIZE = 2;
+    private static final long MAX_ID = 10L;
+
+    private DataRetentionScheduleTask scheduleTask;
+
+    @Mock
+    private DataRetentionService dataRetentionService;
+    @Mock
+    private ConsentJpaRepository consentJpaRepository;
+    @Mock
+    private PisCommonPaymentDataRepository paymentDataRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @BeforeEach
+    void setUp() {
+        KeysetBatchProcessor keysetBatchProcessor = new KeysetBatchProcessor(transactionManager);
+        ReflectionTestUtils.setField(keysetBatchProcessor, "batchSize", BATCH_SIZE);
+        PartitionedBatchProcessor partitionedBatchProcessor = new PartitionedBatchProcessor(keysetBatchProcessor);
+        ReflectionTestUtils.setField(partitionedBatchProcessor, "parallelism", 1);
+        scheduleTask = new DataRetentionScheduleTask(dataRetentionService, consentJpaRepository, paymentDataRepository, partitionedBatchProcessor, schedulerLockService);
+        ReflectionTestUtils.setField(scheduleTask, "retentionEnabled", true);
+        ReflectionTestUtils.setField(scheduleTask, "retentionDays", 30);
+        lenient().when(schedulerLockService.executeWithLock(eq("DataRetentionScheduleTask"), any(Runnable.class)))
+            .thenAnswer(invocation -> {
+                invocation.getArgument(1, Runnable.class).run();
+                return true;
+            });
+    }
+
+    @Test
+    void purgeFinalisedData() {
+        // Given
+        when(consentJpaRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(consentJpaRepository.findMaxId()).thenReturn(Optional.of(MAX_ID));
+        when(paymentDataRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(paymentDataRepository.findMaxId()).thenReturn(Optional.of(MAX_ID));
+        ArgumentCaptor<OffsetDateTime> finalisedBeforeCaptor = ArgumentCaptor.forClass(OffsetDateTime.class);
+        when(dataRetentionService.findFinalisedConsentIds(eq(0L), eq(MAX_ID), finalisedBeforeCaptor.capture(), eq(BATCH_SIZE)))
+            .thenReturn(Arrays.asList(2L, 4L));
+        when(dataRetentionService.findFinalisedConsentIds(eq(4L), eq(MAX_ID), any(OffsetDateTime.class), eq(BATCH_SIZE)))
+            .thenReturn(Collections.singletonList(9L));
+        when(dataRetentionService.findFinalisedPaymentIds(eq(0L), eq(MAX_ID), any(OffsetDateTime.class), eq(BATCH_SIZE)))
+            .thenReturn(Collections.singletonList(3L));
+
+        // When
+        scheduleTask.purgeFinalisedData();
+
+        // Then
+        verify(dataRetentionService).deleteConsents(Arrays.asList(2L, 4L));
+        verify(dataRetentionService).deleteConsents(Collections.singletonList(9L));
+        verify(dataRetentionService).deletePayments(Collections.singletonList(3L));
+        OffsetDateTime finalisedBefore = finalisedBeforeCaptor.getValue();
+        assertTrue(finalisedBefore.isBefore(OffsetDateTime.now().minusDays(29)));
+        assertTrue(finalisedBefore.isAfter(OffsetDateTime.now().minusDays(31)));
+    }
+
+    @Test
+    void purgeFinalisedData_emptyTables() {
+        when(consentJpaRepository.findMinId()).thenReturn(Optional.empty());
+        when(consentJpaRepository.findMaxId()).thenReturn(Optional.empty());
+        when(paymentDataRepository.findMinId()).thenReturn(Optional.empty());
+        when(paymentDataRepository.findMaxId()).thenReturn(Optional.empty());
+
+        scheduleTask.purgeFinalisedData();
+
+        verifyNoInteractions(dataRetentionService);
+    }
+
+    @Test
+    void purgeFinalisedData_disabled() {
+        ReflectionTestUtils.setField(scheduleTask, "retentionEnabled", false);
+
+        scheduleTask.purgeFinalisedData();
+
+        verifyNoInteractions(schedulerLockService, dataRetentionService, consentJpaRepository, paymentDataRepository);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler;
+
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
+import de.adorsys.psd2.scheduler.partition.EventPartition;
+import de.adorsys.psd2.scheduler.partition.EventPartitionInterval;
+import de.adorsys.psd2.scheduler.partition.EventPartitionRepository;
+import de.adorsys.psd2.scheduler.partition.EventPartitionRetentionMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventPartitionScheduleTaskTest {
+    private static final LocalDateTime TODAY = LocalDate.now().atStartOfDay();
+
+    @InjectMocks
+    private EventPartitionScheduleTask scheduleTask;
+
+    @Mock
+    private EventPartitionRepository eventPartitionRepository;
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(scheduleTask, "partitioningEnabled", true);
+        ReflectionTestUtils.setField(scheduleTask, "partitionInterval", EventPartitionInterval.DAY);
+        ReflectionTestUtils.setField(scheduleTask, "precreateCount", 2);
+        ReflectionTestUtils.setField(scheduleTask, "retentionDays", 30);
+        ReflectionTestUtils.setField(scheduleTask, "retentionMode", EventPartitionRetentionMode.DROP);
+        lenient().when(schedulerLockService.executeWithLock(eq("EventPartitionScheduleTask"), any(Runnable.class)))
+            .thenAnswer(invocation -> {
+                invocation.getArgument(1, Runnable.class).run();
+                return true;
+            });
+    }
+
+    @Test
+    void maintainEventPartitions_disabled() {
+        ReflectionTestUtils.setField(scheduleTask, "partitioningEnabled", false);
+
+        scheduleTask.maintainEventPartitions();
+
+        verifyNoInteractions(eventPartitionRepository);
+    }
+
+    @Test
+    void maintainEventPartitions_tableNotPartitioned() {
+        when(eventPartitionRepository.isEventTablePartitioned()).thenReturn(false);
+
+        scheduleTask.maintainEventPartitions();
+
+        verify(eventPartitionRepository, never()).findPartitions();
+        verify(eventPartitionRepository, never()).createPartition(any(), any());
+    }
+
+    @Test
+    void maintainEventPartitions_createsMissingPartitions() {
+        when(eventPartitionRepository.isEventTablePartitioned()).thenReturn(true);
+        when(eventPartitionRepository.findPartitions())
+            .thenReturn(Collections.singletonList(new EventPartition("event_legacy", null, TODAY.plusDays(1))));
+
+        scheduleTask.maintainEventPartitions();
+
+        verify(eventPartitionRepository).createPartition(TODAY.plusDays(1), TODAY.plusDays(2));
+        verify(eventPartitionRepository).createPartition(TODAY.plusDays(2), TODAY.plusDays(3));
+        verify(eventPartitionRepository, times(2)).createPartition(any(), any());
+        verify(eventPartitionRepository, never()).dropPartition(any());
+    }
+
+    @Test
+    void maintainEventPartitions_partitionCreationFailed() {
+        when(eventPartitionRepository.isEventTablePartitioned()).thenReturn(true);
+        when(eventPartitionRepository.findPartitions())
+            .thenReturn(Arrays.asList(new EventPartition("event_p_old", TODAY.minusDays(31), TODAY.minusDays(30)),
+                                      new EventPartition("event_legacy", null, TODAY.plusDays(1))));
+        when(eventPartitionRepository.createPartition(TODAY.plusDays(1), TODAY.plusDays(2)))
+            .thenThrow(new DataIntegrityViolationException("partition constraint violated"));
+
+        scheduleTask.maintainEventPartitions();
+
+        verify(eventPartitionRepository, times(1)).createPartition(any(), any());
+        verify(eventPartitionRepository).dropPartition("event_p_old");
+    }
+
+    @Test
+    void maintainEventPartitions_dropsExpiredPartitions() {
+        when(eventPartitionRepository.isEventTablePartitioned()).thenReturn(true);
+        when(eventPartitionRepository.findPartitions())
+            .thenReturn(Arrays.asList(new EventPartition("event_legacy", null, TODAY.minusDays(40)),
+                                      new EventPartition("event_p_old", TODAY.minusDays(31), TODAY.minusDays(30)),
+                                      new EventPartition("event_p_recent", TODAY.minusDays(30), TODAY.minusDays(29)),
+                                      new EventPartition("event_p_future", TODAY.plusDays(2), TODAY.plusDays(3))));
+
+        scheduleTask.maintainEventPartitions();
+
+        verify(eventPartitionRepository, never()).createPartition(any(), any());
+        verify(eventPartitionRepository).dropPartition("event_legacy");
+        verify(eventPartitionRepository).dropPartition("event_p_old");
+        verify(eventPartitionRepository, never()).dropPartition("event_p_recent");
+        verify(eventPartitionRepository, never()).detachPartition(any());
+    }
+
+    @Test
+    void maintainEventPartitions_detachesExpiredPartitions() {
+        ReflectionTestUtils.setField(scheduleTask, "retentionMode", EventPartitionRetentionMode.DETACH);
+        when(eventPartitionRepository.isEventTablePartitioned()).thenReturn(true);
+        when(eventPartitionRepository.findPartitions())
+            .thenReturn(Arrays.asList(new EventPartition("event_p_old", TODAY.minusDays(31), TODAY.minusDays(30)),
+                                      new EventPartition("event_p_future", TODAY.plusDays(2), TODAY.plusDays(3))));
+
+        scheduleTask.maintainEventPartitions();
+
+        verify(eventPartitionRepository).detachPartition("event_p_old");
+        verify(eventPartitionRepository, never()).dropPartition(any());
+    }
+}
@@ -18,8 +18,10 @@ package de.adorsys.psd2.scheduler;
 
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
 import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
 import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -27,6 +29,7 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -48,10 +51,23 @@ class NonRecurringConsentExpirationScheduleTaskTest {
 
     @Mock
     private ConsentJpaRepository consentJpaRepository;
+    @Mock
+    private SchedulerLockService schedulerLockService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @Captor
     private ArgumentCaptor<ArrayList<ConsentEntity>> consentsCaptor;
 
+    @BeforeEach
+    void setUp() {
+        when(schedulerLockService.executeWithLock(eq("NonRecurringConsentExpirationScheduleTask"), any(Runnable.class)))
+            .thenAnswer(invocation -> {
+                invocation.getArgument(1, Runnable.class).run();
+                return true;
+            });
+    }
+
     @Test
     void expireUsedNonRecurringConsent() {
         List<ConsentEntity> aisConsents = new ArrayList<>();
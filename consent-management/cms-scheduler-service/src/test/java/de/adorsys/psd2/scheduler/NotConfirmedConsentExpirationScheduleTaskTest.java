@@ -16,78 +16,93 @@
 
 package de.adorsys.psd2.scheduler;
 
-import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
 import de.adorsys.psd2.consent.service.AisConsentConfirmationExpirationService;
-import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.psd2.scheduler.batch.KeysetBatchProcessor;
+import de.adorsys.psd2.scheduler.batch.PartitionedBatchProcessor;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class NotConfirmedConsentExpirationScheduleTaskTest {
+    private static final int BATCH_SIZE = 2;
+    private static final long MAX_ID = 10L;
 
-    @InjectMocks
     private NotConfirmedConsentExpirationScheduleTask scheduleTask;
 
     @Mock
     private AisConsentConfirmationExpirationService aisConsentConfirmationExpirationService;
     @Mock
     private ConsentJpaRepository consentJpaRepository;
-
-    @Captor
-    private ArgumentCaptor<ArrayList<ConsentEntity>> consentsCaptor;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @BeforeEach
+    void setUp() {
+        KeysetBatchProcessor keysetBatchProcessor = new KeysetBatchProcessor(transactionManager);
+        ReflectionTestUtils.setField(keysetBatchProcessor, "batchSize", BATCH_SIZE);
+        PartitionedBatchProcessor partitionedBatchProcessor = new PartitionedBatchProcessor(keysetBatchProcessor);
+        ReflectionTestUtils.setField(partitionedBatchProcessor, "parallelism", 1);
+        when(consentJpaRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(consentJpaRepository.findMaxId()).thenReturn(Optional.of(MAX_ID));
+        scheduleTask = new NotConfirmedConsentExpirationScheduleTask(aisConsentConfirmationExpirationService, consentJpaRepository, partitionedBatchProcessor, schedulerLockService);
+        when(schedulerLockService.executeWithLock(eq("NotConfirmedConsentExpirationScheduleTask"), any(Runnable.class)))
+            .thenAnswer(invocation -> {
+                invocation.getArgument(1, Runnable.class).run();
+                return true;
+            });
+    }
 
     @Test
     void obsoleteNotConfirmedConsentIfExpired() {
         // Given
-        List<ConsentEntity> aisConsents = new ArrayList<>();
-        aisConsents.add(new ConsentEntity());
-        aisConsents.add(new ConsentEntity());
-
-        when(consentJpaRepository.findByConsentStatusIn(EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED)))
-            .thenReturn(aisConsents);
-        when(aisConsentConfirmationExpirationService.isConfirmationExpired(any(ConsentEntity.class)))
-            .thenReturn(true, false);
-        when(aisConsentConfirmationExpirationService.updateConsentListOnConfirmationExpiration(consentsCaptor.capture()))
-            .thenReturn(Collections.emptyList());
+        List<Long> firstBatch = Arrays.asList(1L, 5L);
+        List<Long> secondBatch = Collections.singletonList(8L);
+        when(aisConsentConfirmationExpirationService.findConfirmationExpiredConsentIds(0L, MAX_ID, BATCH_SIZE))
+            .thenReturn(firstBatch);
+        when(aisConsentConfirmationExpirationService.findConfirmationExpiredConsentIds(5L, MAX_ID, BATCH_SIZE))
+            .thenReturn(secondBatch);
+        when(aisConsentConfirmationExpirationService.updateConsentsOnConfirmationExpiration(firstBatch))
+            .thenReturn(2);
+        when(aisConsentConfirmationExpirationService.updateConsentsOnConfirmationExpiration(secondBatch))
+            .thenReturn(1);
 
         // When
         scheduleTask.obsoleteNotConfirmedConsentIfExpired();
 
         // Then
-        verify(consentJpaRepository, times(1)).findByConsentStatusIn(EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED));
-        verify(aisConsentConfirmationExpirationService, times(2)).isConfirmationExpired(any(ConsentEntity.class));
-        verify(aisConsentConfirmationExpirationService, times(1)).updateConsentListOnConfirmationExpiration(anyList());
-
-        assertEquals(1, consentsCaptor.getValue().size());
+        verify(aisConsentConfirmationExpirationService, times(2)).findConfirmationExpiredConsentIds(anyLong(), anyLong(), anyInt());
+        verify(aisConsentConfirmationExpirationService, times(2)).updateConsentsOnConfirmationExpiration(anyList());
     }
 
     @Test
     void obsoleteNotConfirmedConsentIfExpired_emptyList() {
         // Given
-        when(consentJpaRepository.findByConsentStatusIn(EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED)))
+        when(aisConsentConfirmationExpirationService.findConfirmationExpiredConsentIds(0L, MAX_ID, BATCH_SIZE))
             .thenReturn(Collections.emptyList());
 
         // When
         scheduleTask.obsoleteNotConfirmedConsentIfExpired();
 
         // Then
-        verify(consentJpaRepository, times(1)).findByConsentStatusIn(EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED));
-        verify(aisConsentConfirmationExpirationService, never()).isConfirmationExpired(any(ConsentEntity.class));
-        verify(aisConsentConfirmationExpirationService, never()).updateConsentListOnConfirmationExpiration(anyList());
+        verify(aisConsentConfirmationExpirationService, never()).updateConsentsOnConfirmationExpiration(anyList());
     }
 }
@@ -16,79 +16,93 @@
 
 package de.adorsys.psd2.scheduler;
 
-import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
 import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
 import de.adorsys.psd2.consent.service.PisCommonPaymentConfirmationExpirationService;
-import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
+import de.adorsys.psd2.scheduler.batch.KeysetBatchProcessor;
+import de.adorsys.psd2.scheduler.batch.PartitionedBatchProcessor;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class NotConfirmedPaymentExpirationScheduleTaskTest {
+    private static final int BATCH_SIZE = 2;
+    private static final long MAX_ID = 10L;
 
-    @InjectMocks
     private NotConfirmedPaymentExpirationScheduleTask scheduleTask;
 
     @Mock
     private PisCommonPaymentConfirmationExpirationService pisCommonPaymentConfirmationExpirationService;
     @Mock
     private PisCommonPaymentDataRepository paymentDataRepository;
-
-    @Captor
-    private ArgumentCaptor<ArrayList<PisCommonPaymentData>> commonPaymentDataCaptor;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @BeforeEach
+    void setUp() {
+        KeysetBatchProcessor keysetBatchProcessor = new KeysetBatchProcessor(transactionManager);
+        ReflectionTestUtils.setField(keysetBatchProcessor, "batchSize", BATCH_SIZE);
+        PartitionedBatchProcessor partitionedBatchProcessor = new PartitionedBatchProcessor(keysetBatchProcessor);
+        ReflectionTestUtils.setField(partitionedBatchProcessor, "parallelism", 1);
+        when(paymentDataRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(paymentDataRepository.findMaxId()).thenReturn(Optional.of(MAX_ID));
+        scheduleTask = new NotConfirmedPaymentExpirationScheduleTask(pisCommonPaymentConfirmationExpirationService, paymentDataRepository, partitionedBatchProcessor, schedulerLockService);
+        when(schedulerLockService.executeWithLock(eq("NotConfirmedPaymentExpirationScheduleTask"), any(Runnable.class)))
+            .thenAnswer(invocation -> {
+                invocation.getArgument(1, Runnable.class).run();
+                return true;
+            });
+    }
 
     @Test
     void obsoleteNotConfirmedPaymentIfExpired() {
         // Given
-        List<PisCommonPaymentData> pisCommonPaymentDataList = new ArrayList<>();
-        pisCommonPaymentDataList.add(new PisCommonPaymentData());
-        pisCommonPaymentDataList.add(new PisCommonPaymentData());
-
-        when(paymentDataRepository.findByTransactionStatusIn(EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC)))
-            .thenReturn(pisCommonPaymentDataList);
-        when(pisCommonPaymentConfirmationExpirationService.isConfirmationExpired(any(PisCommonPaymentData.class)))
-            .thenReturn(true, false);
-        when(pisCommonPaymentConfirmationExpirationService.updatePaymentDataListOnConfirmationExpiration(commonPaymentDataCaptor.capture()))
-            .thenReturn(Collections.emptyList());
+        List<Long> firstBatch = Arrays.asList(1L, 5L);
+        List<Long> secondBatch = Collections.singletonList(8L);
+        when(pisCommonPaymentConfirmationExpirationService.findConfirmationExpiredPaymentIds(0L, MAX_ID, BATCH_SIZE))
+            .thenReturn(firstBatch);
+        when(pisCommonPaymentConfirmationExpirationService.findConfirmationExpiredPaymentIds(5L, MAX_ID, BATCH_SIZE))
+            .thenReturn(secondBatch);
+        when(pisCommonPaymentConfirmationExpirationService.updatePaymentsOnConfirmationExpiration(firstBatch))
+            .thenReturn(2);
+        when(pisCommonPaymentConfirmationExpirationService.updatePaymentsOnConfirmationExpiration(secondBatch))
+            .thenReturn(1);
 
         // When
         scheduleTask.obsoleteNotConfirmedPaymentIfExpired();
 
         // Then
-        verify(paymentDataRepository, times(1)).findByTransactionStatusIn(EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC));
-        verify(pisCommonPaymentConfirmationExpirationService, times(2)).isConfirmationExpired(any(PisCommonPaymentData.class));
-        verify(pisCommonPaymentConfirmationExpirationService, times(1)).updatePaymentDataListOnConfirmationExpiration(anyList());
-
-        assertEquals(1, commonPaymentDataCaptor.getValue().size());
+        verify(pisCommonPaymentConfirmationExpirationService, times(2)).findConfirmationExpiredPaymentIds(anyLong(), anyLong(), anyInt());
+        verify(pisCommonPaymentConfirmationExpirationService, times(2)).updatePaymentsOnConfirmationExpiration(anyList());
     }
 
     @Test
     void obsoleteNotConfirmedPaymentIfExpired_emptyList() {
         // Given
-        when(paymentDataRepository.findByTransactionStatusIn(EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC)))
+        when(pisCommonPaymentConfirmationExpirationService.findConfirmationExpiredPaymentIds(0L, MAX_ID, BATCH_SIZE))
             .thenReturn(Collections.emptyList());
 
         // When
         scheduleTask.obsoleteNotConfirmedPaymentIfExpired();
 
         // Then
-        verify(paymentDataRepository, times(1)).findByTransactionStatusIn(EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC));
-        verify(pisCommonPaymentConfirmationExpirationService, never()).isConfirmationExpired(any(PisCommonPaymentData.class));
-        verify(pisCommonPaymentConfirmationExpirationService, never()).updatePaymentDataListOnConfirmationExpiration(anyList());
+        verify(pisCommonPaymentConfirmationExpirationService, never()).updatePaymentsOnConfirmationExpiration(anyList());
     }
 }
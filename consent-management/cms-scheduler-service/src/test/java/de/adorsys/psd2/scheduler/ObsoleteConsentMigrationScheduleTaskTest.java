@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler;
+
+import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.service.migration.ObsoleteConsentMigrationService;
+import de.adorsys.psd2.scheduler.batch.KeysetBatchProcessor;
+import de.adorsys.psd2.scheduler.batch.PartitionedBatchProcessor;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ObsoleteConsentMigrationScheduleTaskTest {
+    private static final int BATCH_SIZE = 2;
+    private static final long MAX_ID = 10L;
+
+    private ObsoleteConsentMigrationScheduleTask scheduleTask;
+
+    @Mock
+    private ObsoleteConsentMigrationService obsoleteConsentMigrationService;
+    @Mock
+    private ConsentJpaRepository consentJpaRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private SchedulerLockService schedulerLockService;
+
+    @BeforeEach
+    void setUp() {
+        KeysetBatchProcessor keysetBatchProcessor = new KeysetBatchProcessor(transactionManager);
+        ReflectionTestUtils.setField(keysetBatchProcessor, "batchSize", BATCH_SIZE);
+        PartitionedBatchProcessor partitionedBatchProcessor = new PartitionedBatchProcessor(keysetBatchProcessor);
+        ReflectionTestUtils.setField(partitionedBatchProcessor, "parallelism", 1);
+        scheduleTask = new ObsoleteConsentMigrationScheduleTask(obsoleteConsentMigrationService, consentJpaRepository, partitionedBatchProcessor, schedulerLockService);
+        ReflectionTestUtils.setField(scheduleTask, "migrationEnabled", true);
+        lenient().when(schedulerLockService.executeWithLock(eq("ObsoleteConsentMigrationScheduleTask"), any(Runnable.class)))
+            .thenAnswer(invocation -> {
+                invocation.getArgument(1, Runnable.class).run();
+                return true;
+            });
+    }
+
+    @Test
+    void migrateObsoleteConsents() {
+        // Given
+        when(consentJpaRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(consentJpaRepository.findMaxId()).thenReturn(Optional.of(MAX_ID));
+        when(obsoleteConsentMigrationService.findNotMigratedConsentIds(0L, MAX_ID, BATCH_SIZE))
+            .thenReturn(Arrays.asList(2L, 4L));
+        when(obsoleteConsentMigrationService.findNotMigratedConsentIds(4L, MAX_ID, BATCH_SIZE))
+            .thenReturn(Collections.singletonList(9L));
+
+        // When
+        scheduleTask.migrateObsoleteConsents();
+
+        // Then
+        verify(obsoleteConsentMigrationService).migrateConsents(Arrays.asList(2L, 4L));
+        verify(obsoleteConsentMigrationService).migrateConsents(Collections.singletonList(9L));
+        verify(obsoleteConsentMigrationService).countNotMigratedConsents();
+    }
+
+    @Test
+    void migrateObsoleteConsents_notMigratableConsentsLeft_migrationCompleted() {
+        // Given
+        when(consentJpaRepository.findMinId()).thenReturn(Optional.empty());
+        when(consentJpaRepository.findMaxId()).thenReturn(Optional.empty());
+        when(obsoleteConsentMigrationService.countNotMigratedConsents()).thenReturn(0L);
+        when(obsoleteConsentMigrationService.countNotMigratableConsents()).thenReturn(2L);
+        scheduleTask.migrateObsoleteConsents();
+
+        // When
+        scheduleTask.migrateObsoleteConsents();
+
+        // Then
+        verify(schedulerLockService, times(1)).executeWithLock(eq("ObsoleteConsentMigrationScheduleTask"), any(Runnable.class));
+        verify(obsoleteConsentMigrationService).countNotMigratableConsents();
+    }
+
+    @Test
+    void migrateObsoleteConsents_completedMigrationNotRepeated() {
+        // Given
+        when(consentJpaRepository.findMinId()).thenReturn(Optional.empty());
+        when(consentJpaRepository.findMaxId()).thenReturn(Optional.empty());
+        scheduleTask.migrateObsoleteConsents();
+
+        // When
+        scheduleTask.migrateObsoleteConsents();
+
+        // Then
+        verify(schedulerLockService, times(1)).executeWithLock(eq("ObsoleteConsentMigrationScheduleTask"), any(Runnable.class));
+    }
+
+    @Test
+    void migrateObsoleteConsents_notMigratedConsentsLeft_migrationRepeated() {
+        // Given
+        when(consentJpaRepository.findMinId()).thenReturn(Optional.empty());
+        when(consentJpaRepository.findMaxId()).thenReturn(Optional.empty());
+        when(obsoleteConsentMigrationService.countNotMigratedConsents()).thenReturn(3L);
+        scheduleTask.migrateObsoleteConsents();
+
+        // When
+        scheduleTask.migrateObsoleteConsents();
+
+        // Then
+        verify(schedulerLockService, times(2)).executeWithLock(eq("ObsoleteConsentMigrationScheduleTask"), any(Runnable.class));
+        verify(obsoleteConsentMigrationService, times(2)).countNotMigratedConsents();
+    }
+
+    @Test
+    void migrateObsoleteConsents_failedRunResumedByNextRun() {
+        // Given
+        when(consentJpaRepository.findMinId()).thenReturn(Optional.of(1L));
+        when(consentJpaRepository.findMaxId()).thenReturn(Optional.of(MAX_ID));
+        when(obsoleteConsentMigrationService.findNotMigratedConsentIds(0L, MAX_ID, BATCH_SIZE))
+            .thenThrow(new IllegalStateException("connection lost"))
+            .thenReturn(Collections.emptyList());
+        assertThrows(IllegalStateException.class, () -> scheduleTask.migrateObsoleteConsents());
+
+        // When
+        scheduleTask.migrateObsoleteConsents();
+
+        // Then
+        verify(schedulerLockService, times(2)).executeWithLock(eq("ObsoleteConsentMigrationScheduleTask"), any(Runnable.class));
+        verify(obsoleteConsentMigrationService, times(1)).countNotMigratedConsents();
+    }
+
+    @Test
+    void migrateObsoleteConsents_disabled() {
+        ReflectionTestUtils.setField(scheduleTask, "migrationEnabled", false);
+
+        scheduleTask.migrateObsoleteConsents();
+
+        verifyNoInteractions(schedulerLockService, obsoleteConsentMigrationService, consentJpaRepository);
+    }
+}
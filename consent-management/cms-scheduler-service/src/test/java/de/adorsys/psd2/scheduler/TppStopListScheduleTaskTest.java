@@ -18,15 +18,19 @@ package de.adorsys.psd2.scheduler;
 
 import de.adorsys.psd2.consent.domain.TppStopListEntity;
 import de.adorsys.psd2.consent.repository.TppStopListRepository;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
 import de.adorsys.psd2.xs2a.core.tpp.TppStatus;
 import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.Duration;
 import java.time.OffsetDateTime;
@@ -46,10 +50,23 @@ class TppStopListScheduleTaskTest {
 
     @Mock
     private TppStopListRepository tppStopListRepository;
+    @Mock
+    private SchedulerLockService schedulerLockService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @Captor
     private ArgumentCaptor<ArrayList<TppStopListEntity>> unblockedTppsCaptor;
 
+    @BeforeEach
+    void setUp() {
+        when(schedulerLockService.executeWithLock(eq("TppStopListScheduleTask"), any(Runnable.class)))
+            .thenAnswer(invocation -> {
+                invocation.getArgument(1, Runnable.class).run();
+                return true;
+            });
+    }
+
     @Test
     void unblockTppIfBlockingExpired() {
         List<TppStopListEntity> tppStopList = new ArrayList<>();
@@ -87,6 +104,20 @@ class TppStopListScheduleTaskTest {
         verify(tppStopListRepository, never()).saveAll(anyList());
     }
 
+    @Test
+    void unblockTppIfBlockingExpired_transactionWithinLockedTask() {
+        when(tppStopListRepository.findAllByStatusAndBlockingExpirationTimestampLessThanEqual(eq(TppStatus.BLOCKED), any(OffsetDateTime.class)))
+            .thenReturn(Collections.emptyList());
+
+        scheduleTask.unblockTppIfBlockingExpired();
+
+        InOrder inOrder = inOrder(schedulerLockService, transactionManager, tppStopListRepository);
+        inOrder.verify(schedulerLockService).executeWithLock(eq("TppStopListScheduleTask"), any(Runnable.class));
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(tppStopListRepository).findAllByStatusAndBlockingExpirationTimestampLessThanEqual(eq(TppStatus.BLOCKED), any(OffsetDateTime.class));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
     @NotNull
     private TppStopListEntity createTppStopEntity() {
         TppStopListEntity tppStopListEntity = new TppStopListEntity();
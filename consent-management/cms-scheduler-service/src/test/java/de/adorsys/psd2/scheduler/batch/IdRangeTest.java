@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IdRangeTest {
+    @Test
+    void split_equalRanges() {
+        List<IdRange> ranges = IdRange.split(1, 100, 4);
+
+        assertEquals(Arrays.asList(new IdRange(0, 25), new IdRange(25, 50), new IdRange(50, 75), new IdRange(75, 100)), ranges);
+    }
+
+    @Test
+    void split_unevenRanges() {
+        List<IdRange> ranges = IdRange.split(11, 20, 3);
+
+        assertEquals(Arrays.asList(new IdRange(10, 13), new IdRange(13, 16), new IdRange(16, 20)), ranges);
+    }
+
+    @Test
+    void split_lessIdsThanRanges() {
+        List<IdRange> ranges = IdRange.split(5, 6, 4);
+
+        assertEquals(Arrays.asList(new IdRange(4, 5), new IdRange(5, 6)), ranges);
+    }
+
+    @Test
+    void split_singleRange() {
+        List<IdRange> ranges = IdRange.split(1, 1000, 1);
+
+        assertEquals(Collections.singletonList(new IdRange(0, 1000)), ranges);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.batch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KeysetBatchProcessorTest {
+    private static final int BATCH_SIZE = 3;
+    private static final IdRange RANGE = new IdRange(0, 100);
+
+    @InjectMocks
+    private KeysetBatchProcessor keysetBatchProcessor;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(keysetBatchProcessor, "batchSize", BATCH_SIZE);
+    }
+
+    @Test
+    void process_loadsNextBatchAfterLastId() {
+        List<Long> requestedFromIds = new ArrayList<>();
+        List<List<Long>> processedBatches = new ArrayList<>();
+
+        BatchProcessingResult result = keysetBatchProcessor.process("test", RANGE, (lastId, maxId, batchSize) -> {
+            requestedFromIds.add(lastId);
+            assertEquals(100, maxId);
+            assertEquals(BATCH_SIZE, batchSize);
+            return lastId == 0 ? Arrays.asList(2L, 3L, 7L) : Collections.singletonList(9L);
+        }, ids -> {
+            processedBatches.add(ids);
+            return ids.size() - 1;
+        });
+
+        assertEquals(Arrays.asList(0L, 7L), requestedFromIds);
+        assertEquals(Arrays.asList(Arrays.asList(2L, 3L, 7L), Collections.singletonList(9L)), processedBatches);
+        assertEquals(2, result.getBatches());
+        assertEquals(4, result.getCandidates());
+        assertEquals(2, result.getUpdated());
+    }
+
+    @Test
+    void process_eachBatchInOwnTransaction() {
+        keysetBatchProcessor.process("test", RANGE,
+                                     (lastId, maxId, batchSize) -> lastId < 6 ? Arrays.asList(lastId + 1, lastId + 2, lastId + 3) : Collections.emptyList(),
+                                     List::size);
+
+        // two full batches and the empty one: 3 read-only loads and 2 updates
+        verify(transactionManager, times(5)).getTransaction(any(TransactionDefinition.class));
+        verify(transactionManager, times(5)).commit(any());
+    }
+
+    @Test
+    void process_startsAfterLowerBoundOfRange() {
+        List<Long> requestedFromIds = new ArrayList<>();
+
+        keysetBatchProcessor.process("test", new IdRange(50, 60), (lastId, maxId, batchSize) -> {
+            requestedFromIds.add(lastId);
+            assertEquals(60, maxId);
+            return Collections.singletonList(55L);
+        }, List::size);
+
+        assertEquals(Collections.singletonList(50L), requestedFromIds);
+    }
+
+    @Test
+    void process_noIds() {
+        BatchProcessingResult result = keysetBatchProcessor.process("test", RANGE, (lastId, maxId, batchSize) -> Collections.emptyList(), ids -> {
+            throw new IllegalStateException("Should not be called");
+        });
+
+        assertEquals(0, result.getBatches());
+        assertEquals(0, result.getUpdated());
+    }
+
+    @Test
+    void process_interruptedDuringPause() {
+        List<Long> requestedFromIds = new ArrayList<>();
+
+        BatchProcessingResult result = keysetBatchProcessor.process("test", RANGE, (lastId, maxId, batchSize) -> {
+            requestedFromIds.add(lastId);
+            Thread.currentThread().interrupt();
+            return Arrays.asList(lastId + 1, lastId + 2, lastId + 3);
+        }, List::size, 1_000);
+
+        // the interrupt flag is kept for the caller
+        assertTrue(Thread.interrupted());
+        assertEquals(Collections.singletonList(0L), requestedFromIds);
+        assertEquals(1, result.getBatches());
+    }
+
+    @Test
+    void process_interruptedBeforeBatch() {
+        List<Long> requestedFromIds = new ArrayList<>();
+
+        Thread.currentThread().interrupt();
+        BatchProcessingResult result = keysetBatchProcessor.process("test", RANGE, (lastId, maxId, batchSize) -> {
+            requestedFromIds.add(lastId);
+            return Arrays.asList(lastId + 1, lastId + 2, lastId + 3);
+        }, List::size);
+
+        // the interrupt flag is kept for the caller
+        assertTrue(Thread.interrupted());
+        assertTrue(requestedFromIds.isEmpty());
+        assertEquals(0, result.getBatches());
+    }
+
+    @Test
+    void process_pauseBetweenBatches() {
+        BatchProcessingResult result = keysetBatchProcessor.process("test", RANGE,
+                                                                    (lastId, maxId, batchSize) -> lastId < 6 ? Arrays.asList(lastId + 1, lastId + 2, lastId + 3) : Collections.emptyList(),
+                                                                    List::size, 1);
+
+        assertEquals(2, result.getBatches());
+        assertEquals(6, result.getUpdated());
+    }
+}
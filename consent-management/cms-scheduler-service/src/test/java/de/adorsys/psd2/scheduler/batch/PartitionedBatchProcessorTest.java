@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.batch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class PartitionedBatchProcessorTest {
+    private static final int BATCH_SIZE = 5;
+    private static final long MAX_ID = 100;
+
+    private PartitionedBatchProcessor partitionedBatchProcessor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        KeysetBatchProcessor keysetBatchProcessor = new KeysetBatchProcessor(transactionManager);
+        ReflectionTestUtils.setField(keysetBatchProcessor, "batchSize", BATCH_SIZE);
+        partitionedBatchProcessor = new PartitionedBatchProcessor(keysetBatchProcessor);
+    }
+
+    @Test
+    void process_parallel_allIdsProcessedOnce() {
+        ReflectionTestUtils.setField(partitionedBatchProcessor, "parallelism", 3);
+        Set<Long> processedIds = ConcurrentHashMap.newKeySet();
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+        BatchProcessingResult result = partitionedBatchProcessor.process("Test task", 1L, MAX_ID, this::loadEvenIds, ids -> {
+            threadNames.add(Thread.currentThread().getName());
+            ids.forEach(id -> assertTrue(processedIds.add(id), "Id processed twice: " + id));
+            return ids.size();
+        });
+
+        assertEquals(LongStream.rangeClosed(1, MAX_ID).filter(id -> id % 2 == 0).boxed().collect(Collectors.toSet()), processedIds);
+        assertEquals(50, result.getCandidates());
+        assertEquals(50, result.getUpdated());
+        assertTrue(threadNames.stream().allMatch(name -> name.startsWith("Test-task-")));
+    }
+
+    @Test
+    void process_singleThread_processedByCallingThread() {
+        ReflectionTestUtils.setField(partitionedBatchProcessor, "parallelism", 1);
+        List<String> threadNames = new ArrayList<>();
+
+        BatchProcessingResult result = partitionedBatchProcessor.process("Test task", 1L, MAX_ID, this::loadEvenIds, ids -> {
+            threadNames.add(Thread.currentThread().getName());
+            return ids.size();
+        });
+
+        assertEquals(10, result.getBatches());
+        assertEquals(50, result.getUpdated());
+        assertTrue(threadNames.stream().allMatch(Thread.currentThread().getName()::equals));
+    }
+
+    @Test
+    void process_emptyTable() {
+        ReflectionTestUtils.setField(partitionedBatchProcessor, "parallelism", 3);
+
+        BatchProcessingResult result = partitionedBatchProcessor.process("Test task", null, null, (lastId, maxId, limit) -> {
+            throw new IllegalStateException("Should not be called");
+        }, List::size);
+
+        assertEquals(0, result.getBatches());
+        assertEquals(0, result.getUpdated());
+    }
+
+    @Test
+    void process_parallel_failedRangeRethrownAfterOtherRanges() {
+        ReflectionTestUtils.setField(partitionedBatchProcessor, "parallelism", 2);
+        Set<Long> processedIds = ConcurrentHashMap.newKeySet();
+
+        assertThrows(QueryTimeoutException.class,
+                     () -> partitionedBatchProcessor.process("Test task", 1L, MAX_ID, this::loadEvenIds, ids -> {
+                         if (ids.contains(2L)) {
+                             throw new QueryTimeoutException("timeout");
+                         }
+                         processedIds.addAll(ids);
+                         return ids.size();
+                     }));
+
+        assertTrue(processedIds.contains(MAX_ID));
+    }
+
+    private List<Long> loadEvenIds(long lastId, long maxId, int limit) {
+        List<Long> ids = LongStream.rangeClosed(lastId + 1, maxId)
+                             .filter(id -> id % 2 == 0)
+                             .limit(limit)
+                             .boxed()
+                             .collect(Collectors.toList());
+        return ids.isEmpty() ? Collections.emptyList() : ids;
+    }
+}
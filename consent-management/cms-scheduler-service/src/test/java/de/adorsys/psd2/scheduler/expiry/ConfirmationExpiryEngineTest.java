@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.expiry;
+
+import de.adorsys.psd2.aspsp.profile.domain.AspspSettings;
+import de.adorsys.psd2.aspsp.profile.domain.ais.AisAspspProfileSetting;
+import de.adorsys.psd2.aspsp.profile.domain.ais.ConsentTypeSetting;
+import de.adorsys.psd2.aspsp.profile.domain.pis.PisAspspProfileSetting;
+import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
+import de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate;
+import de.adorsys.psd2.consent.service.AisConsentConfirmationExpirationService;
+import de.adorsys.psd2.consent.service.ConfirmationExpirationCandidateEvent;
+import de.adorsys.psd2.consent.service.ConfirmationExpirationObjectType;
+import de.adorsys.psd2.consent.service.PisCommonPaymentConfirmationExpirationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConfirmationExpiryEngineTest {
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2020, 4, 24, 12, 0, 0, 0, ZoneOffset.UTC);
+    private static final long CONSENT_EXPIRATION_MS = 60_000;
+    private static final long PAYMENT_EXPIRATION_MS = 120_000;
+
+    private ConfirmationExpiryEngine confirmationExpiryEngine;
+
+    @Mock
+    private AisConsentConfirmationExpirationService aisConsentConfirmationExpirationService;
+    @Mock
+    private PisCommonPaymentConfirmationExpirationService pisCommonPaymentConfirmationExpirationService;
+    @Mock
+    private AspspProfileService aspspProfileService;
+
+    @BeforeEach
+    void setUp() {
+        confirmationExpiryEngine = new ConfirmationExpiryEngine(aisConsentConfirmationExpirationService, pisCommonPaymentConfirmationExpirationService, aspspProfileService);
+        setClock(NOW);
+        ReflectionTestUtils.setField(confirmationExpiryEngine, "enabled", true);
+        ReflectionTestUtils.setField(confirmationExpiryEngine, "tickMs", 1_000L);
+        ReflectionTestUtils.setField(confirmationExpiryEngine, "wheelSize", 64);
+        ReflectionTestUtils.setField(confirmationExpiryEngine, "maxItems", 10);
+        ReflectionTestUtils.setField(confirmationExpiryEngine, "batchSize", 2);
+    }
+
+    @Test
+    void loadNotConfirmedItems_disabled() {
+        ReflectionTestUtils.setField(confirmationExpiryEngine, "enabled", false);
+
+        confirmationExpiryEngine.loadNotConfirmedItems();
+        confirmationExpiryEngine.onConfirmationExpirationCandidate(new ConfirmationExpirationCandidateEvent(ConfirmationExpirationObjectType.CONSENT, 1L, NOW));
+        setClock(NOW.plusDays(1));
+        confirmationExpiryEngine.expireDueItems();
+
+        verifyNoInteractions(aisConsentConfirmationExpirationService, pisCommonPaymentConfirmationExpirationService);
+    }
+
+    @Test
+    void expireDueItems_loadedItems() {
+        when(aspspProfileService.getAspspSettings()).thenReturn(buildAspspSettings());
+        when(aisConsentConfirmationExpirationService.findNotConfirmedConsents(Long.MIN_VALUE, 2))
+            .thenReturn(Arrays.asList(new ConfirmationExpirationCandidate(1L, NOW.minusSeconds(30)), new ConfirmationExpirationCandidate(2L, NOW.minusSeconds(50))));
+        when(aisConsentConfirmationExpirationService.findNotConfirmedConsents(2L, 2))
+            .thenReturn(Collections.singletonList(new ConfirmationExpirationCandidate(3L, NOW)));
+        when(pisCommonPaymentConfirmationExpirationService.findNotConfirmedPayments(Long.MIN_VALUE, 2))
+            .thenReturn(Collections.singletonList(new ConfirmationExpirationCandidate(7L, NOW.minusSeconds(100))));
+        confirmationExpiryEngine.loadNotConfirmedItems();
+
+        setClock(NOW.plusSeconds(10));
+        confirmationExpiryEngine.expireDueItems();
+        verify(aisConsentConfirmationExpirationService).updateConsentsOnConfirmationExpiration(Collections.singletonList(2L));
+        verify(pisCommonPaymentConfirmationExpirationService, never()).updatePaymentsOnConfirmationExpiration(any());
+
+        setClock(NOW.plusSeconds(30));
+        confirmationExpiryEngine.expireDueItems();
+        verify(aisConsentConfirmationExpirationService).updateConsentsOnConfirmationExpiration(Collections.singletonList(1L));
+        verify(pisCommonPaymentConfirmationExpirationService).updatePaymentsOnConfirmationExpiration(Collections.singletonList(7L));
+        verify(aisConsentConfirmationExpirationService, never()).updateConsentsOnConfirmationExpiration(Collections.singletonList(3L));
+    }
+
+    @Test
+    void expireDueItems_createdItemsInBatches() {
+        when(aspspProfileService.getAspspSettings()).thenReturn(buildAspspSettings());
+        when(aisConsentConfirmationExpirationService.findNotConfirmedConsents(Long.MIN_VALUE, 2)).thenReturn(Collections.emptyList());
+        when(pisCommonPaymentConfirmationExpirationService.findNotConfirmedPayments(Long.MIN_VALUE, 2)).thenReturn(Collections.emptyList());
+        when(aisConsentConfirmationExpirationService.updateConsentsOnConfirmationExpiration(any())).thenThrow(new IllegalStateException("Database is down")).thenReturn(1);
+        confirmationExpiryEngine.loadNotConfirmedItems();
+
+        for (long id = 1; id <= 3; id++) {
+            confirmationExpiryEngine.onConfirmationExpirationCandidate(new ConfirmationExpirationCandidateEvent(ConfirmationExpirationObjectType.CONSENT, id, NOW));
+        }
+        setClock(NOW.plusSeconds(60));
+        confirmationExpiryEngine.expireDueItems();
+
+        verify(aisConsentConfirmationExpirationService, times(2)).updateConsentsOnConfirmationExpiration(any());
+        verify(pisCommonPaymentConfirmationExpirationService, never()).updatePaymentsOnConfirmationExpiration(any());
+    }
+
+    @Test
+    void onConfirmationExpirationCandidate_capacityExceeded() {
+        when(aspspProfileService.getAspspSettings()).thenReturn(buildAspspSettings());
+        when(aisConsentConfirmationExpirationService.findNotConfirmedConsents(Long.MIN_VALUE, 2)).thenReturn(Collections.emptyList());
+        when(pisCommonPaymentConfirmationExpirationService.findNotConfirmedPayments(Long.MIN_VALUE, 2)).thenReturn(Collections.emptyList());
+        ReflectionTestUtils.setField(confirmationExpiryEngine, "maxItems", 1);
+        confirmationExpiryEngine.loadNotConfirmedItems();
+
+        confirmationExpiryEngine.onConfirmationExpirationCandidate(new ConfirmationExpirationCandidateEvent(ConfirmationExpirationObjectType.PAYMENT, 1L, NOW));
+        confirmationExpiryEngine.onConfirmationExpirationCandidate(new ConfirmationExpirationCandidateEvent(ConfirmationExpirationObjectType.PAYMENT, 2L, NOW));
+        setClock(NOW.plusSeconds(120));
+        confirmationExpiryEngine.expireDueItems();
+
+        verify(pisCommonPaymentConfirmationExpirationService).updatePaymentsOnConfirmationExpiration(Collections.singletonList(1L));
+    }
+
+    private void setClock(OffsetDateTime time) {
+        ReflectionTestUtils.setField(confirmationExpiryEngine, "clock", Clock.fixed(time.toInstant(), ZoneOffset.UTC));
+    }
+
+    private AspspSettings buildAspspSettings() {
+        return new AspspSettings(new AisAspspProfileSetting(new ConsentTypeSetting(false, false, false, 0, CONSENT_EXPIRATION_MS, 0, false, false), null, null, null, null),
+                                 new PisAspspProfileSetting(new HashMap<>(), 0, PAYMENT_EXPIRATION_MS, true, null, "", null), null, null);
+    }
+}
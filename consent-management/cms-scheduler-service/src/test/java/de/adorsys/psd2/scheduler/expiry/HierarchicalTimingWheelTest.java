@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+    private static final long START_MS = 1_000_000;
+
+    private final HierarchicalTimingWheel<String> timingWheel = new HierarchicalTimingWheel<>(10, 8, START_MS);
+
+    @Test
+    void advance_itemWithinLowestWheel() {
+        timingWheel.add("item", START_MS + 35);
+
+        assertTrue(timingWheel.advance(START_MS + 29).isEmpty());
+        assertEquals(Collections.singletonList("item"), timingWheel.advance(START_MS + 30));
+        assertEquals(0, timingWheel.size());
+    }
+
+    @Test
+    void advance_itemInOverflowWheels() {
+        long deadline = START_MS + 10 * 8 * 8 * 3 + 5;
+        timingWheel.add("item", deadline);
+
+        assertTrue(timingWheel.advance(START_MS + 10 * 8 * 8).isEmpty());
+        assertTrue(timingWheel.advance(deadline - 10).isEmpty());
+        assertEquals(1, timingWheel.size());
+        assertEquals(Collections.singletonList("item"), timingWheel.advance(deadline));
+    }
+
+    @Test
+    void advance_itemWithPastDeadline() {
+        timingWheel.add("item", START_MS - 1_000);
+
+        assertEquals(Collections.singletonList("item"), timingWheel.advance(START_MS));
+    }
+
+    @Test
+    void advance_skipsEmptyTicksAndReturnsAllDueItems() {
+        timingWheel.add("first", START_MS + 15);
+        timingWheel.add("second", START_MS + 700);
+        timingWheel.add("third", START_MS + 100_000);
+
+        List<String> actual = timingWheel.advance(START_MS + 50_000);
+
+        assertEquals(new HashSet<>(Arrays.asList("first", "second")), new HashSet<>(actual));
+        assertEquals(1, timingWheel.size());
+    }
+
+    @Test
+    void add_afterClockHasMoved() {
+        timingWheel.add("first", START_MS + 500);
+        timingWheel.advance(START_MS + 500);
+
+        timingWheel.add("second", START_MS + 520);
+
+        assertTrue(timingWheel.advance(START_MS + 510).isEmpty());
+        assertEquals(Collections.singletonList("second"), timingWheel.advance(START_MS + 520));
+    }
+
+    @Test
+    void constructor_invalidTick() {
+        assertThrows(IllegalArgumentException.class, () -> new HierarchicalTimingWheel<String>(0, 8, START_MS));
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.lock;
+
+import de.adorsys.psd2.consent.repository.SchedulerLockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SchedulerLockServiceTest {
+    private static final String LOCK_NAME = "ConsentScheduleTask";
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2020, 4, 24, 12, 0, 0, 0, ZoneOffset.UTC);
+    private static final long LEASE_DURATION_MS = 600_000;
+    private static final long MIN_LEASE_DURATION_MS = 30_000;
+
+    private SchedulerLockService schedulerLockService;
+
+    @Mock
+    private SchedulerLockRepository schedulerLockRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private Runnable task;
+
+    @BeforeEach
+    void setUp() {
+        schedulerLockService = new SchedulerLockService(schedulerLockRepository, transactionManager);
+        ReflectionTestUtils.setField(schedulerLockService, "clock", Clock.fixed(NOW.toInstant(), ZoneOffset.UTC));
+        ReflectionTestUtils.setField(schedulerLockService, "lockEnabled", true);
+        ReflectionTestUtils.setField(schedulerLockService, "leaseDurationMs", LEASE_DURATION_MS);
+        ReflectionTestUtils.setField(schedulerLockService, "minLeaseDurationMs", MIN_LEASE_DURATION_MS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        schedulerLockService.stop();
+    }
+
+    @Test
+    void executeWithLock_expiredLeaseTakenOver() {
+        when(schedulerLockRepository.updateExpiredLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plusMinutes(10)))).thenReturn(1);
+
+        boolean executed = schedulerLockService.executeWithLock(LOCK_NAME, task);
+
+        assertTrue(executed);
+        verify(task).run();
+        verify(schedulerLockRepository, never()).insertLock(any(), any(), any(), any());
+        // the task has finished immediately, so the lease is kept for the minimal duration
+        verify(schedulerLockRepository).releaseLock(eq(LOCK_NAME), anyString(), eq(NOW.plusSeconds(30)));
+    }
+
+    @Test
+    void executeWithLock_newLeaseCreated() {
+        when(schedulerLockRepository.updateExpiredLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plusMinutes(10)))).thenReturn(0);
+        when(schedulerLockRepository.insertLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plusMinutes(10)))).thenReturn(1);
+
+        boolean executed = schedulerLockService.executeWithLock(LOCK_NAME, task);
+
+        assertTrue(executed);
+        verify(task).run();
+        verify(schedulerLockRepository).releaseLock(eq(LOCK_NAME), anyString(), any());
+    }
+
+    @Test
+    void executeWithLock_lockedByAnotherNode() {
+        when(schedulerLockRepository.updateExpiredLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plusMinutes(10)))).thenReturn(0);
+        when(schedulerLockRepository.insertLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plusMinutes(10)))).thenReturn(0);
+
+        boolean executed = schedulerLockService.executeWithLock(LOCK_NAME, task);
+
+        assertFalse(executed);
+        verify(task, never()).run();
+        verify(schedulerLockRepository, never()).releaseLock(any(), any(), any());
+    }
+
+    @Test
+    void executeWithLock_leaseCreatedConcurrently() {
+        when(schedulerLockRepository.updateExpiredLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plusMinutes(10)))).thenReturn(0);
+        when(schedulerLockRepository.insertLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plusMinutes(10))))
+            .thenThrow(DataIntegrityViolationException.class);
+
+        boolean executed = schedulerLockService.executeWithLock(LOCK_NAME, task);
+
+        assertFalse(executed);
+        verify(task, never()).run();
+    }
+
+    @Test
+    void executeWithLock_longRunningTask_leaseReleasedAtFinish() {
+        Clock clock = mock(Clock.class);
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        Instant start = NOW.toInstant();
+        when(clock.instant()).thenReturn(start, start.plusSeconds(120));
+        ReflectionTestUtils.setField(schedulerLockService, "clock", clock);
+        when(schedulerLockRepository.updateExpiredLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plusMinutes(10)))).thenReturn(1);
+
+        schedulerLockService.executeWithLock(LOCK_NAME, task);
+
+        verify(schedulerLockRepository).releaseLock(eq(LOCK_NAME), anyString(), eq(NOW.plusMinutes(2)));
+    }
+
+    @Test
+    void executeWithLock_taskFailed_lockReleased() {
+        when(schedulerLockRepository.updateExpiredLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plusMinutes(10)))).thenReturn(1);
+        doThrow(IllegalStateException.class).when(task).run();
+
+        assertThrows(IllegalStateException.class, () -> schedulerLockService.executeWithLock(LOCK_NAME, task));
+
+        verify(schedulerLockRepository).releaseLock(eq(LOCK_NAME), anyString(), any());
+    }
+
+    @Test
+    void executeWithLock_releaseFailed_taskResultKept() {
+        when(schedulerLockRepository.updateExpiredLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plusMinutes(10)))).thenReturn(1);
+        doThrow(QueryTimeoutException.class).when(schedulerLockRepository).releaseLock(eq(LOCK_NAME), anyString(), any());
+
+        assertTrue(schedulerLockService.executeWithLock(LOCK_NAME, task));
+    }
+
+    @Test
+    void executeWithLock_lockDisabled() {
+        ReflectionTestUtils.setField(schedulerLockService, "lockEnabled", false);
+
+        boolean executed = schedulerLockService.executeWithLock(LOCK_NAME, task);
+
+        assertTrue(executed);
+        verify(task).run();
+        verifyNoInteractions(schedulerLockRepository);
+    }
+
+    @Test
+    void executeWithLock_sameOwnerForAllLocks() {
+        ArgumentCaptor<String> ownerCaptor = ArgumentCaptor.forClass(String.class);
+        when(schedulerLockRepository.updateExpiredLock(anyString(), ownerCaptor.capture(), any(), any())).thenReturn(1);
+
+        schedulerLockService.executeWithLock(LOCK_NAME, task);
+        schedulerLockService.executeWithLock("TppStopListScheduleTask", task);
+
+        assertEquals(ownerCaptor.getAllValues().get(0), ownerCaptor.getAllValues().get(1));
+    }
+
+    @Test
+    void executeWithLock_longRunningTask_leaseRenewed() {
+        ReflectionTestUtils.setField(schedulerLockService, "leaseDurationMs", 30L);
+        when(schedulerLockRepository.updateExpiredLock(eq(LOCK_NAME), anyString(), any(), any())).thenReturn(1);
+        when(schedulerLockRepository.extendLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plus(30, ChronoUnit.MILLIS)))).thenReturn(1);
+
+        boolean executed = schedulerLockService.executeWithLock(LOCK_NAME, () -> sleep(200));
+
+        assertTrue(executed);
+        verify(schedulerLockRepository, atLeastOnce()).extendLock(eq(LOCK_NAME), anyString(), eq(NOW), eq(NOW.plus(30, ChronoUnit.MILLIS)));
+        verify(schedulerLockRepository).releaseLock(eq(LOCK_NAME), anyString(), any());
+    }
+
+    @Test
+    void executeWithLock_leaseLost_taskInterrupted() {
+        ReflectionTestUtils.setField(schedulerLockService, "leaseDurationMs", 30L);
+        when(schedulerLockRepository.updateExpiredLock(eq(LOCK_NAME), anyString(), any(), any())).thenReturn(1);
+        when(schedulerLockRepository.extendLock(eq(LOCK_NAME), anyString(), any(), any())).thenReturn(0);
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        boolean executed = schedulerLockService.executeWithLock(LOCK_NAME, () -> interrupted.set(!sleep(5_000)));
+
+        assertFalse(executed);
+        assertTrue(interrupted.get());
+        assertFalse(Thread.currentThread().isInterrupted());
+        verify(schedulerLockRepository, times(1)).extendLock(eq(LOCK_NAME), anyString(), any(), any());
+        verify(schedulerLockRepository, never()).releaseLock(anyString(), anyString(), any());
+    }
+
+    @Test
+    void executeWithLock_renewalFailed_retriedWithNextHeartbeat() {
+        ReflectionTestUtils.setField(schedulerLockService, "leaseDurationMs", 30L);
+        when(schedulerLockRepository.updateExpiredLock(eq(LOCK_NAME), anyString(), any(), any())).thenReturn(1);
+        when(schedulerLockRepository.extendLock(eq(LOCK_NAME), anyString(), any(), any()))
+            .thenThrow(QueryTimeoutException.class)
+            .thenReturn(1);
+
+        boolean executed = schedulerLockService.executeWithLock(LOCK_NAME, () -> sleep(200));
+
+        assertTrue(executed);
+        verify(schedulerLockRepository, atLeast(2)).extendLock(eq(LOCK_NAME), anyString(), any(), any());
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
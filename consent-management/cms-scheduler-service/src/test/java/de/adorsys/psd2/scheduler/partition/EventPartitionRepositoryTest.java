@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.partition;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventPartitionRepositoryTest {
+    private static final LocalDateTime FROM = LocalDateTime.of(2020, 4, 15, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2020, 4, 16, 0, 0);
+    private static final String CREATE_PARTITION_SQL = "CREATE TABLE IF NOT EXISTS consent.event_p20200415 PARTITION OF consent.event " +
+                                                           "FOR VALUES FROM ('2020-04-15 00:00:00') TO ('2020-04-16 00:00:00')";
+
+    @InjectMocks
+    private EventPartitionRepository eventPartitionRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(eventPartitionRepository, "schemaName", "CONSENT");
+    }
+
+    @Test
+    void createPartition_noEventsInDefaultPartition() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("event"), eq("consent")))
+            .thenReturn(Collections.singletonList("event_default"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(Timestamp.valueOf(FROM)), eq(Timestamp.valueOf(TO))))
+            .thenReturn(false);
+
+        // When
+        String partitionName = eventPartitionRepository.createPartition(FROM, TO);
+
+        // Then
+        assertEquals("event_p20200415", partitionName);
+        verify(jdbcTemplate).execute(CREATE_PARTITION_SQL);
+        verify(jdbcTemplate, never()).execute(contains("DETACH PARTITION"));
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void createPartition_eventsInDefaultPartition_shouldBeMoved() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("event"), eq("consent")))
+            .thenReturn(Collections.singletonList("event_default"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq(Timestamp.valueOf(FROM)), eq(Timestamp.valueOf(TO))))
+            .thenReturn(true);
+
+        // When
+        String partitionName = eventPartitionRepository.createPartition(FROM, TO);
+
+        // Then
+        assertEquals("event_p20200415", partitionName);
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE consent.event DETACH PARTITION consent.event_default");
+        inOrder.verify(jdbcTemplate).execute(CREATE_PARTITION_SQL);
+        inOrder.verify(jdbcTemplate).update("INSERT INTO consent.event_p20200415 SELECT * FROM consent.event_default WHERE timestamp >= ? AND timestamp < ?",
+                                            Timestamp.valueOf(FROM), Timestamp.valueOf(TO));
+        inOrder.verify(jdbcTemplate).update("DELETE FROM consent.event_default WHERE timestamp >= ? AND timestamp < ?",
+                                            Timestamp.valueOf(FROM), Timestamp.valueOf(TO));
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE consent.event ATTACH PARTITION consent.event_default DEFAULT");
+    }
+
+    @Test
+    void createPartition_noDefaultPartition() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("event"), eq("consent")))
+            .thenReturn(Collections.emptyList());
+
+        // When
+        eventPartitionRepository.createPartition(FROM, TO);
+
+        // Then
+        verify(jdbcTemplate).execute(CREATE_PARTITION_SQL);
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Boolean.class), any(), any());
+    }
+
+    @Test
+    void dropPartition_largeObjectPayload_unlinkedBeforeDrop() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("event"), eq("consent")))
+            .thenReturn(Collections.singletonList("oid"));
+
+        // When
+        eventPartitionRepository.dropPartition("event_p20200415");
+
+        // Then
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).queryForObject(startsWith("SELECT COUNT(lo_unlink(e.payload)) FROM consent.event_p20200415 e"), eq(Integer.class));
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS consent.event_p20200415");
+    }
+
+    @Test
+    void dropPartition_byteaPayload_notUnlinked() {
+        // Given
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("event"), eq("consent")))
+            .thenReturn(Collections.singletonList("bytea"));
+
+        // When
+        eventPartitionRepository.dropPartition("event_p20200415");
+
+        // Then
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Integer.class));
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS consent.event_p20200415");
+    }
+
+    @Test
+    void detachPartition_payloadKept() {
+        // When
+        eventPartitionRepository.detachPartition("event_p20200415");
+
+        // Then
+        verify(jdbcTemplate).execute("ALTER TABLE consent.event DETACH PARTITION consent.event_p20200415");
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Integer.class));
+    }
+}
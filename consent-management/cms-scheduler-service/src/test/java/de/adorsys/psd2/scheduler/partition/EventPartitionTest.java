@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.scheduler.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventPartitionTest {
+
+    @Test
+    void fromBound_range() {
+        Optional<EventPartition> actual = EventPartition.fromBound("event_p20200401", "FOR VALUES FROM ('2020-04-01 00:00:00') TO ('2020-04-02 00:00:00')");
+
+        assertTrue(actual.isPresent());
+        assertEquals(LocalDateTime.of(2020, 4, 1, 0, 0), actual.get().getFrom());
+        assertEquals(LocalDateTime.of(2020, 4, 2, 0, 0), actual.get().getTo());
+    }
+
+    @Test
+    void fromBound_minValue() {
+        Optional<EventPartition> actual = EventPartition.fromBound("event_legacy", "FOR VALUES FROM (MINVALUE) TO ('2020-04-02 00:00:00')");
+
+        assertTrue(actual.isPresent());
+        assertNull(actual.get().getFrom());
+        assertEquals(LocalDateTime.of(2020, 4, 2, 0, 0), actual.get().getTo());
+    }
+
+    @Test
+    void fromBound_default() {
+        assertFalse(EventPartition.fromBound("event_default", "DEFAULT").isPresent());
+    }
+}
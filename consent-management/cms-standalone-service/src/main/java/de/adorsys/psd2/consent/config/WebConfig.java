@@ -16,13 +16,18 @@
 
 package de.adorsys.psd2.consent.config;
 
+import de.adorsys.psd2.consent.config.datasource.ReadReplicaContextTaskDecorator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -31,6 +36,33 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class WebConfig implements WebMvcConfigurer {
     private final CorsConfigProperties corsConfigProperties;
 
+    @Value("${cms.export.async.timeout-ms:3600000}")
+    private long exportAsyncTimeoutMs;
+
+    @Value("${cms.export.async.pool-size:4}")
+    private int exportPoolSize;
+
+    @Value("${cms.export.async.queue-capacity:20}")
+    private int exportQueueCapacity;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // streaming export responses are written asynchronously, the container's default timeout would cut them off
+        configurer.setDefaultTimeout(exportAsyncTimeoutMs);
+        configurer.setTaskExecutor(exportTaskExecutor());
+    }
+
+    @Bean
+    public AsyncTaskExecutor exportTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(exportPoolSize);
+        executor.setMaxPoolSize(exportPoolSize);
+        executor.setQueueCapacity(exportQueueCapacity);
+        executor.setThreadNamePrefix("cms-export-");
+        executor.setTaskDecorator(new ReadReplicaContextTaskDecorator());
+        return executor;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("swagger-ui.html")
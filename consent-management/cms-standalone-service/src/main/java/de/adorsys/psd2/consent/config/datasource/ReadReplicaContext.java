@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.config.datasource;
+
+/**
+ * Marks the current thread as processing a read path, whose read-only transactions may be routed to a replica, and
+ * remembers, that it has used the primary database in a read-write transaction since, so that following read-only
+ * transactions see its changes and are not routed to a possibly lagging replica.
+ * <p>
+ * Threads without context, e.g. scheduler threads or requests to other paths, always use the primary database.
+ */
+final class ReadReplicaContext {
+    private static final ThreadLocal<ReadReplicaContext> CURRENT = new ThreadLocal<>();
+
+    private volatile boolean primaryWritten;
+
+    private ReadReplicaContext() {
+    }
+
+    static void enableReplicaReads() {
+        CURRENT.set(new ReadReplicaContext());
+    }
+
+    static boolean isReplicaReadAllowed() {
+        ReadReplicaContext context = CURRENT.get();
+        return context != null && !context.primaryWritten;
+    }
+
+    static void markPrimaryWritten() {
+        ReadReplicaContext context = CURRENT.get();
+        if (context != null) {
+            context.primaryWritten = true;
+        }
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Passes the context of the current thread to the given task, that is executed by another thread
+     */
+    static Runnable propagate(Runnable task) {
+        ReadReplicaContext context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+
+        return () -> {
+            CURRENT.set(context);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+}
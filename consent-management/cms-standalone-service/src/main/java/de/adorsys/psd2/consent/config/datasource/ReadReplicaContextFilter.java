@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.config.datasource;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Allows routing read-only transactions to read replicas only for GET requests to the configured read paths and
+ * limits the stickiness to the primary database after a write to the current request
+ */
+public class ReadReplicaContextFilter extends OncePerRequestFilter {
+    private final List<String> readPaths;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public ReadReplicaContextFilter(List<String> readPaths) {
+        this.readPaths = readPaths;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (isReadPath(request)) {
+            ReadReplicaContext.enableReplicaReads();
+        } else {
+            ReadReplicaContext.clear();
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadReplicaContext.clear();
+        }
+    }
+
+    private boolean isReadPath(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return false;
+        }
+
+        String path = urlPathHelper.getPathWithinApplication(request);
+        return readPaths.stream()
+                   .anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.config.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Fetches connections of {@link ReplicaRoutingDataSource} on first use, after the read-only flag of the current
+ * transaction has been set
+ */
+public class ReadReplicaDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    public ReadReplicaDataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        super(replicaRoutingDataSource);
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+    }
+
+    public void checkReplicationLag() {
+        replicaRoutingDataSource.checkReplicationLag();
+    }
+
+    @Override
+    public void close() throws Exception {
+        replicaRoutingDataSource.close();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.config.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the data source configured by {@code spring.datasource} properties with a data source, that routes
+ * read-only transactions of read paths to the replica databases configured by {@code cms.datasource.read-replica}
+ * properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cms.datasource.read-replica.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaDataSourceConfig {
+    private static final String HIKARI_PROPERTIES_PREFIX = "spring.datasource.hikari";
+
+    @Bean
+    @Primary
+    public ReadReplicaDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                            ReadReplicaProperties readReplicaProperties,
+                                            Environment environment) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                                       .type(HikariDataSource.class)
+                                       .build();
+        Binder.get(environment).bind(HIKARI_PROPERTIES_PREFIX, Bindable.ofInstance(primary));
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReadReplicaProperties.Replica> replicaProperties = readReplicaProperties.getReplicas();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            String name = "replica-" + i;
+            replicas.put(name, buildReplicaDataSource(name, replicaProperties.get(i), dataSourceProperties));
+        }
+
+        return new ReadReplicaDataSource(new ReplicaRoutingDataSource(primary, replicas, readReplicaProperties.getMaxLagMs(), readReplicaProperties.getLagQuery()));
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadReplicaDataSource readReplicaDataSource) {
+        return new ReplicaLagMonitor(readReplicaDataSource);
+    }
+
+    @Bean
+    public ReadReplicaContextFilter readReplicaContextFilter(ReadReplicaProperties readReplicaProperties) {
+        return new ReadReplicaContextFilter(readReplicaProperties.getReadPaths());
+    }
+
+    private HikariDataSource buildReplicaDataSource(String name, ReadReplicaProperties.Replica replica, DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("cms-" + name);
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(StringUtils.defaultIfBlank(replica.getUsername(), dataSourceProperties.determineUsername()));
+        dataSource.setPassword(StringUtils.defaultIfBlank(replica.getPassword(), dataSourceProperties.determinePassword()));
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+}
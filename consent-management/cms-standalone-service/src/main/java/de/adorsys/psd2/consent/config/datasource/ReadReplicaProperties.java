@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.config.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "cms.datasource.read-replica")
+public class ReadReplicaProperties {
+    private static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+                                                         + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private boolean enabled;
+    private List<Replica> replicas = new ArrayList<>();
+    /**
+     * Replicas lagging behind the primary database for more than this amount of milliseconds are not used
+     */
+    private long maxLagMs = 1000;
+    private long lagCheckIntervalMs = 5000;
+    /**
+     * Query executed on every replica, that returns its replication lag in milliseconds
+     */
+    private String lagQuery = POSTGRES_LAG_QUERY;
+    /**
+     * Ant-style patterns of paths, whose GET requests may read from replicas: exports, event reports and funds confirmation
+     */
+    private List<String> readPaths = new ArrayList<>(Arrays.asList(
+        "/aspsp-api/v1/ais/consents/tpp/**",
+        "/aspsp-api/v1/ais/consents/psu/**",
+        "/aspsp-api/v1/ais/consents/account/**",
+        "/aspsp-api/v1/pis/payments/tpp/**",
+        "/aspsp-api/v1/pis/payments/psu/**",
+        "/aspsp-api/v1/pis/payments/account/**",
+        "/aspsp-api/v1/piis/consents/tpp/**",
+        "/aspsp-api/v1/piis/consents/psu/**",
+        "/aspsp-api/v1/piis/consents/account/**",
+        "/aspsp-api/v1/events/**",
+        "/api/v1/piis/consent/**"
+    ));
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes connections of read-only transactions of read paths to replica databases and all other connections to the
+ * primary database.
+ * <p>
+ * Read-only transactions are routed to the primary database as well, if the current thread doesn't process a read
+ * path, no replica is available or the current thread has already used the primary database in a read-write
+ * transaction (see {@link ReadReplicaContext}). Other requests, e.g. of XS2A, read their own changes made by previous
+ * requests, so they never use replicas.
+ * Replicas are used in turn, those that lag behind the primary database for more than the configured amount of
+ * milliseconds or could not be checked are left out until the next successful check. Replicas are unavailable until
+ * they have been checked for the first time.
+ * <p>
+ * The read-only flag of a transaction is set after its connection has been requested, so this data source is used
+ * through {@link ReadReplicaDataSource}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger replicaCounter = new AtomicInteger();
+    private final long maxLagMs;
+    private final String lagQuery;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicaDataSources, long maxLagMs, String lagQuery) {
+        this.primary = primary;
+        this.maxLagMs = maxLagMs;
+        this.lagQuery = lagQuery;
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        replicaDataSources.forEach((name, dataSource) -> {
+            replicas.add(new Replica(name, dataSource));
+            targetDataSources.put(name, dataSource);
+        });
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReadReplicaContext.markPrimaryWritten();
+            }
+            return PRIMARY;
+        }
+
+        if (!ReadReplicaContext.isReplicaReadAllowed()) {
+            return PRIMARY;
+        }
+
+        int replicaCount = replicas.size();
+        int start = Math.floorMod(replicaCounter.getAndIncrement(), Math.max(replicaCount, 1));
+        for (int i = 0; i < replicaCount; i++) {
+            Replica replica = replicas.get((start + i) % replicaCount);
+            if (replica.available) {
+                return replica.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Checks the replication lag of every replica and excludes replicas lagging behind the primary database
+     */
+    public void checkReplicationLag() {
+        for (Replica replica : replicas) {
+            boolean available = isLagAcceptable(replica);
+            if (available != replica.available) {
+                log.info("Read replica {} is {}", replica.name, available ? "available" : "unavailable");
+            }
+            replica.available = available;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            closeDataSource(replica.dataSource);
+        }
+        closeDataSource(primary);
+    }
+
+    private boolean isLagAcceptable(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            if (!resultSet.next()) {
+                return false;
+            }
+
+            double lagMs = resultSet.getDouble(1);
+            if (resultSet.wasNull()) {
+                log.debug("Replication lag of read replica {} is unknown", replica.name);
+                return false;
+            }
+            if (lagMs > maxLagMs) {
+                log.debug("Read replica {} lags behind the primary database for {} ms", replica.name, (long) lagMs);
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            log.warn("Replication lag of read replica {} could not be checked: {}", replica.name, e.getMessage());
+            return false;
+        }
+    }
+
+    private void closeDataSource(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable) {
+            ((AutoCloseable) dataSource).close();
+        }
+    }
+
+    private static class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean available;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
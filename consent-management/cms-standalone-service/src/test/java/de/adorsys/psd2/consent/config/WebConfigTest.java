@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebConfigTest {
+    private WebConfig webConfig;
+
+    @BeforeEach
+    void setUp() {
+        webConfig = new WebConfig(new CorsConfigProperties());
+        ReflectionTestUtils.setField(webConfig, "exportAsyncTimeoutMs", 60_000L);
+        ReflectionTestUtils.setField(webConfig, "exportPoolSize", 2);
+        ReflectionTestUtils.setField(webConfig, "exportQueueCapacity", 5);
+    }
+
+    @Test
+    void configureAsyncSupport() {
+        // Given
+        AsyncSupportConfigurer configurer = new AsyncSupportConfigurer();
+
+        // When
+        webConfig.configureAsyncSupport(configurer);
+
+        // Then
+        assertEquals(60_000L, ReflectionTestUtils.getField(configurer, "timeout"));
+        assertTrue(ReflectionTestUtils.getField(configurer, "taskExecutor") instanceof ThreadPoolTaskExecutor);
+    }
+
+    @Test
+    void exportTaskExecutor_bounded() {
+        // When
+        AsyncTaskExecutor executor = webConfig.exportTaskExecutor();
+
+        // Then
+        ThreadPoolTaskExecutor threadPoolTaskExecutor = (ThreadPoolTaskExecutor) executor;
+        assertEquals(2, threadPoolTaskExecutor.getCorePoolSize());
+        assertEquals(2, threadPoolTaskExecutor.getMaxPoolSize());
+        assertEquals(5, ReflectionTestUtils.getField(threadPoolTaskExecutor, "queueCapacity"));
+        assertEquals("cms-export-", threadPoolTaskExecutor.getThreadNamePrefix());
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.config.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadReplicaContextFilterTest {
+    private final ReadReplicaContextFilter filter = new ReadReplicaContextFilter(Collections.singletonList("/aspsp-api/v1/ais/consents/tpp/**"));
+
+    @AfterEach
+    void tearDown() {
+        ReadReplicaContext.clear();
+    }
+
+    @Test
+    void doFilter_readPath_replicaReadAllowed() throws ServletException, IOException {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/aspsp-api/v1/ais/consents/tpp/12345678/stream");
+        AtomicBoolean replicaReadAllowed = new AtomicBoolean();
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain(replicaReadAllowed));
+
+        // Then
+        assertTrue(replicaReadAllowed.get());
+        assertFalse(ReadReplicaContext.isReplicaReadAllowed());
+    }
+
+    @Test
+    void doFilter_otherPath_replicaReadNotAllowed() throws ServletException, IOException {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/authorisations/123/status");
+        AtomicBoolean replicaReadAllowed = new AtomicBoolean(true);
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain(replicaReadAllowed));
+
+        // Then
+        assertFalse(replicaReadAllowed.get());
+    }
+
+    @Test
+    void doFilter_readPathNotGet_replicaReadNotAllowed() throws ServletException, IOException {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/aspsp-api/v1/ais/consents/tpp/12345678");
+        AtomicBoolean replicaReadAllowed = new AtomicBoolean(true);
+
+        // When
+        filter.doFilter(request, new MockHttpServletResponse(), chain(replicaReadAllowed));
+
+        // Then
+        assertFalse(replicaReadAllowed.get());
+    }
+
+    @Test
+    void taskDecorator_contextPropagatedToAsyncTask() throws ExecutionException, InterruptedException {
+        // Given
+        TaskDecorator taskDecorator = new ReadReplicaContextTaskDecorator();
+        AtomicBoolean replicaReadAllowed = new AtomicBoolean();
+        ReadReplicaContext.enableReplicaReads();
+        Runnable task = taskDecorator.decorate(() -> replicaReadAllowed.set(ReadReplicaContext.isReplicaReadAllowed()));
+        ReadReplicaContext.clear();
+
+        // When
+        CompletableFuture.runAsync(task).get();
+
+        // Then
+        assertTrue(replicaReadAllowed.get());
+    }
+
+    private FilterChain chain(AtomicBoolean replicaReadAllowed) {
+        return (request, response) -> replicaReadAllowed.set(ReadReplicaContext.isReplicaReadAllowed());
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.config.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+    private static final String LAG_QUERY = "lag query";
+    private static final long MAX_LAG_MS = 1000;
+
+    @Mock
+    private DataSource primary;
+    @Mock
+    private DataSource firstReplica;
+    @Mock
+    private DataSource secondReplica;
+    @Mock
+    private Connection primaryConnection;
+    @Mock
+    private Connection firstReplicaConnection;
+    @Mock
+    private Connection secondReplicaConnection;
+
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", firstReplica);
+        replicas.put("replica-1", secondReplica);
+        replicaRoutingDataSource = new ReplicaRoutingDataSource(primary, replicas, MAX_LAG_MS, LAG_QUERY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        ReadReplicaContext.clear();
+    }
+
+    @Test
+    void getConnection_readWriteTransaction() throws SQLException {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        // When
+        Connection actual = replicaRoutingDataSource.getConnection();
+
+        // Then
+        assertEquals(primaryConnection, actual);
+    }
+
+    @Test
+    void getConnection_readOnlyTransaction_replicasUsedInTurn() throws SQLException {
+        // Given
+        mockReplicaLag(firstReplica, firstReplicaConnection, 0);
+        mockReplicaLag(secondReplica, secondReplicaConnection, 0);
+        replicaRoutingDataSource.checkReplicationLag();
+        startReadOnlyTransaction();
+
+        // When
+        Connection first = replicaRoutingDataSource.getConnection();
+        Connection second = replicaRoutingDataSource.getConnection();
+
+        // Then
+        assertEquals(firstReplicaConnection, first);
+        assertEquals(secondReplicaConnection, second);
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void getConnection_readOnlyTransaction_notCheckedReplicas() throws SQLException {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        startReadOnlyTransaction();
+
+        // When
+        Connection actual = replicaRoutingDataSource.getConnection();
+
+        // Then
+        assertEquals(primaryConnection, actual);
+    }
+
+    @Test
+    void getConnection_readOnlyTransaction_laggingReplicaSkipped() throws SQLException {
+        // Given
+        mockReplicaLag(firstReplica, firstReplicaConnection, MAX_LAG_MS + 1);
+        mockReplicaLag(secondReplica, secondReplicaConnection, MAX_LAG_MS);
+        replicaRoutingDataSource.checkReplicationLag();
+        startReadOnlyTransaction();
+
+        // When
+        Connection first = replicaRoutingDataSource.getConnection();
+        Connection second = replicaRoutingDataSource.getConnection();
+
+        // Then
+        assertEquals(secondReplicaConnection, first);
+        assertEquals(secondReplicaConnection, second);
+        verify(firstReplica, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_readOnlyTransaction_failedLagCheck() throws SQLException {
+        // Given
+        when(firstReplica.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(secondReplica.getConnection()).thenThrow(new SQLException("connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        replicaRoutingDataSource.checkReplicationLag();
+        startReadOnlyTransaction();
+
+        // When
+        Connection actual = replicaRoutingDataSource.getConnection();
+
+        // Then
+        assertEquals(primaryConnection, actual);
+    }
+
+    @Test
+    void getConnection_readOnlyTransaction_afterWriteInSameRequest() throws SQLException {
+        // Given
+        mockReplicaLag(firstReplica, firstReplicaConnection, 0);
+        mockReplicaLag(secondReplica, secondReplicaConnection, 0);
+        replicaRoutingDataSource.checkReplicationLag();
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        ReadReplicaContext.enableReplicaReads();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        replicaRoutingDataSource.getConnection();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Connection actual = replicaRoutingDataSource.getConnection();
+
+        // Then
+        assertEquals(primaryConnection, actual);
+    }
+
+    @Test
+    void getConnection_readOnlyTransaction_afterWriteInPreviousRequest() throws SQLException {
+        // Given
+        mockReplicaLag(firstReplica, firstReplicaConnection, 0);
+        mockReplicaLag(secondReplica, secondReplicaConnection, 0);
+        replicaRoutingDataSource.checkReplicationLag();
+        ReadReplicaContext.enableReplicaReads();
+        ReadReplicaContext.markPrimaryWritten();
+        ReadReplicaContext.clear();
+        startReadOnlyTransaction();
+
+        // When
+        Connection actual = replicaRoutingDataSource.getConnection();
+
+        // Then
+        assertEquals(firstReplicaConnection, actual);
+    }
+
+    @Test
+    void getConnection_readOnlyTransaction_notReadPath() throws SQLException {
+        // Given
+        mockReplicaLag(firstReplica, firstReplicaConnection, 0);
+        mockReplicaLag(secondReplica, secondReplicaConnection, 0);
+        replicaRoutingDataSource.checkReplicationLag();
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Connection actual = replicaRoutingDataSource.getConnection();
+
+        // Then
+        assertEquals(primaryConnection, actual);
+        verify(firstReplica, times(1)).getConnection();
+        verify(secondReplica, times(1)).getConnection();
+    }
+
+    private void startReadOnlyTransaction() {
+        ReadReplicaContext.enableReplicaReads();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private void mockReplicaLag(DataSource replica, Connection connection, long lagMs) throws SQLException {
+        Connection lagCheckConnection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(replica.getConnection()).thenReturn(lagCheckConnection, connection);
+        when(lagCheckConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(1)).thenReturn((double) lagMs);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.integration.ais;
+
+import de.adorsys.psd2.consent.api.ActionStatus;
+import de.adorsys.psd2.consent.domain.account.AisConsentAction;
+import de.adorsys.psd2.consent.integration.config.IntegrationTestConfiguration;
+import de.adorsys.psd2.consent.repository.AisConsentActionRepository;
+import de.adorsys.psd2.consent.service.AisConsentActionLogService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ActiveProfiles("integration-test")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = IntegrationTestConfiguration.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AisConsentActionLogIT {
+    private static final String QUEUED_CONSENT_ID = "queued consent ID";
+    private static final String OVERFLOWING_CONSENT_ID = "overflowing consent ID";
+
+    @Autowired
+    private AisConsentActionLogService aisConsentActionLogService;
+    @Autowired
+    private AisConsentActionRepository aisConsentActionRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(aisConsentActionLogService, "asyncEnabled", true);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "flushIntervalMs", 60000L);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "overflowPolicy", AisConsentActionLogService.OverflowPolicy.SYNCHRONOUS);
+        aisConsentActionLogService.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        aisConsentActionLogService.stop();
+        ReflectionTestUtils.setField(aisConsentActionLogService, "asyncEnabled", false);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "queue", null);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "executor", null);
+        aisConsentActionRepository.deleteAll();
+    }
+
+    @Test
+    void logAction_queueFull_overflowingActionPersistedAfterCommit() {
+        // Given
+        aisConsentActionLogService.logAction(buildAction(QUEUED_CONSENT_ID));
+
+        // When
+        new TransactionTemplate(transactionManager).execute(status -> {
+            aisConsentActionLogService.logAction(buildAction(OVERFLOWING_CONSENT_ID));
+            return null;
+        });
+
+        // Then
+        List<AisConsentAction> savedActions = new ArrayList<>();
+        aisConsentActionRepository.findAll().forEach(savedActions::add);
+        assertEquals(1, savedActions.size());
+        assertEquals(OVERFLOWING_CONSENT_ID, savedActions.get(0).getRequestedConsentId());
+    }
+
+    private AisConsentAction buildAction(String consentId) {
+        AisConsentAction action = new AisConsentAction();
+        action.setActionStatus(ActionStatus.SUCCESS);
+        action.setRequestedConsentId(consentId);
+        action.setTppId("tpp ID");
+        action.setRequestDate(LocalDate.now());
+        return action;
+    }
+}
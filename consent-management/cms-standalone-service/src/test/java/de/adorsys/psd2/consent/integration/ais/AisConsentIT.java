@@ -18,17 +18,35 @@ package de.adorsys.psd2.consent.integration.ais;
 
 import de.adorsys.psd2.aspsp.profile.domain.AspspSettings;
 import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
+import de.adorsys.psd2.consent.api.ActionStatus;
+import de.adorsys.psd2.consent.api.CmsError;
+import de.adorsys.psd2.consent.api.CmsResponse;
 import de.adorsys.psd2.consent.api.WrongChecksumException;
+import de.adorsys.psd2.consent.api.authorisation.AuthorisationParentHolder;
+import de.adorsys.psd2.consent.api.ais.AisConsentActionRequest;
 import de.adorsys.psd2.consent.api.ais.CmsAisAccountConsent;
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
 import de.adorsys.psd2.consent.api.ais.CmsConsent;
+import de.adorsys.psd2.consent.api.service.AisConsentService;
+import de.adorsys.psd2.consent.api.service.AuthorisationService;
 import de.adorsys.psd2.consent.api.service.ConsentService;
+import de.adorsys.psd2.consent.aspsp.api.ais.CmsAspspAisExportService;
+import de.adorsys.psd2.consent.domain.AuthorisationEntity;
+import de.adorsys.psd2.consent.domain.account.AisConsentUsage;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.domain.consent.ConsentStatusProjection;
 import de.adorsys.psd2.consent.integration.config.IntegrationTestConfiguration;
 import de.adorsys.psd2.consent.psu.api.CmsPsuAisService;
+import de.adorsys.psd2.consent.repository.AisConsentUsageRepository;
+import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.SpecificationStreamingRepository;
 import de.adorsys.psd2.core.data.AccountAccess;
+import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationType;
 import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.psd2.xs2a.core.profile.ScaApproach;
 import de.adorsys.psd2.xs2a.core.psu.PsuIdData;
+import de.adorsys.psd2.xs2a.core.sca.ScaStatus;
 import de.adorsys.xs2a.reader.JsonReader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -39,11 +57,15 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceException;
-import java.util.Collections;
-import java.util.List;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -54,15 +76,28 @@ import static org.mockito.Mockito.when;
 @DataJpaTest
 public class AisConsentIT {
     private static final String DEFAULT_SERVICE_INSTANCE_ID = "UNDEFINED";
+    private static final String TPP_AUTHORISATION_NUMBER = "PSDDE-FAKENCA-87B2AC";
 
     @Autowired
     private ConsentService consentService;
     @Autowired
+    private AisConsentService aisConsentService;
+    @Autowired
+    private AisConsentUsageRepository aisConsentUsageRepository;
+    @Autowired
     private EntityManager entityManager;
     @Autowired
     private ConsentJpaRepository consentJpaRepository;
     @Autowired
     private CmsPsuAisService cmsPsuAisService;
+    @Autowired
+    private CmsAspspAisExportService cmsAspspAisExportService;
+    @Autowired
+    private AuthorisationRepository authorisationRepository;
+    @Autowired
+    private SpecificationStreamingRepository specificationStreamingRepository;
+    @Autowired
+    private AuthorisationService authorisationService;
 
     @MockBean
     private AspspProfileService aspspProfileService;
@@ -182,6 +217,218 @@ public class AisConsentIT {
         assertEquals("aspsp1", consentsAspsp1NoCorporateId.get(1).getPsuIdDataList().get(0).getPsuId());
     }
 
+    @Test
+    public void exportConsentsByTpp_consentsWithAssociationsAndAuthorisations() throws WrongChecksumException {
+        //Given
+        PsuIdData psuIdData = buildPsuIdData("aspsp", "aspsp corporate id");
+        String firstConsentId = consentService.createConsent(buildCreateAisConsentRequestWithPsuData(psuIdData)).getPayload().getConsentId();
+        String secondConsentId = consentService.createConsent(buildCreateAisConsentRequestWithPsuData(psuIdData)).getPayload().getConsentId();
+        consentService.createConsent(buildCreateAisConsentRequestWithPsuData(buildPsuIdData("aspsp1", null)));
+        createAuthorisation(firstConsentId);
+        createAuthorisation(firstConsentId);
+        createAuthorisation(secondConsentId);
+        flushAndClearPersistenceContext();
+
+        //When
+        Collection<CmsAisAccountConsent> consents = cmsAspspAisExportService.exportConsentsByTpp(TPP_AUTHORISATION_NUMBER, null, null,
+                                                                                                 psuIdData, DEFAULT_SERVICE_INSTANCE_ID);
+
+        //Then
+        assertEquals(2, consents.size());
+        Map<String, CmsAisAccountConsent> consentsById = consents.stream()
+                                                             .collect(Collectors.toMap(CmsAisAccountConsent::getId, Function.identity()));
+        assertEquals(2, consentsById.get(firstConsentId).getAccountConsentAuthorizations().size());
+        assertEquals(1, consentsById.get(secondConsentId).getAccountConsentAuthorizations().size());
+        consents.forEach(consent -> {
+            assertEquals(Collections.singletonList(psuIdData), consent.getPsuIdDataList());
+            assertEquals(TPP_AUTHORISATION_NUMBER, consent.getTppInfo().getAuthorisationNumber());
+            assertEquals("http://test.com", consent.getAuthorisationTemplate().getTppRedirectUri().getUri());
+        });
+    }
+
+    @Test
+    public void streamConsentsByTpp_consentsInSeveralChunks() throws WrongChecksumException {
+        //Given
+        Object streamingRepository = AopTestUtils.getTargetObject(specificationStreamingRepository);
+        int chunkSize = (int) ReflectionTestUtils.getField(streamingRepository, "chunkSize");
+        ReflectionTestUtils.setField(streamingRepository, "chunkSize", 1);
+
+        PsuIdData psuIdData = buildPsuIdData("aspsp", "aspsp corporate id");
+        String firstConsentId = consentService.createConsent(buildCreateAisConsentRequestWithPsuData(psuIdData)).getPayload().getConsentId();
+        String secondConsentId = consentService.createConsent(buildCreateAisConsentRequestWithPsuData(psuIdData)).getPayload().getConsentId();
+        consentService.createConsent(buildCreateAisConsentRequestWithPsuData(buildPsuIdData("aspsp1", null)));
+        createAuthorisation(firstConsentId);
+        createAuthorisation(secondConsentId);
+        flushAndClearPersistenceContext();
+        List<CmsAisAccountConsent> consents = new ArrayList<>();
+
+        //When
+        try {
+            cmsAspspAisExportService.streamConsentsByTpp(TPP_AUTHORISATION_NUMBER, null, null,
+                                                         psuIdData, DEFAULT_SERVICE_INSTANCE_ID, consents::add);
+        } finally {
+            ReflectionTestUtils.setField(streamingRepository, "chunkSize", chunkSize);
+        }
+
+        //Then
+        assertEquals(Arrays.asList(firstConsentId, secondConsentId), consents.stream()
+                                                                          .map(CmsAisAccountConsent::getId)
+                                                                          .collect(Collectors.toList()));
+        consents.forEach(consent -> {
+            assertEquals(1, consent.getAccountConsentAuthorizations().size());
+            assertEquals(Collections.singletonList(psuIdData), consent.getPsuIdDataList());
+            assertEquals(TPP_AUTHORISATION_NUMBER, consent.getTppInfo().getAuthorisationNumber());
+        });
+    }
+
+    @Test
+    public void exportConsentsByTpp_pages() throws WrongChecksumException {
+        //Given
+        PsuIdData psuIdData = buildPsuIdData("aspsp", "aspsp corporate id");
+        String firstConsentId = consentService.createConsent(buildCreateAisConsentRequestWithPsuData(psuIdData)).getPayload().getConsentId();
+        String secondConsentId = consentService.createConsent(buildCreateAisConsentRequestWithPsuData(psuIdData)).getPayload().getConsentId();
+        flushAndClearPersistenceContext();
+
+        //When
+        ExportPage<CmsAisAccountConsent> firstPage = cmsAspspAisExportService.exportConsentsByTpp(TPP_AUTHORISATION_NUMBER, null, null,
+                                                                                                  psuIdData, DEFAULT_SERVICE_INSTANCE_ID, null, 1);
+        String thirdConsentId = consentService.createConsent(buildCreateAisConsentRequestWithPsuData(psuIdData)).getPayload().getConsentId();
+        flushAndClearPersistenceContext();
+        ExportPage<CmsAisAccountConsent> secondPage = cmsAspspAisExportService.exportConsentsByTpp(TPP_AUTHORISATION_NUMBER, null, null,
+                                                                                                   psuIdData, DEFAULT_SERVICE_INSTANCE_ID, firstPage.getNextCursor(), 5);
+
+        //Then
+        assertEquals(Collections.singletonList(firstConsentId), getConsentIds(firstPage));
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(Arrays.asList(secondConsentId, thirdConsentId), getConsentIds(secondPage));
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    public void checkConsentAndSaveActionLog_countsUsagesByRequestUri() throws WrongChecksumException {
+        //Given
+        PsuIdData psuIdData = buildPsuIdData("aspsp", "aspsp corporate id");
+        String consentId = consentService.createConsent(buildCreateAisConsentRequestWithPsuData(psuIdData)).getPayload().getConsentId();
+        flushAndClearPersistenceContext();
+
+        //When
+        aisConsentService.checkConsentAndSaveActionLog(buildAisConsentActionRequest(consentId, "accounts"));
+        aisConsentService.checkConsentAndSaveActionLog(buildAisConsentActionRequest(consentId, "accounts"));
+        aisConsentService.checkConsentAndSaveActionLog(buildAisConsentActionRequest(consentId, "balances"));
+        flushAndClearPersistenceContext();
+
+        //Then
+        ConsentEntity consentEntity = consentJpaRepository.findByExternalId(consentId).get();
+        Map<String, Integer> usages = aisConsentUsageRepository.findReadByConsentIdInAndUsageDate(Collections.singleton(consentEntity.getId()), LocalDate.now())
+                                          .stream()
+                                          .collect(Collectors.toMap(AisConsentUsage::getRequestUri, AisConsentUsage::getUsage));
+        assertEquals(2, usages.size());
+        assertEquals(2, usages.get("accounts"));
+        assertEquals(1, usages.get("balances"));
+        assertEquals(LocalDate.now(), consentEntity.getLastActionDate());
+    }
+
+    @Test
+    public void findAndTerminateOldConsentsByNewConsentId_terminatesConsentsWithSamePsuData() throws WrongChecksumException {
+        //Given
+        PsuIdData psuIdData = buildPsuIdData("aspsp", "aspsp corporate id");
+        PsuIdData anotherPsuIdData = buildPsuIdData("aspsp1", "aspsp1 corporate id");
+        String validConsentId = createRecurringConsent(psuIdData);
+        String receivedConsentId = createRecurringConsent(psuIdData);
+        String anotherPsuConsentId = createRecurringConsent(anotherPsuIdData);
+        consentService.updateConsentStatusById(validConsentId, ConsentStatus.VALID);
+        String newConsentId = createRecurringConsent(psuIdData);
+        flushAndClearPersistenceContext();
+
+        //When
+        Boolean terminated = consentService.findAndTerminateOldConsentsByNewConsentId(newConsentId).getPayload();
+        flushAndClearPersistenceContext();
+
+        //Then
+        assertTrue(terminated);
+        assertEquals(ConsentStatus.TERMINATED_BY_TPP, getConsentStatus(validConsentId));
+        assertEquals(ConsentStatus.REJECTED, getConsentStatus(receivedConsentId));
+        assertEquals(ConsentStatus.RECEIVED, getConsentStatus(anotherPsuConsentId));
+        assertEquals(ConsentStatus.RECEIVED, getConsentStatus(newConsentId));
+    }
+
+    @Test
+    public void findStatusProjectionByExternalId_returnsStatusWithoutConsentData() throws WrongChecksumException {
+        //Given
+        PsuIdData psuIdData = buildPsuIdData("aspsp", "aspsp corporate id");
+        String consentId = createRecurringConsent(psuIdData);
+        createAuthorisation(consentId);
+        flushAndClearPersistenceContext();
+        ConsentEntity consentEntity = consentJpaRepository.findByExternalId(consentId).get();
+        String authorisationId = authorisationRepository.findAllByParentExternalIdAndAuthorisationType(consentId, AuthorisationType.AIS).get(0).getExternalId();
+        flushAndClearPersistenceContext();
+
+        //When
+        ConsentStatusProjection statusProjection = consentJpaRepository.findStatusProjectionByExternalId(consentId).get();
+        Optional<ScaStatus> scaStatus = authorisationRepository.findScaStatusByExternalIdAndParentExternalIdAndAuthorisationType(authorisationId, consentId, AuthorisationType.AIS);
+        Optional<ScaStatus> scaStatusOfAnotherParent = authorisationRepository.findScaStatusByExternalIdAndParentExternalIdAndAuthorisationType(authorisationId, "another consent id", AuthorisationType.AIS);
+
+        //Then
+        assertEquals(ConsentStatus.RECEIVED, statusProjection.getConsentStatus());
+        assertEquals(consentEntity.getValidUntil(), statusProjection.getValidUntil());
+        assertTrue(statusProjection.isRecurringIndicator());
+        assertEquals(Optional.of(ScaStatus.RECEIVED), scaStatus);
+        assertFalse(scaStatusOfAnotherParent.isPresent());
+    }
+
+    @Test
+    public void getAuthorisationScaStatus_authorisationOfAnotherConsent_notReturned() throws WrongChecksumException {
+        //Given
+        String consentId = createRecurringConsent(buildPsuIdData("aspsp", "aspsp corporate id"));
+        String anotherConsentId = createRecurringConsent(buildPsuIdData("aspsp1", "aspsp1 corporate id"));
+        createAuthorisation(anotherConsentId);
+        flushAndClearPersistenceContext();
+        String authorisationIdOfAnotherConsent = authorisationRepository.findAllByParentExternalIdAndAuthorisationType(anotherConsentId, AuthorisationType.AIS).get(0).getExternalId();
+        flushAndClearPersistenceContext();
+
+        //When
+        CmsResponse<ScaStatus> response = authorisationService.getAuthorisationScaStatus(authorisationIdOfAnotherConsent,
+                                                                                         new AuthorisationParentHolder(AuthorisationType.AIS, consentId));
+        CmsResponse<ScaStatus> responseOfAnotherConsent = authorisationService.getAuthorisationScaStatus(authorisationIdOfAnotherConsent,
+                                                                                                         new AuthorisationParentHolder(AuthorisationType.AIS, anotherConsentId));
+
+        //Then
+        assertTrue(response.hasError());
+        assertEquals(CmsError.LOGICAL_ERROR, response.getError());
+        assertTrue(responseOfAnotherConsent.isSuccessful());
+        assertEquals(ScaStatus.RECEIVED, responseOfAnotherConsent.getPayload());
+    }
+
+    private String createRecurringConsent(PsuIdData psuIdData) throws WrongChecksumException {
+        CmsConsent cmsConsent = buildCreateAisConsentRequestWithPsuData(psuIdData);
+        cmsConsent.setRecurringIndicator(true);
+        return consentService.createConsent(cmsConsent).getPayload().getConsentId();
+    }
+
+    private ConsentStatus getConsentStatus(String consentId) {
+        return consentService.getConsentStatusById(consentId).getPayload();
+    }
+
+    private List<String> getConsentIds(ExportPage<CmsAisAccountConsent> page) {
+        return page.getItems().stream()
+                   .map(CmsAisAccountConsent::getId)
+                   .collect(Collectors.toList());
+    }
+
+    private AisConsentActionRequest buildAisConsentActionRequest(String consentId, String requestUri) {
+        return new AisConsentActionRequest(TPP_AUTHORISATION_NUMBER, consentId, ActionStatus.SUCCESS, requestUri, true, "resource id", null);
+    }
+
+    private void createAuthorisation(String consentId) {
+        AuthorisationEntity authorisation = new AuthorisationEntity();
+        authorisation.setExternalId(UUID.randomUUID().toString());
+        authorisation.setParentExternalId(consentId);
+        authorisation.setAuthorisationType(AuthorisationType.AIS);
+        authorisation.setScaStatus(ScaStatus.RECEIVED);
+        authorisation.setScaApproach(ScaApproach.REDIRECT);
+        authorisationRepository.save(authorisation);
+    }
+
     private PsuIdData buildPsuIdData(String psuId, String psuCorporateId) {
         return new PsuIdData(psuId, null, psuCorporateId, null, null);
     }
@@ -155,6 +155,26 @@ public class PiisConsentIT {
         });
     }
 
+    @Test
+    public void getPiisConsentListByAccountIdentifier_normalisedIdentifier() {
+        // Given
+        createConsentAndGetSelector(AccountReferenceType.IBAN, "DE89370400440532013000");
+        createConsentAndGetSelector(AccountReferenceType.IBAN, "DE2310010010123456789");
+        flushAndClearPersistenceContext();
+        AccountReferenceSelector selector = new AccountReferenceSelector(AccountReferenceType.IBAN, "de89 3704 0044 0532 0130 00");
+
+        // When
+        CmsResponse<List<CmsConsent>> withCurrency = piisConsentService.getPiisConsentListByAccountIdentifier(EUR_CURRENCY, selector);
+        CmsResponse<List<CmsConsent>> withoutCurrency = piisConsentService.getPiisConsentListByAccountIdentifier(null, selector);
+        CmsResponse<List<CmsConsent>> withOtherCurrency = piisConsentService.getPiisConsentListByAccountIdentifier(Currency.getInstance("USD"), selector);
+
+        // Then
+        assertEquals(1, withCurrency.getPayload().size());
+        assertEquals("DE89370400440532013000", withCurrency.getPayload().get(0).getAspspAccountAccesses().getAccounts().get(0).getIban());
+        assertEquals(1, withoutCurrency.getPayload().size());
+        assertTrue(withOtherCurrency.getPayload().isEmpty());
+    }
+
     private AccountReferenceSelector createConsentAndGetSelector(AccountReferenceType accountReferenceType, String accountReferenceValue) {
         AccountReference accountReference = new AccountReference(accountReferenceType, accountReferenceValue, EUR_CURRENCY);
         CreatePiisConsentRequest request = buildCreatePiisConsentRequest(accountReference);
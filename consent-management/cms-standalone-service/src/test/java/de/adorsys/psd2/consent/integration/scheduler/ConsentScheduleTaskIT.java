@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.integration.scheduler;
+
+import de.adorsys.psd2.aspsp.profile.domain.AspspSettings;
+import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
+import de.adorsys.psd2.consent.api.WrongChecksumException;
+import de.adorsys.psd2.consent.api.ais.CmsConsent;
+import de.adorsys.psd2.consent.api.service.ConsentService;
+import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.integration.config.IntegrationTestConfiguration;
+import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.core.data.AccountAccess;
+import de.adorsys.psd2.scheduler.ConsentScheduleTask;
+import de.adorsys.psd2.scheduler.batch.KeysetBatchProcessor;
+import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.xs2a.reader.JsonReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("integration-test")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = IntegrationTestConfiguration.class)
+@DataJpaTest
+class ConsentScheduleTaskIT {
+    @Autowired
+    private ConsentScheduleTask consentScheduleTask;
+    @Autowired
+    private KeysetBatchProcessor keysetBatchProcessor;
+    @Autowired
+    private ConsentService consentService;
+    @Autowired
+    private ConsentJpaRepository consentJpaRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private AspspProfileService aspspProfileService;
+
+    private JsonReader jsonReader = new JsonReader();
+
+    @BeforeEach
+    void setUp() {
+        AspspSettings aspspSettings = jsonReader.getObjectFromFile("json/aspect/aspsp-settings.json", AspspSettings.class);
+        when(aspspProfileService.getAspspSettings()).thenReturn(aspspSettings);
+        // small batches to go through several pages of ids
+        ReflectionTestUtils.setField(keysetBatchProcessor, "batchSize", 2);
+    }
+
+    @Test
+    void checkConsentStatus_onlyAvailableConsentsWithPastValidUntilExpired() throws WrongChecksumException {
+        String expiredReceived = createConsent(ConsentStatus.RECEIVED, LocalDate.now().minusDays(1));
+        String expiredValid = createConsent(ConsentStatus.VALID, LocalDate.now().minusDays(10));
+        String expiredPartiallyAuthorised = createConsent(ConsentStatus.PARTIALLY_AUTHORISED, LocalDate.now().minusDays(1));
+        String validToday = createConsent(ConsentStatus.VALID, LocalDate.now());
+        String validTomorrow = createConsent(ConsentStatus.VALID, LocalDate.now().plusDays(1));
+        flushAndClearPersistenceContext();
+
+        consentScheduleTask.checkConsentStatus();
+        flushAndClearPersistenceContext();
+
+        ConsentEntity expired = getConsent(expiredReceived);
+        assertEquals(ConsentStatus.EXPIRED, expired.getConsentStatus());
+        assertEquals(LocalDate.now(), expired.getExpireDate());
+        assertTrue(expired.getStatusChangeTimestamp().isAfter(expired.getCreationTimestamp()));
+        assertEquals(ConsentStatus.EXPIRED, getConsent(expiredValid).getConsentStatus());
+        assertEquals(ConsentStatus.PARTIALLY_AUTHORISED, getConsent(expiredPartiallyAuthorised).getConsentStatus());
+        assertEquals(ConsentStatus.VALID, getConsent(validToday).getConsentStatus());
+        assertNull(getConsent(validToday).getExpireDate());
+        assertEquals(ConsentStatus.VALID, getConsent(validTomorrow).getConsentStatus());
+    }
+
+    private String createConsent(ConsentStatus consentStatus, LocalDate validUntil) throws WrongChecksumException {
+        CmsConsent cmsConsent = jsonReader.getObjectFromFile("json/consent/integration/ais/cms-consent.json", CmsConsent.class);
+        cmsConsent.setAspspAccountAccesses(AccountAccess.EMPTY_ACCESS);
+        cmsConsent.setTppAccountAccesses(AccountAccess.EMPTY_ACCESS);
+        cmsConsent.setConsentData(jsonReader.getBytesFromFile("json/consent/integration/ais/ais-consent-data.json"));
+        cmsConsent.setConsentStatus(consentStatus);
+        cmsConsent.setValidUntil(validUntil);
+        return consentService.createConsent(cmsConsent).getPayload().getConsentId();
+    }
+
+    private ConsentEntity getConsent(String externalId) {
+        return consentJpaRepository.findByExternalId(externalId).orElseThrow(IllegalStateException::new);
+    }
+
+    private void flushAndClearPersistenceContext() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.integration.scheduler;
+
+import de.adorsys.psd2.aspsp.profile.domain.AspspSettings;
+import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
+import de.adorsys.psd2.consent.api.ActionStatus;
+import de.adorsys.psd2.consent.api.WrongChecksumException;
+import de.adorsys.psd2.consent.api.ais.CmsConsent;
+import de.adorsys.psd2.consent.api.service.ConsentService;
+import de.adorsys.psd2.consent.domain.*;
+import de.adorsys.psd2.consent.domain.account.AisConsentAction;
+import de.adorsys.psd2.consent.domain.account.AisConsentUsage;
+import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.domain.payment.PisAddress;
+import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
+import de.adorsys.psd2.consent.domain.payment.PisPaymentData;
+import de.adorsys.psd2.consent.integration.config.IntegrationTestConfiguration;
+import de.adorsys.psd2.consent.repository.*;
+import de.adorsys.psd2.core.data.AccountAccess;
+import de.adorsys.psd2.scheduler.DataRetentionScheduleTask;
+import de.adorsys.psd2.scheduler.lock.SchedulerLockService;
+import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationType;
+import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
+import de.adorsys.psd2.xs2a.core.profile.PaymentType;
+import de.adorsys.psd2.xs2a.core.psu.PsuIdData;
+import de.adorsys.psd2.xs2a.core.profile.ScaApproach;
+import de.adorsys.psd2.xs2a.core.sca.ScaStatus;
+import de.adorsys.psd2.xs2a.core.tpp.TppRole;
+import de.adorsys.xs2a.reader.JsonReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("integration-test")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = IntegrationTestConfiguration.class)
+@DataJpaTest
+class DataRetentionScheduleTaskIT {
+    private static final OffsetDateTime YEAR_AGO = OffsetDateTime.now().minusYears(1);
+
+    @Autowired
+    private DataRetentionScheduleTask scheduleTask;
+    @Autowired
+    private SchedulerLockService schedulerLockService;
+    @Autowired
+    private ConsentService consentService;
+    @Autowired
+    private ConsentJpaRepository consentJpaRepository;
+    @Autowired
+    private PisCommonPaymentDataRepository pisCommonPaymentDataRepository;
+    @Autowired
+    private AuthorisationRepository authorisationRepository;
+    @Autowired
+    private AisConsentUsageRepository aisConsentUsageRepository;
+    @Autowired
+    private AisConsentActionRepository aisConsentActionRepository;
+    @Autowired
+    private AspspConsentDataRepository aspspConsentDataRepository;
+    @Autowired
+    private PsuDataRepository psuDataRepository;
+    @Autowired
+    private TppInfoRepository tppInfoRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private AspspProfileService aspspProfileService;
+
+    private JsonReader jsonReader = new JsonReader();
+
+    @BeforeEach
+    void setUp() {
+        AspspSettings aspspSettings = jsonReader.getObjectFromFile("json/aspect/aspsp-settings.json", AspspSettings.class);
+        when(aspspProfileService.getAspspSettings()).thenReturn(aspspSettings);
+        ReflectionTestUtils.setField(scheduleTask, "retentionEnabled", true);
+        ReflectionTestUtils.setField(scheduleTask, "retentionDays", 30);
+        // the lease is kept for the minimal lease duration after the run and would skip the task in the next test
+        ReflectionTestUtils.setField(schedulerLockService, "lockEnabled", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(scheduleTask, "retentionEnabled", false);
+        ReflectionTestUtils.setField(schedulerLockService, "lockEnabled", true);
+    }
+
+    @Test
+    void purgeFinalisedData_consentsFinalisedBeforeRetentionPeriodDeleted() throws WrongChecksumException {
+        String oldRejected = createConsent(ConsentStatus.REJECTED, YEAR_AGO);
+        String oldExpired = createConsent(ConsentStatus.EXPIRED, YEAR_AGO);
+        String recentRejected = createConsent(ConsentStatus.REJECTED, OffsetDateTime.now());
+        String oldValid = createConsent(ConsentStatus.VALID, YEAR_AGO);
+        String oldRejectedAuthorisation = createAuthorisation(oldRejected);
+        String oldValidAuthorisation = createAuthorisation(oldValid);
+        createUsageAndAction(oldRejected);
+        createUsageAndAction(oldValid);
+        aspspConsentDataRepository.save(new AspspConsentDataEntity(oldRejected));
+        flushAndClearPersistenceContext();
+        long psuDataCount = psuDataRepository.count();
+
+        scheduleTask.purgeFinalisedData();
+        flushAndClearPersistenceContext();
+
+        assertFalse(consentJpaRepository.findByExternalId(oldRejected).isPresent());
+        assertFalse(consentJpaRepository.findByExternalId(oldExpired).isPresent());
+        assertTrue(consentJpaRepository.findByExternalId(recentRejected).isPresent());
+        assertTrue(consentJpaRepository.findByExternalId(oldValid).isPresent());
+        assertFalse(authorisationRepository.findByExternalId(oldRejectedAuthorisation).isPresent());
+        assertTrue(authorisationRepository.findByExternalId(oldValidAuthorisation).isPresent());
+        assertEquals(1, aisConsentUsageRepository.count());
+        assertEquals(1, aisConsentActionRepository.count());
+        assertFalse(aspspConsentDataRepository.findByConsentId(oldRejected).isPresent());
+        // every consent has one PSU, the authorisation of the deleted consent shares it
+        assertEquals(psuDataCount - 2, psuDataRepository.count());
+        // TPP info is shared by all consents of the TPP and reused by new ones
+        assertEquals(1, tppInfoRepository.count());
+    }
+
+    @Test
+    void purgeFinalisedData_paymentsFinalisedBeforeRetentionPeriodDeleted() {
+        TppInfoEntity oldRejectedTppInfo = createTppInfo("old rejected tpp");
+        TppInfoEntity sharedTppInfo = createTppInfo("shared tpp");
+        String oldRejected = createPayment(oldRejectedTppInfo, TransactionStatus.RJCT, YEAR_AGO);
+        String oldCancelled = createPayment(sharedTppInfo, TransactionStatus.CANC, YEAR_AGO);
+        String oldAccepted = createPayment(sharedTppInfo, TransactionStatus.ACSP, YEAR_AGO);
+        String recentCancelled = createPayment(createTppInfo("recent cancelled tpp"), TransactionStatus.CANC, OffsetDateTime.now());
+        String oldRejectedAuthorisation = createAuthorisation(oldRejected);
+        flushAndClearPersistenceContext();
+
+        scheduleTask.purgeFinalisedData();
+        flushAndClearPersistenceContext();
+
+        assertFalse(pisCommonPaymentDataRepository.findByPaymentId(oldRejected).isPresent());
+        assertFalse(pisCommonPaymentDataRepository.findByPaymentId(oldCancelled).isPresent());
+        assertTrue(pisCommonPaymentDataRepository.findByPaymentId(oldAccepted).isPresent());
+        assertTrue(pisCommonPaymentDataRepository.findByPaymentId(recentCancelled).isPresent());
+        assertFalse(authorisationRepository.findByExternalId(oldRejectedAuthorisation).isPresent());
+        // TPP info is reused by new payments of the TPP, so it's kept even if it isn't referenced anymore
+        assertTrue(tppInfoRepository.findById(oldRejectedTppInfo.getId()).isPresent());
+        assertEquals(1, countTppInfoRoles(oldRejectedTppInfo.getId()));
+        assertTrue(tppInfoRepository.findById(sharedTppInfo.getId()).isPresent());
+    }
+
+    @Test
+    void purgeFinalisedData_paymentsWithoutStatusChangeTimestampDeletedByCreationTimestamp() {
+        TppInfoEntity tppInfo = createTppInfo("tpp authorisation number");
+        String oldRejected = createPayment(tppInfo, TransactionStatus.RJCT, YEAR_AGO);
+        String recentRejected = createPayment(tppInfo, TransactionStatus.RJCT, YEAR_AGO);
+        flushAndClearPersistenceContext();
+        resetStatusChangeTimestamp(oldRejected, YEAR_AGO);
+        resetStatusChangeTimestamp(recentRejected, OffsetDateTime.now());
+
+        scheduleTask.purgeFinalisedData();
+        flushAndClearPersistenceContext();
+
+        assertFalse(pisCommonPaymentDataRepository.findByPaymentId(oldRejected).isPresent());
+        assertTrue(pisCommonPaymentDataRepository.findByPaymentId(recentRejected).isPresent());
+    }
+
+    private String createConsent(ConsentStatus consentStatus, OffsetDateTime statusChangeTimestamp) throws WrongChecksumException {
+        CmsConsent cmsConsent = jsonReader.getObjectFromFile("json/consent/integration/ais/cms-consent.json", CmsConsent.class);
+        cmsConsent.setAspspAccountAccesses(AccountAccess.EMPTY_ACCESS);
+        cmsConsent.setTppAccountAccesses(AccountAccess.EMPTY_ACCESS);
+        cmsConsent.setConsentData(jsonReader.getBytesFromFile("json/consent/integration/ais/ais-consent-data.json"));
+        cmsConsent.setConsentStatus(consentStatus);
+        cmsConsent.setPsuIdDataList(Collections.singletonList(new PsuIdData("psu id", null, null, null, null)));
+        String consentId = consentService.createConsent(cmsConsent).getPayload().getConsentId();
+        flushAndClearPersistenceContext();
+
+        ConsentEntity consent = getConsent(consentId);
+        consent.setStatusChangeTimestamp(statusChangeTimestamp);
+        consentJpaRepository.save(consent);
+        return consentId;
+    }
+
+    private String createAuthorisation(String parentId) {
+        AuthorisationEntity authorisation = new AuthorisationEntity();
+        authorisation.setExternalId(UUID.randomUUID().toString());
+        authorisation.setParentExternalId(parentId);
+        authorisation.setScaStatus(ScaStatus.FINALISED);
+        authorisation.setScaApproach(ScaApproach.REDIRECT);
+        consentJpaRepository.findByExternalId(parentId)
+            .ifPresent(consent -> {
+                authorisation.setAuthorisationType(AuthorisationType.AIS);
+                authorisation.setPsuData(consent.getPsuDataList().get(0));
+            });
+        if (authorisation.getAuthorisationType() == null) {
+            authorisation.setAuthorisationType(AuthorisationType.PIS_CREATION);
+            authorisation.setPsuData(new PsuData("psu id", null, null, null, null));
+        }
+        return authorisationRepository.save(authorisation).getExternalId();
+    }
+
+    private void createUsageAndAction(String consentId) {
+        AisConsentUsage usage = new AisConsentUsage();
+        usage.setConsent(getConsent(consentId));
+        usage.setRequestUri("/v1/accounts");
+        usage.setUsageDate(LocalDate.now());
+        usage.setUsage(1);
+        aisConsentUsageRepository.save(usage);
+
+        AisConsentAction action = new AisConsentAction();
+        action.setRequestDate(LocalDate.now());
+        action.setTppId("tpp id");
+        action.setActionStatus(ActionStatus.SUCCESS);
+        action.setRequestedConsentId(consentId);
+        aisConsentActionRepository.save(action);
+    }
+
+    private TppInfoEntity createTppInfo(String authorisationNumber) {
+        TppInfoEntity tppInfo = new TppInfoEntity();
+        tppInfo.setAuthorisationNumber(authorisationNumber);
+        tppInfo.setTppRoles(Collections.singletonList(TppRole.PISP));
+        return tppInfoRepository.save(tppInfo);
+    }
+
+    private String createPayment(TppInfoEntity tppInfo, TransactionStatus transactionStatus, OffsetDateTime statusChangeTimestamp) {
+        PisCommonPaymentData commonPayment = new PisCommonPaymentData();
+        commonPayment.setPaymentId(UUID.randomUUID().toString());
+        commonPayment.setPaymentType(PaymentType.SINGLE);
+        commonPayment.setPaymentProduct("sepa-credit-transfers");
+        commonPayment.setTransactionStatus(transactionStatus);
+        commonPayment.setTppInfo(tppInfo);
+        commonPayment.setAuthorisationTemplate(new AuthorisationTemplateEntity());
+        commonPayment.setTppNotificationContentPreferred(Collections.emptyList());
+        commonPayment.setPsuDataList(Collections.singletonList(new PsuData("psu id", null, null, null, null)));
+        commonPayment.setStatusChangeTimestamp(statusChangeTimestamp);
+
+        PisPaymentData payment = new PisPaymentData();
+        payment.setPaymentId(commonPayment.getPaymentId());
+        payment.setCurrency(Currency.getInstance("EUR"));
+        payment.setAmount(BigDecimal.TEN);
+        payment.setCreditorName("creditor");
+        payment.setDebtorAccount(buildAccountReference("DE89370400440532013000"));
+        payment.setCreditorAccount(buildAccountReference("DE89370400440532013001"));
+        payment.setCreditorAddress(new PisAddress());
+        payment.setPaymentData(commonPayment);
+        commonPayment.setPayments(Collections.singletonList(payment));
+
+        return pisCommonPaymentDataRepository.save(commonPayment).getPaymentId();
+    }
+
+    private void resetStatusChangeTimestamp(String paymentId, OffsetDateTime creationTimestamp) {
+        entityManager.createQuery("update pis_common_payment p set p.statusChangeTimestamp = null, p.creationTimestamp = :creationTimestamp " +
+                                      "where p.paymentId = :paymentId")
+            .setParameter("creationTimestamp", creationTimestamp)
+            .setParameter("paymentId", paymentId)
+            .executeUpdate();
+    }
+
+    private long countTppInfoRoles(Long tppInfoId) {
+        return ((Number) entityManager.createNativeQuery("SELECT COUNT(*) FROM tpp_info_role WHERE tpp_info_id = :tppInfoId")
+                             .setParameter("tppInfoId", tppInfoId)
+                             .getSingleResult()).longValue();
+    }
+
+    private AccountReferenceEntity buildAccountReference(String iban) {
+        AccountReferenceEntity accountReference = new AccountReferenceEntity();
+        accountReference.setIban(iban);
+        accountReference.setCurrency(Currency.getInstance("EUR"));
+        return accountReference;
+    }
+
+    private ConsentEntity getConsent(String externalId) {
+        return consentJpaRepository.findByExternalId(externalId).orElseThrow(IllegalStateException::new);
+    }
+
+    private void flushAndClearPersistenceContext() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
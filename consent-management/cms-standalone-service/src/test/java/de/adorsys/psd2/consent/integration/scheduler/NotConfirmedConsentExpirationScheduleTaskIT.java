@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.integration.scheduler;
+
+import de.adorsys.psd2.aspsp.profile.domain.AspspSettings;
+import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
+import de.adorsys.psd2.consent.api.WrongChecksumException;
+import de.adorsys.psd2.consent.api.ais.CmsConsent;
+import de.adorsys.psd2.consent.api.service.ConsentService;
+import de.adorsys.psd2.consent.domain.AuthorisationEntity;
+import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.integration.config.IntegrationTestConfiguration;
+import de.adorsys.psd2.consent.repository.AuthorisationRepository;
+import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.core.data.AccountAccess;
+import de.adorsys.psd2.scheduler.NotConfirmedConsentExpirationScheduleTask;
+import de.adorsys.psd2.scheduler.batch.KeysetBatchProcessor;
+import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationType;
+import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.psd2.xs2a.core.profile.ScaApproach;
+import de.adorsys.psd2.xs2a.core.sca.ScaStatus;
+import de.adorsys.xs2a.reader.JsonReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ActiveProfiles("integration-test")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = IntegrationTestConfiguration.class)
+@DataJpaTest
+class NotConfirmedConsentExpirationScheduleTaskIT {
+    @Autowired
+    private NotConfirmedConsentExpirationScheduleTask scheduleTask;
+    @Autowired
+    private KeysetBatchProcessor keysetBatchProcessor;
+    @Autowired
+    private ConsentService consentService;
+    @Autowired
+    private ConsentJpaRepository consentJpaRepository;
+    @Autowired
+    private AuthorisationRepository authorisationRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private AspspProfileService aspspProfileService;
+
+    private JsonReader jsonReader = new JsonReader();
+
+    @BeforeEach
+    void setUp() {
+        AspspSettings aspspSettings = jsonReader.getObjectFromFile("json/aspect/aspsp-settings.json", AspspSettings.class);
+        when(aspspProfileService.getAspspSettings()).thenReturn(aspspSettings);
+        // small batches to go through several pages of ids
+        ReflectionTestUtils.setField(keysetBatchProcessor, "batchSize", 2);
+    }
+
+    @Test
+    void obsoleteNotConfirmedConsentIfExpired_onlyNotConfirmedConsentsWithExpiredPeriodRejected() throws WrongChecksumException {
+        OffsetDateTime hourAgo = OffsetDateTime.now().minusHours(1);
+        String expiredReceived = createConsent(ConsentStatus.RECEIVED, hourAgo);
+        String expiredPartiallyAuthorised = createConsent(ConsentStatus.PARTIALLY_AUTHORISED, hourAgo);
+        String expiredReceivedWithoutAuthorisation = createConsent(ConsentStatus.RECEIVED, hourAgo);
+        String oldValid = createConsent(ConsentStatus.VALID, hourAgo);
+        String recentReceived = createConsent(ConsentStatus.RECEIVED, OffsetDateTime.now());
+        String expiredAuthorisation = createAuthorisation(expiredReceived);
+        String validAuthorisation = createAuthorisation(oldValid);
+        String recentAuthorisation = createAuthorisation(recentReceived);
+        flushAndClearPersistenceContext();
+
+        scheduleTask.obsoleteNotConfirmedConsentIfExpired();
+        flushAndClearPersistenceContext();
+
+        ConsentEntity rejected = getConsent(expiredReceived);
+        assertEquals(ConsentStatus.REJECTED, rejected.getConsentStatus());
+        assertEquals(LocalDate.now(), rejected.getLastActionDate());
+        assertEquals(ConsentStatus.REJECTED, getConsent(expiredPartiallyAuthorised).getConsentStatus());
+        assertEquals(ConsentStatus.REJECTED, getConsent(expiredReceivedWithoutAuthorisation).getConsentStatus());
+        assertEquals(ConsentStatus.VALID, getConsent(oldValid).getConsentStatus());
+        assertEquals(ConsentStatus.RECEIVED, getConsent(recentReceived).getConsentStatus());
+        assertEquals(ScaStatus.FAILED, getAuthorisation(expiredAuthorisation).getScaStatus());
+        assertEquals(ScaStatus.RECEIVED, getAuthorisation(validAuthorisation).getScaStatus());
+        assertEquals(ScaStatus.RECEIVED, getAuthorisation(recentAuthorisation).getScaStatus());
+    }
+
+    private String createConsent(ConsentStatus consentStatus, OffsetDateTime creationTimestamp) throws WrongChecksumException {
+        CmsConsent cmsConsent = jsonReader.getObjectFromFile("json/consent/integration/ais/cms-consent.json", CmsConsent.class);
+        cmsConsent.setAspspAccountAccesses(AccountAccess.EMPTY_ACCESS);
+        cmsConsent.setTppAccountAccesses(AccountAccess.EMPTY_ACCESS);
+        cmsConsent.setConsentData(jsonReader.getBytesFromFile("json/consent/integration/ais/ais-consent-data.json"));
+        cmsConsent.setConsentStatus(consentStatus);
+        String consentId = consentService.createConsent(cmsConsent).getPayload().getConsentId();
+
+        ConsentEntity consent = getConsent(consentId);
+        consent.setCreationTimestamp(creationTimestamp);
+        consentJpaRepository.save(consent);
+        return consentId;
+    }
+
+    private String createAuthorisation(String consentId) {
+        AuthorisationEntity authorisation = new AuthorisationEntity();
+        authorisation.setExternalId(UUID.randomUUID().toString());
+        authorisation.setParentExternalId(consentId);
+        authorisation.setAuthorisationType(AuthorisationType.AIS);
+        authorisation.setScaStatus(ScaStatus.RECEIVED);
+        authorisation.setScaApproach(ScaApproach.REDIRECT);
+        return authorisationRepository.save(authorisation).getExternalId();
+    }
+
+    private ConsentEntity getConsent(String externalId) {
+        return consentJpaRepository.findByExternalId(externalId).orElseThrow(IllegalStateException::new);
+    }
+
+    private AuthorisationEntity getAuthorisation(String externalId) {
+        return authorisationRepository.findByExternalId(externalId).orElseThrow(IllegalStateException::new);
+    }
+
+    private void flushAndClearPersistenceContext() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
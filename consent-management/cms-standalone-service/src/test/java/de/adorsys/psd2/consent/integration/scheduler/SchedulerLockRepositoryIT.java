@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.integration.scheduler;
+
+import de.adorsys.psd2.consent.integration.config.IntegrationTestConfiguration;
+import de.adorsys.psd2.consent.repository.SchedulerLockRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ActiveProfiles("integration-test")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = IntegrationTestConfiguration.class)
+@DataJpaTest
+class SchedulerLockRepositoryIT {
+    private static final String LOCK_NAME = "ConsentScheduleTask";
+    private static final String OWNER = "node-1";
+    private static final String ANOTHER_OWNER = "node-2";
+    private static final OffsetDateTime NOW = OffsetDateTime.now().withNano(0);
+
+    @Autowired
+    private SchedulerLockRepository schedulerLockRepository;
+
+    @Test
+    void lockLifecycle() {
+        assertEquals(0, schedulerLockRepository.updateExpiredLock(LOCK_NAME, OWNER, NOW, NOW.plusMinutes(10)));
+        assertEquals(1, schedulerLockRepository.insertLock(LOCK_NAME, OWNER, NOW, NOW.plusMinutes(10)));
+
+        // lease is held by the first node
+        assertEquals(0, schedulerLockRepository.updateExpiredLock(LOCK_NAME, ANOTHER_OWNER, NOW.plusMinutes(1), NOW.plusMinutes(11)));
+
+        // release by another node has no effect
+        assertEquals(0, schedulerLockRepository.releaseLock(LOCK_NAME, ANOTHER_OWNER, NOW.plusMinutes(1)));
+        assertEquals(0, schedulerLockRepository.updateExpiredLock(LOCK_NAME, ANOTHER_OWNER, NOW.plusMinutes(2), NOW.plusMinutes(12)));
+
+        assertEquals(1, schedulerLockRepository.releaseLock(LOCK_NAME, OWNER, NOW.plusMinutes(2)));
+        assertEquals(1, schedulerLockRepository.updateExpiredLock(LOCK_NAME, ANOTHER_OWNER, NOW.plusMinutes(2), NOW.plusMinutes(12)));
+    }
+
+    @Test
+    void insertLock_alreadyExists() {
+        assertEquals(1, schedulerLockRepository.insertLock(LOCK_NAME, OWNER, NOW, NOW.plusMinutes(10)));
+
+        assertThrows(DataIntegrityViolationException.class,
+                     () -> schedulerLockRepository.insertLock(LOCK_NAME, ANOTHER_OWNER, NOW, NOW.plusMinutes(10)));
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.integration.tpp;
+
+import de.adorsys.psd2.consent.api.service.TppService;
+import de.adorsys.psd2.consent.api.service.TppStopListService;
+import de.adorsys.psd2.consent.aspsp.api.tpp.CmsAspspTppService;
+import de.adorsys.psd2.consent.domain.TppInfoEntity;
+import de.adorsys.psd2.consent.integration.config.IntegrationTestConfiguration;
+import de.adorsys.psd2.consent.repository.TppInfoRepository;
+import de.adorsys.psd2.xs2a.core.tpp.TppInfo;
+import de.adorsys.psd2.xs2a.core.tpp.TppRole;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("integration-test")
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = IntegrationTestConfiguration.class)
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+    "spring.jpa.properties.hibernate.cache.region.factory_class=de.adorsys.psd2.consent.repository.cache.InMemoryRegionFactory",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class TppCacheIT {
+    private static final String INSTANCE_ID = "UNDEFINED";
+
+    @Autowired
+    private TppStopListService tppStopListService;
+    @Autowired
+    private TppService tppService;
+    @Autowired
+    private CmsAspspTppService cmsAspspTppService;
+    @Autowired
+    private TppInfoRepository tppInfoRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void checkIfTppBlocked_notCached() {
+        // Given
+        String tppAuthorisationNumber = "blocked TPP";
+        cmsAspspTppService.blockTpp(tppAuthorisationNumber, INSTANCE_ID, null);
+        assertTrue(tppStopListService.checkIfTppBlocked(tppAuthorisationNumber).getPayload());
+        statistics.clear();
+
+        // When
+        boolean blocked = tppStopListService.checkIfTppBlocked(tppAuthorisationNumber).getPayload();
+
+        // Then
+        // blocking made by another instance has to be seen immediately
+        assertTrue(blocked);
+        assertEquals(0, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+
+        // When
+        cmsAspspTppService.unblockTpp(tppAuthorisationNumber, INSTANCE_ID);
+
+        // Then
+        assertFalse(tppStopListService.checkIfTppBlocked(tppAuthorisationNumber).getPayload());
+    }
+
+    @Test
+    void getTppInfo_cachedAndInvalidatedOnUpdate() {
+        // Given
+        String tppAuthorisationNumber = "cached TPP";
+        TppInfoEntity tppInfoEntity = new TppInfoEntity();
+        tppInfoEntity.setAuthorisationNumber(tppAuthorisationNumber);
+        tppInfoEntity.setAuthorityId("authority id");
+        tppInfoEntity.setTppRoles(Collections.singletonList(TppRole.AISP));
+        tppInfoRepository.save(tppInfoEntity);
+        cmsAspspTppService.getTppInfo(tppAuthorisationNumber, INSTANCE_ID);
+        statistics.clear();
+
+        // When
+        Optional<TppInfo> cachedTppInfo = cmsAspspTppService.getTppInfo(tppAuthorisationNumber, INSTANCE_ID);
+
+        // Then
+        assertTrue(cachedTppInfo.isPresent());
+        assertEquals(Collections.singletonList(TppRole.AISP), cachedTppInfo.get().getTppRoles());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // Given
+        TppInfo tppInfo = cachedTppInfo.get();
+        tppInfo.setTppRoles(new ArrayList<>(Arrays.asList(TppRole.AISP, TppRole.PISP)));
+
+        // When
+        tppService.updateTppInfo(tppInfo);
+
+        // Then
+        Optional<TppInfo> updatedTppInfo = cmsAspspTppService.getTppInfo(tppAuthorisationNumber, INSTANCE_ID);
+        assertTrue(updatedTppInfo.isPresent());
+        assertEquals(Arrays.asList(TppRole.AISP, TppRole.PISP), updatedTppInfo.get().getTppRoles());
+    }
+}
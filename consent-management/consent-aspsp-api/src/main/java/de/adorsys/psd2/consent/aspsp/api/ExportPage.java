@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.aspsp.api;
+
+import lombok.Value;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Page of exported objects.
+ *
+ * @param <T> type of exported objects
+ */
+@Value
+public class ExportPage<T> {
+    /**
+     * Exported objects, ordered by their creation date
+     */
+    @NotNull
+    private List<T> items;
+
+    /**
+     * Opaque cursor to be passed to the next export call to get the following page,
+     * or <code>null</code> if this page is the last one
+     */
+    @Nullable
+    private String nextCursor;
+
+    public static <T> ExportPage<T> empty() {
+        return new ExportPage<>(Collections.emptyList(), null);
+    }
+}
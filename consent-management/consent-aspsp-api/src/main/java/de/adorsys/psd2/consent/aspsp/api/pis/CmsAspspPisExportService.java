@@ -18,6 +18,7 @@ package de.adorsys.psd2.consent.aspsp.api.pis;
 
 
 import de.adorsys.psd2.consent.api.pis.CmsPayment;
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
 import de.adorsys.psd2.consent.aspsp.api.TooManyResultsException;
 import de.adorsys.psd2.xs2a.core.psu.PsuIdData;
 import org.jetbrains.annotations.NotNull;
@@ -25,6 +26,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.function.Consumer;
 
 
 @NotNull
@@ -78,4 +80,119 @@ public interface CmsAspspPisExportService {
                                                      @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
                                                      @NotNull String instanceId);
 
+    /**
+     * Returns a page of payments by given criteria.
+     * <p>
+     * Payments are ordered by their creation date and ID. The cursor of a page points to its last element, so following
+     * pages are neither shifted nor duplicated when new payments are created in the meantime.
+     *
+     * @param tppAuthorisationNumber Mandatory TPP ID
+     * @param createDateFrom         Optional starting creation date criteria
+     * @param createDateTo           Optional ending creation date criteria
+     * @param psuIdData              Optional Psu information criteria
+     * @param instanceId             Mandatory id of particular service instance
+     * @param cursor                 Optional cursor returned with the previous page, <code>null</code> for the first page
+     * @param pageSize               Maximum number of objects in the page, limited by CMS configuration
+     * @return Page of payments by given criteria.
+     * By inconsistent criteria or invalid cursor an empty page will be returned
+     */
+    ExportPage<CmsPayment> exportPaymentsByTpp(String tppAuthorisationNumber,
+                                               @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                               @Nullable PsuIdData psuIdData, @NotNull String instanceId,
+                                               @Nullable String cursor, int pageSize);
+
+    /**
+     * Returns a page of payments by given criteria.
+     * <p>
+     * Payments are ordered by their creation date and ID. The cursor of a page points to its last element, so following
+     * pages are neither shifted nor duplicated when new payments are created in the meantime.
+     *
+     * @param psuIdData      Mandatory Psu information criteria
+     * @param createDateFrom Optional starting creation date criteria
+     * @param createDateTo   Optional ending creation date criteria
+     * @param instanceId     Mandatory id of particular service instance
+     * @param cursor         Optional cursor returned with the previous page, <code>null</code> for the first page
+     * @param pageSize       Maximum number of objects in the page, limited by CMS configuration
+     * @return Page of payments by given criteria.
+     * By inconsistent criteria or invalid cursor an empty page will be returned
+     */
+    ExportPage<CmsPayment> exportPaymentsByPsu(PsuIdData psuIdData,
+                                               @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                               @NotNull String instanceId,
+                                               @Nullable String cursor, int pageSize);
+
+    /**
+     * Returns a page of payments by given criteria.
+     * <p>
+     * Payments are ordered by their creation date and ID. The cursor of a page points to its last element, so following
+     * pages are neither shifted nor duplicated when new payments are created in the meantime.
+     *
+     * @param aspspAccountId Bank specific account identifier
+     * @param createDateFrom Optional starting creation date criteria
+     * @param createDateTo   Optional ending creation date criteria
+     * @param instanceId     Mandatory id of particular service instance
+     * @param cursor         Optional cursor returned with the previous page, <code>null</code> for the first page
+     * @param pageSize       Maximum number of objects in the page, limited by CMS configuration
+     * @return Page of payments by given criteria.
+     * By inconsistent criteria or invalid cursor an empty page will be returned
+     */
+    ExportPage<CmsPayment> exportPaymentsByAccountId(@NotNull String aspspAccountId,
+                                                     @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                                     @NotNull String instanceId,
+                                                     @Nullable String cursor, int pageSize);
+
+    /**
+     * Passes payments matching given criteria to the consumer one by one.
+     * Implementations may read them from the database in chunks instead of building the whole result in memory,
+     * the default implementation delegates to {@link #exportPaymentsByTpp}.
+     *
+     * @param tppAuthorisationNumber Mandatory TPP ID
+     * @param createDateFrom         Optional starting creation date criteria
+     * @param createDateTo           Optional ending creation date criteria
+     * @param psuIdData              Optional Psu information criteria
+     * @param instanceId             Mandatory id of particular service instance
+     * @param consumer               Consumer of the exported objects
+     */
+    default void streamPaymentsByTpp(String tppAuthorisationNumber,
+                                     @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                     @Nullable PsuIdData psuIdData, @NotNull String instanceId,
+                                     @NotNull Consumer<CmsPayment> consumer) {
+        exportPaymentsByTpp(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId).forEach(consumer);
+    }
+
+    /**
+     * Passes payments matching given criteria to the consumer one by one.
+     * Implementations may read them from the database in chunks instead of building the whole result in memory,
+     * the default implementation delegates to {@link #exportPaymentsByPsu}.
+     *
+     * @param psuIdData      Mandatory Psu information criteria
+     * @param createDateFrom Optional starting creation date criteria
+     * @param createDateTo   Optional ending creation date criteria
+     * @param instanceId     Mandatory id of particular service instance
+     * @param consumer       Consumer of the exported objects
+     */
+    default void streamPaymentsByPsu(PsuIdData psuIdData,
+                                     @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                     @NotNull String instanceId,
+                                     @NotNull Consumer<CmsPayment> consumer) {
+        exportPaymentsByPsu(psuIdData, createDateFrom, createDateTo, instanceId).forEach(consumer);
+    }
+
+    /**
+     * Passes payments matching given criteria to the consumer one by one.
+     * Implementations may read them from the database in chunks instead of building the whole result in memory,
+     * the default implementation delegates to {@link #exportPaymentsByAccountId}.
+     *
+     * @param aspspAccountId Bank specific account identifier
+     * @param createDateFrom Optional starting creation date criteria
+     * @param createDateTo   Optional ending creation date criteria
+     * @param instanceId     Mandatory id of particular service instance
+     * @param consumer       Consumer of the exported objects
+     */
+    default void streamPaymentsByAccountId(@NotNull String aspspAccountId,
+                                           @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                           @NotNull String instanceId,
+                                           @NotNull Consumer<CmsPayment> consumer) {
+        exportPaymentsByAccountId(aspspAccountId, createDateFrom, createDateTo, instanceId).forEach(consumer);
+    }
 }
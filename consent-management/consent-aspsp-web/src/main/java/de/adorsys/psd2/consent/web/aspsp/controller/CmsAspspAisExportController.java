@@ -16,6 +16,7 @@
 
 package de.adorsys.psd2.consent.web.aspsp.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.psd2.consent.api.ais.CmsAisAccountConsent;
 import de.adorsys.psd2.consent.aspsp.api.ais.CmsAspspAisExportService;
 import de.adorsys.psd2.consent.web.aspsp.config.CmsAspspApiTagName;
@@ -26,6 +27,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.Collection;
@@ -38,6 +40,7 @@ public class CmsAspspAisExportController {
     private static final String DEFAULT_SERVICE_INSTANCE_ID = "UNDEFINED";
 
     private final CmsAspspAisExportService cmsAspspAisExportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping(path = "/tpp/{tpp-id}")
     @ApiOperation(value = "Returns a list of AIS consent objects by given mandatory TPP ID, optional creation date, PSU ID Data and instance ID")
@@ -61,9 +64,16 @@ public class CmsAspspAisExportController {
         @RequestHeader(value = "psu-corporate-id", required = false) String psuCorporateId,
         @ApiParam(value = "Might be mandated in the ASPSP's documentation. Only used in a corporate context. ")
         @RequestHeader(value = "psu-corporate-id-type", required = false) String psuCorporateIdType,
+        @ApiParam(value = "Cursor returned in the next-cursor header of the previous page, if provided only one page of objects is returned")
+        @RequestHeader(value = "cursor", required = false) String cursor,
+        @ApiParam(value = "Maximum number of objects in one page, if provided only one page of objects is returned", example = "100")
+        @RequestHeader(value = "page-size", required = false) Integer pageSize,
         @ApiParam(value = "ID of the particular service instance")
         @RequestHeader(value = "instance-id", required = false, defaultValue = DEFAULT_SERVICE_INSTANCE_ID) String instanceId) {
         PsuIdData psuIdData = new PsuIdData(psuId, psuIdType, psuCorporateId, psuCorporateIdType, null);
+        if (ExportPageResponse.isPageRequested(cursor, pageSize)) {
+            return ExportPageResponse.of(cmsAspspAisExportService.exportConsentsByTpp(tppId, start, end, psuIdData, instanceId, cursor, ExportPageResponse.toPageSize(pageSize)));
+        }
         Collection<CmsAisAccountConsent> consents = cmsAspspAisExportService.exportConsentsByTpp(tppId, start, end, psuIdData, instanceId);
         return new ResponseEntity<>(consents, HttpStatus.OK);
     }
@@ -87,9 +97,16 @@ public class CmsAspspAisExportController {
         @RequestHeader(value = "psu-corporate-id", required = false) String psuCorporateId,
         @ApiParam(value = "Might be mandated in the ASPSP's documentation. Only used in a corporate context. ")
         @RequestHeader(value = "psu-corporate-id-type", required = false) String psuCorporateIdType,
+        @ApiParam(value = "Cursor returned in the next-cursor header of the previous page, if provided only one page of objects is returned")
+        @RequestHeader(value = "cursor", required = false) String cursor,
+        @ApiParam(value = "Maximum number of objects in one page, if provided only one page of objects is returned", example = "100")
+        @RequestHeader(value = "page-size", required = false) Integer pageSize,
         @ApiParam(value = "ID of the particular service instance")
         @RequestHeader(value = "instance-id", required = false, defaultValue = DEFAULT_SERVICE_INSTANCE_ID) String instanceId) {
         PsuIdData psuIdData = new PsuIdData(psuId, psuIdType, psuCorporateId, psuCorporateIdType, null);
+        if (ExportPageResponse.isPageRequested(cursor, pageSize)) {
+            return ExportPageResponse.of(cmsAspspAisExportService.exportConsentsByPsu(psuIdData, start, end, instanceId, cursor, ExportPageResponse.toPageSize(pageSize)));
+        }
         Collection<CmsAisAccountConsent> consents = cmsAspspAisExportService.exportConsentsByPsu(psuIdData, start, end, instanceId);
         return new ResponseEntity<>(consents, HttpStatus.OK);
     }
@@ -108,9 +125,87 @@ public class CmsAspspAisExportController {
         @ApiParam(value = "Creation end date", example = "2030-01-01")
         @RequestHeader(value = "end-date", required = false)
         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+        @ApiParam(value = "Cursor returned in the next-cursor header of the previous page, if provided only one page of objects is returned")
+        @RequestHeader(value = "cursor", required = false) String cursor,
+        @ApiParam(value = "Maximum number of objects in one page, if provided only one page of objects is returned", example = "100")
+        @RequestHeader(value = "page-size", required = false) Integer pageSize,
         @ApiParam(value = "ID of the particular service instance")
         @RequestHeader(value = "instance-id", required = false, defaultValue = DEFAULT_SERVICE_INSTANCE_ID) String instanceId) {
+        if (ExportPageResponse.isPageRequested(cursor, pageSize)) {
+            return ExportPageResponse.of(cmsAspspAisExportService.exportConsentsByAccountId(aspspAccountId, start, end, instanceId, cursor, ExportPageResponse.toPageSize(pageSize)));
+        }
         Collection<CmsAisAccountConsent> consents = cmsAspspAisExportService.exportConsentsByAccountId(aspspAccountId, start, end, instanceId);
         return new ResponseEntity<>(consents, HttpStatus.OK);
     }
+
+    @GetMapping(path = "/tpp/{tpp-id}/stream", produces = StreamingExportResponse.APPLICATION_NDJSON_VALUE)
+    @ApiOperation(value = "Streams AIS consent objects by given mandatory TPP ID, optional creation date, PSU ID Data and instance ID as newline delimited JSON")
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "OK")})
+    public ResponseEntity<StreamingResponseBody> streamConsentsByTpp(
+        @ApiParam(value = "TPP ID", example = "12345987", required = true)
+        @PathVariable("tpp-id") String tppId,
+        @ApiParam(value = "Creation start date", example = "2010-01-01")
+        @RequestHeader(value = "start-date", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+        @ApiParam(value = "Creation end date", example = "2030-01-01")
+        @RequestHeader(value = "end-date", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+        @ApiParam(value = "Client ID of the PSU in the ASPSP client interface. Might be mandated in the ASPSP's" +
+                              " documentation. Is not contained if an OAuth2 based authentication was performed in a pre-step or an OAuth2 based SCA was performed in an preceding AIS service in the same session. ")
+        @RequestHeader(value = "psu-id", required = false) String psuId,
+        @ApiParam(value = "Type of the PSU-ID, needed in scenarios where PSUs have several PSU-IDs as access possibility. ")
+        @RequestHeader(value = "psu-id-type", required = false) String psuIdType,
+        @ApiParam(value = "Might be mandated in the ASPSP's documentation. Only used in a corporate context. ")
+        @RequestHeader(value = "psu-corporate-id", required = false) String psuCorporateId,
+        @ApiParam(value = "Might be mandated in the ASPSP's documentation. Only used in a corporate context. ")
+        @RequestHeader(value = "psu-corporate-id-type", required = false) String psuCorporateIdType,
+        @ApiParam(value = "ID of the particular service instance")
+        @RequestHeader(value = "instance-id", required = false, defaultValue = DEFAULT_SERVICE_INSTANCE_ID) String instanceId) {
+        PsuIdData psuIdData = new PsuIdData(psuId, psuIdType, psuCorporateId, psuCorporateIdType, null);
+        return StreamingExportResponse.<CmsAisAccountConsent>of(objectMapper, consumer -> cmsAspspAisExportService.streamConsentsByTpp(tppId, start, end, psuIdData, instanceId, consumer));
+    }
+
+    @GetMapping(path = "/psu/stream", produces = StreamingExportResponse.APPLICATION_NDJSON_VALUE)
+    @ApiOperation(value = "Streams AIS consent objects by given mandatory PSU ID Data, optional creation date and instance ID as newline delimited JSON")
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "OK")})
+    public ResponseEntity<StreamingResponseBody> streamConsentsByPsu(
+        @ApiParam(value = "Creation start date", example = "2010-01-01")
+        @RequestHeader(value = "start-date", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+        @ApiParam(value = "Creation end date", example = "2030-01-01")
+        @RequestHeader(value = "end-date", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+        @ApiParam(value = "Client ID of the PSU in the ASPSP client interface. Might be mandated in the ASPSP's documentation. Is not contained if an OAuth2 based authentication was performed in a pre-step or an OAuth2 based SCA was performed in an preceding AIS service in the same session. ")
+        @RequestHeader(value = "psu-id", required = false) String psuId,
+        @ApiParam(value = "Type of the PSU-ID, needed in scenarios where PSUs have several PSU-IDs as access possibility. ")
+        @RequestHeader(value = "psu-id-type", required = false) String psuIdType,
+        @ApiParam(value = "Might be mandated in the ASPSP's documentation. Only used in a corporate context. ")
+        @RequestHeader(value = "psu-corporate-id", required = false) String psuCorporateId,
+        @ApiParam(value = "Might be mandated in the ASPSP's documentation. Only used in a corporate context. ")
+        @RequestHeader(value = "psu-corporate-id-type", required = false) String psuCorporateIdType,
+        @ApiParam(value = "ID of the particular service instance")
+        @RequestHeader(value = "instance-id", required = false, defaultValue = DEFAULT_SERVICE_INSTANCE_ID) String instanceId) {
+        PsuIdData psuIdData = new PsuIdData(psuId, psuIdType, psuCorporateId, psuCorporateIdType, null);
+        return StreamingExportResponse.<CmsAisAccountConsent>of(objectMapper, consumer -> cmsAspspAisExportService.streamConsentsByPsu(psuIdData, start, end, instanceId, consumer));
+    }
+
+    @GetMapping(path = "/account/{account-id}/stream", produces = StreamingExportResponse.APPLICATION_NDJSON_VALUE)
+    @ApiOperation(value = "Streams consents by given mandatory aspsp account id, optional creation date and instance ID as newline delimited JSON")
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "OK")})
+    public ResponseEntity<StreamingResponseBody> streamConsentsByAccount(
+        @ApiParam(value = "Bank specific account identifier.", required = true, example = "11111-99999")
+        @PathVariable("account-id") String aspspAccountId,
+        @ApiParam(value = "Creation start date", example = "2010-01-01")
+        @RequestHeader(value = "start-date", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate start,
+        @ApiParam(value = "Creation end date", example = "2030-01-01")
+        @RequestHeader(value = "end-date", required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate end,
+        @ApiParam(value = "ID of the particular service instance")
+        @RequestHeader(value = "instance-id", required = false, defaultValue = DEFAULT_SERVICE_INSTANCE_ID) String instanceId) {
+        return StreamingExportResponse.<CmsAisAccountConsent>of(objectMapper, consumer -> cmsAspspAisExportService.streamConsentsByAccountId(aspspAccountId, start, end, instanceId, consumer));
+    }
 }
@@ -19,6 +19,8 @@ package de.adorsys.psd2.consent.web.aspsp.controller;
 import de.adorsys.psd2.consent.web.aspsp.config.CmsAspspApiTagName;
 import de.adorsys.psd2.event.service.AspspEventService;
 import de.adorsys.psd2.event.service.model.AspspEvent;
+import de.adorsys.psd2.event.service.model.AspspEventStatistics;
+import de.adorsys.psd2.event.service.model.EventStatisticsGranularity;
 import io.swagger.annotations.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -55,4 +57,23 @@ public class CmsAspspEventController {
         List<AspspEvent> events = aspspEventService.getEventsForPeriod(start, end, instanceId);
         return new ResponseEntity<>(events, HttpStatus.OK);
     }
+
+    @GetMapping(path = "/statistics")
+    @ApiOperation(value = "Returns numbers of events per TPP, event type and event origin between two dates")
+    @ApiResponses(value = {
+        @ApiResponse(code = 200, message = "OK")})
+    public ResponseEntity<List<AspspEventStatistics>> getEventStatisticsForDates(
+        @ApiParam(value = "Start date", example = "2010-01-01T00:00:00Z", required = true)
+        @RequestHeader(value = "start-date")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime start,
+        @ApiParam(value = "End date", example = "2030-01-01T00:00:00Z", required = true)
+        @RequestHeader(value = "end-date")
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime end,
+        @ApiParam(value = "Length of the aggregation periods", allowableValues = "MINUTE, HOUR, DAY")
+        @RequestHeader(value = "granularity", required = false, defaultValue = "HOUR") EventStatisticsGranularity granularity,
+        @ApiParam(value = "Bank instance ID")
+        @RequestHeader(value = "instance-id", required = false, defaultValue = "UNDEFINED") String instanceId) {
+        List<AspspEventStatistics> statistics = aspspEventService.getEventStatisticsForPeriod(start, end, granularity, instanceId);
+        return new ResponseEntity<>(statistics, HttpStatus.OK);
+    }
 }
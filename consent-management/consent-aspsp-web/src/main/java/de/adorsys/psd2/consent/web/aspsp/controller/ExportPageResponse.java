@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.web.aspsp.controller;
+
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Collection;
+
+/**
+ * Builds responses of export endpoints, that return a single page of exported objects if a cursor or a page size
+ * were requested. The cursor of the following page is returned in the <code>next-cursor</code> header.
+ */
+final class ExportPageResponse {
+    static final String NEXT_CURSOR_HEADER = "next-cursor";
+
+    private ExportPageResponse() {
+    }
+
+    static boolean isPageRequested(String cursor, Integer pageSize) {
+        return cursor != null || pageSize != null;
+    }
+
+    static int toPageSize(Integer pageSize) {
+        return pageSize == null ? 0 : pageSize;
+    }
+
+    static <T> ResponseEntity<Collection<T>> of(ExportPage<T> page) {
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            responseBuilder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return responseBuilder.body(page.getItems());
+    }
+}
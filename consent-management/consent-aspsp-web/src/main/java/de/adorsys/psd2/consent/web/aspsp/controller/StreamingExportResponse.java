@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.web.aspsp.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Builds responses that write exported objects as newline delimited JSON while they are being read from the CMS,
+ * without collecting the whole export in memory.
+ */
+final class StreamingExportResponse {
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+    private static final byte LINE_SEPARATOR = '\n';
+
+    private StreamingExportResponse() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> of(ObjectMapper objectMapper, Consumer<Consumer<T>> export) {
+        ObjectWriter objectWriter = objectMapper.writer()
+                                        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                                        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            export.accept(object -> writeLine(objectWriter, outputStream, object));
+            outputStream.flush();
+        };
+        return ResponseEntity.ok()
+                   .contentType(APPLICATION_NDJSON)
+                   .body(body);
+    }
+
+    private static void writeLine(ObjectWriter objectWriter, OutputStream outputStream, Object object) {
+        try {
+            objectWriter.writeValue(outputStream, object);
+            outputStream.write(LINE_SEPARATOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
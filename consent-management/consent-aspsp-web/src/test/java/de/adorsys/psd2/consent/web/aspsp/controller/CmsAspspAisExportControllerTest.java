@@ -16,7 +16,10 @@
 
 package de.adorsys.psd2.consent.web.aspsp.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.psd2.consent.api.ais.CmsAisAccountConsent;
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
 import de.adorsys.psd2.consent.aspsp.api.ais.CmsAspspAisExportService;
 import de.adorsys.psd2.consent.web.aspsp.config.ObjectMapperTestConfig;
 import de.adorsys.psd2.xs2a.core.psu.PsuIdData;
@@ -26,21 +29,29 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -54,6 +65,9 @@ class CmsAspspAisExportControllerTest {
     private final LocalDate START_DATE = LocalDate.of(2019, 2, 25);
     private final LocalDate END_DATE = LocalDate.of(2020, 7, 22);
     private final String INSTANCE_ID = "UNDEFINED";
+    private final String CURSOR = "cursor";
+    private final String NEXT_CURSOR = "next cursor";
+    private final int PAGE_SIZE = 10;
     private final String LIST_OF_AIS_ACCOUNT_CONSENT_PATH = "json/ais/list-ais-account-consent.json";
 
     private MockMvc mockMvc;
@@ -67,6 +81,8 @@ class CmsAspspAisExportControllerTest {
 
     @Mock
     private CmsAspspAisExportService cmsAspspAisExportService;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapperTestConfig().getXs2aObjectMapper();
 
     @BeforeEach
     void setUp() {
@@ -129,4 +145,67 @@ class CmsAspspAisExportControllerTest {
 
         verify(cmsAspspAisExportService, times(1)).exportConsentsByAccountId(ACCOUNT_ID, START_DATE, END_DATE, INSTANCE_ID);
     }
+
+    @Test
+    void getConsentsByTpp_page() throws Exception {
+        when(cmsAspspAisExportService.exportConsentsByTpp(TPP_ID, START_DATE, END_DATE, psuIdData, INSTANCE_ID, CURSOR, PAGE_SIZE))
+            .thenReturn(new ExportPage<>(new ArrayList<>(consents), NEXT_CURSOR));
+        httpHeaders.add("cursor", CURSOR);
+        httpHeaders.add("page-size", String.valueOf(PAGE_SIZE));
+
+        mockMvc.perform(get(EXPORT_AIS_CONSENT_BY_TPP)
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .headers(httpHeaders))
+            .andExpect(status().is(HttpStatus.OK.value()))
+            .andExpect(header().string("next-cursor", NEXT_CURSOR))
+            .andExpect(content().json(jsonReader.getStringFromFile(LIST_OF_AIS_ACCOUNT_CONSENT_PATH)));
+
+        verify(cmsAspspAisExportService, never()).exportConsentsByTpp(TPP_ID, START_DATE, END_DATE, psuIdData, INSTANCE_ID);
+    }
+
+    @Test
+    void getConsentsByAccount_lastPage() throws Exception {
+        when(cmsAspspAisExportService.exportConsentsByAccountId(ACCOUNT_ID, START_DATE, END_DATE, INSTANCE_ID, null, PAGE_SIZE))
+            .thenReturn(new ExportPage<>(new ArrayList<>(consents), null));
+        httpHeaders.add("page-size", String.valueOf(PAGE_SIZE));
+
+        mockMvc.perform(get(EXPORT_AIS_CONSENT_BY_ACCOUNT)
+                            .contentType(MediaType.APPLICATION_JSON_VALUE)
+                            .headers(httpHeaders))
+            .andExpect(status().is(HttpStatus.OK.value()))
+            .andExpect(header().doesNotExist("next-cursor"))
+            .andExpect(content().json(jsonReader.getStringFromFile(LIST_OF_AIS_ACCOUNT_CONSENT_PATH)));
+    }
+
+    @Test
+    void streamConsentsByTpp_Success() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<CmsAisAccountConsent> consumer = invocation.getArgument(5);
+            consents.forEach(consumer);
+            return null;
+        }).when(cmsAspspAisExportService).streamConsentsByTpp(eq(TPP_ID), eq(START_DATE), eq(END_DATE), eq(psuIdData), eq(INSTANCE_ID), any());
+        String expectedContent = consents.stream()
+                                     .map(this::writeValueAsString)
+                                     .collect(Collectors.joining("\n", "", "\n"));
+
+        MvcResult mvcResult = mockMvc.perform(get(EXPORT_AIS_CONSENT_BY_TPP + "/stream")
+                                                  .headers(httpHeaders))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().is(HttpStatus.OK.value()))
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(content().string(expectedContent));
+
+        verify(cmsAspspAisExportService, times(1)).streamConsentsByTpp(eq(TPP_ID), eq(START_DATE), eq(END_DATE), eq(psuIdData), eq(INSTANCE_ID), any());
+    }
+
+    private String writeValueAsString(Object object) {
+        try {
+            return objectMapper.writeValueAsString(object);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -19,6 +19,8 @@ package de.adorsys.psd2.consent.web.aspsp.controller;
 import de.adorsys.psd2.consent.web.aspsp.config.ObjectMapperTestConfig;
 import de.adorsys.psd2.event.service.AspspEventService;
 import de.adorsys.psd2.event.service.model.AspspEvent;
+import de.adorsys.psd2.event.service.model.AspspEventStatistics;
+import de.adorsys.psd2.event.service.model.EventStatisticsGranularity;
 import de.adorsys.xs2a.reader.JsonReader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -47,6 +49,8 @@ class CmsAspspEventControllerTest {
     private static final String INSTANCE_ID = "UNDEFINED";
     private static final String EVENT_LIST_PATH = "json/list-aspsp-event.json";
     private static final String GET_ASPSP_EVENT_LIST_URL = "/aspsp-api/v1/events/";
+    private static final String EVENT_STATISTICS_PATH = "json/list-aspsp-event-statistics.json";
+    private static final String GET_ASPSP_EVENT_STATISTICS_URL = "/aspsp-api/v1/events/statistics";
 
     @Mock
     private AspspEventService aspspEventService;
@@ -103,4 +107,36 @@ class CmsAspspEventControllerTest {
 
         verify(aspspEventService, times(1)).getEventsForPeriod(eq(OffsetDateTime.parse(START)), eq(OffsetDateTime.parse(END)), eq(INSTANCE_ID));
     }
+
+    @Test
+    void getEventStatisticsForDates_defaultGranularity() throws Exception {
+        List<AspspEventStatistics> statistics = Collections.singletonList(
+            jsonReader.getObjectFromFile("json/aspsp-event-statistics.json", AspspEventStatistics.class));
+        when(aspspEventService.getEventStatisticsForPeriod(OffsetDateTime.parse(START), OffsetDateTime.parse(END), EventStatisticsGranularity.HOUR, INSTANCE_ID))
+            .thenReturn(statistics);
+
+        mockMvc.perform(get(GET_ASPSP_EVENT_STATISTICS_URL)
+                            .headers(httpHeaders))
+            .andExpect(status().is(HttpStatus.OK.value()))
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(content().json(jsonReader.getStringFromFile(EVENT_STATISTICS_PATH)))
+            .andReturn();
+
+        verify(aspspEventService, times(1)).getEventStatisticsForPeriod(eq(OffsetDateTime.parse(START)), eq(OffsetDateTime.parse(END)), eq(EventStatisticsGranularity.HOUR), eq(INSTANCE_ID));
+    }
+
+    @Test
+    void getEventStatisticsForDates_dayGranularity() throws Exception {
+        when(aspspEventService.getEventStatisticsForPeriod(OffsetDateTime.parse(START), OffsetDateTime.parse(END), EventStatisticsGranularity.DAY, INSTANCE_ID))
+            .thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get(GET_ASPSP_EVENT_STATISTICS_URL)
+                            .headers(httpHeaders)
+                            .header("granularity", "DAY"))
+            .andExpect(status().is(HttpStatus.OK.value()))
+            .andExpect(content().json("[]"))
+            .andReturn();
+
+        verify(aspspEventService, times(1)).getEventStatisticsForPeriod(eq(OffsetDateTime.parse(START)), eq(OffsetDateTime.parse(END)), eq(EventStatisticsGranularity.DAY), eq(INSTANCE_ID));
+    }
 }
@@ -16,6 +16,8 @@
 
 package de.adorsys.psd2.consent.web.aspsp.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.adorsys.psd2.consent.api.piis.CmsPiisConsent;
 import de.adorsys.psd2.consent.aspsp.api.piis.CmsAspspPiisFundsExportService;
 import de.adorsys.psd2.consent.web.aspsp.config.ObjectMapperTestConfig;
@@ -26,21 +28,27 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -67,6 +75,8 @@ class CmsAspspPiisExportControllerTest {
 
     @Mock
     private CmsAspspPiisFundsExportService cmsAspspPiisExportService;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapperTestConfig().getXs2aObjectMapper();
 
     @BeforeEach
     void setUp() {
@@ -129,4 +139,36 @@ class CmsAspspPiisExportControllerTest {
 
         verify(cmsAspspPiisExportService, times(1)).exportConsentsByAccountId(ACCOUNT_ID, START_DATE, END_DATE, INSTANCE_ID);
     }
+
+    @Test
+    void streamConsentsByTpp_Success() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<CmsPiisConsent> consumer = invocation.getArgument(5);
+            cmsPiisConsents.forEach(consumer);
+            return null;
+        }).when(cmsAspspPiisExportService).streamConsentsByTpp(eq(TPP_ID), eq(START_DATE), eq(END_DATE), eq(psuIdData), eq(INSTANCE_ID), any());
+        String expectedContent = cmsPiisConsents.stream()
+                                     .map(this::writeValueAsString)
+                                     .collect(Collectors.joining("\n", "", "\n"));
+
+        MvcResult mvcResult = mockMvc.perform(get(EXPORT_PIIS_CONSENT_BY_TPP + "/stream")
+                                                  .headers(httpHeaders))
+                                  .andExpect(request().asyncStarted())
+                                  .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+            .andExpect(status().is(HttpStatus.OK.value()))
+            .andExpect(content().contentType("application/x-ndjson"))
+            .andExpect(content().string(expectedContent));
+
+        verify(cmsAspspPiisExportService, times(1)).streamConsentsByTpp(eq(TPP_ID), eq(START_DATE), eq(END_DATE), eq(psuIdData), eq(INSTANCE_ID), any());
+    }
+
+    private String writeValueAsString(Object object) {
+        try {
+            return objectMapper.writeValueAsString(object);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
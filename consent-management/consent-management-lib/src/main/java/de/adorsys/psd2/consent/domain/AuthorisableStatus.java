@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.domain;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Status of a consent or payment, that has to be confirmed by the PSU within the confirmation expiration period.
+ * Implemented both by the entities and by the projections, that read status columns without loading the whole entity.
+ */
+public interface AuthorisableStatus {
+    /**
+     * @return <code>true</code> if the object is still waiting for the confirmation by the PSU
+     */
+    boolean isNotConfirmed();
+
+    OffsetDateTime getCreationTimestamp();
+
+    default boolean isConfirmationExpired(long expirationPeriodMs) {
+        if (isNotConfirmed()) {
+            return getCreationTimestamp().plus(expirationPeriodMs, ChronoUnit.MILLIS)
+                       .isBefore(OffsetDateTime.now());
+        }
+
+        return false;
+    }
+}
@@ -30,7 +30,7 @@ public class AuthorisationTemplateEntity {
     @Column(name = "authorisation_template_id")
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authorisation_template_generator")
     @SequenceGenerator(name = "authorisation_template_generator", sequenceName = "authorisation_template_id_seq",
-        allocationSize = 1)
+        allocationSize = 50)
     private Long id;
 
     @Column(name = "redirect_uri")
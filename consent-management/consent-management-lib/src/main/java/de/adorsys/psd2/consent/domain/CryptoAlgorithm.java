@@ -28,7 +28,7 @@ public class CryptoAlgorithm {
     @Id
     @Column(name = "algorithm_id")
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "crypto_algorithm_generator")
-    @SequenceGenerator(name = "crypto_algorithm_generator", sequenceName = "crypto_algorithm_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "crypto_algorithm_generator", sequenceName = "crypto_algorithm_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "external_id", nullable = false, unique = true)
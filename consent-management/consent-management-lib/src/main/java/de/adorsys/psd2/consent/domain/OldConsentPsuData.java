@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.domain;
+
+import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import lombok.Value;
+
+/**
+ * PSU data of an old consent that may be terminated after authorisation of a new consent, one instance per PSU of the consent
+ */
+@Value
+public class OldConsentPsuData {
+    private Long consentId;
+    private String externalId;
+    private ConsentStatus consentStatus;
+    private String psuId;
+    private String psuIdType;
+    private String psuCorporateId;
+    private String psuCorporateIdType;
+
+    public PsuData toPsuData() {
+        return new PsuData(psuId, psuIdType, psuCorporateId, psuCorporateIdType, null);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.domain.account;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * Calculates hash of a normalised account identifier (IBAN, BBAN, PAN, masked PAN or MSISDN), that is stored with
+ * ASPSP account accesses and used to look up consents by account identifier with an index.
+ * <p>
+ * Identifier is normalised by removing spaces and converting it to upper case, hash is a hex encoded SHA-256 digest
+ * of UTF-8 bytes of the normalised identifier. Liquibase changeset 0111 calculates the same hash for existing rows.
+ */
+public final class AccountIdentifierHash {
+    private static final String ALGORITHM = "SHA-256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private AccountIdentifierHash() {
+    }
+
+    @Nullable
+    public static String of(@Nullable String accountIdentifier) {
+        if (accountIdentifier == null) {
+            return null;
+        }
+
+        String normalised = accountIdentifier.replace(" ", "").toUpperCase(Locale.ROOT);
+        byte[] digest = getMessageDigest().digest(normalised.getBytes(StandardCharsets.UTF_8));
+
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static MessageDigest getMessageDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("No such hashing algorithm: " + ALGORITHM);
+        }
+    }
+}
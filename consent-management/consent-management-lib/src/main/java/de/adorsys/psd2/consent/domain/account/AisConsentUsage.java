@@ -32,7 +32,7 @@ import java.time.LocalDate;
 public class AisConsentUsage {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ais_consent_usage_generator")
-    @SequenceGenerator(name = "ais_consent_usage_generator", sequenceName = "ais_consent_usage_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "ais_consent_usage_generator", sequenceName = "ais_consent_usage_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(cascade = CascadeType.ALL)
@@ -20,6 +20,7 @@ import de.adorsys.psd2.consent.api.TypeAccess;
 import de.adorsys.psd2.xs2a.core.profile.AccountReferenceType;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -45,9 +46,21 @@ public class AspspAccountAccess extends AccountAccess {
     @ApiModelProperty(value = "Aspsp-Account-ID: Bank specific account ID", example = "26bb59a3-2f63-4027-ad38-67d87e59611a")
     private String aspspAccountId;
 
+    @Setter(AccessLevel.NONE)
+    @Column(name = "account_identifier_hash", length = 64)
+    @ApiModelProperty(value = "Hash of normalised account identifier, used for look up of consents by account identifier")
+    private String accountIdentifierHash;
+
     public AspspAccountAccess(String accountIdentifier, TypeAccess typeAccess, AccountReferenceType accountReferenceType, Currency currency, String resourceId, String aspspAccountId) {
         super(accountIdentifier, typeAccess, accountReferenceType, currency);
         this.resourceId = resourceId;
         this.aspspAccountId = aspspAccountId;
+        this.accountIdentifierHash = AccountIdentifierHash.of(accountIdentifier);
+    }
+
+    @Override
+    public void setAccountIdentifier(String accountIdentifier) {
+        super.setAccountIdentifier(accountIdentifier);
+        this.accountIdentifierHash = AccountIdentifierHash.of(accountIdentifier);
     }
 }
@@ -18,6 +18,7 @@ package de.adorsys.psd2.consent.domain.consent;
 
 import de.adorsys.psd2.consent.api.ais.AdditionalAccountInformationType;
 import de.adorsys.psd2.consent.domain.Authorisable;
+import de.adorsys.psd2.consent.domain.AuthorisableStatus;
 import de.adorsys.psd2.consent.domain.AuthorisationTemplateEntity;
 import de.adorsys.psd2.consent.domain.InstanceDependableEntity;
 import de.adorsys.psd2.consent.domain.PsuData;
@@ -26,30 +27,34 @@ import de.adorsys.psd2.consent.domain.account.AspspAccountAccess;
 import de.adorsys.psd2.consent.domain.account.TppAccountAccess;
 import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationType;
 import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import org.apache.commons.collections4.CollectionUtils;
 
 import javax.persistence.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 
 @Data
 @Entity(name = "consent")
 @EqualsAndHashCode(callSuper = true)
-public class ConsentEntity extends InstanceDependableEntity implements Authorisable {
+public class ConsentEntity extends InstanceDependableEntity implements Authorisable, AuthorisableStatus {
 
     @Id
     @Column(name = "consent_id")
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "consent_generator")
     @SequenceGenerator(name = "consent_generator", sequenceName = "consent_id_seq",
-        allocationSize = 1)
+        allocationSize = 50)
     private Long id;
 
     @Column(name = "external_id", nullable = false)
@@ -137,6 +142,13 @@ public class ConsentEntity extends InstanceDependableEntity implements Authorisa
     @Transient
     private ConsentStatus previousConsentStatus;
 
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Object decodedData;
+
     @PostLoad
     public void consentPostLoad() {
         previousConsentStatus = consentStatus;
@@ -156,12 +168,30 @@ public class ConsentEntity extends InstanceDependableEntity implements Authorisa
         }
     }
 
-    public boolean isConfirmationExpired(long expirationPeriodMs) {
-        if (EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED).contains(consentStatus)) {
-            return creationTimestamp.plus(expirationPeriodMs, ChronoUnit.MILLIS)
-                       .isBefore(OffsetDateTime.now());
+    public void setData(byte[] data) {
+        this.data = data;
+        this.decodedData = null;
+    }
+
+    /**
+     * Returns consent data decoded by the given decoder. Decoded data is kept until the data of this consent is
+     * changed, so that the data isn't decoded again by every mapping of the consent.
+     *
+     * @param type    class of decoded consent data
+     * @param decoder decoder of the stored consent data
+     * @param <T>     type of decoded consent data
+     * @return decoded consent data
+     */
+    public <T> T getDecodedData(Class<T> type, Function<byte[], T> decoder) {
+        if (!type.isInstance(decodedData)) {
+            decodedData = decoder.apply(data);
         }
-        return false;
+        return type.cast(decodedData);
+    }
+
+    @Override
+    public boolean isNotConfirmed() {
+        return EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED).contains(consentStatus);
     }
 
     public void addUsage(AisConsentUsage aisConsentUsage) {
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.domain.consent;
+
+import de.adorsys.psd2.consent.domain.AuthorisableStatus;
+import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+
+/**
+ * Status of a consent together with the fields, that are needed to check whether the status is still actual
+ */
+@Value
+public class ConsentStatusProjection implements AuthorisableStatus {
+    private ConsentStatus consentStatus;
+    private OffsetDateTime creationTimestamp;
+    private LocalDate validUntil;
+    private boolean recurringIndicator;
+
+    @Override
+    public boolean isNotConfirmed() {
+        return EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED).contains(consentStatus);
+    }
+
+    /**
+     * Checks whether the status may have to be changed on reading: confirmation of the consent is expired, the consent
+     * is expired by date or it is a non-recurring consent, whose usages have to be checked.
+     *
+     * @param expirationPeriodMs period of confirmation expiration in milliseconds
+     * @return true if the whole consent has to be checked, false if the status is actual
+     */
+    public boolean isStatusUpdateRequired(long expirationPeriodMs) {
+        if (consentStatus.isFinalisedStatus()) {
+            return false;
+        }
+        return validUntil == null
+                   || LocalDate.now().compareTo(validUntil) > 0
+                   || !recurringIndicator
+                   || isConfirmationExpired(expirationPeriodMs);
+    }
+}
@@ -33,7 +33,7 @@ public class ConsentTppInformationEntity {
     @Id
     @Column(name = "consent_tpp_information_id")
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "consent_tpp_information_generator")
-    @SequenceGenerator(name = "consent_tpp_information_generator", sequenceName = "consent_tpp_info_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "consent_tpp_information_generator", sequenceName = "consent_tpp_info_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "tpp_redirect_preferred", nullable = false)
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.domain.payment;
+
+import de.adorsys.psd2.consent.domain.AuthorisableStatus;
+import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+import java.util.EnumSet;
+
+/**
+ * Transaction status of a payment together with its creation timestamp, that is needed to check confirmation expiration
+ */
+@Value
+public class PaymentStatusProjection implements AuthorisableStatus {
+    private TransactionStatus transactionStatus;
+    private OffsetDateTime creationTimestamp;
+
+    @Override
+    public boolean isNotConfirmed() {
+        return EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC).contains(transactionStatus);
+    }
+}
@@ -26,7 +26,6 @@ import lombok.EqualsAndHashCode;
 
 import javax.persistence.*;
 import java.time.OffsetDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
@@ -35,10 +34,10 @@ import java.util.Objects;
 @Data
 @EqualsAndHashCode
 @Entity(name = "pis_common_payment")
-public class PisCommonPaymentData extends InstanceDependableEntity implements Authorisable {
+public class PisCommonPaymentData extends InstanceDependableEntity implements Authorisable, AuthorisableStatus {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pis_common_payment_generator")
-    @SequenceGenerator(name = "pis_common_payment_generator", sequenceName = "pis_common_payment_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "pis_common_payment_generator", sequenceName = "pis_common_payment_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "payment_id", nullable = false)
@@ -133,16 +132,8 @@ public class PisCommonPaymentData extends InstanceDependableEntity implements Au
         }
     }
 
-    public boolean isConfirmationExpired(long expirationPeriodMs) {
-        if (isNotConfirmed()) {
-            return creationTimestamp.plus(expirationPeriodMs, ChronoUnit.MILLIS)
-                       .isBefore(OffsetDateTime.now());
-        }
-
-        return false;
-    }
-
-    private boolean isNotConfirmed() {
+    @Override
+    public boolean isNotConfirmed() {
         return EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC).contains(transactionStatus);
     }
 
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts usages of AIS consents with atomic statements instead of reading and saving {@link de.adorsys.psd2.consent.domain.account.AisConsentUsage}
+ * entities, so that concurrent requests with the same consent don't fail on optimistic locking.
+ * <p>
+ * On PostgreSQL usage is counted by one {@code INSERT ... ON CONFLICT DO UPDATE} statement, that also returns usages of
+ * all other request URIs. On other databases usage is incremented by an update, followed by an insert if no usage has
+ * been counted yet and the update is repeated if the usage has been inserted concurrently. The next value of the id
+ * sequence is selected with the syntax of the Hibernate dialect of the database.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AisConsentUsageCounterRepository {
+    private static final String POSTGRESQL = "PostgreSQL";
+    private static final String TABLE = "ais_consent_usage";
+    private static final String SEQUENCE = "ais_consent_usage_id_seq";
+
+    private static final String POSTGRESQL_UPSERT_SQL = "WITH upserted AS (" +
+                                                            "INSERT INTO %1$s AS u (id, consent_id, request_uri, usage_date, usage_amount, resource_id, transaction_id, version) " +
+                                                            "VALUES (%2$s, ?, ?, ?, 1, ?, ?, 0) " +
+                                                            "ON CONFLICT (consent_id, request_uri, usage_date) DO UPDATE " +
+                                                            "SET usage_amount = u.usage_amount + 1, resource_id = EXCLUDED.resource_id, " +
+                                                            "transaction_id = EXCLUDED.transaction_id, version = u.version + 1 " +
+                                                            "RETURNING request_uri, usage_amount) " +
+                                                            "SELECT request_uri, usage_amount FROM upserted " +
+                                                            "UNION ALL " +
+                                                            "SELECT request_uri, usage_amount FROM %1$s " +
+                                                            "WHERE consent_id = ? AND usage_date = ? AND request_uri <> ?";
+    private static final String UPDATE_SQL = "UPDATE %s SET usage_amount = usage_amount + 1, resource_id = ?, transaction_id = ?, version = version + 1 " +
+                                                 "WHERE consent_id = ? AND request_uri = ? AND usage_date = ?";
+    private static final String INSERT_SQL = "INSERT INTO %s (id, consent_id, request_uri, usage_date, usage_amount, resource_id, transaction_id, version) " +
+                                                 "VALUES (%s, ?, ?, ?, 1, ?, ?, 0)";
+    private static final String SELECT_SQL = "SELECT request_uri, usage_amount FROM %s WHERE consent_id = ? AND usage_date = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${spring.jpa.properties.hibernate.default_schema:}")
+    private String schemaName;
+
+    private volatile Boolean postgreSql;
+    private volatile String nextSequenceValue;
+
+    /**
+     * Increments usage of the consent for the request URI on the given date
+     *
+     * @param consentId     ID of the consent
+     * @param requestUri    URI of the request, that used the consent
+     * @param usageDate     date of the usage
+     * @param resourceId    ID of the used account
+     * @param transactionId ID of the used transaction
+     * @return usages of the consent on the given date by request URI, including the incremented one
+     */
+    @NotNull
+    public Map<String, Integer> incrementUsage(@NotNull Long consentId, @NotNull String requestUri, @NotNull LocalDate usageDate,
+                                               @Nullable String resourceId, @Nullable String transactionId) {
+        Date date = Date.valueOf(usageDate);
+
+        if (isPostgreSql()) {
+            String sql = String.format(POSTGRESQL_UPSERT_SQL, qualify(TABLE), getNextSequenceValue());
+            return queryUsages(sql, consentId, requestUri, date, resourceId, transactionId, consentId, date, requestUri);
+        }
+
+        if (update(consentId, requestUri, date, resourceId, transactionId) == 0) {
+            try {
+                jdbcTemplate.update(String.format(INSERT_SQL, qualify(TABLE), getNextSequenceValue()),
+                                    consentId, requestUri, date, resourceId, transactionId);
+            } catch (DuplicateKeyException e) {
+                update(consentId, requestUri, date, resourceId, transactionId);
+            }
+        }
+        return queryUsages(String.format(SELECT_SQL, qualify(TABLE)), consentId, date);
+    }
+
+    private int update(Long consentId, String requestUri, Date date, String resourceId, String transactionId) {
+        return jdbcTemplate.update(String.format(UPDATE_SQL, qualify(TABLE)),
+                                   resourceId, transactionId, consentId, requestUri, date);
+    }
+
+    private Map<String, Integer> queryUsages(String sql, Object... args) {
+        Map<String, Integer> usages = new HashMap<>();
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> usages.put(rs.getString("request_uri"), rs.getInt("usage_amount")), args);
+        return usages;
+    }
+
+    private boolean isPostgreSql() {
+        if (postgreSql == null) {
+            String databaseProductName = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            postgreSql = POSTGRESQL.equals(databaseProductName);
+        }
+        return postgreSql;
+    }
+
+    private String getNextSequenceValue() {
+        if (nextSequenceValue == null) {
+            Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+            nextSequenceValue = dialect.getSelectSequenceNextValString(qualify(SEQUENCE));
+        }
+        return nextSequenceValue;
+    }
+
+    private String qualify(String name) {
+        return StringUtils.isBlank(schemaName)
+                   ? name
+                   : schemaName + "." + name;
+    }
+}
@@ -23,15 +23,14 @@ import org.springframework.data.repository.CrudRepository;
 
 import javax.persistence.LockModeType;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 public interface AisConsentUsageRepository extends CrudRepository<AisConsentUsage, Long> {
-    @Lock(value = LockModeType.OPTIMISTIC_FORCE_INCREMENT)
-    Optional<AisConsentUsage> findWriteByConsentAndUsageDateAndRequestUri(ConsentEntity aisConsent, LocalDate usageDate, String requestUri);
-
     @Lock(value = LockModeType.OPTIMISTIC)
     List<AisConsentUsage> findReadByConsentAndUsageDate(ConsentEntity aisConsent, LocalDate usageDate);
 
     int countByConsentIdAndResourceId(Long consentId, String resourceId);
+
+    List<AisConsentUsage> findReadByConsentIdInAndUsageDate(Collection<Long> consentIds, LocalDate usageDate);
 }
@@ -18,9 +18,16 @@ package de.adorsys.psd2.consent.repository;
 
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
 import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationType;
+import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
+import de.adorsys.psd2.xs2a.core.sca.ScaStatus;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -32,9 +39,58 @@ public interface AuthorisationRepository extends CrudRepository<AuthorisationEnt
     Optional<AuthorisationEntity> findByExternalIdAndAuthorisationType(String externalId,
                                                                        AuthorisationType authorisationType);
 
+    @Query(
+        "select a.scaStatus from authorisation a " +
+            "where a.externalId = :externalId " +
+            "and a.parentExternalId = :parentExternalId " +
+            "and a.authorisationType = :authorisationType"
+    )
+    Optional<ScaStatus> findScaStatusByExternalIdAndParentExternalIdAndAuthorisationType(@Param("externalId") String externalId,
+                                                                                         @Param("parentExternalId") String parentExternalId,
+                                                                                         @Param("authorisationType") AuthorisationType authorisationType);
+
     List<AuthorisationEntity> findAllByParentExternalIdAndAuthorisationType(String parentExternalId,
                                                                             AuthorisationType authorisationType);
 
     List<AuthorisationEntity> findAllByParentExternalIdAndAuthorisationTypeIn(String parentExternalId,
                                                                               Set<AuthorisationType> authorisationTypes);
+
+    @Modifying
+    @Query(
+        "update authorisation a " +
+            "set a.scaStatus = :scaStatus " +
+            "where a.authorisationType in :authorisationTypes " +
+            "and a.parentExternalId in (" +
+            "select c.externalId from consent c " +
+            "where c.id in :consentIds " +
+            "and c.consentStatus in :consentStatuses)"
+    )
+    int updateScaStatusByConsentIds(@Param("consentIds") List<Long> consentIds,
+                                    @Param("consentStatuses") Set<ConsentStatus> consentStatuses,
+                                    @Param("authorisationTypes") Set<AuthorisationType> authorisationTypes,
+                                    @Param("scaStatus") ScaStatus scaStatus);
+
+    @Modifying
+    @Query(
+        "update authorisation a " +
+            "set a.scaStatus = :scaStatus " +
+            "where a.authorisationType in :authorisationTypes " +
+            "and a.parentExternalId in (" +
+            "select p.paymentId from pis_common_payment p " +
+            "where p.id in :paymentIds " +
+            "and p.transactionStatus in :transactionStatuses)"
+    )
+    int updateScaStatusByPaymentIds(@Param("paymentIds") List<Long> paymentIds,
+                                    @Param("transactionStatuses") Set<TransactionStatus> transactionStatuses,
+                                    @Param("authorisationTypes") Set<AuthorisationType> authorisationTypes,
+                                    @Param("scaStatus") ScaStatus scaStatus);
+
+    @Query(
+        "select a from authorisation a " +
+            "left join fetch a.psuData " +
+            "where a.parentExternalId in :parentExternalIds " +
+            "and a.authorisationType = :authorisationType"
+    )
+    List<AuthorisationEntity> findAllByParentExternalIdInAndAuthorisationType(@Param("parentExternalIds") Collection<String> parentExternalIds,
+                                                                              @Param("authorisationType") AuthorisationType authorisationType);
 }
@@ -16,14 +16,21 @@
 
 package de.adorsys.psd2.consent.repository;
 
+import de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate;
+import de.adorsys.psd2.consent.domain.OldConsentPsuData;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.domain.consent.ConsentStatusProjection;
 import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -34,19 +41,39 @@ public interface ConsentJpaRepository extends CrudRepository<ConsentEntity, Long
     Optional<ConsentEntity> findByExternalId(String externalId);
 
     @Query(
-        "select c from consent c " +
+        "select new de.adorsys.psd2.consent.domain.consent.ConsentStatusProjection(c.consentStatus, c.creationTimestamp, c.validUntil, c.recurringIndicator) " +
+            "from consent c " +
+            "where c.externalId = :externalId"
+    )
+    Optional<ConsentStatusProjection> findStatusProjectionByExternalId(@Param("externalId") String externalId);
+
+    @Query(
+        "select new de.adorsys.psd2.consent.domain.OldConsentPsuData(c.id, c.externalId, c.consentStatus, " +
+            "psuList.psuId, psuList.psuIdType, psuList.psuCorporateId, psuList.psuCorporateIdType) from consent c " +
             "join c.psuDataList psuList " +
-            "where psuList.psuId in :psuIds " +
-            "and c.tppInformation.tppInfo.authorisationNumber = :authorisationNumber " +
+            "where c.tppInformation.tppInfo.authorisationNumber = :authorisationNumber " +
             "and c.instanceId = :instanceId " +
             "and c.consentStatus in :consentStatuses " +
-            "and c.externalId <> :newConsentId"
+            "and c.externalId <> :newConsentId " +
+            "and c.id in (select oc.id from consent oc join oc.psuDataList ocPsu where ocPsu.psuId in :psuIds)"
     )
-    List<ConsentEntity> findOldConsentsByNewConsentParams(@Param("psuIds") Set<String> psuIds,
-                                                          @Param("authorisationNumber") String tppAuthorisationNumber,
-                                                          @Param("instanceId") String instanceId,
-                                                          @Param("newConsentId") String newConsentId,
-                                                          @Param("consentStatuses") Set<ConsentStatus> consentStatuses);
+    List<OldConsentPsuData> findOldConsentPsuDataByNewConsentParams(@Param("psuIds") Set<String> psuIds,
+                                                                    @Param("authorisationNumber") String tppAuthorisationNumber,
+                                                                    @Param("instanceId") String instanceId,
+                                                                    @Param("newConsentId") String newConsentId,
+                                                                    @Param("consentStatuses") Set<ConsentStatus> consentStatuses);
+
+    @Modifying
+    @Query(
+        "update consent c " +
+            "set c.consentStatus = :newStatus, c.statusChangeTimestamp = :statusChangeTimestamp " +
+            "where c.id in :ids " +
+            "and c.consentStatus in :consentStatuses"
+    )
+    int changeConsentStatusByIds(@Param("ids") Collection<Long> ids,
+                                 @Param("consentStatuses") Set<ConsentStatus> consentStatuses,
+                                 @Param("newStatus") ConsentStatus newStatus,
+                                 @Param("statusChangeTimestamp") OffsetDateTime statusChangeTimestamp);
 
     @Query(
         "select c from consent c " +
@@ -57,4 +84,121 @@ public interface ConsentJpaRepository extends CrudRepository<ConsentEntity, Long
     )
     List<ConsentEntity> findUsedNonRecurringConsents(@Param("consentStatuses") Set<ConsentStatus> consentStatuses,
                                                      @Param("currentDate") LocalDate currentDate);
+
+    @Query("select min(c.id) from consent c")
+    Optional<Long> findMinId();
+
+    @Query("select max(c.id) from consent c")
+    Optional<Long> findMaxId();
+
+    @Query(
+        "select c.id from consent c " +
+            "where c.id > :lastId " +
+            "and c.id <= :maxId " +
+            "and c.consentStatus in :consentStatuses " +
+            "and c.validUntil < :currentDate " +
+            "order by c.id"
+    )
+    List<Long> findExpiredByDateConsentIds(@Param("lastId") Long lastId,
+                                           @Param("maxId") Long maxId,
+                                           @Param("consentStatuses") Set<ConsentStatus> consentStatuses,
+                                           @Param("currentDate") LocalDate currentDate,
+                                           Pageable pageable);
+
+    @Modifying
+    @Query(
+        "update consent c " +
+            "set c.consentStatus = :newStatus, c.expireDate = :expireDate, c.statusChangeTimestamp = :statusChangeTimestamp " +
+            "where c.id in :ids " +
+            "and c.consentStatus in :consentStatuses"
+    )
+    int expireConsentsByIds(@Param("ids") List<Long> ids,
+                            @Param("consentStatuses") Set<ConsentStatus> consentStatuses,
+                            @Param("newStatus") ConsentStatus newStatus,
+                            @Param("expireDate") LocalDate expireDate,
+                            @Param("statusChangeTimestamp") OffsetDateTime statusChangeTimestamp);
+
+    @Query(
+        "select c.id from consent c " +
+            "where c.id > :lastId " +
+            "and c.id <= :maxId " +
+            "and c.consentStatus in :consentStatuses " +
+            "and c.creationTimestamp < :expirationTimestamp " +
+            "order by c.id"
+    )
+    List<Long> findNotConfirmedConsentIds(@Param("lastId") Long lastId,
+                                          @Param("maxId") Long maxId,
+                                          @Param("consentStatuses") Set<ConsentStatus> consentStatuses,
+                                          @Param("expirationTimestamp") OffsetDateTime expirationTimestamp,
+                                          Pageable pageable);
+
+    @Query(
+        "select new de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate(c.id, c.creationTimestamp) from consent c " +
+            "where c.id > :lastId " +
+            "and c.consentStatus in :consentStatuses " +
+            "order by c.id"
+    )
+    List<ConfirmationExpirationCandidate> findNotConfirmedConsents(@Param("lastId") Long lastId,
+                                                                  @Param("consentStatuses") Set<ConsentStatus> consentStatuses,
+                                                                  Pageable pageable);
+
+    @Modifying
+    @Query(
+        "update consent c " +
+            "set c.consentStatus = :newStatus, c.lastActionDate = :lastActionDate, c.statusChangeTimestamp = :statusChangeTimestamp " +
+            "where c.id in :ids " +
+            "and c.consentStatus in :consentStatuses"
+    )
+    int updateConsentStatusByIds(@Param("ids") List<Long> ids,
+                                 @Param("consentStatuses") Set<ConsentStatus> consentStatuses,
+                                 @Param("newStatus") ConsentStatus newStatus,
+                                 @Param("lastActionDate") LocalDate lastActionDate,
+                                 @Param("statusChangeTimestamp") OffsetDateTime statusChangeTimestamp);
+
+    @Query(
+        "select c.id from consent c " +
+            "where c.id > :lastId " +
+            "and c.id <= :maxId " +
+            "and c.data is null " +
+            "and ((c.consentType = :aisConsentType and exists (select a.id from ais_consent a where a.externalId = c.externalId)) " +
+            "or (c.consentType in :piisConsentTypes and exists (select p.id from piis_consent p where p.externalId = c.externalId))) " +
+            "order by c.id"
+    )
+    List<Long> findNotMigratedConsentIds(@Param("lastId") Long lastId,
+                                         @Param("maxId") Long maxId,
+                                         @Param("aisConsentType") String aisConsentType,
+                                         @Param("piisConsentTypes") Set<String> piisConsentTypes,
+                                         Pageable pageable);
+
+    @Query(
+        "select count(c) from consent c " +
+            "where c.data is null " +
+            "and ((c.consentType = :aisConsentType and exists (select a.id from ais_consent a where a.externalId = c.externalId)) " +
+            "or (c.consentType in :piisConsentTypes and exists (select p.id from piis_consent p where p.externalId = c.externalId)))"
+    )
+    long countNotMigratedConsents(@Param("aisConsentType") String aisConsentType,
+                                  @Param("piisConsentTypes") Set<String> piisConsentTypes);
+
+    long countByDataIsNull();
+
+    @Query(
+        "select distinct c from consent c " +
+            "left join fetch c.psuDataList " +
+            "where c.id in :ids"
+    )
+    List<ConsentEntity> fetchPsuDataListByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(
+        "select distinct c from consent c " +
+            "left join fetch c.tppAccountAccesses " +
+            "where c.id in :ids"
+    )
+    List<ConsentEntity> fetchTppAccountAccessesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(
+        "select distinct c from consent c " +
+            "left join fetch c.aspspAccountAccesses " +
+            "where c.id in :ids"
+    )
+    List<ConsentEntity> fetchAspspAccountAccessesByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.repository;
+
+import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Queries for purging finalised consents and payments together with all rows depending on them.
+ * <p>
+ * Dependent rows are deleted with explicit bulk statements instead of JPA cascades, as cascades would load every
+ * object graph into memory. Rows referenced by a parent row (PSU data, TPP information, authorisation templates etc.)
+ * have to be selected before the parent is deleted and deleted after it. TPP info rows are shared by all consents and
+ * payments of a TPP and are reused by new ones, so they are never purged.
+ * <p>
+ * Consents and payments without status change timestamp are considered finalised at their creation.
+ */
+public interface DataRetentionRepository extends Repository<ConsentEntity, Long> {
+    @Query(
+        "select c.id from consent c " +
+            "where c.id > :lastId " +
+            "and c.id <= :maxId " +
+            "and c.consentStatus in :consentStatuses " +
+            "and coalesce(c.statusChangeTimestamp, c.creationTimestamp) < :finalisedBefore " +
+            "order by c.id"
+    )
+    List<Long> findFinalisedConsentIds(@Param("lastId") Long lastId,
+                                       @Param("maxId") Long maxId,
+                                       @Param("consentStatuses") Set<ConsentStatus> consentStatuses,
+                                       @Param("finalisedBefore") OffsetDateTime finalisedBefore,
+                                       Pageable pageable);
+
+    @Query(
+        "select p.id from pis_common_payment p " +
+            "where p.id > :lastId " +
+            "and p.id <= :maxId " +
+            "and p.transactionStatus in :statuses " +
+            "and coalesce(p.statusChangeTimestamp, p.creationTimestamp) < :finalisedBefore " +
+            "order by p.id"
+    )
+    List<Long> findFinalisedPaymentIds(@Param("lastId") Long lastId,
+                                       @Param("maxId") Long maxId,
+                                       @Param("statuses") Set<TransactionStatus> statuses,
+                                       @Param("finalisedBefore") OffsetDateTime finalisedBefore,
+                                       Pageable pageable);
+
+    // Consent dependencies
+
+    @Query("select c.externalId from consent c where c.id in :ids")
+    List<String> findConsentExternalIds(@Param("ids") List<Long> consentIds);
+
+    @Query("select c.tppInformation.id from consent c where c.id in :ids")
+    List<Long> findConsentTppInformationIds(@Param("ids") List<Long> consentIds);
+
+    @Query("select c.authorisationTemplate.id from consent c where c.id in :ids")
+    List<Long> findConsentAuthorisationTemplateIds(@Param("ids") List<Long> consentIds);
+
+    @Query("select psu.id from consent c join c.psuDataList psu where c.id in :ids")
+    List<Long> findConsentPsuDataIds(@Param("ids") List<Long> consentIds);
+
+    @Modifying
+    @Query("delete from ais_consent_usage u where u.consent.id in :ids")
+    int deleteConsentUsages(@Param("ids") List<Long> consentIds);
+
+    @Modifying
+    @Query("delete from AisConsentTransaction t where t.consentId.id in :ids")
+    int deleteConsentTransactions(@Param("ids") List<Long> consentIds);
+
+    @Modifying
+    @Query("delete from ais_consent_action a where a.requestedConsentId in :externalIds")
+    int deleteConsentActions(@Param("externalIds") List<String> consentExternalIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}ais_consent_psu_data WHERE ais_consent_id IN (:ids)", nativeQuery = true)
+    int deleteConsentPsuDataLinks(@Param("ids") List<Long> consentIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}ais_account_access WHERE consent_id IN (:ids)", nativeQuery = true)
+    int deleteConsentTppAccountAccesses(@Param("ids") List<Long> consentIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}ais_aspsp_account_access WHERE consent_id IN (:ids)", nativeQuery = true)
+    int deleteConsentAspspAccountAccesses(@Param("ids") List<Long> consentIds);
+
+    @Modifying
+    @Query("delete from consent c where c.id in :ids")
+    int deleteConsents(@Param("ids") List<Long> consentIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}ais_consent_tpp_ntfc WHERE id IN (:ids)", nativeQuery = true)
+    int deleteConsentTppNotificationModes(@Param("ids") List<Long> tppInformationIds);
+
+    @Modifying
+    @Query("delete from consent_tpp_information t where t.id in :ids")
+    int deleteConsentTppInformation(@Param("ids") List<Long> tppInformationIds);
+
+    // Payment dependencies
+
+    @Query("select p.paymentId from pis_common_payment p where p.id in :ids")
+    List<String> findPaymentExternalIds(@Param("ids") List<Long> paymentIds);
+
+    @Query("select p.authorisationTemplate.id from pis_common_payment p where p.id in :ids")
+    List<Long> findPaymentAuthorisationTemplateIds(@Param("ids") List<Long> paymentIds);
+
+    @Query("select psu.id from pis_common_payment p join p.psuDataList psu where p.id in :ids")
+    List<Long> findPaymentPsuDataIds(@Param("ids") List<Long> paymentIds);
+
+    @Query("select d.creditorAddress.id from pis_payment_data d where d.paymentData.id in :ids")
+    List<Long> findPaymentAddressIds(@Param("ids") List<Long> paymentIds);
+
+    @Query("select d.remittanceInformationStructured.id from pis_payment_data d where d.paymentData.id in :ids")
+    List<Long> findPaymentRemittanceIds(@Param("ids") List<Long> paymentIds);
+
+    @Query("select d.debtorAccount.id from pis_payment_data d where d.paymentData.id in :ids")
+    List<Long> findPaymentDebtorAccountReferenceIds(@Param("ids") List<Long> paymentIds);
+
+    @Query("select d.creditorAccount.id from pis_payment_data d where d.paymentData.id in :ids")
+    List<Long> findPaymentCreditorAccountReferenceIds(@Param("ids") List<Long> paymentIds);
+
+    @Modifying
+    @Query("delete from pis_payment_data d where d.paymentData.id in :ids")
+    int deletePaymentData(@Param("ids") List<Long> paymentIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}pis_common_payment_psu_data WHERE pis_common_payment_id IN (:ids)", nativeQuery = true)
+    int deletePaymentPsuDataLinks(@Param("ids") List<Long> paymentIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM {h-schema}payment_tpp_ntfc WHERE id IN (:ids)", nativeQuery = true)
+    int deletePaymentTppNotificationModes(@Param("ids") List<Long> paymentIds);
+
+    @Modifying
+    @Query("delete from pis_common_payment p where p.id in :ids")
+    int deletePayments(@Param("ids") List<Long> paymentIds);
+
+    @Modifying
+    @Query("delete from pis_address a where a.id in :ids")
+    int deletePaymentAddresses(@Param("ids") List<Long> addressIds);
+
+    @Modifying
+    @Query("delete from pis_remittance r where r.id in :ids")
+    int deletePaymentRemittances(@Param("ids") List<Long> remittanceIds);
+
+    @Modifying
+    @Query("delete from account_reference r where r.id in :ids")
+    int deleteAccountReferences(@Param("ids") List<Long> accountReferenceIds);
+
+    // Dependencies shared by consents and payments
+
+    @Query("select a.psuData.id from authorisation a where a.parentExternalId in :parentIds")
+    List<Long> findAuthorisationPsuDataIds(@Param("parentIds") List<String> parentExternalIds);
+
+    @Query("select p.additionalPsuData.id from psu_data p where p.id in :ids")
+    List<Long> findAdditionalPsuDataIds(@Param("ids") List<Long> psuDataIds);
+
+    @Modifying
+    @Query(
+        value = "DELETE FROM {h-schema}auth_available_sca_method WHERE authorisation_id IN " +
+                    "(SELECT a.authorisation_id FROM {h-schema}authorisation a WHERE a.parent_id IN (:parentIds))",
+        nativeQuery = true
+    )
+    int deleteAuthorisationScaMethods(@Param("parentIds") List<String> parentExternalIds);
+
+    @Modifying
+    @Query("delete from authorisation a where a.parentExternalId in :parentIds")
+    int deleteAuthorisations(@Param("parentIds") List<String> parentExternalIds);
+
+    @Modifying
+    @Query("delete from aspsp_consent_data d where d.consentId in :externalIds")
+    int deleteAspspConsentData(@Param("externalIds") List<String> externalIds);
+
+    @Modifying
+    @Query("delete from authorisation_template t where t.id in :ids")
+    int deleteAuthorisationTemplates(@Param("ids") List<Long> authorisationTemplateIds);
+
+    @Modifying
+    @Query("delete from psu_data p where p.id in :ids")
+    int deletePsuData(@Param("ids") List<Long> psuDataIds);
+
+    @Modifying
+    @Query("delete from AdditionalPsuData p where p.id in :ids")
+    int deleteAdditionalPsuData(@Param("ids") List<Long> additionalPsuDataIds);
+}
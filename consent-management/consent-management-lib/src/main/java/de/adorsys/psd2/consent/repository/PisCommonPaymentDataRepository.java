@@ -16,11 +16,19 @@
 
 package de.adorsys.psd2.consent.repository;
 
+import de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate;
+import de.adorsys.psd2.consent.domain.payment.PaymentStatusProjection;
 import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
 import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -30,5 +38,72 @@ public interface PisCommonPaymentDataRepository extends CrudRepository<PisCommon
 
     Optional<PisCommonPaymentData> findByPaymentId(String paymentId);
 
+    @Query(
+        "select new de.adorsys.psd2.consent.domain.payment.PaymentStatusProjection(p.transactionStatus, p.creationTimestamp) " +
+            "from pis_common_payment p " +
+            "where p.paymentId = :paymentId"
+    )
+    Optional<PaymentStatusProjection> findStatusProjectionByPaymentId(@Param("paymentId") String paymentId);
+
     List<PisCommonPaymentData> findByTransactionStatusIn(Set<TransactionStatus> statuses);
+
+    @Query("select min(p.id) from pis_common_payment p")
+    Optional<Long> findMinId();
+
+    @Query("select max(p.id) from pis_common_payment p")
+    Optional<Long> findMaxId();
+
+    @Query(
+        "select p.id from pis_common_payment p " +
+            "where p.id > :lastId " +
+            "and p.id <= :maxId " +
+            "and p.transactionStatus in :statuses " +
+            "and p.creationTimestamp < :expirationTimestamp " +
+            "order by p.id"
+    )
+    List<Long> findNotConfirmedPaymentIds(@Param("lastId") Long lastId,
+                                          @Param("maxId") Long maxId,
+                                          @Param("statuses") Set<TransactionStatus> statuses,
+                                          @Param("expirationTimestamp") OffsetDateTime expirationTimestamp,
+                                          Pageable pageable);
+
+    @Query(
+        "select new de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate(p.id, p.creationTimestamp) from pis_common_payment p " +
+            "where p.id > :lastId " +
+            "and p.transactionStatus in :statuses " +
+            "order by p.id"
+    )
+    List<ConfirmationExpirationCandidate> findNotConfirmedPayments(@Param("lastId") Long lastId,
+                                                                  @Param("statuses") Set<TransactionStatus> statuses,
+                                                                  Pageable pageable);
+
+    @Modifying
+    @Query(
+        "update pis_common_payment p " +
+            "set p.transactionStatus = :newStatus, p.statusChangeTimestamp = :statusChangeTimestamp " +
+            "where p.id in :ids " +
+            "and p.transactionStatus in :statuses"
+    )
+    int updateTransactionStatusByIds(@Param("ids") List<Long> ids,
+                                     @Param("statuses") Set<TransactionStatus> statuses,
+                                     @Param("newStatus") TransactionStatus newStatus,
+                                     @Param("statusChangeTimestamp") OffsetDateTime statusChangeTimestamp);
+
+    @Query(
+        "select distinct p from pis_common_payment p " +
+            "left join fetch p.psuDataList " +
+            "where p.id in :ids"
+    )
+    List<PisCommonPaymentData> fetchPsuDataListByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(
+        "select distinct p from pis_common_payment p " +
+            "left join fetch p.payments pd " +
+            "left join fetch pd.debtorAccount " +
+            "left join fetch pd.creditorAccount " +
+            "left join fetch pd.creditorAddress " +
+            "left join fetch pd.remittanceInformationStructured " +
+            "where p.id in :ids"
+    )
+    List<PisCommonPaymentData> fetchPaymentsByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.repository;
+
+import de.adorsys.psd2.consent.domain.SchedulerLockEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+
+public interface SchedulerLockRepository extends CrudRepository<SchedulerLockEntity, String> {
+    /**
+     * Takes over the lease of the lock, if it has already expired
+     *
+     * @return number of updated rows: 1 if the lease has been taken over, 0 otherwise
+     */
+    @Modifying
+    @Query(
+        "update scheduler_lock l " +
+            "set l.lockedBy = :owner, l.lockedAt = :now, l.lockedUntil = :lockedUntil " +
+            "where l.lockName = :lockName " +
+            "and l.lockedUntil <= :now"
+    )
+    int updateExpiredLock(@Param("lockName") String lockName,
+                          @Param("owner") String owner,
+                          @Param("now") OffsetDateTime now,
+                          @Param("lockedUntil") OffsetDateTime lockedUntil);
+
+    /**
+     * Creates the lease of the lock, that has never been acquired before.
+     * Fails with constraint violation if the lease row already exists.
+     *
+     * @return number of inserted rows
+     */
+    @Modifying
+    @Query(
+        value = "INSERT INTO {h-schema}scheduler_lock (lock_name, locked_by, locked_at, locked_until) " +
+                    "VALUES (:lockName, :owner, :now, :lockedUntil)",
+        nativeQuery = true
+    )
+    int insertLock(@Param("lockName") String lockName,
+                   @Param("owner") String owner,
+                   @Param("now") OffsetDateTime now,
+                   @Param("lockedUntil") OffsetDateTime lockedUntil);
+
+    /**
+     * Extends the lease held by the given owner, as long as it hasn't expired yet
+     *
+     * @return number of updated rows: 0 if the lease has expired or has been taken over by another owner
+     */
+    @Modifying
+    @Query(
+        "update scheduler_lock l " +
+            "set l.lockedUntil = :lockedUntil " +
+            "where l.lockName = :lockName " +
+            "and l.lockedBy = :owner " +
+            "and l.lockedUntil > :now"
+    )
+    int extendLock(@Param("lockName") String lockName,
+                   @Param("owner") String owner,
+                   @Param("now") OffsetDateTime now,
+                   @Param("lockedUntil") OffsetDateTime lockedUntil);
+
+    /**
+     * Shortens the lease held by the given owner
+     *
+     * @return number of updated rows: 0 if the lease has already been taken over by another owner
+     */
+    @Modifying
+    @Query(
+        "update scheduler_lock l " +
+            "set l.lockedUntil = :lockedUntil " +
+            "where l.lockName = :lockName " +
+            "and l.lockedBy = :owner"
+    )
+    int releaseLock(@Param("lockName") String lockName,
+                    @Param("owner") String owner,
+                    @Param("lockedUntil") OffsetDateTime lockedUntil);
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads entities matching a specification in parts instead of loading the whole result at once.
+ */
+public interface SpecificationStreamingRepository {
+    /**
+     * Reads all entities matching the given specification and passes them to the consumer in chunks.
+     * <p>
+     * The persistence context is flushed and cleared after each chunk, so entities of processed chunks are detached
+     * and may be garbage collected. Must be called within a transaction.
+     *
+     * @param domainClass   class of the entity
+     * @param specification specification to filter the entities, may be <code>null</code>
+     * @param chunkConsumer consumer of loaded chunks
+     * @param <T>           type of the entity
+     */
+    <T> void streamAll(Class<T> domainClass, Specification<T> specification, Consumer<List<T>> chunkConsumer);
+
+    /**
+     * Returns at most the given number of entities matching the given specification, in the order defined by it.
+     *
+     * @param domainClass   class of the entity
+     * @param specification specification to filter and order the entities, may be <code>null</code>
+     * @param limit         maximum number of returned entities
+     * @param <T>           type of the entity
+     * @return list of found entities
+     */
+    <T> List<T> findAll(Class<T> domainClass, Specification<T> specification, int limit);
+}
@@ -18,14 +18,20 @@ package de.adorsys.psd2.consent.repository;
 
 import de.adorsys.psd2.consent.domain.TppInfoEntity;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 public interface TppInfoRepository extends CrudRepository<TppInfoEntity, Long> {
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<TppInfoEntity> findByAuthorisationNumber(@NotNull String tppAuthorisationNumber);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<TppInfoEntity> findFirstByAuthorisationNumberAndInstanceId(@NotNull String tppAuthorisationNumber, @NotNull String instanceId);
 
 }
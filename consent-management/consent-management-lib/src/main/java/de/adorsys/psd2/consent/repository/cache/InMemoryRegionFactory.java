@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.repository.cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+
+import java.util.Map;
+
+/**
+ * Hibernate second-level cache and query cache kept in memory of the current instance.
+ * <p>
+ * Cached entities and query results are invalidated by Hibernate on changes made by the current instance only, so
+ * they expire after {@value #TIME_TO_LIVE_MS_PROPERTY} milliseconds to limit staleness, when several instances
+ * share the same database. Entity, collection and query result regions keep at most {@value #MAX_ENTRIES_PROPERTY}
+ * least recently used entries each. Update timestamps of tables used by the query cache never expire and are never
+ * evicted, as a missing timestamp would make stale query results valid.
+ */
+public class InMemoryRegionFactory extends RegionFactoryTemplate {
+    public static final String TIME_TO_LIVE_MS_PROPERTY = "hibernate.cache.in_memory.time_to_live_ms";
+    public static final String MAX_ENTRIES_PROPERTY = "hibernate.cache.in_memory.max_entries";
+    private static final int DEFAULT_TIME_TO_LIVE_MS = 60000;
+    private static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private long timeToLiveMs;
+    private int maxEntries;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        timeToLiveMs = ConfigurationHelper.getLong(TIME_TO_LIVE_MS_PROPERTY, configValues, DEFAULT_TIME_TO_LIVE_MS);
+        maxEntries = ConfigurationHelper.getInt(MAX_ENTRIES_PROPERTY, configValues, DEFAULT_MAX_ENTRIES);
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        // storages are released by their regions
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig, DomainDataRegionBuildingContext buildingContext) {
+        return new InMemoryStorageAccess(timeToLiveMs, maxEntries);
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new InMemoryStorageAccess(timeToLiveMs, maxEntries);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new InMemoryStorageAccess(0, 0);
+    }
+}
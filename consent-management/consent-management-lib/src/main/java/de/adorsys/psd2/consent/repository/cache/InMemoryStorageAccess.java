@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.repository.cache;
+
+import lombok.Value;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Storage of one cache region, entries expire after the given amount of milliseconds or never, if it is not positive.
+ * <p>
+ * Entries are spread over segments by their key, every segment is locked separately, so that concurrent reads of
+ * different keys don't wait for each other. If the maximal amount of entries is positive, it is divided between the
+ * segments and the least recently used entry of a segment is evicted on reaching its share. Expired entries, that are
+ * not read anymore, are purged on writes once per time to live.
+ */
+class InMemoryStorageAccess implements DomainDataStorageAccess {
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private final Segment[] segments;
+    private final long timeToLiveMs;
+    private final LongSupplier clock;
+    private final AtomicLong nextPurgeTime;
+
+    InMemoryStorageAccess(long timeToLiveMs, int maxEntries) {
+        this(timeToLiveMs, maxEntries, DEFAULT_CONCURRENCY_LEVEL, System::currentTimeMillis);
+    }
+
+    InMemoryStorageAccess(long timeToLiveMs, int maxEntries, int concurrencyLevel, LongSupplier clock) {
+        this.timeToLiveMs = timeToLiveMs;
+        this.clock = clock;
+        int segmentCount = maxEntries > 0 ? Math.min(concurrencyLevel, maxEntries) : concurrencyLevel;
+        int maxSegmentEntries = maxEntries > 0 ? (maxEntries + segmentCount - 1) / segmentCount : 0;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maxSegmentEntries);
+        }
+        this.nextPurgeTime = new AtomicLong(getExpirationTime(clock.getAsLong()));
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        long currentTime = clock.getAsLong();
+        Segment segment = getSegment(key);
+        synchronized (segment) {
+            Entry entry = segment.entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry.getExpirationTime() <= currentTime) {
+                segment.entries.remove(key);
+                return null;
+            }
+            return entry.getValue();
+        }
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        long currentTime = clock.getAsLong();
+        long purgeTime = nextPurgeTime.get();
+        if (purgeTime <= currentTime && nextPurgeTime.compareAndSet(purgeTime, getExpirationTime(currentTime))) {
+            purgeExpiredEntries(currentTime);
+        }
+
+        Segment segment = getSegment(key);
+        synchronized (segment) {
+            segment.entries.put(key, new Entry(value, getExpirationTime(currentTime)));
+        }
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return getFromCache(key, null) != null;
+    }
+
+    @Override
+    public void evictData() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+            }
+        }
+    }
+
+    @Override
+    public void evictData(Object key) {
+        Segment segment = getSegment(key);
+        synchronized (segment) {
+            segment.entries.remove(key);
+        }
+    }
+
+    @Override
+    public void release() {
+        evictData();
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment getSegment(Object key) {
+        int hash = key.hashCode();
+        return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+    }
+
+    private void purgeExpiredEntries(long currentTime) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                Iterator<Entry> iterator = segment.entries.values().iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next().getExpirationTime() <= currentTime) {
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    private long getExpirationTime(long currentTime) {
+        return timeToLiveMs > 0
+                   ? currentTime + timeToLiveMs
+                   : Long.MAX_VALUE;
+    }
+
+    private static class Segment {
+        private final Map<Object, Entry> entries;
+
+        private Segment(int maxEntries) {
+            entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                    return maxEntries > 0 && size() > maxEntries;
+                }
+            };
+        }
+    }
+
+    @Value
+    private static class Entry {
+        private Object value;
+        private long expirationTime;
+    }
+}
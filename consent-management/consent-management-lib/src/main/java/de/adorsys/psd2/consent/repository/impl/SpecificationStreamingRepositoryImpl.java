@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.repository.impl;
+
+import de.adorsys.psd2.consent.repository.SpecificationStreamingRepository;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Component
+public class SpecificationStreamingRepositoryImpl implements SpecificationStreamingRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${cms.export.stream.chunk-size:100}")
+    private int chunkSize;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void streamAll(Class<T> domainClass, Specification<T> specification, Consumer<List<T>> chunkConsumer) {
+        CriteriaQuery<T> query = buildQuery(domainClass, specification);
+        try (Stream<T> stream = entityManager.createQuery(query)
+                                    .setHint(QueryHints.HINT_FETCH_SIZE, chunkSize)
+                                    .getResultStream()) {
+            List<T> chunk = new ArrayList<>(chunkSize);
+            stream.forEach(entity -> {
+                chunk.add(entity);
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, chunkConsumer);
+                }
+            });
+
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, chunkConsumer);
+            }
+        }
+    }
+
+    @Override
+    public <T> List<T> findAll(Class<T> domainClass, Specification<T> specification, int limit) {
+        return entityManager.createQuery(buildQuery(domainClass, specification))
+                   .setMaxResults(limit)
+                   .getResultList();
+    }
+
+    private <T> CriteriaQuery<T> buildQuery(Class<T> domainClass, Specification<T> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(domainClass);
+        Root<T> root = query.from(domainClass);
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return query;
+    }
+
+    private <T> void processChunk(List<T> chunk, Consumer<List<T>> chunkConsumer) {
+        chunkConsumer.accept(new ArrayList<>(chunk));
+        chunk.clear();
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -19,9 +19,13 @@ package de.adorsys.psd2.consent.repository.migration;
 import de.adorsys.psd2.consent.domain.account.AisConsent;
 import org.springframework.data.repository.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ObsoleteAisConsentJpaRepository extends Repository<AisConsent, Long> {
 
     Optional<AisConsent> findByExternalId(String externalId);
+
+    List<AisConsent> findAllByExternalIdIn(Collection<String> externalIds);
 }
@@ -19,9 +19,13 @@ package de.adorsys.psd2.consent.repository.migration;
 import de.adorsys.psd2.consent.domain.piis.PiisConsentEntity;
 import org.springframework.data.repository.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ObsoletePiisConsentJpaRepository extends Repository<PiisConsentEntity, Long> {
 
     Optional<PiisConsentEntity> findByExternalId(String externalId);
+
+    List<PiisConsentEntity> findAllByExternalIdIn(Collection<String> externalIds);
 }
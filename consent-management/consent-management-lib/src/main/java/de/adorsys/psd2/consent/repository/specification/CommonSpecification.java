@@ -94,6 +94,32 @@ public class CommonSpecification<T> {
         return provideSpecificationForEntityAttribute(INSTANCE_ID_ATTRIBUTE, instanceId);
     }
 
+    /**
+     * Returns specification for some entity, that orders data by creation date-time and ID and filters data located
+     * after the given position in this order, as used by keyset pagination.
+     *
+     * <p>
+     * If both optional parameters are not provided, this specification will only order resulting data.
+     *
+     * @param creationTimestamp optional creation date-time of the last entity from the previous page
+     * @param id                optional ID of the last entity from the previous page
+     * @return resulting specification
+     */
+    public Specification<T> byCreationTimestampAndIdAfter(@Nullable OffsetDateTime creationTimestamp, @Nullable Long id) {
+        return (root, criteriaQuery, criteriaBuilder) -> {
+            criteriaQuery.orderBy(criteriaBuilder.asc(root.get(CREATION_TIMESTAMP_ATTRIBUTE)),
+                                  criteriaBuilder.asc(root.get(ID_ATTRIBUTE)));
+
+            if (creationTimestamp == null || id == null) {
+                return null;
+            }
+
+            return criteriaBuilder.or(criteriaBuilder.greaterThan(root.get(CREATION_TIMESTAMP_ATTRIBUTE), creationTimestamp),
+                                      criteriaBuilder.and(criteriaBuilder.equal(root.get(CREATION_TIMESTAMP_ATTRIBUTE), creationTimestamp),
+                                                          criteriaBuilder.greaterThan(root.get(ID_ATTRIBUTE), id)));
+        };
+    }
+
     /**
      * Returns specification for some entity for filtering data by creation date.
      *
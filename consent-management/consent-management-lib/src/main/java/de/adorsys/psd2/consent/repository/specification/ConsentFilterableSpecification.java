@@ -25,6 +25,7 @@ import org.jetbrains.annotations.Nullable;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 
 import static de.adorsys.psd2.consent.repository.specification.EntityAttribute.CONSENT_TYPE_ATTRIBUTE;
 import static de.adorsys.psd2.consent.repository.specification.EntityAttributeSpecificationProvider.provideSpecificationForEntityAttribute;
@@ -112,4 +113,26 @@ public abstract class ConsentFilterableSpecification {
     public Specification<ConsentEntity> byConsentType() {
         return provideSpecificationForEntityAttribute(CONSENT_TYPE_ATTRIBUTE, getType().name());
     }
+
+    /**
+     * Returns specification for ConsentEntity entity, that fetches TPP information and authorisation template
+     * in the same query.
+     *
+     * @return specification for ConsentEntity entity
+     */
+    public Specification<ConsentEntity> fetchTppInformationAndAuthorisationTemplate() {
+        return consentSpecification.fetchTppInformationAndAuthorisationTemplate();
+    }
+
+    /**
+     * Returns specification for ConsentEntity entity, that orders consents by creation date-time and ID and filters
+     * consents located after the last consent of the previous page.
+     *
+     * @param creationTimestamp optional creation date-time of the last consent from the previous page
+     * @param id                optional ID of the last consent from the previous page
+     * @return specification for ConsentEntity entity
+     */
+    public Specification<ConsentEntity> byCreationTimestampAndIdAfter(@Nullable OffsetDateTime creationTimestamp, @Nullable Long id) {
+        return commonSpecification.byCreationTimestampAndIdAfter(creationTimestamp, id);
+    }
 }
@@ -28,6 +28,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -134,6 +135,22 @@ public class ConsentSpecification {
         };
     }
 
+    /**
+     * Returns specification for ConsentEntity entity, that fetches TPP information and authorisation template
+     * in the same query instead of loading them with a separate select per consent. Count queries are left unchanged.
+     *
+     * @return specification for ConsentEntity entity
+     */
+    public Specification<ConsentEntity> fetchTppInformationAndAuthorisationTemplate() {
+        return (root, query, cb) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch(CONSENT_TPP_INFORMATION_ATTRIBUTE, JoinType.LEFT).fetch(TPP_INFO_ATTRIBUTE, JoinType.LEFT);
+                root.fetch(AUTHORISATION_TEMPLATE_ATTRIBUTE, JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
     private Specification<ConsentEntity> byAspspAccountIdInAspspAccountAccess(@Nullable String aspspAccountId) {
         return (root, query, cb) -> {
             Join<ConsentEntity, List<AspspAccountAccess>> aspspAccountAccessJoin = root.join(ASPSP_ACCOUNT_ACCESSES_ATTRIBUTE);
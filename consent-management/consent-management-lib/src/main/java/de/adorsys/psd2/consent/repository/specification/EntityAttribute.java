@@ -17,6 +17,7 @@
 package de.adorsys.psd2.consent.repository.specification;
 
 public class EntityAttribute {
+    public static final String ID_ATTRIBUTE = "id";
     public static final String INSTANCE_ID_ATTRIBUTE = "instanceId";
     public static final String AUTHORISATION_EXTERNAL_ID_ATTRIBUTE = "externalId";
     public static final String CONSENT_EXTERNAL_ID_ATTRIBUTE = "externalId";
@@ -26,6 +27,7 @@ public class EntityAttribute {
 
     public static final String CONSENT_TYPE_ATTRIBUTE = "consentType";
     public static final String CONSENT_TPP_INFORMATION_ATTRIBUTE = "tppInformation";
+    public static final String AUTHORISATION_TEMPLATE_ATTRIBUTE = "authorisationTemplate";
 
     public static final String PSU_ID_ATTRIBUTE = "psuId";
     public static final String PSU_ID_TYPE_ATTRIBUTE = "psuIdType";
@@ -37,6 +39,7 @@ public class EntityAttribute {
 
     public static final String ASPSP_ACCOUNT_ACCESSES_ATTRIBUTE = "aspspAccountAccesses";
     public static final String ACCOUNT_ACCESS_ATTRIBUTE_ACCOUNT_IDENTIFIER = "accountIdentifier";
+    public static final String ACCOUNT_ACCESS_ATTRIBUTE_ACCOUNT_IDENTIFIER_HASH = "accountIdentifierHash";
     public static final String CURRENCY_ATTRIBUTE = "currency";
     public static final String ASPSP_ACCOUNT_ID_ATTRIBUTE = "aspspAccountId";
 
@@ -26,7 +26,9 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 
 import static de.adorsys.psd2.consent.repository.specification.EntityAttribute.*;
 import static de.adorsys.psd2.consent.repository.specification.EntityAttributeSpecificationProvider.provideSpecificationForEntityAttribute;
@@ -101,6 +103,34 @@ public class PisCommonPaymentDataSpecification {
                    .and(commonSpecification.byInstanceId(instanceId));
     }
 
+    /**
+     * Returns specification for PisCommonPaymentData entity, that fetches TPP info and authorisation template
+     * in the same query instead of loading them with a separate select per payment. Count queries are left unchanged.
+     *
+     * @return resulting specification for PisCommonPaymentData entity
+     */
+    public Specification<PisCommonPaymentData> fetchTppInfoAndAuthorisationTemplate() {
+        return (root, query, cb) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch(TPP_INFO_ATTRIBUTE, JoinType.LEFT);
+                root.fetch(AUTHORISATION_TEMPLATE_ATTRIBUTE, JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Returns specification for PisCommonPaymentData entity, that orders payments by creation date-time and ID and filters
+     * payments located after the last payment of the previous page.
+     *
+     * @param creationTimestamp optional creation date-time of the last payment from the previous page
+     * @param id                optional ID of the last payment from the previous page
+     * @return resulting specification for PisCommonPaymentData entity
+     */
+    public Specification<PisCommonPaymentData> byCreationTimestampAndIdAfter(@Nullable OffsetDateTime creationTimestamp, @Nullable Long id) {
+        return commonSpecification.byCreationTimestampAndIdAfter(creationTimestamp, id);
+    }
+
     private Specification<PisCommonPaymentData> byAspspAccountId(@Nullable String aspspAccountId) {
         return provideSpecificationForEntityAttribute(ASPSP_ACCOUNT_ID_ATTRIBUTE, aspspAccountId);
     }
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service;
+
+import de.adorsys.psd2.consent.domain.account.AisConsentAction;
+import de.adorsys.psd2.consent.repository.AisConsentActionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves AIS consent actions either synchronously in the transaction of the request or, if asynchronous logging is
+ * enabled, hands them to a bounded in-memory queue, that is periodically flushed by a background thread in batches.
+ * <p>
+ * Queued actions are added only after the transaction of the request has been committed. If the queue is full,
+ * the action is saved synchronously in a new transaction or dropped depending on the {@link OverflowPolicy}. Actions remaining in the
+ * queue are flushed on shutdown, actions of an instance that is killed are lost.
+ * <p>
+ * If a batch couldn't be saved, its actions are saved one by one, so that a single faulty action doesn't block the
+ * whole batch. An action that still fails is retried with the next flushes and dropped after the configured number of
+ * attempts.
+ */
+@Slf4j
+@Service
+public class AisConsentActionLogService {
+    private final AisConsentActionRepository aisConsentActionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<AisConsentAction, Integer> failedAttempts = new IdentityHashMap<>();
+    private BlockingQueue<AisConsentAction> queue;
+    private ScheduledExecutorService executor;
+
+    @Value("${cms.ais.consent-action-log.async.enabled:false}")
+    private boolean asyncEnabled;
+    @Value("${cms.ais.consent-action-log.async.queue-capacity:10000}")
+    private int queueCapacity;
+    @Value("${cms.ais.consent-action-log.async.batch-size:500}")
+    private int batchSize;
+    @Value("${cms.ais.consent-action-log.async.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+    @Value("${cms.ais.consent-action-log.async.overflow-policy:SYNCHRONOUS}")
+    private OverflowPolicy overflowPolicy;
+    @Value("${cms.ais.consent-action-log.async.max-attempts:3}")
+    private int maxAttempts;
+
+    public AisConsentActionLogService(AisConsentActionRepository aisConsentActionRepository, PlatformTransactionManager transactionManager) {
+        this.aisConsentActionRepository = aisConsentActionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // actions are enqueued after the commit of the request transaction, so the overflowing ones need an own one
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!asyncEnabled) {
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ais-consent-action-log-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(flushIntervalMs, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    public void logAction(AisConsentAction action) {
+        if (!asyncEnabled) {
+            aisConsentActionRepository.save(action);
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(action);
+                }
+            });
+        } else {
+            enqueue(action);
+        }
+    }
+
+    /**
+     * Saves all queued actions in batches of configured size. Actions of a batch that couldn't be saved are saved one by
+     * one in separate transactions. If the database is unavailable, remaining actions are put back to the queue as long
+     * as it has free capacity, and flushing is stopped until the next run.
+     */
+    public synchronized void flush() {
+        if (queue == null) {
+            return;
+        }
+
+        List<AisConsentAction> batch = new ArrayList<>(batchSize);
+        // failed actions are put back to the queue only after draining it, so that they are retried with the next flush
+        List<AisConsentAction> retried = new ArrayList<>();
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                aisConsentActionRepository.saveAll(batch);
+                batch.forEach(failedAttempts::remove);
+            } catch (RuntimeException e) {
+                log.warn("Batch of {} AIS consent actions couldn't be saved, actions are saved one by one: {}", batch.size(), e.getMessage());
+                resetIds(batch);
+                if (!saveOneByOne(batch, retried)) {
+                    break;
+                }
+            }
+            batch.clear();
+        }
+        requeue(retried);
+    }
+
+    int getQueuedActionsCount() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    private void enqueue(AisConsentAction action) {
+        if (queue.offer(action)) {
+            return;
+        }
+
+        if (overflowPolicy == OverflowPolicy.SYNCHRONOUS) {
+            transactionTemplate.execute(status -> aisConsentActionRepository.save(action));
+        } else {
+            log.warn("AIS consent action log queue is full, action of consent ID: [{}] is dropped", action.getRequestedConsentId());
+        }
+    }
+
+    /**
+     * @return <code>false</code> if the database is unavailable and flushing should be stopped
+     */
+    private boolean saveOneByOne(List<AisConsentAction> batch, List<AisConsentAction> retried) {
+        for (int i = 0; i < batch.size(); i++) {
+            AisConsentAction action = batch.get(i);
+            try {
+                transactionTemplate.execute(status -> aisConsentActionRepository.save(action));
+                failedAttempts.remove(action);
+            } catch (RuntimeException e) {
+                action.setId(null);
+                if (isDatabaseUnavailable(e)) {
+                    log.warn("{} AIS consent actions couldn't be saved, will retry with the next flush: {}", batch.size() - i, e.getMessage());
+                    retried.addAll(batch.subList(i, batch.size()));
+                    return false;
+                }
+
+                int attempts = failedAttempts.merge(action, 1, Integer::sum);
+                if (attempts < maxAttempts) {
+                    retried.add(action);
+                } else {
+                    failedAttempts.remove(action);
+                    log.error("AIS consent action of consent ID: [{}] couldn't be saved after {} attempts and is dropped: {}",
+                              action.getRequestedConsentId(), attempts, e.getMessage());
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isDatabaseUnavailable(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                   || e instanceof RecoverableDataAccessException
+                   || e instanceof DataAccessResourceFailureException
+                   || e instanceof CannotCreateTransactionException;
+    }
+
+    private void resetIds(List<AisConsentAction> batch) {
+        // ids assigned in the rolled back transaction must not be reused, otherwise the actions are merged on retry
+        batch.forEach(action -> action.setId(null));
+    }
+
+    private void requeue(List<AisConsentAction> actions) {
+        long dropped = 0;
+        for (AisConsentAction action : actions) {
+            if (!queue.offer(action)) {
+                failedAttempts.remove(action);
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.warn("AIS consent action log queue is full, {} actions are dropped", dropped);
+        }
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * Action is saved in the calling thread, if the queue is full
+         */
+        SYNCHRONOUS,
+        /**
+         * Action is dropped, if the queue is full
+         */
+        DROP
+    }
+}
@@ -16,6 +16,7 @@
 
 package de.adorsys.psd2.consent.service;
 
+import de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 
 import java.util.List;
@@ -24,4 +25,31 @@ public interface AisConsentConfirmationExpirationService extends ConfirmationExp
     ConsentEntity expireConsent(ConsentEntity consent);
 
     List<ConsentEntity> updateConsentListOnConfirmationExpiration(List<ConsentEntity> consents);
+
+    /**
+     * Returns IDs of not confirmed consents with expired confirmation period, ordered by ID
+     *
+     * @param lastId ID of the last consent from the previous batch, only consents with greater IDs are returned
+     * @param maxId  only consents with IDs not greater than this one are returned
+     * @param limit  maximum number of IDs to be returned
+     * @return list of consent IDs
+     */
+    List<Long> findConfirmationExpiredConsentIds(Long lastId, Long maxId, int limit);
+
+    /**
+     * Returns IDs and creation timestamps of consents that are still waiting for confirmation, ordered by ID
+     *
+     * @param lastId ID of the last consent from the previous batch, only consents with greater IDs are returned
+     * @param limit  maximum number of consents to be returned
+     * @return list of confirmation expiration candidates
+     */
+    List<ConfirmationExpirationCandidate> findNotConfirmedConsents(Long lastId, int limit);
+
+    /**
+     * Rejects given not confirmed consents and fails their authorisations with bulk updates
+     *
+     * @param consentIds IDs of consents, consents that are no longer in not confirmed status are skipped
+     * @return number of rejected consents
+     */
+    int updateConsentsOnConfirmationExpiration(List<Long> consentIds);
 }
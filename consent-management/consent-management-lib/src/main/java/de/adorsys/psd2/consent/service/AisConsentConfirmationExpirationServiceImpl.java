@@ -18,6 +18,7 @@ package de.adorsys.psd2.consent.service;
 
 import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
+import de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
@@ -27,17 +28,24 @@ import de.adorsys.psd2.xs2a.core.sca.ScaStatus;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.IterableUtils;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AisConsentConfirmationExpirationServiceImpl implements AisConsentConfirmationExpirationService {
+    private static final Set<ConsentStatus> NOT_CONFIRMED_CONSENT_STATUSES = EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED);
+
     private final ConsentJpaRepository consentJpaRepository;
     private final AuthorisationRepository authorisationRepository;
     private final AspspProfileService aspspProfileService;
@@ -54,10 +62,15 @@ public class AisConsentConfirmationExpirationServiceImpl implements AisConsentCo
 
     @Override
     public boolean isConfirmationExpired(ConsentEntity consent) {
-        long expirationPeriodMs = aspspProfileService.getAspspSettings().getAis().getConsentTypes().getNotConfirmedConsentExpirationTimeMs();
+        long expirationPeriodMs = getConfirmationExpirationPeriodMs();
         return consent != null && consent.isConfirmationExpired(expirationPeriodMs);
     }
 
+    @Override
+    public long getConfirmationExpirationPeriodMs() {
+        return aspspProfileService.getAspspSettings().getAis().getConsentTypes().getNotConfirmedConsentExpirationTimeMs();
+    }
+
     @Transactional
     @Override
     public ConsentEntity expireConsent(ConsentEntity consent) {
@@ -94,4 +107,26 @@ public class AisConsentConfirmationExpirationServiceImpl implements AisConsentCo
         consent.setLastActionDate(LocalDate.now());
         return consent;
     }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<Long> findConfirmationExpiredConsentIds(Long lastId, Long maxId, int limit) {
+        long expirationPeriodMs = aspspProfileService.getAspspSettings().getAis().getConsentTypes().getNotConfirmedConsentExpirationTimeMs();
+        OffsetDateTime expirationTimestamp = OffsetDateTime.now().minus(expirationPeriodMs, ChronoUnit.MILLIS);
+        return consentJpaRepository.findNotConfirmedConsentIds(lastId, maxId, NOT_CONFIRMED_CONSENT_STATUSES, expirationTimestamp, PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ConfirmationExpirationCandidate> findNotConfirmedConsents(Long lastId, int limit) {
+        return consentJpaRepository.findNotConfirmedConsents(lastId, NOT_CONFIRMED_CONSENT_STATUSES, PageRequest.of(0, limit));
+    }
+
+    @Transactional
+    @Override
+    public int updateConsentsOnConfirmationExpiration(List<Long> consentIds) {
+        // Authorisations are updated first, as the subquery relies on consents still being not confirmed
+        authorisationRepository.updateScaStatusByConsentIds(consentIds, NOT_CONFIRMED_CONSENT_STATUSES, EnumSet.of(AuthorisationType.AIS), ScaStatus.FAILED);
+        return consentJpaRepository.updateConsentStatusByIds(consentIds, NOT_CONFIRMED_CONSENT_STATUSES, ConsentStatus.REJECTED, LocalDate.now(), OffsetDateTime.now());
+    }
 }
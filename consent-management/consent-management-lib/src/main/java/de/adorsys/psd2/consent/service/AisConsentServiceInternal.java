@@ -26,7 +26,6 @@ import de.adorsys.psd2.consent.domain.AuthorisationEntity;
 import de.adorsys.psd2.consent.domain.account.AisConsentAction;
 import de.adorsys.psd2.consent.domain.account.AspspAccountAccess;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
-import de.adorsys.psd2.consent.repository.AisConsentActionRepository;
 import de.adorsys.psd2.consent.repository.AisConsentVerifyingRepository;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.service.account.AccountAccessUpdater;
@@ -57,7 +56,7 @@ import static de.adorsys.psd2.xs2a.core.consent.ConsentStatus.EXPIRED;
 @Transactional(readOnly = true)
 public class AisConsentServiceInternal implements AisConsentService {
     private final AisConsentVerifyingRepository aisConsentRepository;
-    private final AisConsentActionRepository aisConsentActionRepository;
+    private final AisConsentActionLogService aisConsentActionLogService;
     private final AuthorisationRepository authorisationRepository;
     private final AisConsentConfirmationExpirationService aisConsentConfirmationExpirationService;
     private final AisConsentUsageService aisConsentUsageService;
@@ -146,23 +145,27 @@ public class AisConsentServiceInternal implements AisConsentService {
         if (!request.isUpdateUsage()) {
             return;
         }
-        aisConsentUsageService.incrementUsage(consent, request);
+        Map<String, Integer> usageCounterMap = aisConsentUsageService.incrementUsage(consent, request);
 
-        CmsConsent cmsConsent = mapToCmsConsent(consent);
-
-        if (!consent.isRecurringIndicator() && consent.getFrequencyPerDay() == 1
-                && oneOffConsentExpirationService.isConsentExpired(cmsConsent, consent.getId())) {
+        boolean expired = !consent.isRecurringIndicator() && consent.getFrequencyPerDay() == 1
+                              && oneOffConsentExpirationService.isConsentExpired(mapToCmsConsent(consent, usageCounterMap), consent.getId());
+        if (expired) {
             consent.setConsentStatus(EXPIRED);
         }
 
-        consent.setLastActionDate(LocalDate.now());
-
-        aisConsentRepository.verifyAndSave(consent);
+        LocalDate today = LocalDate.now();
+        if (expired || !today.equals(consent.getLastActionDate())) {
+            consent.setLastActionDate(today);
+            aisConsentRepository.verifyAndSave(consent);
+        }
     }
 
     private CmsConsent mapToCmsConsent(ConsentEntity consent) {
+        return mapToCmsConsent(consent, aisConsentUsageService.getUsageCounterMap(consent));
+    }
+
+    private CmsConsent mapToCmsConsent(ConsentEntity consent, Map<String, Integer> usageCounterMap) {
         List<AuthorisationEntity> authorisations = authorisationRepository.findAllByParentExternalIdAndAuthorisationType(consent.getExternalId(), AuthorisationType.AIS);
-        Map<String, Integer> usageCounterMap = aisConsentUsageService.getUsageCounterMap(consent);
         return cmsConsentMapper.mapToCmsConsent(consent, authorisations, usageCounterMap);
     }
 
@@ -182,6 +185,6 @@ public class AisConsentServiceInternal implements AisConsentService {
         action.setRequestedConsentId(requestedConsentId);
         action.setTppId(tppId);
         action.setRequestDate(LocalDate.now());
-        aisConsentActionRepository.save(action);
+        aisConsentActionLogService.logAction(action);
     }
 }
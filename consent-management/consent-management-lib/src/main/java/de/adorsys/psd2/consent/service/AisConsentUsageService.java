@@ -19,6 +19,7 @@ package de.adorsys.psd2.consent.service;
 import de.adorsys.psd2.consent.api.ais.AisConsentActionRequest;
 import de.adorsys.psd2.consent.domain.account.AisConsentUsage;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.repository.AisConsentUsageCounterRepository;
 import de.adorsys.psd2.consent.repository.AisConsentUsageRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -27,21 +28,29 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class AisConsentUsageService {
     private final AisConsentUsageRepository aisConsentUsageRepository;
+    private final AisConsentUsageCounterRepository aisConsentUsageCounterRepository;
 
+    /**
+     * Increments usage of the consent by the request URI of the action with one atomic statement
+     *
+     * @param consent AIS consent
+     * @param request action, that used the consent
+     * @return usage counter map of the consent including the incremented usage
+     */
     @Transactional
-    public void incrementUsage(ConsentEntity consent, AisConsentActionRequest request) {
-        AisConsentUsage aisConsentUsage = getUsage(consent, request.getRequestUri());
-        int usage = aisConsentUsage.getUsage();
-        aisConsentUsage.setUsage(++usage);
-        aisConsentUsage.setResourceId(request.getResourceId());
-        aisConsentUsage.setTransactionId(request.getTransactionId());
-        aisConsentUsageRepository.save(aisConsentUsage);
+    public Map<String, Integer> incrementUsage(ConsentEntity consent, AisConsentActionRequest request) {
+        return aisConsentUsageCounterRepository.incrementUsage(consent.getId(), request.getRequestUri(), LocalDate.now(),
+                                                               request.getResourceId(), request.getTransactionId())
+                   .entrySet()
+                   .stream()
+                   .collect(Collectors.toMap(Map.Entry::getKey, e -> Math.max(consent.getFrequencyPerDay() - e.getValue(), 0)));
     }
 
     @Transactional
@@ -59,12 +68,20 @@ public class AisConsentUsageService {
                                              u -> Math.max(consent.getFrequencyPerDay() - u.getUsage(), 0)));
     }
 
-    private AisConsentUsage getUsage(ConsentEntity consent, String requestUri) {
-        return aisConsentUsageRepository.findWriteByConsentAndUsageDateAndRequestUri(consent, LocalDate.now(), requestUri)
-                   .orElseGet(() -> {
-                       AisConsentUsage usage = new AisConsentUsage(consent, requestUri);
-                       consent.addUsage(usage);
-                       return usage;
-                   });
+    /**
+     * Returns usage counter maps of the given consents, loaded with one query
+     *
+     * @param consents AIS consents
+     * @return usage counter maps by consent ID, consents without usages today are omitted
+     */
+    public Map<Long, Map<String, Integer>> getUsageCounterMaps(List<ConsentEntity> consents) {
+        Map<Long, ConsentEntity> consentsById = consents.stream()
+                                                    .collect(Collectors.toMap(ConsentEntity::getId, Function.identity(), (c1, c2) -> c1));
+        return aisConsentUsageRepository.findReadByConsentIdInAndUsageDate(consentsById.keySet(), LocalDate.now())
+                   .stream()
+                   .collect(Collectors.groupingBy(u -> u.getConsent().getId(),
+                                                  Collectors.toMap(AisConsentUsage::getRequestUri,
+                                                                   u -> Math.max(consentsById.get(u.getConsent().getId()).getFrequencyPerDay() - u.getUsage(), 0))));
     }
+
 }
@@ -24,6 +24,7 @@ import de.adorsys.psd2.consent.api.authorisation.CreateAuthorisationResponse;
 import de.adorsys.psd2.consent.api.authorisation.UpdateAuthorisationRequest;
 import de.adorsys.psd2.consent.api.service.AuthorisationService;
 import de.adorsys.psd2.consent.domain.Authorisable;
+import de.adorsys.psd2.consent.domain.AuthorisableStatus;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
 import de.adorsys.psd2.consent.domain.ScaMethod;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
@@ -193,8 +194,8 @@ public class AuthorisationServiceInternal implements AuthorisationService {
     @Override
     public CmsResponse<ScaStatus> getAuthorisationScaStatus(String authorisationId, AuthorisationParentHolder parentHolder) {
         AuthService authService = authServiceResolver.getAuthService(parentHolder.getAuthorisationType());
-        Optional<Authorisable> parentOptional = authService.getAuthorisationParent(parentHolder.getParentId());
-        if (!parentOptional.isPresent()) {
+        Optional<AuthorisableStatus> parentStatusOptional = authService.getAuthorisationParentStatus(parentHolder.getParentId());
+        if (!parentStatusOptional.isPresent()) {
             log.info("Parent ID: [{}], Authorisation ID: [{}]. Get authorisation SCA status has failed, because parent couldn't be found",
                      parentHolder.getParentId(), authorisationId);
             return CmsResponse.<ScaStatus>builder()
@@ -202,9 +203,9 @@ public class AuthorisationServiceInternal implements AuthorisationService {
                        .build();
         }
 
-        Authorisable parent = parentOptional.get();
-        if (authService.isConfirmationExpired(parent)) {
-            authService.updateOnConfirmationExpiration(parent);
+        if (authService.isStatusConfirmationExpired(parentStatusOptional.get())) {
+            authService.getAuthorisationParent(parentHolder.getParentId())
+                .ifPresent(authService::updateOnConfirmationExpiration);
             log.info("Parent ID: [{}], Authorisation ID: [{}]. Get authorisation SCA status has failed, because parent is expired",
                      parentHolder.getParentId(), authorisationId);
             return CmsResponse.<ScaStatus>builder()
@@ -212,10 +213,12 @@ public class AuthorisationServiceInternal implements AuthorisationService {
                        .build();
         }
 
-        Optional<AuthorisationEntity> authorisation = findAuthorisationInParent(authorisationId, parentHolder.getAuthorisationType(), parent);
-        if (authorisation.isPresent()) {
+        Optional<ScaStatus> scaStatus = authorisationRepository.findScaStatusByExternalIdAndParentExternalIdAndAuthorisationType(authorisationId,
+                                                                                                                                  parentHolder.getParentId(),
+                                                                                                                                  parentHolder.getAuthorisationType());
+        if (scaStatus.isPresent()) {
             return CmsResponse.<ScaStatus>builder()
-                       .payload(authorisation.get().getScaStatus())
+                       .payload(scaStatus.get())
                        .build();
         }
         return CmsResponse.<ScaStatus>builder()
@@ -308,12 +311,6 @@ public class AuthorisationServiceInternal implements AuthorisationService {
                    .build();
     }
 
-    private Optional<AuthorisationEntity> findAuthorisationInParent(String authorisationId, AuthorisationType authorisationType, Authorisable parent) {
-        AuthService authService = authServiceResolver.getAuthService(authorisationType);
-        return authService.getAuthorisationById(authorisationId)
-                   .filter(a -> a.getParentExternalId().equals(parent.getExternalId()));
-    }
-
     private Optional<AuthorisationEntity> getAuthorisation(String authorisationId) {
         return authorisationRepository.findByExternalId(authorisationId);
     }
@@ -27,4 +27,11 @@ public interface ConfirmationExpirationService<T extends Authorisable> {
 
     @Transactional
     T updateOnConfirmationExpiration(T object);
+
+    /**
+     * Returns period, after which not confirmed consents or payments expire
+     *
+     * @return period in milliseconds
+     */
+    long getConfirmationExpirationPeriodMs();
 }
@@ -23,9 +23,11 @@ import de.adorsys.psd2.consent.api.ais.CmsConsent;
 import de.adorsys.psd2.consent.api.consent.CmsCreateConsentResponse;
 import de.adorsys.psd2.consent.api.service.ConsentService;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
+import de.adorsys.psd2.consent.domain.OldConsentPsuData;
 import de.adorsys.psd2.consent.domain.PsuData;
 import de.adorsys.psd2.consent.domain.TppInfoEntity;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.domain.consent.ConsentStatusProjection;
 import de.adorsys.psd2.consent.repository.AisConsentVerifyingRepository;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
@@ -40,10 +42,12 @@ import de.adorsys.psd2.xs2a.core.consent.ConsentType;
 import de.adorsys.psd2.xs2a.core.psu.PsuIdData;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -67,6 +71,7 @@ public class ConsentServiceInternal implements ConsentService {
     private final CmsConsentMapper cmsConsentMapper;
     private final AisConsentLazyMigrationService aisConsentLazyMigrationService;
     private final AspspProfileService aspspProfileService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     /**
      * Creates consent.
@@ -93,6 +98,8 @@ public class ConsentServiceInternal implements ConsentService {
         ConsentEntity savedConsent = aisConsentRepository.verifyAndSave(consent);
 
         if (savedConsent.getId() != null) {
+            applicationEventPublisher.publishEvent(new ConfirmationExpirationCandidateEvent(ConfirmationExpirationObjectType.CONSENT,
+                                                                                            savedConsent.getId(), savedConsent.getCreationTimestamp()));
             return CmsResponse.<CmsCreateConsentResponse>builder()
                        .payload(new CmsCreateConsentResponse(savedConsent.getExternalId(),
                                                              cmsConsentMapper.mapToCmsConsent(savedConsent, Collections.emptyList(), Collections.emptyMap())))
@@ -108,7 +115,7 @@ public class ConsentServiceInternal implements ConsentService {
     }
 
     /**
-     * Reads status of consent by ID.
+     * Reads status of consent by ID. The whole consent is loaded only if its status may have to be changed on reading.
      *
      * @param consentId ID of consent
      * @return ConsentStatus
@@ -116,6 +123,14 @@ public class ConsentServiceInternal implements ConsentService {
     @Override
     @Transactional
     public CmsResponse<ConsentStatus> getConsentStatusById(String consentId) {
+        Optional<ConsentStatusProjection> statusProjectionOptional = consentJpaRepository.findStatusProjectionByExternalId(consentId);
+        if (statusProjectionOptional.isPresent()
+                && !statusProjectionOptional.get().isStatusUpdateRequired(aisConsentConfirmationExpirationService.getConfirmationExpirationPeriodMs())) {
+            return CmsResponse.<ConsentStatus>builder()
+                       .payload(statusProjectionOptional.get().getConsentStatus())
+                       .build();
+        }
+
         Optional<ConsentStatus> consentStatusOptional = consentJpaRepository.findByExternalId(consentId)
                                                             .map(aisConsentConfirmationExpirationService::checkAndUpdateOnConfirmationExpiration)
                                                             .map(this::checkAndUpdateOnExpiration)
@@ -194,7 +209,7 @@ public class ConsentServiceInternal implements ConsentService {
      * Searches the old AIS consents and updates their statuses according to authorisation states and PSU data.
      *
      * @param newConsentId ID of new consent that was created
-     * @return true if old consents were updated, false otherwise
+     * @return true if old consents were found and terminated, false otherwise
      */
     @Override
     @Transactional
@@ -224,16 +239,18 @@ public class ConsentServiceInternal implements ConsentService {
                                  .collect(Collectors.toSet());
         TppInfoEntity tppInfo = newConsent.getTppInformation().getTppInfo();
 
-        List<ConsentEntity> oldConsents = consentJpaRepository.findOldConsentsByNewConsentParams(psuIds,
-                                                                                                 tppInfo.getAuthorisationNumber(),
-                                                                                                 newConsent.getInstanceId(),
-                                                                                                 newConsent.getExternalId(),
-                                                                                                 EnumSet.of(RECEIVED, PARTIALLY_AUTHORISED, VALID));
+        Map<Long, List<OldConsentPsuData>> oldConsentPsuData = consentJpaRepository.findOldConsentPsuDataByNewConsentParams(psuIds,
+                                                                                                                          tppInfo.getAuthorisationNumber(),
+                                                                                                                          newConsent.getInstanceId(),
+                                                                                                                          newConsent.getExternalId(),
+                                                                                                                          EnumSet.of(RECEIVED, PARTIALLY_AUTHORISED, VALID))
+                                                                  .stream()
+                                                                  .collect(Collectors.groupingBy(OldConsentPsuData::getConsentId, LinkedHashMap::new, Collectors.toList()));
 
-        List<ConsentEntity> oldConsentsWithExactPsuDataLists = oldConsents.stream()
-                                                                   .distinct()
-                                                                   .filter(c -> cmsPsuService.isPsuDataListEqual(c.getPsuDataList(), psuDataList))
-                                                                   .collect(Collectors.toList());
+        List<OldConsentPsuData> oldConsentsWithExactPsuDataLists = oldConsentPsuData.values().stream()
+                                                                       .filter(c -> cmsPsuService.isPsuDataListEqual(mapToPsuDataList(c), psuDataList))
+                                                                       .map(c -> c.get(0))
+                                                                       .collect(Collectors.toList());
 
         if (oldConsentsWithExactPsuDataLists.isEmpty()) {
             log.info("Consent ID: [{}]. Cannot find old consents, because consent hasn't exact PSU data lists as old consents", newConsentId);
@@ -242,13 +259,35 @@ public class ConsentServiceInternal implements ConsentService {
                        .build();
         }
 
-        oldConsentsWithExactPsuDataLists.forEach(this::updateStatus);
-        consentJpaRepository.saveAll(oldConsentsWithExactPsuDataLists);
+        int terminatedConsentsCount = terminateOldConsents(oldConsentsWithExactPsuDataLists);
+        log.info("Consent ID: [{}]. Old consents {} were terminated, {} of them have been updated", newConsentId,
+                 oldConsentsWithExactPsuDataLists.stream().map(OldConsentPsuData::getExternalId).collect(Collectors.toList()),
+                 terminatedConsentsCount);
         return CmsResponse.<Boolean>builder()
                    .payload(true)
                    .build();
     }
 
+    private List<PsuData> mapToPsuDataList(List<OldConsentPsuData> oldConsentPsuData) {
+        return oldConsentPsuData.stream()
+                   .map(OldConsentPsuData::toPsuData)
+                   .collect(Collectors.toList());
+    }
+
+    /**
+     * Terminates old consents with bulk updates, without loading them. Checksum of AIS consents doesn't include
+     * consent status, so it doesn't have to be recalculated.
+     */
+    private int terminateOldConsents(List<OldConsentPsuData> oldConsents) {
+        List<Long> consentIds = oldConsents.stream()
+                                    .map(OldConsentPsuData::getConsentId)
+                                    .collect(Collectors.toList());
+        OffsetDateTime statusChangeTimestamp = OffsetDateTime.now();
+
+        return consentJpaRepository.changeConsentStatusByIds(consentIds, EnumSet.of(RECEIVED, PARTIALLY_AUTHORISED), REJECTED, statusChangeTimestamp)
+                   + consentJpaRepository.changeConsentStatusByIds(consentIds, EnumSet.of(VALID), TERMINATED_BY_TPP, statusChangeTimestamp);
+    }
+
     @Override
     public CmsResponse<List<PsuIdData>> getPsuDataByConsentId(String consentId) {
         Optional<List<PsuIdData>> psuIdDataOptional = getActualAisConsent(consentId)
@@ -311,12 +350,6 @@ public class ConsentServiceInternal implements ConsentService {
                    .isPresent();
     }
 
-    private void updateStatus(ConsentEntity aisConsent) {
-        aisConsent.setConsentStatus(aisConsent.getConsentStatus() == RECEIVED || aisConsent.getConsentStatus() == PARTIALLY_AUTHORISED
-                                        ? REJECTED
-                                        : TERMINATED_BY_TPP);
-    }
-
     private ConsentEntity adjustConsentEntity(ConsentEntity consentEntity, ConsentType consentType) {
         if (ConsentType.AIS == consentType) {
             int lifetime = aspspProfileService.getAspspSettings().getAis().getConsentTypes().getMaxConsentValidityDays();
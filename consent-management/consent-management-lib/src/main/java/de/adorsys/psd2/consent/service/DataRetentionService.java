@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface DataRetentionService {
+    /**
+     * Returns IDs of consents in finalised status, whose status has been changed before the given timestamp, ordered by ID
+     *
+     * @param lastId          ID of the last consent from the previous batch, only consents with greater IDs are returned
+     * @param maxId           only consents with IDs not greater than this one are returned
+     * @param finalisedBefore only consents finalised before this timestamp are returned
+     * @param limit           maximum number of IDs to be returned
+     * @return list of consent IDs
+     */
+    List<Long> findFinalisedConsentIds(Long lastId, Long maxId, OffsetDateTime finalisedBefore, int limit);
+
+    /**
+     * Deletes given consents together with their authorisations, usages, actions, PSU data and ASPSP consent data
+     *
+     * @param consentIds IDs of consents to be deleted
+     * @return number of deleted consents
+     */
+    int deleteConsents(List<Long> consentIds);
+
+    /**
+     * Returns IDs of payments in finalised status, whose status has been changed before the given timestamp, ordered by ID
+     *
+     * @param lastId          ID of the last payment from the previous batch, only payments with greater IDs are returned
+     * @param maxId           only payments with IDs not greater than this one are returned
+     * @param finalisedBefore only payments finalised before this timestamp are returned
+     * @param limit           maximum number of IDs to be returned
+     * @return list of payment IDs
+     */
+    List<Long> findFinalisedPaymentIds(Long lastId, Long maxId, OffsetDateTime finalisedBefore, int limit);
+
+    /**
+     * Deletes given payments together with their payment data, authorisations, PSU data and ASPSP consent data
+     *
+     * @param paymentIds IDs of payments to be deleted
+     * @return number of deleted payments
+     */
+    int deletePayments(List<Long> paymentIds);
+}
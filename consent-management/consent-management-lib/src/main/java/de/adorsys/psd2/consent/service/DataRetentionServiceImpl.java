@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service;
+
+import de.adorsys.psd2.consent.repository.DataRetentionRepository;
+import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DataRetentionServiceImpl implements DataRetentionService {
+    private static final Set<ConsentStatus> FINALISED_CONSENT_STATUSES = Arrays.stream(ConsentStatus.values())
+                                                                             .filter(ConsentStatus::isFinalisedStatus)
+                                                                             .collect(Collectors.toCollection(() -> EnumSet.noneOf(ConsentStatus.class)));
+    private static final Set<TransactionStatus> FINALISED_TRANSACTION_STATUSES = Arrays.stream(TransactionStatus.values())
+                                                                                     .filter(TransactionStatus::isFinalisedStatus)
+                                                                                     .collect(Collectors.toCollection(() -> EnumSet.noneOf(TransactionStatus.class)));
+    // Some databases don't accept more expressions in an IN clause
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private final DataRetentionRepository dataRetentionRepository;
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<Long> findFinalisedConsentIds(Long lastId, Long maxId, OffsetDateTime finalisedBefore, int limit) {
+        return dataRetentionRepository.findFinalisedConsentIds(lastId, maxId, FINALISED_CONSENT_STATUSES, finalisedBefore, PageRequest.of(0, limit));
+    }
+
+    @Transactional
+    @Override
+    public int deleteConsents(List<Long> consentIds) {
+        if (consentIds.isEmpty()) {
+            return 0;
+        }
+
+        // Rows referenced by consents and authorisations can only be deleted after the referencing rows
+        List<String> externalIds = select(consentIds, dataRetentionRepository::findConsentExternalIds);
+        List<Long> tppInformationIds = select(consentIds, dataRetentionRepository::findConsentTppInformationIds);
+        List<Long> authorisationTemplateIds = select(consentIds, dataRetentionRepository::findConsentAuthorisationTemplateIds);
+        List<Long> psuDataIds = distinct(ListUtils.union(select(consentIds, dataRetentionRepository::findConsentPsuDataIds),
+                                                         select(externalIds, dataRetentionRepository::findAuthorisationPsuDataIds)));
+        List<Long> additionalPsuDataIds = select(psuDataIds, dataRetentionRepository::findAdditionalPsuDataIds);
+
+        long deletedRows = deleteAuthorisations(externalIds)
+                               + delete(externalIds, dataRetentionRepository::deleteAspspConsentData)
+                               + delete(externalIds, dataRetentionRepository::deleteConsentActions)
+                               + delete(consentIds, dataRetentionRepository::deleteConsentUsages)
+                               + delete(consentIds, dataRetentionRepository::deleteConsentTransactions)
+                               + delete(consentIds, dataRetentionRepository::deleteConsentPsuDataLinks)
+                               + delete(consentIds, dataRetentionRepository::deleteConsentTppAccountAccesses)
+                               + delete(consentIds, dataRetentionRepository::deleteConsentAspspAccountAccesses);
+        int deletedConsents = delete(consentIds, dataRetentionRepository::deleteConsents);
+        deletedRows += deletedConsents
+                           + delete(tppInformationIds, dataRetentionRepository::deleteConsentTppNotificationModes)
+                           + delete(tppInformationIds, dataRetentionRepository::deleteConsentTppInformation)
+                           + delete(authorisationTemplateIds, dataRetentionRepository::deleteAuthorisationTemplates)
+                           + deletePsuData(psuDataIds, additionalPsuDataIds);
+
+        log.debug("{} consents deleted, {} rows deleted in total", deletedConsents, deletedRows);
+        return deletedConsents;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<Long> findFinalisedPaymentIds(Long lastId, Long maxId, OffsetDateTime finalisedBefore, int limit) {
+        return dataRetentionRepository.findFinalisedPaymentIds(lastId, maxId, FINALISED_TRANSACTION_STATUSES, finalisedBefore, PageRequest.of(0, limit));
+    }
+
+    @Transactional
+    @Override
+    public int deletePayments(List<Long> paymentIds) {
+        if (paymentIds.isEmpty()) {
+            return 0;
+        }
+
+        List<String> externalIds = select(paymentIds, dataRetentionRepository::findPaymentExternalIds);
+        List<Long> authorisationTemplateIds = select(paymentIds, dataRetentionRepository::findPaymentAuthorisationTemplateIds);
+        List<Long> psuDataIds = distinct(ListUtils.union(select(paymentIds, dataRetentionRepository::findPaymentPsuDataIds),
+                                                         select(externalIds, dataRetentionRepository::findAuthorisationPsuDataIds)));
+        List<Long> additionalPsuDataIds = select(psuDataIds, dataRetentionRepository::findAdditionalPsuDataIds);
+        List<Long> addressIds = select(paymentIds, dataRetentionRepository::findPaymentAddressIds);
+        List<Long> remittanceIds = select(paymentIds, dataRetentionRepository::findPaymentRemittanceIds);
+        List<Long> accountReferenceIds = distinct(ListUtils.union(select(paymentIds, dataRetentionRepository::findPaymentDebtorAccountReferenceIds),
+                                                                  select(paymentIds, dataRetentionRepository::findPaymentCreditorAccountReferenceIds)));
+
+        long deletedRows = deleteAuthorisations(externalIds)
+                               + delete(externalIds, dataRetentionRepository::deleteAspspConsentData)
+                               + delete(paymentIds, dataRetentionRepository::deletePaymentData)
+                               + delete(addressIds, dataRetentionRepository::deletePaymentAddresses)
+                               + delete(remittanceIds, dataRetentionRepository::deletePaymentRemittances)
+                               + delete(accountReferenceIds, dataRetentionRepository::deleteAccountReferences)
+                               + delete(paymentIds, dataRetentionRepository::deletePaymentPsuDataLinks)
+                               + delete(paymentIds, dataRetentionRepository::deletePaymentTppNotificationModes);
+        int deletedPayments = delete(paymentIds, dataRetentionRepository::deletePayments);
+        deletedRows += deletedPayments
+                           + delete(authorisationTemplateIds, dataRetentionRepository::deleteAuthorisationTemplates)
+                           + deletePsuData(psuDataIds, additionalPsuDataIds);
+
+        log.debug("{} payments deleted, {} rows deleted in total", deletedPayments, deletedRows);
+        return deletedPayments;
+    }
+
+    private int deleteAuthorisations(List<String> parentExternalIds) {
+        return delete(parentExternalIds, dataRetentionRepository::deleteAuthorisationScaMethods)
+                   + delete(parentExternalIds, dataRetentionRepository::deleteAuthorisations);
+    }
+
+    private int deletePsuData(List<Long> psuDataIds, List<Long> additionalPsuDataIds) {
+        return delete(psuDataIds, dataRetentionRepository::deletePsuData)
+                   + delete(additionalPsuDataIds, dataRetentionRepository::deleteAdditionalPsuData);
+    }
+
+    private <T, R> List<R> select(List<T> ids, Function<List<T>, List<R>> query) {
+        List<R> result = new ArrayList<>();
+        for (List<T> chunk : ListUtils.partition(ids, MAX_IN_CLAUSE_SIZE)) {
+            result.addAll(query.apply(chunk));
+        }
+        result.removeIf(Objects::isNull);
+        return result;
+    }
+
+    private <T> int delete(List<T> ids, ToIntFunction<List<T>> statement) {
+        int deleted = 0;
+        for (List<T> chunk : ListUtils.partition(ids, MAX_IN_CLAUSE_SIZE)) {
+            deleted += statement.applyAsInt(chunk);
+        }
+        return deleted;
+    }
+
+    private <T> List<T> distinct(List<T> ids) {
+        return ids.stream()
+                   .distinct()
+                   .collect(Collectors.toList());
+    }
+}
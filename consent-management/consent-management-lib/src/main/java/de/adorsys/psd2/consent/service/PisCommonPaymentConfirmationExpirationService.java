@@ -16,10 +16,38 @@
 
 package de.adorsys.psd2.consent.service;
 
+import de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate;
 import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
 
 import java.util.List;
 
 public interface PisCommonPaymentConfirmationExpirationService extends ConfirmationExpirationService<PisCommonPaymentData> {
     List<PisCommonPaymentData> updatePaymentDataListOnConfirmationExpiration(List<PisCommonPaymentData> pisCommonPaymentDataList);
+
+    /**
+     * Returns IDs of not confirmed payments with expired confirmation period, ordered by ID
+     *
+     * @param lastId ID of the last payment from the previous batch, only payments with greater IDs are returned
+     * @param maxId  only payments with IDs not greater than this one are returned
+     * @param limit  maximum number of IDs to be returned
+     * @return list of payment IDs
+     */
+    List<Long> findConfirmationExpiredPaymentIds(Long lastId, Long maxId, int limit);
+
+    /**
+     * Returns IDs and creation timestamps of payments that are still waiting for confirmation, ordered by ID
+     *
+     * @param lastId ID of the last payment from the previous batch, only payments with greater IDs are returned
+     * @param limit  maximum number of payments to be returned
+     * @return list of confirmation expiration candidates
+     */
+    List<ConfirmationExpirationCandidate> findNotConfirmedPayments(Long lastId, int limit);
+
+    /**
+     * Rejects given not confirmed payments and fails their authorisations with bulk updates
+     *
+     * @param paymentIds IDs of payments, payments that are no longer in not confirmed status are skipped
+     * @return number of rejected payments
+     */
+    int updatePaymentsOnConfirmationExpiration(List<Long> paymentIds);
 }
@@ -18,6 +18,7 @@ package de.adorsys.psd2.consent.service;
 
 import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
+import de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate;
 import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
@@ -26,17 +27,22 @@ import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
 import de.adorsys.psd2.xs2a.core.sca.ScaStatus;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.collections4.IterableUtils;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PisCommonPaymentConfirmationExpirationServiceImpl implements PisCommonPaymentConfirmationExpirationService {
+    private static final Set<TransactionStatus> NOT_CONFIRMED_TRANSACTION_STATUSES = EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC);
+
     private final PisCommonPaymentDataRepository pisCommonPaymentDataRepository;
     private final AuthorisationRepository authorisationRepository;
     private final AspspProfileService aspspProfileService;
@@ -80,10 +86,15 @@ public class PisCommonPaymentConfirmationExpirationServiceImpl implements PisCom
 
     @Override
     public boolean isConfirmationExpired(PisCommonPaymentData pisCommonPaymentData) {
-        long expirationPeriodMs = aspspProfileService.getAspspSettings().getPis().getNotConfirmedPaymentExpirationTimeMs();
+        long expirationPeriodMs = getConfirmationExpirationPeriodMs();
         return pisCommonPaymentData != null && pisCommonPaymentData.isConfirmationExpired(expirationPeriodMs);
     }
 
+    @Override
+    public long getConfirmationExpirationPeriodMs() {
+        return aspspProfileService.getAspspSettings().getPis().getNotConfirmedPaymentExpirationTimeMs();
+    }
+
     @Transactional
     @Override
     public PisCommonPaymentData updateOnConfirmationExpiration(PisCommonPaymentData pisCommonPaymentData) {
@@ -95,4 +106,27 @@ public class PisCommonPaymentConfirmationExpirationServiceImpl implements PisCom
         authorisationRepository.saveAll(authorisations);
         return pisCommonPaymentDataRepository.save(pisCommonPaymentData);
     }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<Long> findConfirmationExpiredPaymentIds(Long lastId, Long maxId, int limit) {
+        long expirationPeriodMs = aspspProfileService.getAspspSettings().getPis().getNotConfirmedPaymentExpirationTimeMs();
+        OffsetDateTime expirationTimestamp = OffsetDateTime.now().minus(expirationPeriodMs, ChronoUnit.MILLIS);
+        return pisCommonPaymentDataRepository.findNotConfirmedPaymentIds(lastId, maxId, NOT_CONFIRMED_TRANSACTION_STATUSES, expirationTimestamp, PageRequest.of(0, limit));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<ConfirmationExpirationCandidate> findNotConfirmedPayments(Long lastId, int limit) {
+        return pisCommonPaymentDataRepository.findNotConfirmedPayments(lastId, NOT_CONFIRMED_TRANSACTION_STATUSES, PageRequest.of(0, limit));
+    }
+
+    @Transactional
+    @Override
+    public int updatePaymentsOnConfirmationExpiration(List<Long> paymentIds) {
+        // Authorisations are updated first, as the subquery relies on payments still being not confirmed
+        authorisationRepository.updateScaStatusByPaymentIds(paymentIds, NOT_CONFIRMED_TRANSACTION_STATUSES,
+                                                            EnumSet.of(AuthorisationType.PIS_CREATION, AuthorisationType.PIS_CANCELLATION), ScaStatus.FAILED);
+        return pisCommonPaymentDataRepository.updateTransactionStatusByIds(paymentIds, NOT_CONFIRMED_TRANSACTION_STATUSES, TransactionStatus.RJCT, OffsetDateTime.now());
+    }
 }
@@ -24,6 +24,7 @@ import de.adorsys.psd2.consent.api.pis.proto.PisCommonPaymentResponse;
 import de.adorsys.psd2.consent.api.pis.proto.PisPaymentInfo;
 import de.adorsys.psd2.consent.api.service.PisCommonPaymentService;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
+import de.adorsys.psd2.consent.domain.payment.PaymentStatusProjection;
 import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
@@ -37,6 +38,7 @@ import de.adorsys.psd2.xs2a.core.psu.PsuIdData;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -61,6 +63,7 @@ public class PisCommonPaymentServiceInternal implements PisCommonPaymentService
     private final PisCommonPaymentConfirmationExpirationService pisCommonPaymentConfirmationExpirationService;
     private final CorePaymentsConvertService corePaymentsConvertService;
     private final AuthorisationRepository authorisationRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     /**
      * Creates new pis common payment with full information about payment
@@ -85,13 +88,17 @@ public class PisCommonPaymentServiceInternal implements PisCommonPaymentService
                        .build();
         }
 
+        applicationEventPublisher.publishEvent(new ConfirmationExpirationCandidateEvent(ConfirmationExpirationObjectType.PAYMENT,
+                                                                                        saved.getId(), saved.getCreationTimestamp()));
+
         return CmsResponse.<CreatePisCommonPaymentResponse>builder()
                    .payload(new CreatePisCommonPaymentResponse(saved.getPaymentId(), saved.getTppNotificationContentPreferred()))
                    .build();
     }
 
     /**
-     * Retrieves common payment status from pis common payment by payment identifier
+     * Retrieves common payment status from pis common payment by payment identifier. The whole payment is loaded only
+     * if its confirmation period is expired and its status has to be changed.
      *
      * @param paymentId String representation of pis payment identifier
      * @return Information about the status of a common payment
@@ -99,6 +106,14 @@ public class PisCommonPaymentServiceInternal implements PisCommonPaymentService
     @Override
     @Transactional
     public CmsResponse<TransactionStatus> getPisCommonPaymentStatusById(String paymentId) {
+        Optional<PaymentStatusProjection> statusProjectionOptional = pisCommonPaymentDataRepository.findStatusProjectionByPaymentId(paymentId);
+        if (statusProjectionOptional.isPresent()
+                && !statusProjectionOptional.get().isConfirmationExpired(pisCommonPaymentConfirmationExpirationService.getConfirmationExpirationPeriodMs())) {
+            return CmsResponse.<TransactionStatus>builder()
+                       .payload(statusProjectionOptional.get().getTransactionStatus())
+                       .build();
+        }
+
         Optional<TransactionStatus> statusOptional = pisCommonPaymentDataRepository.findByPaymentId(paymentId)
                                                          .map(pisCommonPaymentConfirmationExpirationService::checkAndUpdateOnConfirmationExpiration)
                                                          .map(PisCommonPaymentData::getTransactionStatus);
@@ -17,11 +17,12 @@
 package de.adorsys.psd2.consent.service.aspsp;
 
 import de.adorsys.psd2.consent.api.ais.CmsAisAccountConsent;
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
 import de.adorsys.psd2.consent.aspsp.api.ais.CmsAspspAisExportService;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
-import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.SpecificationStreamingRepository;
 import de.adorsys.psd2.consent.repository.specification.AisConsentSpecification;
 import de.adorsys.psd2.consent.service.mapper.AisConsentMapper;
 import de.adorsys.psd2.consent.service.migration.AisConsentLazyMigrationService;
@@ -40,6 +41,9 @@ import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -50,8 +54,10 @@ public class CmsAspspAisExportServiceInternal implements CmsAspspAisExportServic
     private final AisConsentSpecification aisConsentSpecification;
     private final ConsentJpaRepository consentJpaRepository;
     private final AisConsentMapper aisConsentMapper;
-    private final AuthorisationRepository authorisationRepository;
     private final AisConsentLazyMigrationService aisConsentLazyMigrationService;
+    private final ExportAssociationFetchService exportAssociationFetchService;
+    private final SpecificationStreamingRepository specificationStreamingRepository;
+    private final ExportPageLoader exportPageLoader;
 
     @Override
     @Transactional
@@ -59,77 +65,183 @@ public class CmsAspspAisExportServiceInternal implements CmsAspspAisExportServic
                                                                 @Nullable LocalDate createDateFrom,
                                                                 @Nullable LocalDate createDateTo,
                                                                 @Nullable PsuIdData psuIdData, @NotNull String instanceId) {
+        return byTppSpecification(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId)
+                   .map(this::findAllBySpecification)
+                   .orElseGet(Collections::emptyList);
+    }
+
+    @Override
+    @Transactional
+    public Collection<CmsAisAccountConsent> exportConsentsByPsu(PsuIdData psuIdData, @Nullable LocalDate createDateFrom,
+                                                                @Nullable LocalDate createDateTo,
+                                                                @NotNull String instanceId) {
+        return byPsuSpecification(psuIdData, createDateFrom, createDateTo, instanceId)
+                   .map(this::findAllBySpecification)
+                   .orElseGet(Collections::emptyList);
+    }
+
+    @Override
+    @Transactional
+    public Collection<CmsAisAccountConsent> exportConsentsByAccountId(@NotNull String aspspAccountId,
+                                                                      @Nullable LocalDate createDateFrom,
+                                                                      @Nullable LocalDate createDateTo,
+                                                                      @NotNull String instanceId) {
+        return byAccountIdSpecification(aspspAccountId, createDateFrom, createDateTo, instanceId)
+                   .map(this::findAllBySpecification)
+                   .orElseGet(Collections::emptyList);
+    }
+
+    @Override
+    @Transactional
+    public ExportPage<CmsAisAccountConsent> exportConsentsByTpp(String tppAuthorisationNumber,
+                                                                @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                                                @Nullable PsuIdData psuIdData, @NotNull String instanceId,
+                                                                @Nullable String cursor, int pageSize) {
+        return byTppSpecification(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId)
+                   .map(specification -> findPageBySpecification(specification, cursor, pageSize))
+                   .orElseGet(ExportPage::empty);
+    }
+
+    @Override
+    @Transactional
+    public ExportPage<CmsAisAccountConsent> exportConsentsByPsu(PsuIdData psuIdData,
+                                                                @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                                                @NotNull String instanceId,
+                                                                @Nullable String cursor, int pageSize) {
+        return byPsuSpecification(psuIdData, createDateFrom, createDateTo, instanceId)
+                   .map(specification -> findPageBySpecification(specification, cursor, pageSize))
+                   .orElseGet(ExportPage::empty);
+    }
+
+    @Override
+    @Transactional
+    public ExportPage<CmsAisAccountConsent> exportConsentsByAccountId(@NotNull String aspspAccountId,
+                                                                      @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                                                      @NotNull String instanceId,
+                                                                      @Nullable String cursor, int pageSize) {
+        return byAccountIdSpecification(aspspAccountId, createDateFrom, createDateTo, instanceId)
+                   .map(specification -> findPageBySpecification(specification, cursor, pageSize))
+                   .orElseGet(ExportPage::empty);
+    }
+
+    @Override
+    @Transactional
+    public void streamConsentsByTpp(String tppAuthorisationNumber,
+                                    @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                    @Nullable PsuIdData psuIdData, @NotNull String instanceId,
+                                    @NotNull Consumer<CmsAisAccountConsent> consumer) {
+        byTppSpecification(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId)
+            .ifPresent(specification -> streamAllBySpecification(specification, consumer));
+    }
+
+    @Override
+    @Transactional
+    public void streamConsentsByPsu(PsuIdData psuIdData,
+                                    @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                    @NotNull String instanceId,
+                                    @NotNull Consumer<CmsAisAccountConsent> consumer) {
+        byPsuSpecification(psuIdData, createDateFrom, createDateTo, instanceId)
+            .ifPresent(specification -> streamAllBySpecification(specification, consumer));
+    }
+
+    @Override
+    @Transactional
+    public void streamConsentsByAccountId(@NotNull String aspspAccountId,
+                                          @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                          @NotNull String instanceId,
+                                          @NotNull Consumer<CmsAisAccountConsent> consumer) {
+        byAccountIdSpecification(aspspAccountId, createDateFrom, createDateTo, instanceId)
+            .ifPresent(specification -> streamAllBySpecification(specification, consumer));
+    }
+
+    private Optional<Specification<ConsentEntity>> byTppSpecification(String tppAuthorisationNumber,
+                                                                      @Nullable LocalDate createDateFrom,
+                                                                      @Nullable LocalDate createDateTo,
+                                                                      @Nullable PsuIdData psuIdData, @NotNull String instanceId) {
         if (StringUtils.isBlank(tppAuthorisationNumber) || StringUtils.isBlank(instanceId)) {
             log.info("TPP ID: [{}], InstanceId: [{}]. Export Consents by TPP: Some of these two values are empty", tppAuthorisationNumber, instanceId);
-            return Collections.emptyList();
+            return Optional.empty();
         }
 
-        return consentJpaRepository.findAll(aisConsentSpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(
+        return Optional.ofNullable(aisConsentSpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(
             tppAuthorisationNumber,
             createDateFrom,
             createDateTo,
             psuIdData,
             instanceId
-        ))
-                   .stream()
-                   .map(aisConsentLazyMigrationService::migrateIfNeeded)
-                   .map(this::mapToCmsAisAccountConsentWithAuthorisations)
-                   .collect(Collectors.toList());
+        ));
     }
 
-    @Override
-    @Transactional
-    public Collection<CmsAisAccountConsent> exportConsentsByPsu(PsuIdData psuIdData, @Nullable LocalDate createDateFrom,
-                                                                @Nullable LocalDate createDateTo,
-                                                                @NotNull String instanceId) {
+    private Optional<Specification<ConsentEntity>> byPsuSpecification(PsuIdData psuIdData, @Nullable LocalDate createDateFrom,
+                                                                      @Nullable LocalDate createDateTo,
+                                                                      @NotNull String instanceId) {
         if (psuIdData == null || psuIdData.isEmpty() || StringUtils.isBlank(instanceId)) {
             log.info("InstanceId: [{}]. Export consents by Psu failed, psuIdData or instanceId is empty or null.",
                      instanceId);
-            return Collections.emptyList();
+            return Optional.empty();
         }
 
-        return consentJpaRepository.findAll(aisConsentSpecification.byPsuIdDataAndCreationPeriodAndInstanceId(psuIdData,
-                                                                                                              createDateFrom,
-                                                                                                              createDateTo,
-                                                                                                              instanceId
-        ))
-                   .stream()
-                   .map(aisConsentLazyMigrationService::migrateIfNeeded)
-                   .map(this::mapToCmsAisAccountConsentWithAuthorisations)
-                   .collect(Collectors.toList());
+        return Optional.ofNullable(aisConsentSpecification.byPsuIdDataAndCreationPeriodAndInstanceId(psuIdData,
+                                                                                             createDateFrom,
+                                                                                             createDateTo,
+                                                                                             instanceId
+        ));
     }
 
-    @Override
-    @Transactional
-    public Collection<CmsAisAccountConsent> exportConsentsByAccountId(@NotNull String aspspAccountId,
-                                                                      @Nullable LocalDate createDateFrom,
-                                                                      @Nullable LocalDate createDateTo,
-                                                                      @NotNull String instanceId) {
-
+    private Optional<Specification<ConsentEntity>> byAccountIdSpecification(@NotNull String aspspAccountId,
+                                                                            @Nullable LocalDate createDateFrom,
+                                                                            @Nullable LocalDate createDateTo,
+                                                                            @NotNull String instanceId) {
         if (StringUtils.isBlank(instanceId)) {
             log.info("InstanceId: [{}], aspspAccountId: [{}]. Export consents by accountId failed, instanceId is empty or null.",
                      instanceId, aspspAccountId);
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(aisConsentSpecification.byAspspAccountIdAndCreationPeriodAndInstanceId(aspspAccountId,
+                                                                                                  createDateFrom,
+                                                                                                  createDateTo,
+                                                                                                  instanceId));
+    }
+
+    private Collection<CmsAisAccountConsent> findAllBySpecification(Specification<ConsentEntity> specification) {
+        List<ConsentEntity> consents = consentJpaRepository.findAll(withFetchedAssociations(specification));
+        if (consents.isEmpty()) {
             return Collections.emptyList();
         }
 
-        Specification<ConsentEntity> specification = aisConsentSpecification.byAspspAccountIdAndCreationPeriodAndInstanceId(aspspAccountId,
-                                                                                                                            createDateFrom,
-                                                                                                                            createDateTo,
-                                                                                                                            instanceId);
-        List<ConsentEntity> consents = consentJpaRepository.findAll(specification)
-                                           .stream()
-                                           .map(aisConsentLazyMigrationService::migrateIfNeeded)
-                                           .collect(Collectors.toList());
-
-        return consents
-                   .stream()
-                   .map(this::mapToCmsAisAccountConsentWithAuthorisations)
-                   .collect(Collectors.toList());
+        return mapToCmsAisAccountConsents(consents);
+    }
+
+    private ExportPage<CmsAisAccountConsent> findPageBySpecification(Specification<ConsentEntity> specification,
+                                                                     @Nullable String cursor, int pageSize) {
+        return exportPageLoader.loadPage(ConsentEntity.class, withFetchedAssociations(specification),
+                                         aisConsentSpecification::byCreationTimestampAndIdAfter,
+                                         ConsentEntity::getCreationTimestamp, ConsentEntity::getId,
+                                         this::mapToCmsAisAccountConsents, cursor, pageSize);
+    }
+
+    private void streamAllBySpecification(Specification<ConsentEntity> specification, Consumer<CmsAisAccountConsent> consumer) {
+        specificationStreamingRepository.streamAll(ConsentEntity.class, withFetchedAssociations(specification),
+                                                   consents -> mapToCmsAisAccountConsents(consents).forEach(consumer));
     }
 
-    private CmsAisAccountConsent mapToCmsAisAccountConsentWithAuthorisations(ConsentEntity aisConsentEntity) {
-        List<AuthorisationEntity> authorisations =
-            authorisationRepository.findAllByParentExternalIdAndAuthorisationType(aisConsentEntity.getExternalId(), AuthorisationType.AIS);
-        return aisConsentMapper.mapToCmsAisAccountConsent(aisConsentEntity, authorisations);
+    private Specification<ConsentEntity> withFetchedAssociations(Specification<ConsentEntity> specification) {
+        return Specification.where(specification).and(aisConsentSpecification.fetchTppInformationAndAuthorisationTemplate());
+    }
+
+    private List<CmsAisAccountConsent> mapToCmsAisAccountConsents(List<ConsentEntity> consents) {
+        exportAssociationFetchService.fetchAisConsentAssociations(consents);
+        List<ConsentEntity> migratedConsents = consents.stream()
+                                                   .map(aisConsentLazyMigrationService::migrateIfNeeded)
+                                                   .collect(Collectors.toList());
+        Map<String, List<AuthorisationEntity>> authorisations = exportAssociationFetchService.findAuthorisationsByParentId(migratedConsents, AuthorisationType.AIS);
+        Map<Long, Map<String, Integer>> usageCounterMaps = exportAssociationFetchService.findUsageCounterMaps(migratedConsents);
+
+        return migratedConsents.stream()
+                   .map(consent -> aisConsentMapper.mapToCmsAisAccountConsent(consent,
+                                                                              authorisations.getOrDefault(consent.getExternalId(), Collections.emptyList()),
+                                                                              usageCounterMaps.getOrDefault(consent.getId(), Collections.emptyMap())))
+                   .collect(Collectors.toList());
     }
 }
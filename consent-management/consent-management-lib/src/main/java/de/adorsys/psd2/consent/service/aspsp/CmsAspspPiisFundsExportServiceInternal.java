@@ -17,9 +17,11 @@
 package de.adorsys.psd2.consent.service.aspsp;
 
 import de.adorsys.psd2.consent.api.piis.CmsPiisConsent;
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
 import de.adorsys.psd2.consent.aspsp.api.piis.CmsAspspPiisFundsExportService;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.SpecificationStreamingRepository;
 import de.adorsys.psd2.consent.repository.specification.PiisConsentEntitySpecification;
 import de.adorsys.psd2.consent.service.mapper.PiisConsentMapper;
 import de.adorsys.psd2.consent.service.migration.PiisConsentLazyMigrationService;
@@ -37,6 +39,8 @@ import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -49,6 +53,9 @@ public class CmsAspspPiisFundsExportServiceInternal implements CmsAspspPiisFunds
     private final PiisConsentEntitySpecification piisConsentEntitySpecification;
     private final PiisConsentMapper piisConsentMapper;
     private final PiisConsentLazyMigrationService piisConsentLazyMigrationService;
+    private final ExportAssociationFetchService exportAssociationFetchService;
+    private final SpecificationStreamingRepository specificationStreamingRepository;
+    private final ExportPageLoader exportPageLoader;
 
     @Override
     @Transactional
@@ -56,49 +63,159 @@ public class CmsAspspPiisFundsExportServiceInternal implements CmsAspspPiisFunds
                                                           @Nullable LocalDate createDateFrom,
                                                           @Nullable LocalDate createDateTo, @Nullable PsuIdData psuIdData,
                                                           @Nullable String instanceId) {
+        return byTppSpecification(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId)
+                   .map(this::findAllBySpecification)
+                   .orElseGet(Collections::emptyList);
+    }
+
+    @Override
+    @Transactional
+    public Collection<CmsPiisConsent> exportConsentsByPsu(PsuIdData psuIdData, @Nullable LocalDate createDateFrom,
+                                                          @Nullable LocalDate createDateTo, @Nullable String instanceId) {
+        return byPsuSpecification(psuIdData, createDateFrom, createDateTo, instanceId)
+                   .map(this::findAllBySpecification)
+                   .orElseGet(Collections::emptyList);
+    }
+
+    @Override
+    @Transactional
+    public Collection<CmsPiisConsent> exportConsentsByAccountId(@NotNull String aspspAccountId,
+                                                                @Nullable LocalDate createDateFrom,
+                                                                @Nullable LocalDate createDateTo,
+                                                                @Nullable String instanceId) {
+        return byAccountIdSpecification(aspspAccountId, createDateFrom, createDateTo, instanceId)
+                   .map(this::findAllBySpecification)
+                   .orElseGet(Collections::emptyList);
+    }
+
+    @Override
+    @Transactional
+    public ExportPage<CmsPiisConsent> exportConsentsByTpp(String tppAuthorisationNumber,
+                                                          @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                                          @Nullable PsuIdData psuIdData, @Nullable String instanceId,
+                                                          @Nullable String cursor, int pageSize) {
+        return byTppSpecification(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId)
+                   .map(specification -> findPageBySpecification(specification, cursor, pageSize))
+                   .orElseGet(ExportPage::empty);
+    }
+
+    @Override
+    @Transactional
+    public ExportPage<CmsPiisConsent> exportConsentsByPsu(PsuIdData psuIdData,
+                                                          @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                                          @Nullable String instanceId,
+                                                          @Nullable String cursor, int pageSize) {
+        return byPsuSpecification(psuIdData, createDateFrom, createDateTo, instanceId)
+                   .map(specification -> findPageBySpecification(specification, cursor, pageSize))
+                   .orElseGet(ExportPage::empty);
+    }
+
+    @Override
+    @Transactional
+    public ExportPage<CmsPiisConsent> exportConsentsByAccountId(@NotNull String aspspAccountId,
+                                                                @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                                                @Nullable String instanceId,
+                                                                @Nullable String cursor, int pageSize) {
+        return byAccountIdSpecification(aspspAccountId, createDateFrom, createDateTo, instanceId)
+                   .map(specification -> findPageBySpecification(specification, cursor, pageSize))
+                   .orElseGet(ExportPage::empty);
+    }
+
+    @Override
+    @Transactional
+    public void streamConsentsByTpp(String tppAuthorisationNumber,
+                                    @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                    @Nullable PsuIdData psuIdData, @Nullable String instanceId,
+                                    @NotNull Consumer<CmsPiisConsent> consumer) {
+        byTppSpecification(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId)
+            .ifPresent(specification -> streamAllBySpecification(specification, consumer));
+    }
+
+    @Override
+    @Transactional
+    public void streamConsentsByPsu(PsuIdData psuIdData,
+                                    @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                    @Nullable String instanceId,
+                                    @NotNull Consumer<CmsPiisConsent> consumer) {
+        byPsuSpecification(psuIdData, createDateFrom, createDateTo, instanceId)
+            .ifPresent(specification -> streamAllBySpecification(specification, consumer));
+    }
+
+    @Override
+    @Transactional
+    public void streamConsentsByAccountId(@NotNull String aspspAccountId,
+                                          @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo,
+                                          @Nullable String instanceId,
+                                          @NotNull Consumer<CmsPiisConsent> consumer) {
+        byAccountIdSpecification(aspspAccountId, createDateFrom, createDateTo, instanceId)
+            .ifPresent(specification -> streamAllBySpecification(specification, consumer));
+    }
+
+    private Optional<Specification<ConsentEntity>> byTppSpecification(String tppAuthorisationNumber,
+                                                                      @Nullable LocalDate createDateFrom,
+                                                                      @Nullable LocalDate createDateTo, @Nullable PsuIdData psuIdData,
+                                                                      @Nullable String instanceId) {
         if (StringUtils.isBlank(tppAuthorisationNumber)) {
             log.info("TPP ID: [{}], instanceId: [{}]. Export consents by TPP failed, TPP ID is empty or null.",
                      tppAuthorisationNumber, instanceId);
-            return Collections.emptyList();
+            return Optional.empty();
         }
 
         String actualInstanceId = StringUtils.defaultIfEmpty(instanceId, DEFAULT_SERVICE_INSTANCE_ID);
 
-        return findAllBySpecification(piisConsentEntitySpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, actualInstanceId));
+        return Optional.ofNullable(piisConsentEntitySpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, actualInstanceId));
     }
 
-    @Override
-    @Transactional
-    public Collection<CmsPiisConsent> exportConsentsByPsu(PsuIdData psuIdData, @Nullable LocalDate createDateFrom,
-                                                          @Nullable LocalDate createDateTo, @Nullable String instanceId) {
+    private Optional<Specification<ConsentEntity>> byPsuSpecification(PsuIdData psuIdData, @Nullable LocalDate createDateFrom,
+                                                                      @Nullable LocalDate createDateTo, @Nullable String instanceId) {
         if (psuIdData == null || psuIdData.isEmpty()) {
             log.info("InstanceId: [{}]. Export consents by psu failed, psuIdData is empty or null.", instanceId);
-            return Collections.emptyList();
+            return Optional.empty();
         }
 
         String actualInstanceId = StringUtils.defaultIfEmpty(instanceId, DEFAULT_SERVICE_INSTANCE_ID);
 
-        return findAllBySpecification(piisConsentEntitySpecification.byPsuIdDataAndCreationPeriodAndInstanceId(psuIdData, createDateFrom, createDateTo, actualInstanceId));
+        return Optional.ofNullable(piisConsentEntitySpecification.byPsuIdDataAndCreationPeriodAndInstanceId(psuIdData, createDateFrom, createDateTo, actualInstanceId));
     }
 
-    @Override
-    @Transactional
-    public Collection<CmsPiisConsent> exportConsentsByAccountId(@NotNull String aspspAccountId,
-                                                                @Nullable LocalDate createDateFrom,
-                                                                @Nullable LocalDate createDateTo,
-                                                                @Nullable String instanceId) {
+    private Optional<Specification<ConsentEntity>> byAccountIdSpecification(@NotNull String aspspAccountId,
+                                                                            @Nullable LocalDate createDateFrom,
+                                                                            @Nullable LocalDate createDateTo,
+                                                                            @Nullable String instanceId) {
         if (StringUtils.isBlank(aspspAccountId)) {
             log.info("InstanceId: [{}]. Export consents by accountId failed, aspspAccountId is empty or null.", instanceId);
-            return Collections.emptyList();
+            return Optional.empty();
         }
 
         String actualInstanceId = StringUtils.defaultIfEmpty(instanceId, DEFAULT_SERVICE_INSTANCE_ID);
 
-        return findAllBySpecification(piisConsentEntitySpecification.byAspspAccountIdAndCreationPeriodAndInstanceId(aspspAccountId, createDateFrom, createDateTo, actualInstanceId));
+        return Optional.ofNullable(piisConsentEntitySpecification.byAspspAccountIdAndCreationPeriodAndInstanceId(aspspAccountId, createDateFrom, createDateTo, actualInstanceId));
     }
 
     private Collection<CmsPiisConsent> findAllBySpecification(Specification<ConsentEntity> specification) {
-        List<ConsentEntity> piisConsentEntities = consentJpaRepository.findAll(specification);
+        List<ConsentEntity> piisConsentEntities = consentJpaRepository.findAll(withFetchedAssociations(specification));
+        return mapToCmsPiisConsents(piisConsentEntities);
+    }
+
+    private ExportPage<CmsPiisConsent> findPageBySpecification(Specification<ConsentEntity> specification,
+                                                               @Nullable String cursor, int pageSize) {
+        return exportPageLoader.loadPage(ConsentEntity.class, withFetchedAssociations(specification),
+                                         piisConsentEntitySpecification::byCreationTimestampAndIdAfter,
+                                         ConsentEntity::getCreationTimestamp, ConsentEntity::getId,
+                                         this::mapToCmsPiisConsents, cursor, pageSize);
+    }
+
+    private void streamAllBySpecification(Specification<ConsentEntity> specification, Consumer<CmsPiisConsent> consumer) {
+        specificationStreamingRepository.streamAll(ConsentEntity.class, withFetchedAssociations(specification),
+                                                   piisConsentEntities -> mapToCmsPiisConsents(piisConsentEntities).forEach(consumer));
+    }
+
+    private Specification<ConsentEntity> withFetchedAssociations(Specification<ConsentEntity> specification) {
+        return Specification.where(specification).and(piisConsentEntitySpecification.fetchTppInformationAndAuthorisationTemplate());
+    }
+
+    private List<CmsPiisConsent> mapToCmsPiisConsents(List<ConsentEntity> piisConsentEntities) {
+        exportAssociationFetchService.fetchPiisConsentAssociations(piisConsentEntities);
         piisConsentLazyMigrationService.migrateIfNeeded(piisConsentEntities);
         return piisConsentMapper.mapToCmsPiisConsentList(piisConsentEntities);
     }
@@ -17,9 +17,11 @@
 package de.adorsys.psd2.consent.service.aspsp;
 
 import de.adorsys.psd2.consent.api.pis.CmsPayment;
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
 import de.adorsys.psd2.consent.aspsp.api.pis.CmsAspspPisExportService;
 import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
 import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
+import de.adorsys.psd2.consent.repository.SpecificationStreamingRepository;
 import de.adorsys.psd2.consent.repository.specification.PisCommonPaymentDataSpecification;
 import de.adorsys.psd2.consent.service.mapper.CmsPsuPisMapper;
 import de.adorsys.psd2.xs2a.core.psu.PsuIdData;
@@ -28,6 +30,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -35,6 +38,8 @@ import java.time.LocalDate;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -44,41 +49,130 @@ public class CmsAspspPisExportServiceInternal implements CmsAspspPisExportServic
     private final PisCommonPaymentDataSpecification pisCommonPaymentDataSpecification;
     private final PisCommonPaymentDataRepository pisCommonPaymentDataRepository;
     private final CmsPsuPisMapper cmsPsuPisMapper;
+    private final ExportAssociationFetchService exportAssociationFetchService;
+    private final SpecificationStreamingRepository specificationStreamingRepository;
+    private final ExportPageLoader exportPageLoader;
 
 
     @Override
     public Collection<CmsPayment> exportPaymentsByTpp(String tppAuthorisationNumber, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @Nullable PsuIdData psuIdData, @NotNull String instanceId) {
+        return byTppSpecification(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId)
+                   .map(this::findAllBySpecification)
+                   .orElseGet(Collections::emptyList);
+    }
+
+    @Override
+    public Collection<CmsPayment> exportPaymentsByPsu(PsuIdData psuIdData, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @NotNull String instanceId) {
+        return byPsuSpecification(psuIdData, createDateFrom, createDateTo, instanceId)
+                   .map(this::findAllBySpecification)
+                   .orElseGet(Collections::emptyList);
+    }
+
+    @Override
+    public Collection<CmsPayment> exportPaymentsByAccountId(@NotNull String aspspAccountId, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @NotNull String instanceId) {
+        return byAccountIdSpecification(aspspAccountId, createDateFrom, createDateTo, instanceId)
+                   .map(this::findAllBySpecification)
+                   .orElseGet(Collections::emptyList);
+    }
+
+    @Override
+    public ExportPage<CmsPayment> exportPaymentsByTpp(String tppAuthorisationNumber, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @Nullable PsuIdData psuIdData, @NotNull String instanceId,
+                                                      @Nullable String cursor, int pageSize) {
+        return byTppSpecification(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId)
+                   .map(specification -> findPageBySpecification(specification, cursor, pageSize))
+                   .orElseGet(ExportPage::empty);
+    }
+
+    @Override
+    public ExportPage<CmsPayment> exportPaymentsByPsu(PsuIdData psuIdData, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @NotNull String instanceId,
+                                                      @Nullable String cursor, int pageSize) {
+        return byPsuSpecification(psuIdData, createDateFrom, createDateTo, instanceId)
+                   .map(specification -> findPageBySpecification(specification, cursor, pageSize))
+                   .orElseGet(ExportPage::empty);
+    }
+
+    @Override
+    public ExportPage<CmsPayment> exportPaymentsByAccountId(@NotNull String aspspAccountId, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @NotNull String instanceId,
+                                                            @Nullable String cursor, int pageSize) {
+        return byAccountIdSpecification(aspspAccountId, createDateFrom, createDateTo, instanceId)
+                   .map(specification -> findPageBySpecification(specification, cursor, pageSize))
+                   .orElseGet(ExportPage::empty);
+    }
+
+    @Override
+    public void streamPaymentsByTpp(String tppAuthorisationNumber, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @Nullable PsuIdData psuIdData, @NotNull String instanceId,
+                                    @NotNull Consumer<CmsPayment> consumer) {
+        byTppSpecification(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId)
+            .ifPresent(specification -> streamAllBySpecification(specification, consumer));
+    }
+
+    @Override
+    public void streamPaymentsByPsu(PsuIdData psuIdData, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @NotNull String instanceId,
+                                    @NotNull Consumer<CmsPayment> consumer) {
+        byPsuSpecification(psuIdData, createDateFrom, createDateTo, instanceId)
+            .ifPresent(specification -> streamAllBySpecification(specification, consumer));
+    }
+
+    @Override
+    public void streamPaymentsByAccountId(@NotNull String aspspAccountId, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @NotNull String instanceId,
+                                          @NotNull Consumer<CmsPayment> consumer) {
+        byAccountIdSpecification(aspspAccountId, createDateFrom, createDateTo, instanceId)
+            .ifPresent(specification -> streamAllBySpecification(specification, consumer));
+    }
+
+    private Optional<Specification<PisCommonPaymentData>> byTppSpecification(String tppAuthorisationNumber, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @Nullable PsuIdData psuIdData, @NotNull String instanceId) {
         if (StringUtils.isBlank(tppAuthorisationNumber) || StringUtils.isBlank(instanceId)) {
             log.info("InstanceId: [{}], TPP ID: [{}]. Export payments by TPP failed, TPP ID or instanceId is empty or null.", instanceId,
                      tppAuthorisationNumber);
-            return Collections.emptyList();
+            return Optional.empty();
         }
 
-        List<PisCommonPaymentData> commonPayments = pisCommonPaymentDataRepository.findAll(pisCommonPaymentDataSpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId));
-        return cmsPsuPisMapper.mapPaymentDataToCmsPayments(commonPayments);
+        return Optional.ofNullable(pisCommonPaymentDataSpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(tppAuthorisationNumber, createDateFrom, createDateTo, psuIdData, instanceId));
     }
 
-    @Override
-    public Collection<CmsPayment> exportPaymentsByPsu(PsuIdData psuIdData, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @NotNull String instanceId) {
+    private Optional<Specification<PisCommonPaymentData>> byPsuSpecification(PsuIdData psuIdData, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @NotNull String instanceId) {
         if (psuIdData == null || psuIdData.isEmpty() || StringUtils.isBlank(instanceId)) {
             log.info("InstanceId: [{}]. Export payments by psu failed, psuIdData or instanceId is empty or null.",
                      instanceId);
-            return Collections.emptyList();
+            return Optional.empty();
         }
 
-        List<PisCommonPaymentData> commonPayments = pisCommonPaymentDataRepository.findAll(pisCommonPaymentDataSpecification.byPsuIdDataAndCreationPeriodAndInstanceId(psuIdData, createDateFrom, createDateTo, instanceId));
-        return cmsPsuPisMapper.mapPaymentDataToCmsPayments(commonPayments);
+        return Optional.ofNullable(pisCommonPaymentDataSpecification.byPsuIdDataAndCreationPeriodAndInstanceId(psuIdData, createDateFrom, createDateTo, instanceId));
     }
 
-    @Override
-    public Collection<CmsPayment> exportPaymentsByAccountId(@NotNull String aspspAccountId, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @NotNull String instanceId) {
+    private Optional<Specification<PisCommonPaymentData>> byAccountIdSpecification(@NotNull String aspspAccountId, @Nullable LocalDate createDateFrom, @Nullable LocalDate createDateTo, @NotNull String instanceId) {
         if (StringUtils.isBlank(aspspAccountId) || StringUtils.isBlank(instanceId)) {
             log.info("InstanceId: [{}], aspspAccountId: [{}]. Export payments by accountId failed, aspspAccountId or instanceId is empty or null.",
                      instanceId, aspspAccountId);
-            return Collections.emptyList();
+            return Optional.empty();
         }
 
-        List<PisCommonPaymentData> commonPayments = pisCommonPaymentDataRepository.findAll(pisCommonPaymentDataSpecification.byAspspAccountIdAndCreationPeriodAndInstanceId(aspspAccountId, createDateFrom, createDateTo, instanceId));
+        return Optional.ofNullable(pisCommonPaymentDataSpecification.byAspspAccountIdAndCreationPeriodAndInstanceId(aspspAccountId, createDateFrom, createDateTo, instanceId));
+    }
+
+    private Collection<CmsPayment> findAllBySpecification(Specification<PisCommonPaymentData> specification) {
+        List<PisCommonPaymentData> commonPayments = pisCommonPaymentDataRepository.findAll(withFetchedAssociations(specification));
+        return mapToCmsPayments(commonPayments);
+    }
+
+    private ExportPage<CmsPayment> findPageBySpecification(Specification<PisCommonPaymentData> specification, @Nullable String cursor, int pageSize) {
+        return exportPageLoader.loadPage(PisCommonPaymentData.class, withFetchedAssociations(specification),
+                                         pisCommonPaymentDataSpecification::byCreationTimestampAndIdAfter,
+                                         PisCommonPaymentData::getCreationTimestamp, PisCommonPaymentData::getId,
+                                         this::mapToCmsPayments, cursor, pageSize);
+    }
+
+    private void streamAllBySpecification(Specification<PisCommonPaymentData> specification, Consumer<CmsPayment> consumer) {
+        specificationStreamingRepository.streamAll(PisCommonPaymentData.class, withFetchedAssociations(specification),
+                                                   commonPayments -> mapToCmsPayments(commonPayments).forEach(consumer));
+    }
+
+    private Specification<PisCommonPaymentData> withFetchedAssociations(Specification<PisCommonPaymentData> specification) {
+        return Specification.where(specification).and(pisCommonPaymentDataSpecification.fetchTppInfoAndAuthorisationTemplate());
+    }
+
+    private List<CmsPayment> mapToCmsPayments(List<PisCommonPaymentData> commonPayments) {
+        exportAssociationFetchService.fetchPaymentAssociations(commonPayments);
         return cmsPsuPisMapper.mapPaymentDataToCmsPayments(commonPayments);
     }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.aspsp;
+
+import de.adorsys.psd2.consent.domain.AuthorisationEntity;
+import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
+import de.adorsys.psd2.consent.repository.AuthorisationRepository;
+import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
+import de.adorsys.psd2.consent.service.AisConsentUsageService;
+import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationType;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.collections4.ListUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads associations of exported consents and payments for the whole result at once: every lazy collection and
+ * the authorisations are loaded with one query per chunk of {@value MAX_IN_CLAUSE_SIZE} parents, instead of
+ * separate queries for every exported consent or payment.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportAssociationFetchService {
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private final ConsentJpaRepository consentJpaRepository;
+    private final PisCommonPaymentDataRepository pisCommonPaymentDataRepository;
+    private final AuthorisationRepository authorisationRepository;
+    private final AisConsentUsageService aisConsentUsageService;
+
+    /**
+     * Initialises PSU data and account access lists of the given AIS consents
+     *
+     * @param consents managed AIS consent entities
+     */
+    public void fetchAisConsentAssociations(List<ConsentEntity> consents) {
+        List<Long> ids = getIds(consents, ConsentEntity::getId);
+        forEachChunk(ids, consentJpaRepository::fetchPsuDataListByIds);
+        forEachChunk(ids, consentJpaRepository::fetchTppAccountAccessesByIds);
+        forEachChunk(ids, consentJpaRepository::fetchAspspAccountAccessesByIds);
+    }
+
+    /**
+     * Initialises PSU data and ASPSP account access lists of the given PIIS consents
+     *
+     * @param consents managed PIIS consent entities
+     */
+    public void fetchPiisConsentAssociations(List<ConsentEntity> consents) {
+        List<Long> ids = getIds(consents, ConsentEntity::getId);
+        forEachChunk(ids, consentJpaRepository::fetchPsuDataListByIds);
+        forEachChunk(ids, consentJpaRepository::fetchAspspAccountAccessesByIds);
+    }
+
+    /**
+     * Initialises PSU data and payment lists of the given payments
+     *
+     * @param payments managed payment entities
+     */
+    public void fetchPaymentAssociations(List<PisCommonPaymentData> payments) {
+        List<Long> ids = getIds(payments, PisCommonPaymentData::getId);
+        forEachChunk(ids, pisCommonPaymentDataRepository::fetchPsuDataListByIds);
+        forEachChunk(ids, pisCommonPaymentDataRepository::fetchPaymentsByIds);
+    }
+
+    /**
+     * Finds authorisations of the given consents
+     *
+     * @param consents          consent entities
+     * @param authorisationType type of the authorisations
+     * @return authorisations by external ID of the consent
+     */
+    public Map<String, List<AuthorisationEntity>> findAuthorisationsByParentId(List<ConsentEntity> consents, AuthorisationType authorisationType) {
+        List<String> parentIds = getIds(consents, ConsentEntity::getExternalId);
+        Map<String, List<AuthorisationEntity>> authorisations = new HashMap<>();
+        forEachChunk(parentIds, chunk -> authorisationRepository.findAllByParentExternalIdInAndAuthorisationType(chunk, authorisationType)
+                                             .forEach(a -> authorisations.computeIfAbsent(a.getParentExternalId(), k -> new ArrayList<>()).add(a)));
+        return authorisations;
+    }
+
+    /**
+     * Finds today's usage counters of the given AIS consents
+     *
+     * @param consents AIS consent entities
+     * @return usage counter maps by consent ID
+     */
+    public Map<Long, Map<String, Integer>> findUsageCounterMaps(List<ConsentEntity> consents) {
+        Map<Long, Map<String, Integer>> usageCounterMaps = new HashMap<>();
+        forEachChunk(consents, chunk -> usageCounterMaps.putAll(aisConsentUsageService.getUsageCounterMaps(chunk)));
+        return usageCounterMaps;
+    }
+
+    private <T, I> List<I> getIds(List<T> entities, Function<T, I> idExtractor) {
+        return entities.stream()
+                   .map(idExtractor)
+                   .distinct()
+                   .collect(Collectors.toList());
+    }
+
+    private <T> void forEachChunk(List<T> values, Consumer<List<T>> query) {
+        for (List<T> chunk : ListUtils.partition(values, MAX_IN_CLAUSE_SIZE)) {
+            query.accept(chunk);
+        }
+    }
+}
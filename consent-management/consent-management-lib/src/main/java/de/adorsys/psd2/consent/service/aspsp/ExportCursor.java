@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.aspsp;
+
+import lombok.Value;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Position of the last exported entity in the (creation timestamp, ID) order, encoded as an opaque URL-safe string.
+ */
+@Value
+class ExportCursor {
+    private static final String SEPARATOR = "|";
+
+    private OffsetDateTime creationTimestamp;
+    private Long id;
+
+    String encode() {
+        String value = creationTimestamp.toInstant() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes given cursor.
+     *
+     * @param cursor encoded cursor
+     * @return decoded cursor or empty optional if the cursor is malformed
+     */
+    static Optional<ExportCursor> decode(@Nullable String cursor) {
+        if (cursor == null) {
+            return Optional.empty();
+        }
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = value.lastIndexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                return Optional.empty();
+            }
+
+            Instant creationTimestamp = Instant.parse(value.substring(0, separatorIndex));
+            long id = Long.parseLong(value.substring(separatorIndex + 1));
+            return Optional.of(new ExportCursor(OffsetDateTime.ofInstant(creationTimestamp, ZoneOffset.UTC), id));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            return Optional.empty();
+        }
+    }
+}
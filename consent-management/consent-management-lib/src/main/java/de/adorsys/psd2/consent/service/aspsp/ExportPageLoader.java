@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.aspsp;
+
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
+import de.adorsys.psd2.consent.repository.SpecificationStreamingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Loads pages of exported entities with keyset pagination over creation timestamp and ID.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExportPageLoader {
+    private final SpecificationStreamingRepository specificationStreamingRepository;
+
+    @Value("${cms.export.page-size.default:100}")
+    private int defaultPageSize = 100;
+    @Value("${cms.export.page-size.max:1000}")
+    private int maxPageSize = 1000;
+
+    /**
+     * Loads the page of entities following the given cursor.
+     *
+     * @param domainClass             class of the entity
+     * @param specification           specification to filter the entities
+     * @param cursorSpecification     builds specification that orders entities by creation timestamp and ID
+     *                                and filters entities after the given creation timestamp and ID
+     * @param creationTimestampGetter provides creation timestamp of an entity
+     * @param idGetter                provides ID of an entity
+     * @param mapper                  maps loaded entities to exported objects
+     * @param cursor                  optional cursor of the previous page
+     * @param pageSize                requested page size, default page size is used if it's not positive
+     * @param <E>                     type of the entity
+     * @param <T>                     type of exported objects
+     * @return loaded page, or empty page if the cursor is malformed
+     */
+    <E, T> ExportPage<T> loadPage(Class<E> domainClass,
+                                  Specification<E> specification,
+                                  BiFunction<OffsetDateTime, Long, Specification<E>> cursorSpecification,
+                                  Function<E, OffsetDateTime> creationTimestampGetter,
+                                  Function<E, Long> idGetter,
+                                  Function<List<E>, List<T>> mapper,
+                                  @Nullable String cursor, int pageSize) {
+        Optional<ExportCursor> exportCursor = ExportCursor.decode(cursor);
+        if (cursor != null && !exportCursor.isPresent()) {
+            log.info("Cursor: [{}]. Export page can't be loaded, cursor is malformed.", cursor);
+            return ExportPage.empty();
+        }
+
+        Specification<E> afterCursorSpecification = cursorSpecification.apply(exportCursor.map(ExportCursor::getCreationTimestamp).orElse(null),
+                                                                              exportCursor.map(ExportCursor::getId).orElse(null));
+        int limit = getPageSize(pageSize);
+        List<E> entities = specificationStreamingRepository.findAll(domainClass, Specification.where(specification).and(afterCursorSpecification), limit + 1);
+        if (entities.size() <= limit) {
+            return new ExportPage<>(mapper.apply(entities), null);
+        }
+
+        List<E> pageEntities = entities.subList(0, limit);
+        E lastEntity = pageEntities.get(limit - 1);
+        ExportCursor nextCursor = new ExportCursor(creationTimestampGetter.apply(lastEntity), idGetter.apply(lastEntity));
+        return new ExportPage<>(mapper.apply(pageEntities), nextCursor.encode());
+    }
+
+    private int getPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(pageSize, maxPageSize);
+    }
+}
@@ -18,6 +18,7 @@ package de.adorsys.psd2.consent.service.authorisation;
 
 import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
 import de.adorsys.psd2.consent.domain.Authorisable;
+import de.adorsys.psd2.consent.domain.AuthorisableStatus;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
@@ -60,6 +61,12 @@ public class AisAuthService extends CmsAuthorisationService<ConsentEntity> {
                    .map(con -> con);
     }
 
+    @Override
+    public Optional<AuthorisableStatus> getAuthorisationParentStatus(String parentId) {
+        return consentJpaRepository.findStatusProjectionByExternalId(parentId)
+                   .map(status -> status);
+    }
+
     @Override
     protected void updateAuthorisable(Object authorisable) {
         consentJpaRepository.save((ConsentEntity) authorisable);
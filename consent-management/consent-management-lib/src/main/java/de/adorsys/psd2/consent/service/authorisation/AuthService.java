@@ -19,6 +19,7 @@ package de.adorsys.psd2.consent.service.authorisation;
 import de.adorsys.psd2.consent.api.authorisation.CreateAuthorisationRequest;
 import de.adorsys.psd2.consent.api.authorisation.UpdateAuthorisationRequest;
 import de.adorsys.psd2.consent.domain.Authorisable;
+import de.adorsys.psd2.consent.domain.AuthorisableStatus;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
 
 import java.util.List;
@@ -29,6 +30,14 @@ public interface AuthService {
 
     Optional<Authorisable> getAuthorisationParent(String parentId);
 
+    /**
+     * Reads only status columns of the authorisation parent
+     *
+     * @param parentId external ID of the parent
+     * @return status of the parent, empty if the parent couldn't be found
+     */
+    Optional<AuthorisableStatus> getAuthorisationParentStatus(String parentId);
+
     AuthorisationEntity saveAuthorisation(CreateAuthorisationRequest request, Authorisable authorisationParent);
 
     AuthorisationEntity doUpdateAuthorisation(AuthorisationEntity authorisationEntity, UpdateAuthorisationRequest updateAuthorisationRequest);
@@ -41,5 +50,7 @@ public interface AuthService {
 
     boolean isConfirmationExpired(Authorisable object);
 
+    boolean isStatusConfirmationExpired(AuthorisableStatus status);
+
     Authorisable updateOnConfirmationExpiration(Authorisable object);
 }
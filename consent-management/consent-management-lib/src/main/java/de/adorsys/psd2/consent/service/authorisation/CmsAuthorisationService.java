@@ -21,6 +21,7 @@ import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
 import de.adorsys.psd2.consent.api.authorisation.CreateAuthorisationRequest;
 import de.adorsys.psd2.consent.api.authorisation.UpdateAuthorisationRequest;
 import de.adorsys.psd2.consent.domain.Authorisable;
+import de.adorsys.psd2.consent.domain.AuthorisableStatus;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
 import de.adorsys.psd2.consent.domain.PsuData;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
@@ -128,6 +129,11 @@ public abstract class CmsAuthorisationService<T extends Authorisable> implements
         return confirmationExpirationService.isConfirmationExpired(castToParent(authorisable));
     }
 
+    @Override
+    public boolean isStatusConfirmationExpired(AuthorisableStatus status) {
+        return status.isConfirmationExpired(confirmationExpirationService.getConfirmationExpirationPeriodMs());
+    }
+
     @Override
     public Authorisable updateOnConfirmationExpiration(Authorisable authorisable) {
         return confirmationExpirationService.updateOnConfirmationExpiration(castToParent(authorisable));
@@ -19,6 +19,7 @@ package de.adorsys.psd2.consent.service.authorisation;
 import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
 import de.adorsys.psd2.consent.api.pis.PisPayment;
 import de.adorsys.psd2.consent.domain.Authorisable;
+import de.adorsys.psd2.consent.domain.AuthorisableStatus;
 import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
@@ -82,6 +83,12 @@ public class PisCancellationAuthService extends CmsAuthorisationService<PisCommo
                    .map(con -> con);
     }
 
+    @Override
+    public Optional<AuthorisableStatus> getAuthorisationParentStatus(String parentId) {
+        return pisCommonPaymentDataRepository.findStatusProjectionByPaymentId(parentId)
+                   .map(status -> status);
+    }
+
     @Override
     AuthorisationType getAuthorisationType() {
         return AuthorisationType.PIS_CANCELLATION;
@@ -64,7 +64,12 @@ public class AisConsentMapper {
     }
 
     public CmsAisAccountConsent mapToCmsAisAccountConsent(ConsentEntity consent, List<AuthorisationEntity> authorisations) {
-        AisConsent aisConsent = mapToAisConsent(consent, authorisations);
+        return mapToCmsAisAccountConsent(consent, authorisations, aisConsentUsageService.getUsageCounterMap(consent));
+    }
+
+    public CmsAisAccountConsent mapToCmsAisAccountConsent(ConsentEntity consent, List<AuthorisationEntity> authorisations,
+                                                          Map<String, Integer> usageCounterMap) {
+        AisConsent aisConsent = mapToAisConsent(consent, authorisations, usageCounterMap);
         AisAccountAccess chosenAccess = getAvailableAccess(aisConsent);
         ConsentTppInformationEntity tppInformation = consent.getTppInformation();
 
@@ -92,9 +97,12 @@ public class AisConsentMapper {
     }
 
     public AisConsent mapToAisConsent(ConsentEntity entity, List<AuthorisationEntity> authorisations) {
-        AisConsentData aisConsentData = consentDataMapper.mapToAisConsentData(entity.getData());
+        return mapToAisConsent(entity, authorisations, aisConsentUsageService.getUsageCounterMap(entity));
+    }
 
-        Map<String, Integer> usageCounterMap = aisConsentUsageService.getUsageCounterMap(entity);
+    private AisConsent mapToAisConsent(ConsentEntity entity, List<AuthorisationEntity> authorisations,
+                                       Map<String, Integer> usageCounterMap) {
+        AisConsentData aisConsentData = entity.getDecodedData(AisConsentData.class, consentDataMapper::mapToAisConsentData);
 
         return new AisConsent(aisConsentData,
                               entity.getExternalId(),
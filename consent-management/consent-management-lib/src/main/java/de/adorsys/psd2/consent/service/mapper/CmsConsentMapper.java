@@ -41,6 +41,7 @@ public class CmsConsentMapper {
     private final PsuDataMapper psuDataMapper;
     private final AuthorisationMapper authorisationMapper;
     private final AccessMapper accessMapper;
+    private final ConsentDataStorageMapper consentDataStorageMapper;
 
     public CmsConsent mapToCmsConsent(ConsentEntity entity, List<AuthorisationEntity> authorisations, Map<String, Integer> usages) {
         CmsConsent cmsConsent = new CmsConsent();
@@ -72,7 +73,7 @@ public class CmsConsentMapper {
 
     public ConsentEntity mapToNewConsentEntity(CmsConsent cmsConsent) {
         ConsentEntity entity = new ConsentEntity();
-        entity.setData(cmsConsent.getConsentData());
+        entity.setData(consentDataStorageMapper.mapToStoredData(cmsConsent.getConsentType(), cmsConsent.getConsentData()));
         entity.setChecksum(cmsConsent.getChecksum());
         entity.setExternalId(UUID.randomUUID().toString());
         entity.setConsentStatus(cmsConsent.getConsentStatus());
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.mapper;
+
+import de.adorsys.psd2.core.mapper.ConsentDataCodec;
+import de.adorsys.psd2.core.mapper.ConsentDataMapper;
+import de.adorsys.psd2.xs2a.core.consent.ConsentType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts consent data to the form stored in the <code>data</code> column of consent table: compact binary encoding
+ * if <code>cms.consent.data.compact-encoding.enabled</code> is set, JSON otherwise.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConsentDataStorageMapper {
+    private final ConsentDataMapper consentDataMapper;
+
+    @Value("${cms.consent.data.compact-encoding.enabled:false}")
+    private boolean compactEncodingEnabled;
+
+    public byte[] mapToStoredData(Object consentData) {
+        return compactEncodingEnabled
+                   ? consentDataMapper.getCompactBytesFromConsentData(consentData)
+                   : consentDataMapper.getBytesFromConsentData(consentData);
+    }
+
+    public byte[] mapToStoredData(ConsentType consentType, byte[] consentData) {
+        if (!compactEncodingEnabled || consentType == null || consentData == null || ConsentDataCodec.isEncoded(consentData)) {
+            return consentData;
+        }
+
+        Object decodedConsentData = consentType == ConsentType.AIS
+                                        ? consentDataMapper.mapToAisConsentData(consentData)
+                                        : consentDataMapper.mapToPiisConsentData(consentData);
+        return decodedConsentData == null
+                   ? consentData
+                   : consentDataMapper.getCompactBytesFromConsentData(decodedConsentData);
+    }
+}
@@ -44,6 +44,7 @@ public class PiisConsentMapper {
     private final PsuDataMapper psuDataMapper;
     private final ConsentDataMapper consentDataMapper;
     private final AccessMapper accessMapper;
+    private final ConsentDataStorageMapper consentDataStorageMapper;
 
     public List<CmsPiisConsent> mapToCmsPiisConsentList(List<ConsentEntity> consentEntities) {
         return consentEntities.stream()
@@ -52,7 +53,7 @@ public class PiisConsentMapper {
     }
 
     public CmsPiisConsent mapToCmsPiisConsent(ConsentEntity consentEntity) {
-        PiisConsentData piisConsentData = consentDataMapper.mapToPiisConsentData(consentEntity.getData());
+        PiisConsentData piisConsentData = consentEntity.getDecodedData(PiisConsentData.class, consentDataMapper::mapToPiisConsentData);
         AccountReference accountReference = accessMapper.mapToAccountReference(consentEntity.getAspspAccountAccesses().get(0));
         // TODO: change type of requestDateTime to OffsetDateTime https://git.adorsys.de/adorsys/xs2a/aspsp-xs2a/issues/1220
         ZoneOffset offset = OffsetDateTime.now().getOffset();
@@ -87,7 +88,7 @@ public class PiisConsentMapper {
 
         PiisConsentData consentData = new PiisConsentData(request.getCardNumber(), request.getCardExpiryDate(),
                                                           request.getCardInformation(), request.getRegistrationInformation());
-        consent.setData(consentDataMapper.getBytesFromConsentData(consentData));
+        consent.setData(consentDataStorageMapper.mapToStoredData(consentData));
         consent.setConsentType(ConsentType.PIIS_ASPSP.toString());
         return consent;
     }
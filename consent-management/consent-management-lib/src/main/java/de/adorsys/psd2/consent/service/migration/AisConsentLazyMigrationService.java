@@ -20,10 +20,11 @@ import de.adorsys.psd2.consent.domain.account.AisConsent;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
 import de.adorsys.psd2.consent.repository.migration.ObsoleteAisConsentJpaRepository;
+import de.adorsys.psd2.consent.service.mapper.ConsentDataStorageMapper;
 import de.adorsys.psd2.core.data.ais.AisConsentData;
-import de.adorsys.psd2.core.mapper.ConsentDataMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -35,11 +36,13 @@ public class AisConsentLazyMigrationService {
 
     private final ObsoleteAisConsentJpaRepository obsoleteAisConsentJpaRepository;
     private final ConsentJpaRepository consentJpaRepository;
-    private final ConsentDataMapper consentDataMapper;
+    private final ConsentDataStorageMapper consentDataStorageMapper;
 
+    @Value("${consent-migration.lazy.enabled:true}")
+    private boolean lazyMigrationEnabled;
 
     public ConsentEntity migrateIfNeeded(ConsentEntity consentEntity) {
-        if (consentEntity.getData() == null) {
+        if (lazyMigrationEnabled && consentEntity.getData() == null) {
             Optional<AisConsent> obsoleteAisConsentOptional = obsoleteAisConsentJpaRepository.findByExternalId(consentEntity.getExternalId());
             if (obsoleteAisConsentOptional.isPresent()) {
                 byte[] consentData = getConsentData(obsoleteAisConsentOptional.get());
@@ -50,11 +53,11 @@ public class AisConsentLazyMigrationService {
         return consentEntity;
     }
 
-    private byte[] getConsentData(AisConsent aisConsent) {
+    byte[] getConsentData(AisConsent aisConsent) {
         AisConsentData aisConsentData = new AisConsentData(aisConsent.getAvailableAccounts(), aisConsent.getAllPsd2(), aisConsent.getAvailableAccountsWithBalance(),
                                                            aisConsent.isCombinedServiceIndicator());
 
 
-        return consentDataMapper.getBytesFromConsentData(aisConsentData);
+        return consentDataStorageMapper.mapToStoredData(aisConsentData);
     }
 }
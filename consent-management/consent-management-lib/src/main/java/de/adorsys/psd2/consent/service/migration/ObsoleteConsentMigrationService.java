@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.migration;
+
+import de.adorsys.psd2.consent.domain.account.AisConsent;
+import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.domain.piis.PiisConsentEntity;
+import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.migration.ObsoleteAisConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.migration.ObsoletePiisConsentJpaRepository;
+import de.adorsys.psd2.xs2a.core.consent.ConsentType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Eagerly migrates consents created before the consent table was introduced, i.e. consents without data, which
+ * are otherwise migrated lazily on read by {@link AisConsentLazyMigrationService} and
+ * {@link PiisConsentLazyMigrationService}. Obsolete consents are loaded with one query per batch instead of one
+ * query per consent.
+ * <p>
+ * Only consents with a matching obsolete AIS or PIIS consent can be migrated. Consents without data, that have no
+ * obsolete consent or have an unknown type, are neither selected nor counted as not migrated, they are only reported.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ObsoleteConsentMigrationService {
+    private static final String AIS_CONSENT_TYPE = ConsentType.AIS.getName();
+    private static final Set<String> PIIS_CONSENT_TYPES = EnumSet.of(ConsentType.PIIS_ASPSP, ConsentType.PIIS_TPP).stream()
+                                                              .map(ConsentType::getName)
+                                                              .collect(Collectors.toSet());
+
+    private final ConsentJpaRepository consentJpaRepository;
+    private final ObsoleteAisConsentJpaRepository obsoleteAisConsentJpaRepository;
+    private final ObsoletePiisConsentJpaRepository obsoletePiisConsentJpaRepository;
+    private final AisConsentLazyMigrationService aisConsentLazyMigrationService;
+    private final PiisConsentLazyMigrationService piisConsentLazyMigrationService;
+
+    @Transactional(readOnly = true)
+    public List<Long> findNotMigratedConsentIds(Long lastId, Long maxId, int limit) {
+        return consentJpaRepository.findNotMigratedConsentIds(lastId, maxId, AIS_CONSENT_TYPE, PIIS_CONSENT_TYPES, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Converts obsolete AIS and PIIS consents into data of the given consents
+     *
+     * @param ids ids of the consents without data
+     * @return number of migrated consents
+     */
+    @Transactional
+    public int migrateConsents(List<Long> ids) {
+        Map<String, ConsentEntity> aisConsents = new HashMap<>();
+        Map<String, ConsentEntity> piisConsents = new HashMap<>();
+        for (ConsentEntity consent : consentJpaRepository.findAllById(ids)) {
+            if (consent.getData() != null) {
+                continue;
+            }
+            if (AIS_CONSENT_TYPE.equals(consent.getConsentType())) {
+                aisConsents.put(consent.getExternalId(), consent);
+            } else if (PIIS_CONSENT_TYPES.contains(consent.getConsentType())) {
+                piisConsents.put(consent.getExternalId(), consent);
+            }
+        }
+
+        List<ConsentEntity> migrated = new ArrayList<>();
+        if (!aisConsents.isEmpty()) {
+            migrated.addAll(migrate(aisConsents, obsoleteAisConsentJpaRepository::findAllByExternalIdIn,
+                                    AisConsent::getExternalId, aisConsentLazyMigrationService::getConsentData));
+        }
+        if (!piisConsents.isEmpty()) {
+            migrated.addAll(migrate(piisConsents, obsoletePiisConsentJpaRepository::findAllByExternalIdIn,
+                                    PiisConsentEntity::getExternalId, piisConsentLazyMigrationService::getConsentData));
+        }
+        consentJpaRepository.saveAll(migrated);
+        log.debug("{} of {} consents have been migrated", migrated.size(), ids.size());
+        return migrated.size();
+    }
+
+    /**
+     * Counts consents without data, that still can be migrated
+     *
+     * @return number of consents without data, that have a matching obsolete consent
+     */
+    @Transactional(readOnly = true)
+    public long countNotMigratedConsents() {
+        return consentJpaRepository.countNotMigratedConsents(AIS_CONSENT_TYPE, PIIS_CONSENT_TYPES);
+    }
+
+    /**
+     * Counts consents without data, that can't be migrated, as they have no obsolete consent or an unknown type
+     *
+     * @return number of consents without data, that can't be migrated
+     */
+    @Transactional(readOnly = true)
+    public long countNotMigratableConsents() {
+        return consentJpaRepository.countByDataIsNull() - consentJpaRepository.countNotMigratedConsents(AIS_CONSENT_TYPE, PIIS_CONSENT_TYPES);
+    }
+
+    private <T> List<ConsentEntity> migrate(Map<String, ConsentEntity> consents,
+                                            Function<Collection<String>, List<T>> obsoleteConsentLoader,
+                                            Function<T, String> externalIdExtractor,
+                                            Function<T, byte[]> consentDataMapper) {
+        List<ConsentEntity> migrated = new ArrayList<>();
+        for (T obsoleteConsent : obsoleteConsentLoader.apply(consents.keySet())) {
+            ConsentEntity consent = consents.get(externalIdExtractor.apply(obsoleteConsent));
+            if (consent != null) {
+                consent.setData(consentDataMapper.apply(obsoleteConsent));
+                migrated.add(consent);
+            }
+        }
+        return migrated;
+    }
+}
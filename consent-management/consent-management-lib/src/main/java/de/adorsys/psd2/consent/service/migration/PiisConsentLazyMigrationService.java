@@ -20,10 +20,11 @@ import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.domain.piis.PiisConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
 import de.adorsys.psd2.consent.repository.migration.ObsoletePiisConsentJpaRepository;
+import de.adorsys.psd2.consent.service.mapper.ConsentDataStorageMapper;
 import de.adorsys.psd2.core.data.piis.v1.PiisConsentData;
-import de.adorsys.psd2.core.mapper.ConsentDataMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -35,10 +36,13 @@ import java.util.Optional;
 public class PiisConsentLazyMigrationService {
     private final ObsoletePiisConsentJpaRepository obsoletePiisConsentJpaRepository;
     private final ConsentJpaRepository consentJpaRepository;
-    private final ConsentDataMapper consentDataMapper;
+    private final ConsentDataStorageMapper consentDataStorageMapper;
+
+    @Value("${consent-migration.lazy.enabled:true}")
+    private boolean lazyMigrationEnabled;
 
     public ConsentEntity migrateIfNeeded(ConsentEntity consentEntity) {
-        if (consentEntity.getData() == null) {
+        if (lazyMigrationEnabled && consentEntity.getData() == null) {
             Optional<PiisConsentEntity> obsoletePiisConsentOptional = obsoletePiisConsentJpaRepository.findByExternalId(consentEntity.getExternalId());
             if (obsoletePiisConsentOptional.isPresent()) {
                 byte[] consentData = getConsentData(obsoletePiisConsentOptional.get());
@@ -54,11 +58,11 @@ public class PiisConsentLazyMigrationService {
         return consentEntities;
     }
 
-    private byte[] getConsentData(PiisConsentEntity piisConsent) {
+    byte[] getConsentData(PiisConsentEntity piisConsent) {
         PiisConsentData piisConsentData = new PiisConsentData(piisConsent.getCardNumber(), piisConsent.getCardExpiryDate(),
                                                               piisConsent.getCardInformation(), piisConsent.getRegistrationInformation());
 
 
-        return consentDataMapper.getBytesFromConsentData(piisConsentData);
+        return consentDataStorageMapper.mapToStoredData(piisConsentData);
     }
 }
@@ -41,11 +41,11 @@ import de.adorsys.psd2.consent.service.AisConsentUsageService;
 import de.adorsys.psd2.consent.service.mapper.AccessMapper;
 import de.adorsys.psd2.consent.service.mapper.AisConsentMapper;
 import de.adorsys.psd2.consent.service.mapper.CmsPsuAuthorisationMapper;
+import de.adorsys.psd2.consent.service.mapper.ConsentDataStorageMapper;
 import de.adorsys.psd2.consent.service.mapper.PsuDataMapper;
 import de.adorsys.psd2.consent.service.migration.AisConsentLazyMigrationService;
 import de.adorsys.psd2.core.data.AccountAccess;
 import de.adorsys.psd2.core.data.ais.AisConsentData;
-import de.adorsys.psd2.core.mapper.ConsentDataMapper;
 import de.adorsys.psd2.xs2a.core.ais.AccountAccessType;
 import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationType;
 import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
@@ -90,7 +90,7 @@ public class CmsPsuAisServiceInternal implements CmsPsuAisService {
     private final CmsPsuService cmsPsuService;
     private final CmsPsuAuthorisationMapper cmsPsuAuthorisationMapper;
     private final AisConsentConfirmationExpirationService aisConsentConfirmationExpirationService;
-    private final ConsentDataMapper consentDataMapper;
+    private final ConsentDataStorageMapper consentDataStorageMapper;
     private final AisConsentLazyMigrationService aisConsentLazyMigrationService;
     private final AccessMapper accessMapper;
 
@@ -288,7 +288,7 @@ public class CmsPsuAisServiceInternal implements CmsPsuAisService {
                                                                   .orElse(null),
                                                               BooleanUtils.isTrue(request.getCombinedServiceIndicator()));
 
-        byte[] data = consentDataMapper.getBytesFromConsentData(aisConsentDataNew);
+        byte[] data = consentDataStorageMapper.mapToStoredData(aisConsentDataNew);
 
         AccountAccess requestedAccountAccess = consentMapper.mapToAccountAccess(requestedAisAccountAccess);
         List<AspspAccountAccess> aspspAccountAccesses = accessMapper.mapToAspspAccountAccess(requestedAccountAccess);
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.sha.v4;
+
+import de.adorsys.psd2.consent.service.sha.ChecksumCalculatingService;
+import de.adorsys.psd2.consent.service.sha.ChecksumConstant;
+import de.adorsys.psd2.core.data.AccountAccess;
+import de.adorsys.psd2.core.data.Consent;
+import de.adorsys.psd2.core.data.ais.AisConsent;
+import de.adorsys.psd2.xs2a.core.consent.ConsentType;
+import de.adorsys.psd2.xs2a.core.profile.AccountReference;
+import de.adorsys.psd2.xs2a.core.profile.AccountReferenceType;
+import de.adorsys.psd2.xs2a.core.profile.AdditionalInformationAccess;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Calculates AIS consent checksums from a canonical binary encoding of the consent, that is streamed directly into a
+ * SHA-512 digest. Checksum has the same structure as the one of version 3: version, checksum of common consent data and
+ * optionally checksums of ASPSP accesses by account reference type.
+ */
+@Slf4j
+@Service
+public class AisChecksumCalculatingServiceV4 implements ChecksumCalculatingService {
+    private static final String VERSION = "004";
+    private static final Comparator<AccountReference> REFERENCE_ORDER = Comparator.comparing(AccountReference::getAspspAccountId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                                                                            .thenComparing(AccountReference::getResourceId, Comparator.nullsFirst(Comparator.naturalOrder()))
+                                                                            .thenComparing(AccountReference::getIban, Comparator.nullsFirst(Comparator.naturalOrder()))
+                                                                            .thenComparing(AccountReference::getBban, Comparator.nullsFirst(Comparator.naturalOrder()))
+                                                                            .thenComparing(AccountReference::getPan, Comparator.nullsFirst(Comparator.naturalOrder()))
+                                                                            .thenComparing(AccountReference::getMaskedPan, Comparator.nullsFirst(Comparator.naturalOrder()))
+                                                                            .thenComparing(AccountReference::getMsisdn, Comparator.nullsFirst(Comparator.naturalOrder()))
+                                                                            .thenComparing(AisChecksumCalculatingServiceV4::getCurrencyCode, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final ThreadLocal<CanonicalDigestWriter> digestWriter = ThreadLocal.withInitial(CanonicalDigestWriter::new);
+
+    @Override
+    public boolean verifyConsentWithChecksum(Consent<?> consent, byte[] checksum) {
+        if (consent == null || checksum == null) {
+            return false;
+        }
+
+        if (ConsentType.AIS == consent.getConsentType()) {
+            AisConsent aisConsent = (AisConsent) consent;
+
+            return verifyConsentWithChecksumForAisConsent(aisConsent, checksum);
+        }
+
+        return false;
+    }
+
+    @Override
+    public byte[] calculateChecksumForConsent(Consent<?> consent) {
+        if (consent == null) {
+            return new byte[0];
+        }
+
+        if (ConsentType.AIS == consent.getConsentType()) {
+            AisConsent aisConsent = (AisConsent) consent;
+
+            return calculateChecksumForAisConsent(aisConsent);
+        }
+
+        return new byte[0];
+    }
+
+    @Override
+    public String getVersion() {
+        return VERSION;
+    }
+
+    private boolean verifyConsentWithChecksumForAisConsent(AisConsent aisConsent, byte[] checksum) {
+        String[] elements = new String(checksum).split(ChecksumConstant.DELIMITER);
+
+        if (elements.length == 1) {
+            return false;
+        }
+
+        byte[] consentChecksumFromDb = decode(elements[ChecksumConstant.CONSENT_CHECKSUM_START_POSITION]);
+        if (consentChecksumFromDb == null
+                || !MessageDigest.isEqual(consentChecksumFromDb, calculateChecksumForAisConsentCommon(aisConsent))) {
+            return false;
+        }
+
+        if (elements.length > 2) {
+            byte[] aspspAccessFromDb = decode(elements[ChecksumConstant.ASPSP_ACCESS_CHECKSUM_START_POSITION]);
+            return aspspAccessFromDb != null
+                       && areCurrentAccessesValid(aspspAccessFromDb, calculateChecksumMapByReferenceType(aisConsent.getAspspAccountAccesses()));
+        }
+
+        return true;
+    }
+
+    private byte[] calculateChecksumForAisConsent(AisConsent aisConsent) {
+        StringBuilder sb = new StringBuilder(VERSION).append(ChecksumConstant.DELIMITER);
+
+        Base64.Encoder encoder = Base64.getEncoder();
+        sb.append(encoder.encodeToString(calculateChecksumForAisConsentCommon(aisConsent)));
+
+        AccountAccess aspspAccountAccess = aisConsent.getAspspAccountAccesses();
+        if (aspspAccountAccess.isNotEmpty(aisConsent.getConsentData())) {
+            Map<AccountReferenceType, byte[]> checksumMap = calculateChecksumMapByReferenceType(aspspAccountAccess);
+
+            if (!checksumMap.isEmpty()) {
+                sb.append(ChecksumConstant.DELIMITER);
+                sb.append(encoder.encodeToString(encodeChecksumMap(checksumMap)));
+            }
+        }
+
+        return sb.toString().getBytes();
+    }
+
+    private byte[] calculateChecksumForAisConsentCommon(AisConsent aisConsent) {
+        CanonicalDigestWriter writer = digestWriter.get();
+        writer.writeBoolean(aisConsent.isRecurringIndicator())
+            .writeBoolean(aisConsent.getConsentData().isCombinedServiceIndicator())
+            .writeDate(aisConsent.getValidUntil())
+            .writeInteger(aisConsent.getFrequencyPerDay());
+
+        AccountAccess tppAccess = aisConsent.getTppAccountAccesses();
+        if (writer.writePresence(tppAccess)) {
+            writeReferences(writer, tppAccess.getAccounts());
+            writeReferences(writer, tppAccess.getBalances());
+            writeReferences(writer, tppAccess.getTransactions());
+            writeAdditionalInformationAccess(writer, tppAccess.getAdditionalInformationAccess());
+        }
+
+        return writer.digest();
+    }
+
+    private void writeAdditionalInformationAccess(CanonicalDigestWriter writer, AdditionalInformationAccess additionalInformationAccess) {
+        if (writer.writePresence(additionalInformationAccess)) {
+            writeReferences(writer, additionalInformationAccess.getOwnerName());
+            writeReferences(writer, additionalInformationAccess.getTrustedBeneficiaries());
+        }
+    }
+
+    private void writeReferences(CanonicalDigestWriter writer, List<AccountReference> references) {
+        if (writer.writeCollectionHeader(references)) {
+            AccountReference[] sorted = references.toArray(new AccountReference[0]);
+            Arrays.sort(sorted, Comparator.nullsFirst(REFERENCE_ORDER));
+            for (AccountReference reference : sorted) {
+                writeReference(writer, reference);
+            }
+        }
+    }
+
+    private void writeReference(CanonicalDigestWriter writer, AccountReference reference) {
+        if (writer.writePresence(reference)) {
+            writer.writeString(reference.getAspspAccountId())
+                .writeString(reference.getResourceId())
+                .writeString(reference.getIban())
+                .writeString(reference.getBban())
+                .writeString(reference.getPan())
+                .writeString(reference.getMaskedPan())
+                .writeString(reference.getMsisdn())
+                .writeString(getCurrencyCode(reference));
+        }
+    }
+
+    private Map<AccountReferenceType, byte[]> calculateChecksumMapByReferenceType(AccountAccess aspspAccess) {
+        Map<AccountReferenceType, List<AccountReference>> referencesByType = new EnumMap<>(AccountReferenceType.class);
+
+        Stream.of(aspspAccess.getAccounts(), aspspAccess.getBalances(), aspspAccess.getTransactions())
+            .filter(Objects::nonNull)
+            .flatMap(Collection::stream)
+            .filter(acc -> StringUtils.isNotBlank(acc.getResourceId()) || StringUtils.isNotBlank(acc.getAspspAccountId()))
+            .distinct()
+            .forEach(acc -> referencesByType.computeIfAbsent(acc.getAccountReferenceType(), t -> new ArrayList<>()).add(acc));
+
+        Map<AccountReferenceType, byte[]> checksumMap = new EnumMap<>(AccountReferenceType.class);
+        CanonicalDigestWriter writer = digestWriter.get();
+        referencesByType.forEach((type, references) -> {
+            writeReferences(writer, references);
+            checksumMap.put(type, writer.digest());
+        });
+
+        return checksumMap;
+    }
+
+    private byte[] encodeChecksumMap(Map<AccountReferenceType, byte[]> checksumMap) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(checksumMap.size() * (CanonicalDigestWriter.DIGEST_LENGTH + 16));
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            for (Map.Entry<AccountReferenceType, byte[]> entry : checksumMap.entrySet()) {
+                output.writeUTF(entry.getKey().name());
+                output.write(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private boolean areCurrentAccessesValid(byte[] accessChecksumsFromDb, Map<AccountReferenceType, byte[]> currentAccessMap) {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(accessChecksumsFromDb))) {
+            byte[] checksumFromDb = new byte[CanonicalDigestWriter.DIGEST_LENGTH];
+            while (input.available() > 0) {
+                AccountReferenceType type = AccountReferenceType.valueOf(input.readUTF());
+                input.readFully(checksumFromDb);
+                if (!MessageDigest.isEqual(checksumFromDb, currentAccessMap.get(type))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            log.info("Malformed checksum of ASPSP accesses: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private byte[] decode(String encoded) {
+        try {
+            return Base64.getDecoder().decode(encoded);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String getCurrencyCode(AccountReference reference) {
+        return Optional.ofNullable(reference.getCurrency())
+                   .map(Currency::getCurrencyCode)
+                   .orElse(null);
+    }
+}
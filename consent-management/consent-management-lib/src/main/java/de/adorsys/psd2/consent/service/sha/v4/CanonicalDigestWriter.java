@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.sha.v4;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Writes values in a canonical binary form directly into a reusable {@link MessageDigest}.
+ * Every value is prefixed by a presence marker, strings and collections are prefixed by their length,
+ * so that different sequences of values never produce the same byte stream.
+ * Instances are not thread-safe and are reset after every {@link #digest()} call.
+ */
+class CanonicalDigestWriter {
+    static final int DIGEST_LENGTH = 64;
+    private static final String ALGORITHM = "SHA-512";
+    private static final byte NULL_MARKER = 0;
+    private static final byte VALUE_MARKER = 1;
+    private static final int BUFFER_SIZE = 256;
+
+    private final MessageDigest messageDigest;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+
+    CanonicalDigestWriter() {
+        try {
+            messageDigest = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("No such hashing algorithm: " + ALGORITHM);
+        }
+    }
+
+    CanonicalDigestWriter writeBoolean(boolean value) {
+        ensureCapacity(1);
+        buffer[position++] = value ? VALUE_MARKER : NULL_MARKER;
+        return this;
+    }
+
+    CanonicalDigestWriter writeInt(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    CanonicalDigestWriter writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        return writeInt((int) value);
+    }
+
+    CanonicalDigestWriter writeInteger(Integer value) {
+        if (writePresence(value)) {
+            writeInt(value);
+        }
+        return this;
+    }
+
+    CanonicalDigestWriter writeDate(LocalDate value) {
+        if (writePresence(value)) {
+            writeLong(value.toEpochDay());
+        }
+        return this;
+    }
+
+    CanonicalDigestWriter writeString(String value) {
+        if (writePresence(value)) {
+            int length = value.length();
+            writeInt(length);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                ensureCapacity(2);
+                buffer[position++] = (byte) (c >>> 8);
+                buffer[position++] = (byte) c;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes the presence marker and the size of the collection, elements are to be written by the caller
+     *
+     * @param collection collection to be written
+     * @return <code>true</code> if the collection is not null and its elements have to be written
+     */
+    boolean writeCollectionHeader(Collection<?> collection) {
+        if (writePresence(collection)) {
+            writeInt(collection.size());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Completes the hash computation and resets the writer for further use
+     *
+     * @return SHA-512 digest of all values written since the last call
+     */
+    byte[] digest() {
+        flush();
+        return messageDigest.digest();
+    }
+
+    /**
+     * Writes the presence marker of the value, the value itself is to be written by the caller
+     *
+     * @param value value to be written
+     * @return <code>true</code> if the value is not null and has to be written
+     */
+    boolean writePresence(Object value) {
+        ensureCapacity(1);
+        buffer[position++] = value == null ? NULL_MARKER : VALUE_MARKER;
+        return value != null;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (position + bytes > BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (position > 0) {
+            messageDigest.update(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
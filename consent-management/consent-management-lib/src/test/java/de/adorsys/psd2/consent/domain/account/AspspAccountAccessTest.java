@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.domain.account;
+
+import de.adorsys.psd2.consent.api.TypeAccess;
+import de.adorsys.psd2.xs2a.core.profile.AccountReferenceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AspspAccountAccessTest {
+    private static final String IBAN = "DE89370400440532013000";
+    private static final String IBAN_HASH = "faf7e1c0107370ff6f5d03205da7d8ae41ba8e22b31e94b986a65210075d9a1d";
+    private static final Currency EUR_CURRENCY = Currency.getInstance("EUR");
+
+    @Test
+    void constructor_calculatesAccountIdentifierHash() {
+        // When
+        AspspAccountAccess access = new AspspAccountAccess(IBAN, TypeAccess.ACCOUNT, AccountReferenceType.IBAN, EUR_CURRENCY, "resource ID", "aspsp account ID");
+
+        // Then
+        assertEquals(IBAN_HASH, access.getAccountIdentifierHash());
+    }
+
+    @Test
+    void setAccountIdentifier_recalculatesAccountIdentifierHash() {
+        // Given
+        AspspAccountAccess access = new AspspAccountAccess("DE2310010010123456789", TypeAccess.ACCOUNT, AccountReferenceType.IBAN, EUR_CURRENCY, null, null);
+
+        // When
+        access.setAccountIdentifier(IBAN);
+
+        // Then
+        assertEquals(IBAN_HASH, access.getAccountIdentifierHash());
+    }
+
+    @Test
+    void accountIdentifierHash_normalisedIdentifier() {
+        // When
+        String actual = AccountIdentifierHash.of("de89 3704 0044 0532 0130 00");
+
+        // Then
+        assertEquals(IBAN_HASH, actual);
+    }
+
+    @Test
+    void accountIdentifierHash_nullIdentifier() {
+        // When
+        String actual = AccountIdentifierHash.of(null);
+
+        // Then
+        assertNull(actual);
+    }
+}
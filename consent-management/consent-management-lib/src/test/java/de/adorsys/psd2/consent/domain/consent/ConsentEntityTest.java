@@ -26,6 +26,8 @@ import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +35,43 @@ class ConsentEntityTest {
     private static final PsuData PSU_DATA = new PsuData("psu", null, null, null, null);
     private static final TppInfoEntity TPP_INFO = new TppInfoEntity();
 
+    @Test
+    void getDecodedData_decodedOnce() {
+        // Given
+        ConsentEntity consent = new ConsentEntity();
+        consent.setData(new byte[]{1});
+        AtomicInteger decodingCount = new AtomicInteger();
+        Function<byte[], String> decoder = data -> {
+            decodingCount.incrementAndGet();
+            return "decoded " + data.length;
+        };
+
+        // When
+        String first = consent.getDecodedData(String.class, decoder);
+        String second = consent.getDecodedData(String.class, decoder);
+
+        // Then
+        assertEquals("decoded 1", first);
+        assertSame(first, second);
+        assertEquals(1, decodingCount.get());
+    }
+
+    @Test
+    void getDecodedData_decodedAgainAfterDataChange() {
+        // Given
+        ConsentEntity consent = new ConsentEntity();
+        consent.setData(new byte[]{1});
+        Function<byte[], String> decoder = data -> "decoded " + data.length;
+        consent.getDecodedData(String.class, decoder);
+
+        // When
+        consent.setData(new byte[]{1, 2});
+        String actual = consent.getDecodedData(String.class, decoder);
+
+        // Then
+        assertEquals("decoded 2", actual);
+    }
+
     @Test
     void isWrongConsentData_shouldReturnTrue_emptyPsuDataList() {
         // Given
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.repository;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.Oracle12cDialect;
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.hibernate.engine.jdbc.spi.JdbcServices;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AisConsentUsageCounterRepositoryTest {
+    private static final Long CONSENT_ID = 1L;
+    private static final String REQUEST_URI = "/v1/accounts";
+    private static final LocalDate USAGE_DATE = LocalDate.of(2020, 4, 24);
+
+    private AisConsentUsageCounterRepository aisConsentUsageCounterRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private SessionFactoryImplementor sessionFactory;
+    @Mock
+    private JdbcServices jdbcServices;
+
+    @BeforeEach
+    void setUp() {
+        aisConsentUsageCounterRepository = new AisConsentUsageCounterRepository(jdbcTemplate, entityManagerFactory);
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getJdbcServices()).thenReturn(jdbcServices);
+    }
+
+    @Test
+    void incrementUsage_oracle_sequenceValueOfOracleDialect() {
+        // Given
+        mockDatabase("Oracle", new Oracle12cDialect());
+        ReflectionTestUtils.setField(aisConsentUsageCounterRepository, "schemaName", "consent");
+
+        // When
+        aisConsentUsageCounterRepository.incrementUsage(CONSENT_ID, REQUEST_URI, USAGE_DATE, null, null);
+
+        // Then
+        verify(jdbcTemplate).update(eq("INSERT INTO consent.ais_consent_usage (id, consent_id, request_uri, usage_date, usage_amount, resource_id, transaction_id, version) " +
+                                           "VALUES (consent.ais_consent_usage_id_seq.nextval, ?, ?, ?, 1, ?, ?, 0)"),
+                                    eq(CONSENT_ID), eq(REQUEST_URI), eq(Date.valueOf(USAGE_DATE)), isNull(), isNull());
+    }
+
+    @Test
+    void incrementUsage_h2_sequenceValueOfH2Dialect() {
+        // Given
+        mockDatabase("H2", new H2Dialect());
+
+        // When
+        aisConsentUsageCounterRepository.incrementUsage(CONSENT_ID, REQUEST_URI, USAGE_DATE, null, null);
+
+        // Then
+        verify(jdbcTemplate).update(eq("INSERT INTO ais_consent_usage (id, consent_id, request_uri, usage_date, usage_amount, resource_id, transaction_id, version) " +
+                                           "VALUES (next value for ais_consent_usage_id_seq, ?, ?, ?, 1, ?, ?, 0)"),
+                                    eq(CONSENT_ID), eq(REQUEST_URI), eq(Date.valueOf(USAGE_DATE)), isNull(), isNull());
+    }
+
+    @Test
+    void incrementUsage_postgreSql_upsertWithSequenceValueOfPostgreSqlDialect() {
+        // Given
+        mockDatabase("PostgreSQL", new PostgreSQL10Dialect());
+
+        // When
+        aisConsentUsageCounterRepository.incrementUsage(CONSENT_ID, REQUEST_URI, USAGE_DATE, null, null);
+
+        // Then
+        verify(jdbcTemplate).query(startsWith("WITH upserted AS (INSERT INTO ais_consent_usage AS u (id, consent_id, request_uri, usage_date, usage_amount, resource_id, transaction_id, version) " +
+                                                  "VALUES (nextval ('ais_consent_usage_id_seq'), ?, ?, ?, 1, ?, ?, 0)"),
+                                   any(RowCallbackHandler.class), eq(CONSENT_ID), eq(REQUEST_URI), eq(Date.valueOf(USAGE_DATE)), isNull(), isNull(),
+                                   eq(CONSENT_ID), eq(Date.valueOf(USAGE_DATE)), eq(REQUEST_URI));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockDatabase(String databaseProductName, Dialect dialect) {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(databaseProductName);
+        when(jdbcServices.getDialect()).thenReturn(dialect);
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.repository.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryStorageAccessTest {
+    private static final String KEY = "key";
+    private static final String VALUE = "value";
+    private static final long TIME_TO_LIVE_MS = 1000;
+    private static final int MAX_ENTRIES = 2;
+    private static final int CONCURRENCY_LEVEL = 4;
+
+    private final AtomicLong currentTime = new AtomicLong(10000);
+
+    @Test
+    void getFromCache_beforeExpiration() {
+        // Given
+        InMemoryStorageAccess storageAccess = new InMemoryStorageAccess(TIME_TO_LIVE_MS, MAX_ENTRIES, CONCURRENCY_LEVEL, currentTime::get);
+        storageAccess.putIntoCache(KEY, VALUE, null);
+        currentTime.addAndGet(TIME_TO_LIVE_MS - 1);
+
+        // When
+        Object actual = storageAccess.getFromCache(KEY, null);
+
+        // Then
+        assertEquals(VALUE, actual);
+        assertTrue(storageAccess.contains(KEY));
+    }
+
+    @Test
+    void getFromCache_expired() {
+        // Given
+        InMemoryStorageAccess storageAccess = new InMemoryStorageAccess(TIME_TO_LIVE_MS, MAX_ENTRIES, CONCURRENCY_LEVEL, currentTime::get);
+        storageAccess.putIntoCache(KEY, VALUE, null);
+        currentTime.addAndGet(TIME_TO_LIVE_MS);
+
+        // When
+        Object actual = storageAccess.getFromCache(KEY, null);
+
+        // Then
+        assertNull(actual);
+        assertFalse(storageAccess.contains(KEY));
+    }
+
+    @Test
+    void getFromCache_withoutExpiration() {
+        // Given
+        InMemoryStorageAccess storageAccess = new InMemoryStorageAccess(0, MAX_ENTRIES, CONCURRENCY_LEVEL, currentTime::get);
+        storageAccess.putIntoCache(KEY, VALUE, null);
+        currentTime.set(Long.MAX_VALUE - 1);
+
+        // When
+        Object actual = storageAccess.getFromCache(KEY, null);
+
+        // Then
+        assertEquals(VALUE, actual);
+    }
+
+    @Test
+    void evictData() {
+        // Given
+        InMemoryStorageAccess storageAccess = new InMemoryStorageAccess(TIME_TO_LIVE_MS, MAX_ENTRIES, CONCURRENCY_LEVEL, currentTime::get);
+        storageAccess.putIntoCache(KEY, VALUE, null);
+        storageAccess.putIntoCache("other key", VALUE, null);
+
+        // When
+        storageAccess.evictData(KEY);
+
+        // Then
+        assertNull(storageAccess.getFromCache(KEY, null));
+        assertEquals(VALUE, storageAccess.getFromCache("other key", null));
+
+        // When
+        storageAccess.evictData();
+
+        // Then
+        assertNull(storageAccess.getFromCache("other key", null));
+    }
+
+    @Test
+    void putIntoCache_maxEntriesReached_leastRecentlyUsedEvicted() {
+        // Given
+        InMemoryStorageAccess storageAccess = new InMemoryStorageAccess(TIME_TO_LIVE_MS, MAX_ENTRIES, 1, currentTime::get);
+        storageAccess.putIntoCache(KEY, VALUE, null);
+        storageAccess.putIntoCache("other key", VALUE, null);
+        storageAccess.getFromCache(KEY, null);
+
+        // When
+        storageAccess.putIntoCache("new key", VALUE, null);
+
+        // Then
+        assertEquals(MAX_ENTRIES, storageAccess.size());
+        assertEquals(VALUE, storageAccess.getFromCache(KEY, null));
+        assertNull(storageAccess.getFromCache("other key", null));
+        assertEquals(VALUE, storageAccess.getFromCache("new key", null));
+    }
+
+    @Test
+    void putIntoCache_withoutMaxEntries() {
+        // Given
+        InMemoryStorageAccess storageAccess = new InMemoryStorageAccess(0, 0, CONCURRENCY_LEVEL, currentTime::get);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            storageAccess.putIntoCache(KEY + i, VALUE, null);
+        }
+
+        // Then
+        assertEquals(100, storageAccess.size());
+    }
+
+    @Test
+    void putIntoCache_expiredEntriesPurged() {
+        // Given
+        InMemoryStorageAccess storageAccess = new InMemoryStorageAccess(TIME_TO_LIVE_MS, 0, CONCURRENCY_LEVEL, currentTime::get);
+        storageAccess.putIntoCache(KEY, VALUE, null);
+        storageAccess.putIntoCache("other key", VALUE, null);
+        currentTime.addAndGet(TIME_TO_LIVE_MS);
+
+        // When
+        storageAccess.putIntoCache("new key", VALUE, null);
+
+        // Then
+        assertEquals(1, storageAccess.size());
+        assertEquals(VALUE, storageAccess.getFromCache("new key", null));
+    }
+
+    @Test
+    void putIntoCache_maxEntriesDividedBetweenSegments() {
+        // Given
+        InMemoryStorageAccess storageAccess = new InMemoryStorageAccess(TIME_TO_LIVE_MS, 8, CONCURRENCY_LEVEL, currentTime::get);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            storageAccess.putIntoCache(i, VALUE, null);
+        }
+
+        // Then
+        assertEquals(8, storageAccess.size());
+        assertEquals(VALUE, storageAccess.getFromCache(99, null));
+    }
+
+    @Test
+    void getFromCache_concurrentAccess() throws InterruptedException {
+        // Given
+        InMemoryStorageAccess storageAccess = new InMemoryStorageAccess(TIME_TO_LIVE_MS, 100, CONCURRENCY_LEVEL, currentTime::get);
+        ExecutorService executorService = Executors.newFixedThreadPool(CONCURRENCY_LEVEL);
+        AtomicInteger misses = new AtomicInteger();
+
+        // When
+        for (int thread = 0; thread < CONCURRENCY_LEVEL; thread++) {
+            int offset = thread * 10;
+            executorService.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    int key = offset + i % 10;
+                    storageAccess.putIntoCache(key, key, null);
+                    if (!Integer.valueOf(key).equals(storageAccess.getFromCache(key, null))) {
+                        misses.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executorService.shutdown();
+
+        // Then
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, misses.get());
+        assertEquals(CONCURRENCY_LEVEL * 10, storageAccess.size());
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service;
+
+import de.adorsys.psd2.consent.api.ActionStatus;
+import de.adorsys.psd2.consent.domain.account.AisConsentAction;
+import de.adorsys.psd2.consent.repository.AisConsentActionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AisConsentActionLogServiceTest {
+    private static final String CONSENT_ID = "consent ID";
+    private static final String FAULTY_CONSENT_ID = "faulty consent ID";
+    private static final String TPP_ID = "tpp ID";
+
+    @InjectMocks
+    private AisConsentActionLogService aisConsentActionLogService;
+    @Mock
+    private AisConsentActionRepository aisConsentActionRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        aisConsentActionLogService.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void logAction_asyncDisabled_savedSynchronously() {
+        // Given
+        AisConsentAction action = buildAction();
+
+        // When
+        aisConsentActionLogService.logAction(action);
+
+        // Then
+        verify(aisConsentActionRepository).save(action);
+        assertEquals(0, aisConsentActionLogService.getQueuedActionsCount());
+    }
+
+    @Test
+    void logAction_asyncEnabled_savedInBatches() {
+        // Given
+        startAsync(10, AisConsentActionLogService.OverflowPolicy.SYNCHRONOUS);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "batchSize", 2);
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(invocation -> {
+            batchSizes.add(((List<?>) invocation.getArgument(0)).size());
+            return invocation.getArgument(0);
+        }).when(aisConsentActionRepository).saveAll(anyList());
+
+        aisConsentActionLogService.logAction(buildAction());
+        aisConsentActionLogService.logAction(buildAction());
+        aisConsentActionLogService.logAction(buildAction());
+
+        // When
+        aisConsentActionLogService.flush();
+
+        // Then
+        verify(aisConsentActionRepository, never()).save(any());
+        assertEquals(Arrays.asList(2, 1), batchSizes);
+        assertEquals(0, aisConsentActionLogService.getQueuedActionsCount());
+    }
+
+    @Test
+    void logAction_asyncEnabled_queuedAfterCommit() {
+        // Given
+        startAsync(10, AisConsentActionLogService.OverflowPolicy.SYNCHRONOUS);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        aisConsentActionLogService.logAction(buildAction());
+
+        // Then
+        assertEquals(0, aisConsentActionLogService.getQueuedActionsCount());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, aisConsentActionLogService.getQueuedActionsCount());
+    }
+
+    @Test
+    void logAction_queueFull_savedSynchronously() {
+        // Given
+        startAsync(1, AisConsentActionLogService.OverflowPolicy.SYNCHRONOUS);
+        AisConsentAction overflowingAction = buildAction();
+        aisConsentActionLogService.logAction(buildAction());
+
+        // When
+        aisConsentActionLogService.logAction(overflowingAction);
+
+        // Then
+        verify(transactionManager).getTransaction(argThat(definition -> definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(aisConsentActionRepository).save(overflowingAction);
+        assertEquals(1, aisConsentActionLogService.getQueuedActionsCount());
+    }
+
+    @Test
+    void logAction_queueFull_dropped() {
+        // Given
+        startAsync(1, AisConsentActionLogService.OverflowPolicy.DROP);
+        aisConsentActionLogService.logAction(buildAction());
+
+        // When
+        aisConsentActionLogService.logAction(buildAction());
+
+        // Then
+        verify(aisConsentActionRepository, never()).save(any());
+        assertEquals(1, aisConsentActionLogService.getQueuedActionsCount());
+    }
+
+    @Test
+    void flush_failedBatch_savedOneByOne() {
+        // Given
+        startAsync(10, AisConsentActionLogService.OverflowPolicy.SYNCHRONOUS);
+        AisConsentAction action = buildAction();
+        AisConsentAction faultyAction = buildAction();
+        faultyAction.setRequestedConsentId(FAULTY_CONSENT_ID);
+        aisConsentActionLogService.logAction(action);
+        aisConsentActionLogService.logAction(faultyAction);
+        when(aisConsentActionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            action.setId(1L);
+            faultyAction.setId(2L);
+            throw new DataIntegrityViolationException("Constraint violated");
+        });
+        when(aisConsentActionRepository.save(any(AisConsentAction.class))).thenAnswer(invocation -> {
+            AisConsentAction saved = invocation.getArgument(0);
+            if (FAULTY_CONSENT_ID.equals(saved.getRequestedConsentId())) {
+                saved.setId(3L);
+                throw new DataIntegrityViolationException("Constraint violated");
+            }
+            return saved;
+        });
+
+        // When
+        aisConsentActionLogService.flush();
+
+        // Then
+        verify(aisConsentActionRepository, times(2)).save(any(AisConsentAction.class));
+        assertEquals(1, aisConsentActionLogService.getQueuedActionsCount());
+        assertNull(action.getId());
+        assertNull(faultyAction.getId());
+    }
+
+    @Test
+    void flush_actionFailingRepeatedly_dropped() {
+        // Given
+        startAsync(10, AisConsentActionLogService.OverflowPolicy.SYNCHRONOUS);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "maxAttempts", 2);
+        aisConsentActionLogService.logAction(buildAction());
+        when(aisConsentActionRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("Constraint violated"));
+        when(aisConsentActionRepository.save(any(AisConsentAction.class))).thenThrow(new DataIntegrityViolationException("Constraint violated"));
+
+        aisConsentActionLogService.flush();
+        assertEquals(1, aisConsentActionLogService.getQueuedActionsCount());
+
+        // When
+        aisConsentActionLogService.flush();
+
+        // Then
+        verify(aisConsentActionRepository, times(2)).save(any(AisConsentAction.class));
+        assertEquals(0, aisConsentActionLogService.getQueuedActionsCount());
+    }
+
+    @Test
+    void flush_databaseUnavailable_batchRequeued() {
+        // Given
+        startAsync(10, AisConsentActionLogService.OverflowPolicy.SYNCHRONOUS);
+        AisConsentAction action = buildAction();
+        aisConsentActionLogService.logAction(action);
+        aisConsentActionLogService.logAction(buildAction());
+        when(aisConsentActionRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            action.setId(1L);
+            throw new DataAccessResourceFailureException("Database unavailable");
+        });
+        when(aisConsentActionRepository.save(any(AisConsentAction.class))).thenThrow(new DataAccessResourceFailureException("Database unavailable"));
+
+        // When
+        aisConsentActionLogService.flush();
+
+        // Then
+        verify(aisConsentActionRepository).save(any(AisConsentAction.class));
+        assertEquals(2, aisConsentActionLogService.getQueuedActionsCount());
+        assertNull(action.getId());
+    }
+
+    @Test
+    void stop_flushesQueuedActions() throws InterruptedException {
+        // Given
+        startAsync(10, AisConsentActionLogService.OverflowPolicy.SYNCHRONOUS);
+        aisConsentActionLogService.logAction(buildAction());
+        List<AisConsentAction> savedActions = new ArrayList<>();
+        doAnswer(invocation -> {
+            savedActions.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        }).when(aisConsentActionRepository).saveAll(anyList());
+
+        // When
+        aisConsentActionLogService.stop();
+
+        // Then
+        assertEquals(1, savedActions.size());
+        assertEquals(CONSENT_ID, savedActions.get(0).getRequestedConsentId());
+        assertEquals(0, aisConsentActionLogService.getQueuedActionsCount());
+    }
+
+    private void startAsync(int queueCapacity, AisConsentActionLogService.OverflowPolicy overflowPolicy) {
+        ReflectionTestUtils.setField(aisConsentActionLogService, "asyncEnabled", true);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "batchSize", 500);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "flushIntervalMs", 60000L);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "overflowPolicy", overflowPolicy);
+        ReflectionTestUtils.setField(aisConsentActionLogService, "maxAttempts", 3);
+        aisConsentActionLogService.start();
+    }
+
+    private AisConsentAction buildAction() {
+        AisConsentAction action = new AisConsentAction();
+        action.setActionStatus(ActionStatus.SUCCESS);
+        action.setRequestedConsentId(CONSENT_ID);
+        action.setTppId(TPP_ID);
+        action.setRequestDate(LocalDate.now());
+        return action;
+    }
+}
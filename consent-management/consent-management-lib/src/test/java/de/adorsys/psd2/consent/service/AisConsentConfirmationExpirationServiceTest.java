@@ -20,23 +20,31 @@ import de.adorsys.psd2.aspsp.profile.domain.AspspSettings;
 import de.adorsys.psd2.aspsp.profile.domain.ais.AisAspspProfileSetting;
 import de.adorsys.psd2.aspsp.profile.domain.ais.ConsentTypeSetting;
 import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
+import de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationType;
 import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.psd2.xs2a.core.sca.ScaStatus;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -126,6 +134,54 @@ class AisConsentConfirmationExpirationServiceTest {
         assertEquals(ConsentStatus.REJECTED, aisConsentListCaptor.getValue().get(0).getConsentStatus());
     }
 
+    @Test
+    void findConfirmationExpiredConsentIds() {
+        // Given
+        when(aspspProfileService.getAspspSettings()).thenReturn(buildAspspSettings(86400L));
+        ArgumentCaptor<OffsetDateTime> expirationTimestampCaptor = ArgumentCaptor.forClass(OffsetDateTime.class);
+        when(consentJpaRepository.findNotConfirmedConsentIds(eq(10L), eq(100L), eq(EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED)),
+                                                             expirationTimestampCaptor.capture(), eq(PageRequest.of(0, 5))))
+            .thenReturn(Arrays.asList(11L, 12L));
+
+        // When
+        List<Long> actual = expirationService.findConfirmationExpiredConsentIds(10L, 100L, 5);
+
+        // Then
+        assertEquals(Arrays.asList(11L, 12L), actual);
+        assertTrue(expirationTimestampCaptor.getValue().isBefore(OffsetDateTime.now().minusSeconds(86)));
+    }
+
+    @Test
+    void findNotConfirmedConsents() {
+        // Given
+        List<ConfirmationExpirationCandidate> candidates = Collections.singletonList(new ConfirmationExpirationCandidate(11L, OffsetDateTime.now()));
+        when(consentJpaRepository.findNotConfirmedConsents(10L, EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED), PageRequest.of(0, 5)))
+            .thenReturn(candidates);
+
+        // When
+        List<ConfirmationExpirationCandidate> actual = expirationService.findNotConfirmedConsents(10L, 5);
+
+        // Then
+        assertEquals(candidates, actual);
+    }
+
+    @Test
+    void updateConsentsOnConfirmationExpiration() {
+        // Given
+        List<Long> consentIds = Arrays.asList(11L, 12L);
+        when(consentJpaRepository.updateConsentStatusByIds(eq(consentIds), eq(EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED)),
+                                                           eq(ConsentStatus.REJECTED), eq(TODAY), any(OffsetDateTime.class)))
+            .thenReturn(2);
+
+        // When
+        int actual = expirationService.updateConsentsOnConfirmationExpiration(consentIds);
+
+        // Then
+        assertEquals(2, actual);
+        verify(authorisationRepository).updateScaStatusByConsentIds(consentIds, EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED),
+                                                                    EnumSet.of(AuthorisationType.AIS), ScaStatus.FAILED);
+    }
+
     private ConsentEntity buildConsent() {
         ConsentEntity consent = new ConsentEntity();
         consent.setConsentStatus(ConsentStatus.RECEIVED);
@@ -27,7 +27,6 @@ import de.adorsys.psd2.consent.api.ais.CmsConsent;
 import de.adorsys.psd2.consent.domain.account.AisConsentAction;
 import de.adorsys.psd2.consent.domain.account.AspspAccountAccess;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
-import de.adorsys.psd2.consent.repository.AisConsentActionRepository;
 import de.adorsys.psd2.consent.repository.AisConsentVerifyingRepository;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.service.account.AccountAccessUpdater;
@@ -43,6 +42,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -61,7 +61,7 @@ class AisConsentServiceInternalTest {
     @Mock
     private AisConsentVerifyingRepository aisConsentRepository;
     @Mock
-    private AisConsentActionRepository aisConsentActionRepository;
+    private AisConsentActionLogService aisConsentActionLogService;
     @Mock
     private AuthorisationRepository authorisationRepository;
     @Mock
@@ -90,7 +90,7 @@ class AisConsentServiceInternalTest {
         CmsResponse<CmsResponse.VoidResponse> response = aisConsentServiceInternal.checkConsentAndSaveActionLog(aisConsentActionRequest);
 
         assertTrue(response.isSuccessful());
-        verify(aisConsentActionRepository).save(aisConsentActionCaptor.capture());
+        verify(aisConsentActionLogService).logAction(aisConsentActionCaptor.capture());
         AisConsentAction capturedAction = aisConsentActionCaptor.getValue();
         assertEquals(TPP_ID, capturedAction.getTppId());
         assertEquals(CONSENT_ID, capturedAction.getRequestedConsentId());
@@ -105,7 +105,7 @@ class AisConsentServiceInternalTest {
         CmsResponse<CmsResponse.VoidResponse> response = aisConsentServiceInternal.checkConsentAndSaveActionLog(aisConsentActionRequest);
 
         assertTrue(response.isSuccessful());
-        verify(aisConsentActionRepository, never()).save(any());
+        verify(aisConsentActionLogService, never()).logAction(any());
         verify(aisConsentUsageService, never()).incrementUsage(any(), any());
     }
 
@@ -135,6 +135,34 @@ class AisConsentServiceInternalTest {
         verify(aisConsentUsageService).incrementUsage(consentEntity, aisConsentActionRequest);
     }
 
+    @Test
+    void checkConsentAndSaveActionLog_firstUsageToday_shouldSaveLastActionDate() throws WrongChecksumException {
+        AisConsentActionRequest aisConsentActionRequest = new AisConsentActionRequest(TPP_ID, CONSENT_ID, ActionStatus.SUCCESS, REQUEST_URI, true, null, null);
+        ConsentEntity consentEntity = jsonReader.getObjectFromFile("json/service/ais-consent-service/consent-entity.json", ConsentEntity.class);
+        consentEntity.setLastActionDate(LocalDate.now().minusDays(1));
+        when(aisConsentRepository.getActualAisConsent(CONSENT_ID)).thenReturn(Optional.of(consentEntity));
+
+        CmsResponse<CmsResponse.VoidResponse> response = aisConsentServiceInternal.checkConsentAndSaveActionLog(aisConsentActionRequest);
+
+        assertTrue(response.isSuccessful());
+        verify(aisConsentRepository).verifyAndSave(consentEntity);
+        assertEquals(LocalDate.now(), consentEntity.getLastActionDate());
+    }
+
+    @Test
+    void checkConsentAndSaveActionLog_alreadyUsedToday_shouldNotSaveConsent() throws WrongChecksumException {
+        AisConsentActionRequest aisConsentActionRequest = new AisConsentActionRequest(TPP_ID, CONSENT_ID, ActionStatus.SUCCESS, REQUEST_URI, true, null, null);
+        ConsentEntity consentEntity = jsonReader.getObjectFromFile("json/service/ais-consent-service/consent-entity.json", ConsentEntity.class);
+        consentEntity.setLastActionDate(LocalDate.now());
+        when(aisConsentRepository.getActualAisConsent(CONSENT_ID)).thenReturn(Optional.of(consentEntity));
+
+        CmsResponse<CmsResponse.VoidResponse> response = aisConsentServiceInternal.checkConsentAndSaveActionLog(aisConsentActionRequest);
+
+        assertTrue(response.isSuccessful());
+        verify(aisConsentUsageService).incrementUsage(consentEntity, aisConsentActionRequest);
+        verify(aisConsentRepository, never()).verifyAndSave(any());
+    }
+
     @Test
     void checkConsentAndSaveActionLog_noUpdateUsageInRequest_shouldIgnoreUsage() throws WrongChecksumException {
         AisConsentActionRequest aisConsentActionRequest = new AisConsentActionRequest(TPP_ID, CONSENT_ID, ActionStatus.SUCCESS, REQUEST_URI, false, null, null);
@@ -20,6 +20,7 @@ import de.adorsys.psd2.consent.api.ActionStatus;
 import de.adorsys.psd2.consent.api.ais.AisConsentActionRequest;
 import de.adorsys.psd2.consent.domain.account.AisConsentUsage;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.repository.AisConsentUsageCounterRepository;
 import de.adorsys.psd2.consent.repository.AisConsentUsageRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,14 +31,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,42 +49,29 @@ class AisConsentUsageServiceTest {
     private AisConsentUsageService aisConsentUsageService;
     @Mock
     private AisConsentUsageRepository aisConsentUsageRepository;
+    @Mock
+    private AisConsentUsageCounterRepository aisConsentUsageCounterRepository;
 
     @Test
-    void incrementUsage_getUsageFromRepository() {
-        //Given
-        ConsentEntity consentEntity = new ConsentEntity();
-        int initialUsage = 5;
-        AisConsentActionRequest aisConsentActionRequest = new AisConsentActionRequest("tppId", "consentId", ActionStatus.SUCCESS, "requestUri", true, "resourceId", "transactionId");
-        ArgumentCaptor<AisConsentUsage> argumentCaptor = ArgumentCaptor.forClass(AisConsentUsage.class);
-        AisConsentUsage aisConsentUsage = new AisConsentUsage();
-        aisConsentUsage.setUsage(initialUsage);
-        when(aisConsentUsageRepository.findWriteByConsentAndUsageDateAndRequestUri(eq(consentEntity), any(LocalDate.class), eq(aisConsentActionRequest.getRequestUri()))).thenReturn(Optional.of(aisConsentUsage));
-        //When
-        aisConsentUsageService.incrementUsage(consentEntity, aisConsentActionRequest);
-        //Then
-        verify(aisConsentUsageRepository).save(argumentCaptor.capture());
-        AisConsentUsage aisConsentUsageCaptured = argumentCaptor.getValue();
-        assertEquals(++initialUsage, aisConsentUsageCaptured.getUsage());
-        assertEquals(aisConsentActionRequest.getResourceId(), aisConsentUsageCaptured.getResourceId());
-        assertEquals(aisConsentActionRequest.getTransactionId(), aisConsentUsageCaptured.getTransactionId());
-    }
-
-    @Test
-    void incrementUsage_noUsageInRepository() {
+    void incrementUsage_returnsUsageCounterMap() {
         //Given
         ConsentEntity consentEntity = new ConsentEntity();
+        consentEntity.setId(1L);
+        consentEntity.setFrequencyPerDay(4);
         AisConsentActionRequest aisConsentActionRequest = new AisConsentActionRequest("tppId", "consentId", ActionStatus.SUCCESS, "requestUri", true, "resourceId", "transactionId");
-        ArgumentCaptor<AisConsentUsage> argumentCaptor = ArgumentCaptor.forClass(AisConsentUsage.class);
-        when(aisConsentUsageRepository.findWriteByConsentAndUsageDateAndRequestUri(eq(consentEntity), any(LocalDate.class), eq(aisConsentActionRequest.getRequestUri()))).thenReturn(Optional.empty());
+        Map<String, Integer> usages = new HashMap<>();
+        usages.put("requestUri", 1);
+        usages.put("otherRequestUri", 5);
+        when(aisConsentUsageCounterRepository.incrementUsage(eq(1L), eq("requestUri"), any(LocalDate.class), eq("resourceId"), eq("transactionId")))
+            .thenReturn(usages);
         //When
-        aisConsentUsageService.incrementUsage(consentEntity, aisConsentActionRequest);
+        Map<String, Integer> usageCounterMap = aisConsentUsageService.incrementUsage(consentEntity, aisConsentActionRequest);
         //Then
-        verify(aisConsentUsageRepository).save(argumentCaptor.capture());
-        AisConsentUsage aisConsentUsageCaptured = argumentCaptor.getValue();
-        assertEquals(1, aisConsentUsageCaptured.getUsage());
-        assertEquals(aisConsentActionRequest.getResourceId(), aisConsentUsageCaptured.getResourceId());
-        assertEquals(aisConsentActionRequest.getTransactionId(), aisConsentUsageCaptured.getTransactionId());
+        assertEquals(2, usageCounterMap.size());
+        assertEquals(3, usageCounterMap.get("requestUri"));
+        assertEquals(0, usageCounterMap.get("otherRequestUri"));
+        verify(aisConsentUsageCounterRepository).incrementUsage(1L, "requestUri", LocalDate.now(), "resourceId", "transactionId");
+        verifyNoInteractions(aisConsentUsageRepository);
     }
 
     @Test
@@ -127,4 +117,35 @@ class AisConsentUsageServiceTest {
         aisConsentUsage.setRequestUri(requestUri);
         return aisConsentUsage;
     }
+
+    @Test
+    void getUsageCounterMaps() {
+        //Given
+        ConsentEntity firstConsent = buildConsent(1L, 4);
+        ConsentEntity secondConsent = buildConsent(2L, 4);
+        when(aisConsentUsageRepository.findReadByConsentIdInAndUsageDate(new HashSet<>(Arrays.asList(1L, 2L)), LocalDate.now()))
+            .thenReturn(Arrays.asList(buildUsage(firstConsent, "/accounts", 1),
+                                      buildUsage(firstConsent, "/accounts/id", 5),
+                                      buildUsage(secondConsent, "/accounts", 2)));
+        //When
+        Map<Long, Map<String, Integer>> actual = aisConsentUsageService.getUsageCounterMaps(Arrays.asList(firstConsent, secondConsent));
+        //Then
+        assertEquals(2, actual.size());
+        assertEquals(3, actual.get(1L).get("/accounts"));
+        assertEquals(0, actual.get(1L).get("/accounts/id"));
+        assertEquals(2, actual.get(2L).get("/accounts"));
+    }
+
+    private ConsentEntity buildConsent(Long id, int frequencyPerDay) {
+        ConsentEntity consentEntity = new ConsentEntity();
+        consentEntity.setId(id);
+        consentEntity.setFrequencyPerDay(frequencyPerDay);
+        return consentEntity;
+    }
+
+    private AisConsentUsage buildUsage(ConsentEntity consentEntity, String requestUri, int usage) {
+        AisConsentUsage aisConsentUsage = new AisConsentUsage(consentEntity, requestUri);
+        aisConsentUsage.setUsage(usage);
+        return aisConsentUsage;
+    }
 }
@@ -26,6 +26,7 @@ import de.adorsys.psd2.consent.api.authorisation.UpdateAuthorisationRequest;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
 import de.adorsys.psd2.consent.domain.ScaMethod;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.domain.consent.ConsentStatusProjection;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.service.authorisation.AuthService;
 import de.adorsys.psd2.consent.service.authorisation.AuthServiceResolver;
@@ -34,6 +35,7 @@ import de.adorsys.psd2.consent.service.mapper.AuthorisationMapper;
 import de.adorsys.psd2.consent.service.mapper.ScaMethodMapper;
 import de.adorsys.psd2.xs2a.core.authorisation.Authorisation;
 import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationType;
+import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
 import de.adorsys.psd2.xs2a.core.profile.ScaApproach;
 import de.adorsys.psd2.xs2a.core.psu.PsuIdData;
 import de.adorsys.psd2.xs2a.core.sca.AuthorisationScaApproachResponse;
@@ -48,6 +50,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -324,14 +328,11 @@ class AuthorisationServiceInternalTest {
 
         when(authServiceResolver.getAuthService(AuthorisationType.AIS)).thenReturn(authService);
 
-        ConsentEntity consentEntity = new ConsentEntity();
-        consentEntity.setExternalId(parentId);
-        when(authService.getAuthorisationParent(parentId)).thenReturn(Optional.of(consentEntity));
-
-        AuthorisationEntity authorisationEntity = new AuthorisationEntity();
-        authorisationEntity.setParentExternalId(parentId);
-        authorisationEntity.setScaStatus(SCA_STATUS);
-        when(authService.getAuthorisationById(AUTHORISATION_ID)).thenReturn(Optional.of(authorisationEntity));
+        ConsentStatusProjection statusProjection = buildConsentStatusProjection();
+        when(authService.getAuthorisationParentStatus(parentId)).thenReturn(Optional.of(statusProjection));
+        when(authService.isStatusConfirmationExpired(statusProjection)).thenReturn(false);
+        when(authorisationRepository.findScaStatusByExternalIdAndParentExternalIdAndAuthorisationType(AUTHORISATION_ID, parentId, AuthorisationType.AIS))
+            .thenReturn(Optional.of(SCA_STATUS));
 
         // When
         CmsResponse<ScaStatus> actualResult = authorisationServiceInternal.getAuthorisationScaStatus(AUTHORISATION_ID, authorisationParentHolder);
@@ -339,6 +340,8 @@ class AuthorisationServiceInternalTest {
         // Then
         assertTrue(actualResult.isSuccessful());
         assertEquals(SCA_STATUS, actualResult.getPayload());
+        verify(authService, never()).getAuthorisationParent(any());
+        verify(authService, never()).getAuthorisationById(any());
     }
 
     @Test
@@ -349,7 +352,7 @@ class AuthorisationServiceInternalTest {
 
         when(authServiceResolver.getAuthService(AuthorisationType.AIS)).thenReturn(authService);
 
-        when(authService.getAuthorisationParent(parentId)).thenReturn(Optional.empty());
+        when(authService.getAuthorisationParentStatus(parentId)).thenReturn(Optional.empty());
 
         // When
         CmsResponse<ScaStatus> actualResult = authorisationServiceInternal.getAuthorisationScaStatus(AUTHORISATION_ID, authorisationParentHolder);
@@ -357,6 +360,7 @@ class AuthorisationServiceInternalTest {
         // Then
         assertTrue(actualResult.hasError());
         assertEquals(CmsError.LOGICAL_ERROR, actualResult.getError());
+        verify(authorisationRepository, never()).findScaStatusByExternalIdAndParentExternalIdAndAuthorisationType(any(), any(), any());
     }
 
     @Test
@@ -367,10 +371,13 @@ class AuthorisationServiceInternalTest {
 
         when(authServiceResolver.getAuthService(AuthorisationType.AIS)).thenReturn(authService);
 
+        ConsentStatusProjection statusProjection = buildConsentStatusProjection();
+        when(authService.getAuthorisationParentStatus(parentId)).thenReturn(Optional.of(statusProjection));
+        when(authService.isStatusConfirmationExpired(statusProjection)).thenReturn(true);
+
         ConsentEntity consentEntity = new ConsentEntity();
         consentEntity.setExternalId(parentId);
         when(authService.getAuthorisationParent(parentId)).thenReturn(Optional.of(consentEntity));
-        when(authService.isConfirmationExpired(consentEntity)).thenReturn(true);
 
         // When
         CmsResponse<ScaStatus> actualResult = authorisationServiceInternal.getAuthorisationScaStatus(AUTHORISATION_ID, authorisationParentHolder);
@@ -379,6 +386,7 @@ class AuthorisationServiceInternalTest {
         assertTrue(actualResult.isSuccessful());
         assertEquals(ScaStatus.FAILED, actualResult.getPayload());
         verify(authService).updateOnConfirmationExpiration(consentEntity);
+        verify(authorisationRepository, never()).findScaStatusByExternalIdAndParentExternalIdAndAuthorisationType(any(), any(), any());
     }
 
     @Test
@@ -389,11 +397,11 @@ class AuthorisationServiceInternalTest {
 
         when(authServiceResolver.getAuthService(AuthorisationType.AIS)).thenReturn(authService);
 
-        ConsentEntity consentEntity = new ConsentEntity();
-        consentEntity.setExternalId(parentId);
-        when(authService.getAuthorisationParent(parentId)).thenReturn(Optional.of(consentEntity));
-
-        when(authService.getAuthorisationById(WRONG_AUTHORISATION_ID)).thenReturn(Optional.empty());
+        ConsentStatusProjection statusProjection = buildConsentStatusProjection();
+        when(authService.getAuthorisationParentStatus(parentId)).thenReturn(Optional.of(statusProjection));
+        when(authService.isStatusConfirmationExpired(statusProjection)).thenReturn(false);
+        when(authorisationRepository.findScaStatusByExternalIdAndParentExternalIdAndAuthorisationType(WRONG_AUTHORISATION_ID, parentId, AuthorisationType.AIS))
+            .thenReturn(Optional.empty());
 
         // When
         CmsResponse<ScaStatus> actualResult = authorisationServiceInternal.getAuthorisationScaStatus(WRONG_AUTHORISATION_ID, authorisationParentHolder);
@@ -403,31 +411,6 @@ class AuthorisationServiceInternalTest {
         assertEquals(CmsError.LOGICAL_ERROR, actualResult.getError());
     }
 
-    @Test
-    void getAuthorisationScaStatus_authorisationWithWrongParentId() {
-        // Given
-        String parentId = "parent id";
-        AuthorisationParentHolder authorisationParentHolder = new AuthorisationParentHolder(AuthorisationType.AIS, parentId);
-
-        when(authServiceResolver.getAuthService(AuthorisationType.AIS)).thenReturn(authService);
-
-        ConsentEntity consentEntity = new ConsentEntity();
-        consentEntity.setExternalId(parentId);
-        when(authService.getAuthorisationParent(parentId)).thenReturn(Optional.of(consentEntity));
-
-        AuthorisationEntity authorisationEntity = new AuthorisationEntity();
-        authorisationEntity.setParentExternalId("wrong parent id");
-        authorisationEntity.setScaStatus(SCA_STATUS);
-        when(authService.getAuthorisationById(AUTHORISATION_ID)).thenReturn(Optional.of(authorisationEntity));
-
-        // When
-        CmsResponse<ScaStatus> actualResult = authorisationServiceInternal.getAuthorisationScaStatus(AUTHORISATION_ID, authorisationParentHolder);
-
-        // Then
-        assertTrue(actualResult.hasError());
-        assertEquals(CmsError.LOGICAL_ERROR, actualResult.getError());
-    }
-
     @Test
     void isAuthenticationMethodDecoupled() {
         // Given
@@ -605,4 +588,8 @@ class AuthorisationServiceInternalTest {
         assertFalse(actualResponse.isSuccessful());
         assertEquals(CmsError.LOGICAL_ERROR, actualResponse.getError());
     }
+
+    private ConsentStatusProjection buildConsentStatusProjection() {
+        return new ConsentStatusProjection(ConsentStatus.RECEIVED, OffsetDateTime.now(), LocalDate.now().plusDays(1), true);
+    }
 }
@@ -28,10 +28,12 @@ import de.adorsys.psd2.consent.api.ais.CmsConsent;
 import de.adorsys.psd2.consent.api.consent.CmsCreateConsentResponse;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
 import de.adorsys.psd2.consent.domain.AuthorisationTemplateEntity;
+import de.adorsys.psd2.consent.domain.OldConsentPsuData;
 import de.adorsys.psd2.consent.domain.PsuData;
 import de.adorsys.psd2.consent.domain.TppInfoEntity;
 import de.adorsys.psd2.consent.domain.account.AisConsentUsage;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.domain.consent.ConsentStatusProjection;
 import de.adorsys.psd2.consent.domain.consent.ConsentTppInformationEntity;
 import de.adorsys.psd2.consent.repository.AisConsentVerifyingRepository;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
@@ -53,8 +55,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -63,6 +67,7 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ConsentServiceInternalTest {
     private static final long CONSENT_ID = 1;
+    private static final Long OLD_CONSENT_ID = 2L;
     private static final String EXTERNAL_CONSENT_ID = "c966f143-f6a2-41db-9036-8abaeeef3af7";
     private static final String EXTERNAL_CONSENT_ID_NOT_EXIST = "4b11213-6a96-4941-a220-2da8a4af2c63";
     private static final String PSU_ID = "psu-id-1";
@@ -87,6 +92,8 @@ class ConsentServiceInternalTest {
     @Mock
     private ConsentJpaRepository consentJpaRepository;
     @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Mock
     private PsuDataMapper psuDataMapper;
     @Mock
     private AisConsentConfirmationExpirationService aisConsentConfirmationExpirationService;
@@ -246,6 +253,8 @@ class ConsentServiceInternalTest {
         // Then
         assertTrue(actual.isSuccessful());
         assertEquals(expected, actual.getPayload());
+        verify(applicationEventPublisher).publishEvent(new ConfirmationExpirationCandidateEvent(ConfirmationExpirationObjectType.CONSENT,
+                                                                                                consentEntity.getId(), consentEntity.getCreationTimestamp()));
     }
 
     @Test
@@ -300,6 +309,7 @@ class ConsentServiceInternalTest {
         // Then
         assertFalse(actual.isSuccessful());
         assertEquals(CmsError.TECHNICAL_ERROR, actual.getError());
+        verify(applicationEventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -452,7 +462,7 @@ class ConsentServiceInternalTest {
         assertTrue(result.isSuccessful());
 
         assertFalse(result.getPayload());
-        verify(consentJpaRepository, never()).findOldConsentsByNewConsentParams(any(), any(), any(), any(), any());
+        verify(consentJpaRepository, never()).findOldConsentPsuDataByNewConsentParams(any(), any(), any(), any(), any());
     }
 
     @Test
@@ -486,7 +496,7 @@ class ConsentServiceInternalTest {
     }
 
     @Test
-    void findAndTerminateOldConsentsByNewConsentId_success() {
+    void findAndTerminateOldConsentsByNewConsentId_success() throws WrongChecksumException {
         // Given
         when(consentJpaRepository.findByExternalId(EXTERNAL_CONSENT_ID))
             .thenReturn(Optional.of(consentEntityMocked));
@@ -507,13 +517,12 @@ class ConsentServiceInternalTest {
             .thenReturn(EXTERNAL_CONSENT_ID);
         when(consentEntityMocked.getTppInformation())
             .thenReturn(tppInformation);
-        when(cmsPsuService.isPsuDataListEqual(psuDataList, psuDataList))
+        when(cmsPsuService.isPsuDataListEqual(Collections.singletonList(new PsuData(PSU_ID, null, null, null, null)), psuDataList))
             .thenReturn(true);
 
-        ConsentEntity oldConsent = buildConsentEntity(EXTERNAL_CONSENT_ID_NOT_EXIST);
-        List<ConsentEntity> oldConsents = Collections.singletonList(oldConsent);
-        when(consentJpaRepository.findOldConsentsByNewConsentParams(Collections.singleton(PSU_ID), AUTHORISATION_NUMBER, INSTANCE_ID, EXTERNAL_CONSENT_ID, EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED, ConsentStatus.VALID)))
-            .thenReturn(oldConsents);
+        OldConsentPsuData oldConsent = new OldConsentPsuData(OLD_CONSENT_ID, EXTERNAL_CONSENT_ID_NOT_EXIST, ConsentStatus.VALID, PSU_ID, null, null, null);
+        when(consentJpaRepository.findOldConsentPsuDataByNewConsentParams(Collections.singleton(PSU_ID), AUTHORISATION_NUMBER, INSTANCE_ID, EXTERNAL_CONSENT_ID, EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED, ConsentStatus.VALID)))
+            .thenReturn(Collections.singletonList(oldConsent));
 
         // When
         CmsResponse<Boolean> result = consentServiceInternal.findAndTerminateOldConsentsByNewConsentId(EXTERNAL_CONSENT_ID);
@@ -521,8 +530,10 @@ class ConsentServiceInternalTest {
         // Then
         assertTrue(result.isSuccessful());
         assertTrue(result.getPayload());
-        assertEquals(ConsentStatus.TERMINATED_BY_TPP, oldConsent.getConsentStatus());
-        verify(consentJpaRepository).saveAll(oldConsents);
+        verify(consentJpaRepository).changeConsentStatusByIds(eq(Collections.singletonList(OLD_CONSENT_ID)), eq(EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED)), eq(ConsentStatus.REJECTED), any(OffsetDateTime.class));
+        verify(consentJpaRepository).changeConsentStatusByIds(eq(Collections.singletonList(OLD_CONSENT_ID)), eq(EnumSet.of(ConsentStatus.VALID)), eq(ConsentStatus.TERMINATED_BY_TPP), any(OffsetDateTime.class));
+        verify(consentJpaRepository, never()).saveAll(any());
+        verify(aisConsentVerifyingRepository, never()).verifyAndSave(any(ConsentEntity.class));
     }
 
     @Test
@@ -545,14 +556,12 @@ class ConsentServiceInternalTest {
 
         List<PsuData> psuDataList = Collections.singletonList(psuDataMocked);
 
-        when(cmsPsuService.isPsuDataListEqual(psuDataList, psuDataList))
+        when(cmsPsuService.isPsuDataListEqual(Collections.singletonList(new PsuData(PSU_ID, null, null, null, null)), psuDataList))
             .thenReturn(true);
 
-        ConsentEntity oldConsent = buildConsentEntity(EXTERNAL_CONSENT_ID_NOT_EXIST);
-        oldConsent.setConsentStatus(ConsentStatus.PARTIALLY_AUTHORISED);
-        List<ConsentEntity> oldConsents = Collections.singletonList(oldConsent);
-        when(consentJpaRepository.findOldConsentsByNewConsentParams(Collections.singleton(PSU_ID), AUTHORISATION_NUMBER, INSTANCE_ID, EXTERNAL_CONSENT_ID, EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED, ConsentStatus.VALID)))
-            .thenReturn(oldConsents);
+        OldConsentPsuData oldConsent = new OldConsentPsuData(OLD_CONSENT_ID, EXTERNAL_CONSENT_ID_NOT_EXIST, ConsentStatus.PARTIALLY_AUTHORISED, PSU_ID, null, null, null);
+        when(consentJpaRepository.findOldConsentPsuDataByNewConsentParams(Collections.singleton(PSU_ID), AUTHORISATION_NUMBER, INSTANCE_ID, EXTERNAL_CONSENT_ID, EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED, ConsentStatus.VALID)))
+            .thenReturn(Collections.singletonList(oldConsent));
 
         // When
         CmsResponse<Boolean> result = consentServiceInternal.findAndTerminateOldConsentsByNewConsentId(EXTERNAL_CONSENT_ID);
@@ -561,8 +570,48 @@ class ConsentServiceInternalTest {
         assertTrue(result.isSuccessful());
 
         assertTrue(result.getPayload());
-        assertEquals(ConsentStatus.REJECTED, oldConsent.getConsentStatus());
-        verify(consentJpaRepository).saveAll(oldConsents);
+        verify(consentJpaRepository).changeConsentStatusByIds(eq(Collections.singletonList(OLD_CONSENT_ID)), eq(EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED)), eq(ConsentStatus.REJECTED), any(OffsetDateTime.class));
+        verify(consentJpaRepository).changeConsentStatusByIds(eq(Collections.singletonList(OLD_CONSENT_ID)), eq(EnumSet.of(ConsentStatus.VALID)), eq(ConsentStatus.TERMINATED_BY_TPP), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void findAndTerminateOldConsentsByNewConsentId_severalPsus_shouldCompareWholePsuDataList() {
+        // Given
+        when(consentJpaRepository.findByExternalId(EXTERNAL_CONSENT_ID))
+            .thenReturn(Optional.of(consentEntityMocked));
+
+        ConsentTppInformationEntity tppInformation = new ConsentTppInformationEntity();
+        tppInformation.setTppInfo(tppInfoMocked);
+
+        List<PsuData> psuDataList = Collections.singletonList(psuDataMocked);
+        when(consentEntityMocked.getPsuDataList())
+            .thenReturn(psuDataList);
+        when(psuDataMocked.getPsuId())
+            .thenReturn(PSU_ID);
+        when(tppInfoMocked.getAuthorisationNumber())
+            .thenReturn(AUTHORISATION_NUMBER);
+        when(consentEntityMocked.getInstanceId())
+            .thenReturn(INSTANCE_ID);
+        when(consentEntityMocked.getExternalId())
+            .thenReturn(EXTERNAL_CONSENT_ID);
+        when(consentEntityMocked.getTppInformation())
+            .thenReturn(tppInformation);
+
+        List<OldConsentPsuData> oldConsentPsuData = Arrays.asList(
+            new OldConsentPsuData(OLD_CONSENT_ID, EXTERNAL_CONSENT_ID_NOT_EXIST, ConsentStatus.VALID, PSU_ID, null, null, null),
+            new OldConsentPsuData(OLD_CONSENT_ID, EXTERNAL_CONSENT_ID_NOT_EXIST, ConsentStatus.VALID, "another PSU ID", null, null, null));
+        when(consentJpaRepository.findOldConsentPsuDataByNewConsentParams(Collections.singleton(PSU_ID), AUTHORISATION_NUMBER, INSTANCE_ID, EXTERNAL_CONSENT_ID, EnumSet.of(ConsentStatus.RECEIVED, ConsentStatus.PARTIALLY_AUTHORISED, ConsentStatus.VALID)))
+            .thenReturn(oldConsentPsuData);
+        when(cmsPsuService.isPsuDataListEqual(Arrays.asList(new PsuData(PSU_ID, null, null, null, null), new PsuData("another PSU ID", null, null, null, null)), psuDataList))
+            .thenReturn(false);
+
+        // When
+        CmsResponse<Boolean> result = consentServiceInternal.findAndTerminateOldConsentsByNewConsentId(EXTERNAL_CONSENT_ID);
+
+        // Then
+        assertTrue(result.isSuccessful());
+        assertFalse(result.getPayload());
+        verify(consentJpaRepository, never()).changeConsentStatusByIds(any(), any(), any(), any());
     }
 
     @Test
@@ -597,6 +646,45 @@ class ConsentServiceInternalTest {
         verify(consentJpaRepository, never()).save(any(ConsentEntity.class));
     }
 
+    @Test
+    void getConsentStatusById_actualStatusProjection_shouldNotLoadConsent() {
+        // Given
+        ConsentStatusProjection statusProjection = new ConsentStatusProjection(ConsentStatus.VALID, OffsetDateTime.now(), LocalDate.now().plusDays(1), true);
+        when(consentJpaRepository.findStatusProjectionByExternalId(EXTERNAL_CONSENT_ID))
+            .thenReturn(Optional.of(statusProjection));
+        when(aisConsentConfirmationExpirationService.getConfirmationExpirationPeriodMs()).thenReturn(86400000L);
+
+        // When
+        CmsResponse<ConsentStatus> actual = consentServiceInternal.getConsentStatusById(EXTERNAL_CONSENT_ID);
+
+        // Then
+        assertTrue(actual.isSuccessful());
+        assertEquals(ConsentStatus.VALID, actual.getPayload());
+        verify(consentJpaRepository, never()).findByExternalId(any());
+    }
+
+    @Test
+    void getConsentStatusById_nonRecurringStatusProjection_shouldLoadConsent() {
+        // Given
+        ConsentStatusProjection statusProjection = new ConsentStatusProjection(ConsentStatus.VALID, OffsetDateTime.now(), LocalDate.now().plusDays(1), false);
+        when(consentJpaRepository.findStatusProjectionByExternalId(EXTERNAL_CONSENT_ID))
+            .thenReturn(Optional.of(statusProjection));
+        when(aisConsentConfirmationExpirationService.getConfirmationExpirationPeriodMs()).thenReturn(86400000L);
+        ConsentEntity consent = buildUsedNonRecurringConsent();
+        when(consentJpaRepository.findByExternalId(EXTERNAL_CONSENT_ID))
+            .thenReturn(Optional.of(consent));
+        when(aisConsentConfirmationExpirationService.checkAndUpdateOnConfirmationExpiration(consent))
+            .thenReturn(consent);
+        when(aisConsentConfirmationExpirationService.expireConsent(consent)).thenReturn(consent);
+
+        // When
+        CmsResponse<ConsentStatus> actual = consentServiceInternal.getConsentStatusById(EXTERNAL_CONSENT_ID);
+
+        // Then
+        assertTrue(actual.isSuccessful());
+        verify(aisConsentConfirmationExpirationService).expireConsent(consent);
+    }
+
     @Test
     void getConsentStatusById_withValidUsedNonRecurringConsent_shouldExpireConsent() {
         // Given
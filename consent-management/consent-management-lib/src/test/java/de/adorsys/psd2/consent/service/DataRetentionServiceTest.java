@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service;
+
+import de.adorsys.psd2.consent.repository.DataRetentionRepository;
+import de.adorsys.psd2.xs2a.core.consent.ConsentStatus;
+import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataRetentionServiceTest {
+    private static final List<Long> IDS = Arrays.asList(1L, 2L);
+    private static final List<String> EXTERNAL_IDS = Arrays.asList("external id 1", "external id 2");
+    private static final OffsetDateTime FINALISED_BEFORE = OffsetDateTime.now().minusDays(30);
+
+    @InjectMocks
+    private DataRetentionServiceImpl dataRetentionService;
+    @Mock
+    private DataRetentionRepository dataRetentionRepository;
+
+    @Test
+    void findFinalisedConsentIds() {
+        // Given
+        when(dataRetentionRepository.findFinalisedConsentIds(10L, 100L,
+                                                             EnumSet.of(ConsentStatus.REJECTED, ConsentStatus.REVOKED_BY_PSU, ConsentStatus.EXPIRED,
+                                                                        ConsentStatus.TERMINATED_BY_TPP, ConsentStatus.TERMINATED_BY_ASPSP),
+                                                             FINALISED_BEFORE, PageRequest.of(0, 5)))
+            .thenReturn(IDS);
+
+        // When
+        List<Long> actual = dataRetentionService.findFinalisedConsentIds(10L, 100L, FINALISED_BEFORE, 5);
+
+        // Then
+        assertEquals(IDS, actual);
+    }
+
+    @Test
+    void findFinalisedPaymentIds() {
+        // Given
+        when(dataRetentionRepository.findFinalisedPaymentIds(10L, 100L,
+                                                             EnumSet.of(TransactionStatus.ACCC, TransactionStatus.ACSC, TransactionStatus.RJCT, TransactionStatus.CANC),
+                                                             FINALISED_BEFORE, PageRequest.of(0, 5)))
+            .thenReturn(IDS);
+
+        // When
+        List<Long> actual = dataRetentionService.findFinalisedPaymentIds(10L, 100L, FINALISED_BEFORE, 5);
+
+        // Then
+        assertEquals(IDS, actual);
+    }
+
+    @Test
+    void deleteConsents_referencedRowsDeletedAfterReferencingOnes() {
+        // Given
+        when(dataRetentionRepository.findConsentExternalIds(IDS)).thenReturn(EXTERNAL_IDS);
+        when(dataRetentionRepository.findConsentTppInformationIds(IDS)).thenReturn(Arrays.asList(11L, 12L));
+        when(dataRetentionRepository.findConsentAuthorisationTemplateIds(IDS)).thenReturn(Arrays.asList(21L, 22L));
+        when(dataRetentionRepository.findConsentPsuDataIds(IDS)).thenReturn(Arrays.asList(31L, 32L));
+        // authorisations share PSU data with their consents
+        when(dataRetentionRepository.findAuthorisationPsuDataIds(EXTERNAL_IDS)).thenReturn(Arrays.asList(31L, null));
+        when(dataRetentionRepository.findAdditionalPsuDataIds(Arrays.asList(31L, 32L))).thenReturn(Collections.singletonList(41L));
+        when(dataRetentionRepository.deleteConsents(IDS)).thenReturn(2);
+
+        // When
+        int actual = dataRetentionService.deleteConsents(IDS);
+
+        // Then
+        assertEquals(2, actual);
+        InOrder inOrder = inOrder(dataRetentionRepository);
+        inOrder.verify(dataRetentionRepository).deleteAuthorisationScaMethods(EXTERNAL_IDS);
+        inOrder.verify(dataRetentionRepository).deleteAuthorisations(EXTERNAL_IDS);
+        inOrder.verify(dataRetentionRepository).deleteConsentUsages(IDS);
+        inOrder.verify(dataRetentionRepository).deleteConsentPsuDataLinks(IDS);
+        inOrder.verify(dataRetentionRepository).deleteConsents(IDS);
+        inOrder.verify(dataRetentionRepository).deleteConsentTppNotificationModes(Arrays.asList(11L, 12L));
+        inOrder.verify(dataRetentionRepository).deleteConsentTppInformation(Arrays.asList(11L, 12L));
+        inOrder.verify(dataRetentionRepository).deleteAuthorisationTemplates(Arrays.asList(21L, 22L));
+        inOrder.verify(dataRetentionRepository).deletePsuData(Arrays.asList(31L, 32L));
+        inOrder.verify(dataRetentionRepository).deleteAdditionalPsuData(Collections.singletonList(41L));
+        verify(dataRetentionRepository).deleteAspspConsentData(EXTERNAL_IDS);
+        verify(dataRetentionRepository).deleteConsentActions(EXTERNAL_IDS);
+        verify(dataRetentionRepository).deleteConsentTransactions(IDS);
+        verify(dataRetentionRepository).deleteConsentTppAccountAccesses(IDS);
+        verify(dataRetentionRepository).deleteConsentAspspAccountAccesses(IDS);
+    }
+
+    @Test
+    void deletePayments_referencedRowsDeletedAfterReferencingOnes() {
+        // Given
+        when(dataRetentionRepository.findPaymentExternalIds(IDS)).thenReturn(EXTERNAL_IDS);
+        when(dataRetentionRepository.findPaymentAuthorisationTemplateIds(IDS)).thenReturn(Arrays.asList(21L, 22L));
+        when(dataRetentionRepository.findPaymentPsuDataIds(IDS)).thenReturn(Collections.singletonList(31L));
+        when(dataRetentionRepository.findAuthorisationPsuDataIds(EXTERNAL_IDS)).thenReturn(Collections.emptyList());
+        when(dataRetentionRepository.findAdditionalPsuDataIds(Collections.singletonList(31L))).thenReturn(Collections.emptyList());
+        when(dataRetentionRepository.findPaymentAddressIds(IDS)).thenReturn(Collections.singletonList(51L));
+        when(dataRetentionRepository.findPaymentRemittanceIds(IDS)).thenReturn(Collections.emptyList());
+        // the same debtor account is used by both payments
+        when(dataRetentionRepository.findPaymentDebtorAccountReferenceIds(IDS)).thenReturn(Arrays.asList(61L, 61L));
+        when(dataRetentionRepository.findPaymentCreditorAccountReferenceIds(IDS)).thenReturn(Arrays.asList(62L, 63L));
+        when(dataRetentionRepository.deletePayments(IDS)).thenReturn(2);
+
+        // When
+        int actual = dataRetentionService.deletePayments(IDS);
+
+        // Then
+        assertEquals(2, actual);
+        InOrder inOrder = inOrder(dataRetentionRepository);
+        inOrder.verify(dataRetentionRepository).deleteAuthorisations(EXTERNAL_IDS);
+        inOrder.verify(dataRetentionRepository).deletePaymentData(IDS);
+        inOrder.verify(dataRetentionRepository).deletePaymentAddresses(Collections.singletonList(51L));
+        inOrder.verify(dataRetentionRepository).deleteAccountReferences(Arrays.asList(61L, 62L, 63L));
+        inOrder.verify(dataRetentionRepository).deletePaymentPsuDataLinks(IDS);
+        inOrder.verify(dataRetentionRepository).deletePaymentTppNotificationModes(IDS);
+        inOrder.verify(dataRetentionRepository).deletePayments(IDS);
+        inOrder.verify(dataRetentionRepository).deleteAuthorisationTemplates(Arrays.asList(21L, 22L));
+        inOrder.verify(dataRetentionRepository).deletePsuData(Collections.singletonList(31L));
+        verify(dataRetentionRepository).deleteAspspConsentData(EXTERNAL_IDS);
+        verify(dataRetentionRepository, never()).deletePaymentRemittances(anyList());
+        verify(dataRetentionRepository, never()).deleteAdditionalPsuData(anyList());
+    }
+
+    @Test
+    void deleteConsents_largeDependentListsSplitForInClause() {
+        // Given
+        List<Long> psuDataIds = LongStream.rangeClosed(1, 1500).boxed().collect(Collectors.toList());
+        when(dataRetentionRepository.findConsentExternalIds(IDS)).thenReturn(EXTERNAL_IDS);
+        when(dataRetentionRepository.findConsentPsuDataIds(IDS)).thenReturn(psuDataIds);
+
+        // When
+        dataRetentionService.deleteConsents(IDS);
+
+        // Then
+        verify(dataRetentionRepository).findAdditionalPsuDataIds(psuDataIds.subList(0, 1000));
+        verify(dataRetentionRepository).findAdditionalPsuDataIds(psuDataIds.subList(1000, 1500));
+        verify(dataRetentionRepository).deletePsuData(psuDataIds.subList(0, 1000));
+        verify(dataRetentionRepository).deletePsuData(psuDataIds.subList(1000, 1500));
+    }
+
+    @Test
+    void deleteConsents_emptyList() {
+        assertEquals(0, dataRetentionService.deleteConsents(Collections.emptyList()));
+
+        verifyNoInteractions(dataRetentionRepository);
+    }
+}
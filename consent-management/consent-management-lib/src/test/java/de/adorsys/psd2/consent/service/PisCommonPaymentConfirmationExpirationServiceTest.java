@@ -20,6 +20,7 @@ import de.adorsys.psd2.aspsp.profile.domain.AspspSettings;
 import de.adorsys.psd2.aspsp.profile.domain.pis.PisAspspProfileSetting;
 import de.adorsys.psd2.aspsp.profile.service.AspspProfileService;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
+import de.adorsys.psd2.consent.domain.ConfirmationExpirationCandidate;
 import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
@@ -29,16 +30,22 @@ import de.adorsys.psd2.xs2a.core.sca.ScaStatus;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -177,6 +184,46 @@ class PisCommonPaymentConfirmationExpirationServiceTest {
     }
 
     @NotNull
+    @Test
+    void findConfirmationExpiredPaymentIds() {
+        when(aspspProfileService.getAspspSettings()).thenReturn(aspspSettings);
+        when(aspspSettings.getPis()).thenReturn(getPisAspspProfileSetting(86400L));
+        ArgumentCaptor<OffsetDateTime> expirationTimestampCaptor = ArgumentCaptor.forClass(OffsetDateTime.class);
+        when(pisCommonPaymentDataRepository.findNotConfirmedPaymentIds(eq(10L), eq(100L), eq(EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC)),
+                                                                       expirationTimestampCaptor.capture(), eq(PageRequest.of(0, 5))))
+            .thenReturn(Arrays.asList(11L, 12L));
+
+        List<Long> actual = service.findConfirmationExpiredPaymentIds(10L, 100L, 5);
+
+        assertEquals(Arrays.asList(11L, 12L), actual);
+        assertTrue(expirationTimestampCaptor.getValue().isBefore(OffsetDateTime.now().minusSeconds(86)));
+    }
+
+    @Test
+    void findNotConfirmedPayments() {
+        List<ConfirmationExpirationCandidate> candidates = Collections.singletonList(new ConfirmationExpirationCandidate(11L, OffsetDateTime.now()));
+        when(pisCommonPaymentDataRepository.findNotConfirmedPayments(10L, EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC), PageRequest.of(0, 5)))
+            .thenReturn(candidates);
+
+        List<ConfirmationExpirationCandidate> actual = service.findNotConfirmedPayments(10L, 5);
+
+        assertEquals(candidates, actual);
+    }
+
+    @Test
+    void updatePaymentsOnConfirmationExpiration() {
+        List<Long> paymentIds = Arrays.asList(11L, 12L);
+        when(pisCommonPaymentDataRepository.updateTransactionStatusByIds(eq(paymentIds), eq(EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC)),
+                                                                         eq(TransactionStatus.RJCT), any(OffsetDateTime.class)))
+            .thenReturn(2);
+
+        int actual = service.updatePaymentsOnConfirmationExpiration(paymentIds);
+
+        assertEquals(2, actual);
+        verify(authorisationRepository).updateScaStatusByPaymentIds(paymentIds, EnumSet.of(TransactionStatus.RCVD, TransactionStatus.PATC),
+                                                                    EnumSet.of(AuthorisationType.PIS_CREATION, AuthorisationType.PIS_CANCELLATION), ScaStatus.FAILED);
+    }
+
     private PisAspspProfileSetting getPisAspspProfileSetting(long notConfirmedPaymentExpirationTimeMs) {
         return new PisAspspProfileSetting(new HashMap<>(), 0, notConfirmedPaymentExpirationTimeMs,
                                           true, null, "", null);
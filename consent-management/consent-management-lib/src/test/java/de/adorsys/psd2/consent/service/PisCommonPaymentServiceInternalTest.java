@@ -18,6 +18,7 @@ package de.adorsys.psd2.consent.service;
 
 import de.adorsys.psd2.consent.api.CmsError;
 import de.adorsys.psd2.consent.api.CmsResponse;
+import de.adorsys.psd2.consent.api.pis.CreatePisCommonPaymentResponse;
 import de.adorsys.psd2.consent.api.pis.PisPayment;
 import de.adorsys.psd2.consent.api.pis.proto.PisCommonPaymentRequest;
 import de.adorsys.psd2.consent.api.pis.proto.PisCommonPaymentResponse;
@@ -25,6 +26,7 @@ import de.adorsys.psd2.consent.api.pis.proto.PisPaymentInfo;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
 import de.adorsys.psd2.consent.domain.AuthorisationTemplateEntity;
 import de.adorsys.psd2.consent.domain.TppInfoEntity;
+import de.adorsys.psd2.consent.domain.payment.PaymentStatusProjection;
 import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
 import de.adorsys.psd2.consent.domain.payment.PisPaymentData;
 import de.adorsys.psd2.consent.repository.AuthorisationRepository;
@@ -46,7 +48,9 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.OffsetDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -60,6 +64,8 @@ class PisCommonPaymentServiceInternalTest {
     @Mock
     private PisCommonPaymentDataRepository pisCommonPaymentDataRepository;
     @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Mock
     private PisCommonPaymentMapper pisCommonPaymentMapper;
     @Mock
     private TppInfoRepository tppInfoRepository;
@@ -112,6 +118,28 @@ class PisCommonPaymentServiceInternalTest {
         assertEquals(roles, argument.getValue().getTppInfo().getTppRoles());
     }
 
+    @Test
+    void createCommonPayment_shouldPublishConfirmationExpirationCandidateEvent() {
+        // Given
+        TppInfo tppInfo = new TppInfo();
+        tppInfo.setAuthorisationNumber("tpp-id-1");
+        PisPaymentInfo pisPaymentInfo = new PisPaymentInfo();
+        pisPaymentInfo.setTppInfo(tppInfo);
+        pisCommonPaymentData.setId(1L);
+
+        when(pisCommonPaymentMapper.mapToPisCommonPaymentData(pisPaymentInfo))
+            .thenReturn(pisCommonPaymentData);
+        when(pisCommonPaymentDataRepository.save(pisCommonPaymentData)).thenReturn(pisCommonPaymentData);
+
+        // When
+        CmsResponse<CreatePisCommonPaymentResponse> actual = pisCommonPaymentService.createCommonPayment(pisPaymentInfo);
+
+        // Then
+        assertTrue(actual.isSuccessful());
+        verify(applicationEventPublisher).publishEvent(new ConfirmationExpirationCandidateEvent(ConfirmationExpirationObjectType.PAYMENT,
+                                                                                                1L, pisCommonPaymentData.getCreationTimestamp()));
+    }
+
     @Test
     void updateMultilevelSca_ShouldReturnTrue() {
         // Given
@@ -154,6 +182,40 @@ class PisCommonPaymentServiceInternalTest {
         assertEquals(TransactionStatus.RCVD, actual.getPayload());
     }
 
+    @Test
+    void getPisCommonPaymentStatusById_actualStatusProjection() {
+        // Given
+        PaymentStatusProjection statusProjection = new PaymentStatusProjection(TransactionStatus.ACSP, OffsetDateTime.now());
+        when(pisCommonPaymentDataRepository.findStatusProjectionByPaymentId(PAYMENT_ID)).thenReturn(Optional.of(statusProjection));
+        when(pisCommonPaymentConfirmationExpirationService.getConfirmationExpirationPeriodMs()).thenReturn(86400000L);
+
+        // When
+        CmsResponse<TransactionStatus> actual = pisCommonPaymentService.getPisCommonPaymentStatusById(PAYMENT_ID);
+
+        // Then
+        assertTrue(actual.isSuccessful());
+        assertEquals(TransactionStatus.ACSP, actual.getPayload());
+        verify(pisCommonPaymentDataRepository, never()).findByPaymentId(any());
+    }
+
+    @Test
+    void getPisCommonPaymentStatusById_expiredStatusProjection() {
+        // Given
+        PaymentStatusProjection statusProjection = new PaymentStatusProjection(TransactionStatus.RCVD, OffsetDateTime.now().minusDays(2));
+        when(pisCommonPaymentDataRepository.findStatusProjectionByPaymentId(PAYMENT_ID)).thenReturn(Optional.of(statusProjection));
+        when(pisCommonPaymentConfirmationExpirationService.getConfirmationExpirationPeriodMs()).thenReturn(86400000L);
+        when(pisCommonPaymentDataRepository.findByPaymentId(PAYMENT_ID)).thenReturn(Optional.of(pisCommonPaymentData));
+        when(pisCommonPaymentConfirmationExpirationService.checkAndUpdateOnConfirmationExpiration(pisCommonPaymentData))
+            .thenReturn(pisCommonPaymentData);
+
+        // When
+        CmsResponse<TransactionStatus> actual = pisCommonPaymentService.getPisCommonPaymentStatusById(PAYMENT_ID);
+
+        // Then
+        assertTrue(actual.isSuccessful());
+        verify(pisCommonPaymentConfirmationExpirationService).checkAndUpdateOnConfirmationExpiration(pisCommonPaymentData);
+    }
+
     @Test
     void getPisCommonPaymentStatusById_logicalError() {
         // Given
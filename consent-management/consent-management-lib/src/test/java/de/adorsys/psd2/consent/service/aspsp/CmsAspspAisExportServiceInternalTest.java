@@ -17,10 +17,11 @@
 package de.adorsys.psd2.consent.service.aspsp;
 
 import de.adorsys.psd2.consent.api.ais.CmsAisAccountConsent;
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
 import de.adorsys.psd2.consent.domain.AuthorisationEntity;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
-import de.adorsys.psd2.consent.repository.AuthorisationRepository;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.SpecificationStreamingRepository;
 import de.adorsys.psd2.consent.repository.specification.AisConsentSpecification;
 import de.adorsys.psd2.consent.service.mapper.AisConsentMapper;
 import de.adorsys.psd2.consent.service.migration.AisConsentLazyMigrationService;
@@ -37,9 +38,12 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -51,6 +55,9 @@ class CmsAspspAisExportServiceInternalTest {
     private static final LocalDate CREATION_DATE_FROM = LocalDate.of(2019, 1, 1);
     private static final LocalDate CREATION_DATE_TO = LocalDate.of(2020, 12, 1);
     private static final String DEFAULT_SERVICE_INSTANCE_ID = "UNDEFINED";
+    private static final String CURSOR = "cursor";
+    private static final String NEXT_CURSOR = "next cursor";
+    private static final int PAGE_SIZE = 10;
     private static final String PSU_ID = "anton.brueckner";
     private static final String WRONG_PSU_ID = "max.musterman";
     private static final String EXTERNAL_CONSENT_ID = "4b112130-6a96-4941-a220-2da8a4af2c65";
@@ -73,9 +80,13 @@ class CmsAspspAisExportServiceInternalTest {
     @Mock
     private AisConsentMapper aisConsentMapper;
     @Mock
-    private AuthorisationRepository authorisationRepository;
+    private ExportAssociationFetchService exportAssociationFetchService;
     @Mock
     private AisConsentLazyMigrationService aisConsentLazyMigrationService;
+    @Mock
+    private SpecificationStreamingRepository specificationStreamingRepository;
+    @Mock
+    private ExportPageLoader exportPageLoader;
 
     @BeforeEach
     void setUp() {
@@ -101,11 +112,11 @@ class CmsAspspAisExportServiceInternalTest {
         CmsAisAccountConsent expectedConsent = buildAisAccountConsent();
 
         List<AuthorisationEntity> authorisations = Collections.singletonList(new AuthorisationEntity());
-        when(authorisationRepository.findAllByParentExternalIdAndAuthorisationType(EXTERNAL_CONSENT_ID, AuthorisationType.AIS))
-            .thenReturn(authorisations);
+        when(exportAssociationFetchService.findAuthorisationsByParentId(Collections.singletonList(consentEntity), AuthorisationType.AIS))
+            .thenReturn(Collections.singletonMap(EXTERNAL_CONSENT_ID, authorisations));
         when(aisConsentLazyMigrationService.migrateIfNeeded(consentEntity))
             .thenReturn(consentEntity);
-        when(aisConsentMapper.mapToCmsAisAccountConsent(consentEntity, authorisations))
+        when(aisConsentMapper.mapToCmsAisAccountConsent(consentEntity, authorisations, Collections.emptyMap()))
             .thenReturn(buildAisAccountConsent());
 
         // When
@@ -121,6 +132,93 @@ class CmsAspspAisExportServiceInternalTest {
                                                                CREATION_DATE_TO, psuIdData, DEFAULT_SERVICE_INSTANCE_ID);
     }
 
+    @Test
+    void exportConsentsByTpp_page() {
+        // Given
+        ConsentEntity consentEntity = buildConsentEntity();
+        when(aisConsentSpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(TPP_AUTHORISATION_NUMBER, CREATION_DATE_FROM, CREATION_DATE_TO,
+                                                                                       psuIdData, DEFAULT_SERVICE_INSTANCE_ID)).thenReturn((root, criteriaQuery, criteriaBuilder) -> null);
+        when(exportPageLoader.loadPage(eq(ConsentEntity.class), any(), any(), any(), any(), any(), eq(CURSOR), eq(PAGE_SIZE)))
+            .thenAnswer(invocation -> {
+                Function<List<ConsentEntity>, List<CmsAisAccountConsent>> mapper = invocation.getArgument(5);
+                return new ExportPage<>(mapper.apply(Collections.singletonList(consentEntity)), NEXT_CURSOR);
+            });
+        when(exportAssociationFetchService.findAuthorisationsByParentId(Collections.singletonList(consentEntity), AuthorisationType.AIS))
+            .thenReturn(Collections.emptyMap());
+        when(aisConsentLazyMigrationService.migrateIfNeeded(consentEntity))
+            .thenReturn(consentEntity);
+        when(aisConsentMapper.mapToCmsAisAccountConsent(consentEntity, Collections.emptyList(), Collections.emptyMap()))
+            .thenReturn(buildAisAccountConsent());
+
+        // When
+        ExportPage<CmsAisAccountConsent> page =
+            cmsAspspAisExportServiceInternal.exportConsentsByTpp(TPP_AUTHORISATION_NUMBER, CREATION_DATE_FROM, CREATION_DATE_TO,
+                                                                 psuIdData, DEFAULT_SERVICE_INSTANCE_ID, CURSOR, PAGE_SIZE);
+
+        // Then
+        assertEquals(Collections.singletonList(buildAisAccountConsent()), page.getItems());
+        assertEquals(NEXT_CURSOR, page.getNextCursor());
+        verify(exportAssociationFetchService).fetchAisConsentAssociations(Collections.singletonList(consentEntity));
+    }
+
+    @Test
+    void exportConsentsByTpp_page_failure_nullTppAuthorisationNumber() {
+        // When
+        ExportPage<CmsAisAccountConsent> page =
+            cmsAspspAisExportServiceInternal.exportConsentsByTpp(null, CREATION_DATE_FROM, CREATION_DATE_TO,
+                                                                 psuIdData, DEFAULT_SERVICE_INSTANCE_ID, CURSOR, PAGE_SIZE);
+
+        // Then
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(exportPageLoader, never()).loadPage(any(), any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void streamConsentsByTpp_success() {
+        // Given
+        ConsentEntity consentEntity = buildConsentEntity();
+
+        when(aisConsentSpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(
+            TPP_AUTHORISATION_NUMBER,
+            CREATION_DATE_FROM,
+            CREATION_DATE_TO,
+            psuIdData,
+            DEFAULT_SERVICE_INSTANCE_ID
+        )).thenReturn((root, criteriaQuery, criteriaBuilder) -> null);
+        doAnswer(invocation -> {
+            Consumer<List<ConsentEntity>> chunkConsumer = invocation.getArgument(2);
+            chunkConsumer.accept(Collections.singletonList(consentEntity));
+            return null;
+        }).when(specificationStreamingRepository).streamAll(eq(ConsentEntity.class), any(), any());
+        when(exportAssociationFetchService.findAuthorisationsByParentId(Collections.singletonList(consentEntity), AuthorisationType.AIS))
+            .thenReturn(Collections.emptyMap());
+        when(aisConsentLazyMigrationService.migrateIfNeeded(consentEntity))
+            .thenReturn(consentEntity);
+        when(aisConsentMapper.mapToCmsAisAccountConsent(consentEntity, Collections.emptyList(), Collections.emptyMap()))
+            .thenReturn(buildAisAccountConsent());
+        List<CmsAisAccountConsent> aisConsents = new ArrayList<>();
+
+        // When
+        cmsAspspAisExportServiceInternal.streamConsentsByTpp(TPP_AUTHORISATION_NUMBER, CREATION_DATE_FROM,
+                                                             CREATION_DATE_TO, psuIdData, DEFAULT_SERVICE_INSTANCE_ID, aisConsents::add);
+
+        // Then
+        assertEquals(Collections.singletonList(buildAisAccountConsent()), aisConsents);
+        verify(exportAssociationFetchService).fetchAisConsentAssociations(Collections.singletonList(consentEntity));
+        verify(consentJpaRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    void streamConsentsByTpp_failure_nullTppAuthorisationNumber() {
+        // When
+        cmsAspspAisExportServiceInternal.streamConsentsByTpp(null, CREATION_DATE_FROM,
+                                                             CREATION_DATE_TO, psuIdData, DEFAULT_SERVICE_INSTANCE_ID, consent -> fail());
+
+        // Then
+        verify(specificationStreamingRepository, never()).streamAll(any(), any(), any());
+    }
+
     @Test
     void exportConsentsByTpp_failure_wrongTppAuthorisationNumber() {
         // Given
@@ -163,9 +261,9 @@ class CmsAspspAisExportServiceInternalTest {
         CmsAisAccountConsent expectedConsent = buildAisAccountConsent();
 
         List<AuthorisationEntity> authorisations = Collections.singletonList(new AuthorisationEntity());
-        when(authorisationRepository.findAllByParentExternalIdAndAuthorisationType(EXTERNAL_CONSENT_ID, AuthorisationType.AIS))
-            .thenReturn(authorisations);
-        when(aisConsentMapper.mapToCmsAisAccountConsent(consentEntity, authorisations))
+        when(exportAssociationFetchService.findAuthorisationsByParentId(Collections.singletonList(consentEntity), AuthorisationType.AIS))
+            .thenReturn(Collections.singletonMap(EXTERNAL_CONSENT_ID, authorisations));
+        when(aisConsentMapper.mapToCmsAisAccountConsent(consentEntity, authorisations, Collections.emptyMap()))
             .thenReturn(buildAisAccountConsent());
         when(aisConsentLazyMigrationService.migrateIfNeeded(consentEntity))
             .thenReturn(consentEntity);
@@ -235,12 +333,12 @@ class CmsAspspAisExportServiceInternalTest {
         when(consentJpaRepository.findAll(any()))
             .thenReturn(Collections.singletonList(consentEntity));
         List<AuthorisationEntity> authorisations = Collections.singletonList(new AuthorisationEntity());
-        when(authorisationRepository.findAllByParentExternalIdAndAuthorisationType(EXTERNAL_CONSENT_ID, AuthorisationType.AIS))
-            .thenReturn(authorisations);
+        when(exportAssociationFetchService.findAuthorisationsByParentId(Collections.singletonList(consentEntity), AuthorisationType.AIS))
+            .thenReturn(Collections.singletonMap(EXTERNAL_CONSENT_ID, authorisations));
         when(aisConsentLazyMigrationService.migrateIfNeeded(consentEntity))
             .thenReturn(consentEntity);
 
-        when(aisConsentMapper.mapToCmsAisAccountConsent(consentEntity, authorisations))
+        when(aisConsentMapper.mapToCmsAisAccountConsent(consentEntity, authorisations, Collections.emptyMap()))
             .thenReturn(buildAisAccountConsent());
         CmsAisAccountConsent expectedConsent = buildAisAccountConsent();
 
@@ -16,9 +16,11 @@
 
 package de.adorsys.psd2.consent.service.aspsp;
 
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
 import de.adorsys.psd2.consent.domain.PsuData;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.SpecificationStreamingRepository;
 import de.adorsys.psd2.consent.repository.specification.PiisConsentEntitySpecification;
 import de.adorsys.psd2.consent.service.mapper.PiisConsentMapper;
 import de.adorsys.psd2.consent.service.migration.PiisConsentLazyMigrationService;
@@ -35,10 +37,16 @@ import org.springframework.data.jpa.domain.Specification;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -50,6 +58,9 @@ class CmsAspspPiisFundsExportServiceInternalTest {
     private static final LocalDate CREATION_DATE_TO = LocalDate.of(2020, 12, 1);
     private static final String SERVICE_INSTANCE_ID = "instance id";
     private static final String DEFAULT_SERVICE_INSTANCE_ID = "UNDEFINED";
+    private static final String CURSOR = "cursor";
+    private static final String NEXT_CURSOR = "next cursor";
+    private static final int PAGE_SIZE = 10;
     private static final String PSU_ID = "psu id";
     private static final String WRONG_PSU_ID = "wrong psu id";
 
@@ -69,6 +80,12 @@ class CmsAspspPiisFundsExportServiceInternalTest {
     private PiisConsentMapper piisConsentMapper;
     @Mock
     private PiisConsentLazyMigrationService piisConsentLazyMigrationService;
+    @Mock
+    private ExportAssociationFetchService exportAssociationFetchService;
+    @Mock
+    private SpecificationStreamingRepository specificationStreamingRepository;
+    @Mock
+    private ExportPageLoader exportPageLoader;
 
     private PsuIdData psuIdData;
     private PsuIdData wrongPsuIdData;
@@ -135,6 +152,70 @@ class CmsAspspPiisFundsExportServiceInternalTest {
                                                                CREATION_DATE_TO, psuIdData, DEFAULT_SERVICE_INSTANCE_ID);
     }
 
+    @Test
+    void streamConsentsByTpp_success_nullInstanceId() {
+        // Given
+        when(piisConsentEntitySpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(TPP_AUTHORISATION_NUMBER,
+                                                                                              CREATION_DATE_FROM,
+                                                                                              CREATION_DATE_TO,
+                                                                                              psuIdData,
+                                                                                              DEFAULT_SERVICE_INSTANCE_ID)).thenReturn((root, criteriaQuery, criteriaBuilder) -> null);
+        doAnswer(invocation -> {
+            Consumer<List<ConsentEntity>> chunkConsumer = invocation.getArgument(2);
+            chunkConsumer.accept(Collections.singletonList(buildPiisConsentEntity()));
+            return null;
+        }).when(specificationStreamingRepository).streamAll(eq(ConsentEntity.class), any(), any());
+        when(piisConsentMapper.mapToCmsPiisConsentList(Collections.singletonList(buildPiisConsentEntity())))
+            .thenReturn(Collections.singletonList(buildCmsPiisConsent()));
+        List<CmsPiisConsent> piisConsents = new ArrayList<>();
+
+        // When
+        cmsAspspPiisFundsExportServiceInternal.streamConsentsByTpp(TPP_AUTHORISATION_NUMBER, CREATION_DATE_FROM,
+                                                                   CREATION_DATE_TO, psuIdData, null, piisConsents::add);
+
+        // Then
+        assertEquals(Collections.singletonList(buildCmsPiisConsent()), piisConsents);
+        verify(piisConsentLazyMigrationService).migrateIfNeeded(Collections.singletonList(buildPiisConsentEntity()));
+        verify(consentJpaRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    void exportConsentsByTpp_page() {
+        // Given
+        when(piisConsentEntitySpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(TPP_AUTHORISATION_NUMBER, CREATION_DATE_FROM, CREATION_DATE_TO,
+                                                                                              psuIdData, DEFAULT_SERVICE_INSTANCE_ID)).thenReturn((root, criteriaQuery, criteriaBuilder) -> null);
+        when(exportPageLoader.loadPage(eq(ConsentEntity.class), any(), any(), any(), any(), any(), eq(CURSOR), eq(PAGE_SIZE)))
+            .thenAnswer(invocation -> {
+                Function<List<ConsentEntity>, List<CmsPiisConsent>> mapper = invocation.getArgument(5);
+                return new ExportPage<>(mapper.apply(Collections.singletonList(buildPiisConsentEntity())), NEXT_CURSOR);
+            });
+        when(piisConsentMapper.mapToCmsPiisConsentList(Collections.singletonList(buildPiisConsentEntity())))
+            .thenReturn(Collections.singletonList(buildCmsPiisConsent()));
+
+        // When
+        ExportPage<CmsPiisConsent> page =
+            cmsAspspPiisFundsExportServiceInternal.exportConsentsByTpp(TPP_AUTHORISATION_NUMBER, CREATION_DATE_FROM, CREATION_DATE_TO,
+                                                                       psuIdData, null, CURSOR, PAGE_SIZE);
+
+        // Then
+        assertEquals(Collections.singletonList(buildCmsPiisConsent()), page.getItems());
+        assertEquals(NEXT_CURSOR, page.getNextCursor());
+        verify(piisConsentLazyMigrationService).migrateIfNeeded(Collections.singletonList(buildPiisConsentEntity()));
+    }
+
+    @Test
+    void exportConsentsByTpp_page_failure_nullTppAuthorisationNumber() {
+        // When
+        ExportPage<CmsPiisConsent> page =
+            cmsAspspPiisFundsExportServiceInternal.exportConsentsByTpp(null, CREATION_DATE_FROM, CREATION_DATE_TO,
+                                                                       psuIdData, null, CURSOR, PAGE_SIZE);
+
+        // Then
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(exportPageLoader, never()).loadPage(any(), any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
     @Test
     void exportConsentsByTpp_failure_wrongTppAuthorisationNumber() {
         // Given
@@ -18,10 +18,12 @@ package de.adorsys.psd2.consent.service.aspsp;
 
 import de.adorsys.psd2.consent.api.pis.CmsPayment;
 import de.adorsys.psd2.consent.api.pis.CmsSinglePayment;
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
 import de.adorsys.psd2.consent.domain.PsuData;
 import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
 import de.adorsys.psd2.consent.domain.payment.PisPaymentData;
 import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
+import de.adorsys.psd2.consent.repository.SpecificationStreamingRepository;
 import de.adorsys.psd2.consent.repository.specification.PisCommonPaymentDataSpecification;
 import de.adorsys.psd2.consent.service.mapper.CmsPsuPisMapper;
 import de.adorsys.psd2.xs2a.core.pis.TransactionStatus;
@@ -39,12 +41,17 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Currency;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -55,6 +62,9 @@ class CmsAspspPisExportServiceInternalTest {
     private static final LocalDate CREATION_DATE_FROM = LocalDate.of(2019, 1, 1);
     private static final LocalDate CREATION_DATE_TO = LocalDate.of(2020, 12, 1);
     private static final String DEFAULT_SERVICE_INSTANCE_ID = "UNDEFINED";
+    private static final String CURSOR = "cursor";
+    private static final String NEXT_CURSOR = "next cursor";
+    private static final int PAGE_SIZE = 10;
     private static final String PSU_ID = "psu id";
     private static final String WRONG_PSU_ID = "wrong psu id";
 
@@ -75,6 +85,12 @@ class CmsAspspPisExportServiceInternalTest {
     private PisCommonPaymentDataRepository pisCommonPaymentDataRepository;
     @Mock
     private CmsPsuPisMapper cmsPsuPisMapper;
+    @Mock
+    private ExportAssociationFetchService exportAssociationFetchService;
+    @Mock
+    private SpecificationStreamingRepository specificationStreamingRepository;
+    @Mock
+    private ExportPageLoader exportPageLoader;
 
     @BeforeEach
     void setUp() {
@@ -110,6 +126,70 @@ class CmsAspspPisExportServiceInternalTest {
                                                                CREATION_DATE_TO, psuIdData, DEFAULT_SERVICE_INSTANCE_ID);
     }
 
+    @Test
+    void streamPaymentsByTpp_success() {
+        // Given
+        when(pisCommonPaymentDataSpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(TPP_AUTHORISATION_NUMBER,
+                                                                                                 CREATION_DATE_FROM,
+                                                                                                 CREATION_DATE_TO,
+                                                                                                 psuIdData,
+                                                                                                 DEFAULT_SERVICE_INSTANCE_ID)).thenReturn((root, criteriaQuery, criteriaBuilder) -> null);
+        doAnswer(invocation -> {
+            Consumer<List<PisCommonPaymentData>> chunkConsumer = invocation.getArgument(2);
+            chunkConsumer.accept(Collections.singletonList(buildPisCommonPaymentData()));
+            return null;
+        }).when(specificationStreamingRepository).streamAll(eq(PisCommonPaymentData.class), any(), any());
+        when(cmsPsuPisMapper.mapPaymentDataToCmsPayments(Collections.singletonList(buildPisCommonPaymentData())))
+            .thenReturn(Collections.singletonList(buildCmsPayment()));
+        List<CmsPayment> payments = new ArrayList<>();
+
+        // When
+        cmsAspspPisExportServiceInternal.streamPaymentsByTpp(TPP_AUTHORISATION_NUMBER, CREATION_DATE_FROM,
+                                                             CREATION_DATE_TO, psuIdData, DEFAULT_SERVICE_INSTANCE_ID, payments::add);
+
+        // Then
+        assertEquals(Collections.singletonList(buildCmsPayment()), payments);
+        verify(exportAssociationFetchService).fetchPaymentAssociations(Collections.singletonList(buildPisCommonPaymentData()));
+        verify(pisCommonPaymentDataRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    void exportPaymentsByTpp_page() {
+        // Given
+        when(pisCommonPaymentDataSpecification.byTppIdAndCreationPeriodAndPsuIdDataAndInstanceId(TPP_AUTHORISATION_NUMBER, CREATION_DATE_FROM, CREATION_DATE_TO,
+                                                                                                 psuIdData, DEFAULT_SERVICE_INSTANCE_ID)).thenReturn((root, criteriaQuery, criteriaBuilder) -> null);
+        when(exportPageLoader.loadPage(eq(PisCommonPaymentData.class), any(), any(), any(), any(), any(), eq(CURSOR), eq(PAGE_SIZE)))
+            .thenAnswer(invocation -> {
+                Function<List<PisCommonPaymentData>, List<CmsPayment>> mapper = invocation.getArgument(5);
+                return new ExportPage<>(mapper.apply(Collections.singletonList(buildPisCommonPaymentData())), NEXT_CURSOR);
+            });
+        when(cmsPsuPisMapper.mapPaymentDataToCmsPayments(Collections.singletonList(buildPisCommonPaymentData())))
+            .thenReturn(Collections.singletonList(buildCmsPayment()));
+
+        // When
+        ExportPage<CmsPayment> page =
+            cmsAspspPisExportServiceInternal.exportPaymentsByTpp(TPP_AUTHORISATION_NUMBER, CREATION_DATE_FROM, CREATION_DATE_TO,
+                                                                 psuIdData, DEFAULT_SERVICE_INSTANCE_ID, CURSOR, PAGE_SIZE);
+
+        // Then
+        assertEquals(Collections.singletonList(buildCmsPayment()), page.getItems());
+        assertEquals(NEXT_CURSOR, page.getNextCursor());
+        verify(exportAssociationFetchService).fetchPaymentAssociations(Collections.singletonList(buildPisCommonPaymentData()));
+    }
+
+    @Test
+    void exportPaymentsByTpp_page_failure_nullTppAuthorisationNumber() {
+        // When
+        ExportPage<CmsPayment> page =
+            cmsAspspPisExportServiceInternal.exportPaymentsByTpp(null, CREATION_DATE_FROM, CREATION_DATE_TO,
+                                                                 psuIdData, DEFAULT_SERVICE_INSTANCE_ID, CURSOR, PAGE_SIZE);
+
+        // Then
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(exportPageLoader, never()).loadPage(any(), any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
     @Test
     void exportPaymentsByTpp_failure_wrongTppAuthorisationNumber() {
         // Given
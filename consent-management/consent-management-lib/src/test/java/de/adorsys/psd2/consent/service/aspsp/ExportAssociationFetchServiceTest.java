@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.aspsp;
+
+import de.adorsys.psd2.consent.domain.AuthorisationEntity;
+import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.domain.payment.PisCommonPaymentData;
+import de.adorsys.psd2.consent.repository.AuthorisationRepository;
+import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.PisCommonPaymentDataRepository;
+import de.adorsys.psd2.consent.service.AisConsentUsageService;
+import de.adorsys.psd2.xs2a.core.authorisation.AuthorisationType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportAssociationFetchServiceTest {
+    private static final String FIRST_CONSENT_ID = "first consent id";
+    private static final String SECOND_CONSENT_ID = "second consent id";
+
+    @InjectMocks
+    private ExportAssociationFetchService exportAssociationFetchService;
+
+    @Mock
+    private ConsentJpaRepository consentJpaRepository;
+    @Mock
+    private PisCommonPaymentDataRepository pisCommonPaymentDataRepository;
+    @Mock
+    private AuthorisationRepository authorisationRepository;
+    @Mock
+    private AisConsentUsageService aisConsentUsageService;
+
+    @Test
+    void fetchAisConsentAssociations() {
+        // Given
+        List<ConsentEntity> consents = Arrays.asList(buildConsent(1L, FIRST_CONSENT_ID), buildConsent(2L, SECOND_CONSENT_ID));
+        List<Long> ids = Arrays.asList(1L, 2L);
+
+        // When
+        exportAssociationFetchService.fetchAisConsentAssociations(consents);
+
+        // Then
+        verify(consentJpaRepository).fetchPsuDataListByIds(ids);
+        verify(consentJpaRepository).fetchTppAccountAccessesByIds(ids);
+        verify(consentJpaRepository).fetchAspspAccountAccessesByIds(ids);
+    }
+
+    @Test
+    void fetchAisConsentAssociations_largeResultInChunks() {
+        // Given
+        List<ConsentEntity> consents = LongStream.rangeClosed(1, 2500)
+                                           .mapToObj(id -> buildConsent(id, "consent " + id))
+                                           .collect(Collectors.toList());
+
+        // When
+        exportAssociationFetchService.fetchAisConsentAssociations(consents);
+
+        // Then
+        verify(consentJpaRepository, times(3)).fetchPsuDataListByIds(anyList());
+        verify(consentJpaRepository, times(3)).fetchTppAccountAccessesByIds(anyList());
+        verify(consentJpaRepository, times(3)).fetchAspspAccountAccessesByIds(anyList());
+    }
+
+    @Test
+    void fetchAisConsentAssociations_emptyResult() {
+        exportAssociationFetchService.fetchAisConsentAssociations(Collections.emptyList());
+
+        verifyNoInteractions(consentJpaRepository);
+    }
+
+    @Test
+    void fetchPiisConsentAssociations() {
+        // Given
+        List<ConsentEntity> consents = Collections.singletonList(buildConsent(1L, FIRST_CONSENT_ID));
+
+        // When
+        exportAssociationFetchService.fetchPiisConsentAssociations(consents);
+
+        // Then
+        verify(consentJpaRepository).fetchPsuDataListByIds(Collections.singletonList(1L));
+        verify(consentJpaRepository).fetchAspspAccountAccessesByIds(Collections.singletonList(1L));
+        verify(consentJpaRepository, never()).fetchTppAccountAccessesByIds(anyList());
+    }
+
+    @Test
+    void fetchPaymentAssociations() {
+        // Given
+        PisCommonPaymentData payment = new PisCommonPaymentData();
+        payment.setId(3L);
+
+        // When
+        exportAssociationFetchService.fetchPaymentAssociations(Collections.singletonList(payment));
+
+        // Then
+        verify(pisCommonPaymentDataRepository).fetchPsuDataListByIds(Collections.singletonList(3L));
+        verify(pisCommonPaymentDataRepository).fetchPaymentsByIds(Collections.singletonList(3L));
+    }
+
+    @Test
+    void findAuthorisationsByParentId() {
+        // Given
+        List<ConsentEntity> consents = Arrays.asList(buildConsent(1L, FIRST_CONSENT_ID), buildConsent(2L, SECOND_CONSENT_ID));
+        AuthorisationEntity firstAuthorisation = buildAuthorisation(FIRST_CONSENT_ID);
+        AuthorisationEntity secondAuthorisation = buildAuthorisation(FIRST_CONSENT_ID);
+        when(authorisationRepository.findAllByParentExternalIdInAndAuthorisationType(Arrays.asList(FIRST_CONSENT_ID, SECOND_CONSENT_ID), AuthorisationType.AIS))
+            .thenReturn(Arrays.asList(firstAuthorisation, secondAuthorisation));
+
+        // When
+        Map<String, List<AuthorisationEntity>> actual = exportAssociationFetchService.findAuthorisationsByParentId(consents, AuthorisationType.AIS);
+
+        // Then
+        assertEquals(Collections.singletonMap(FIRST_CONSENT_ID, Arrays.asList(firstAuthorisation, secondAuthorisation)), actual);
+    }
+
+    @Test
+    void findUsageCounterMaps() {
+        // Given
+        List<ConsentEntity> consents = Collections.singletonList(buildConsent(1L, FIRST_CONSENT_ID));
+        Map<Long, Map<String, Integer>> usageCounterMaps = Collections.singletonMap(1L, Collections.singletonMap("/v1/accounts", 3));
+        when(aisConsentUsageService.getUsageCounterMaps(consents)).thenReturn(usageCounterMaps);
+
+        // When
+        Map<Long, Map<String, Integer>> actual = exportAssociationFetchService.findUsageCounterMaps(consents);
+
+        // Then
+        assertEquals(usageCounterMaps, actual);
+    }
+
+    private ConsentEntity buildConsent(Long id, String externalId) {
+        ConsentEntity consent = new ConsentEntity();
+        consent.setId(id);
+        consent.setExternalId(externalId);
+        return consent;
+    }
+
+    private AuthorisationEntity buildAuthorisation(String parentId) {
+        AuthorisationEntity authorisation = new AuthorisationEntity();
+        authorisation.setParentExternalId(parentId);
+        return authorisation;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.aspsp;
+
+import de.adorsys.psd2.consent.aspsp.api.ExportPage;
+import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.repository.SpecificationStreamingRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportPageLoaderTest {
+    private static final OffsetDateTime CREATION_TIMESTAMP = OffsetDateTime.of(2020, 5, 10, 12, 30, 0, 0, ZoneOffset.UTC);
+    private static final String MALFORMED_CURSOR = "malformed cursor";
+
+    @InjectMocks
+    private ExportPageLoader exportPageLoader;
+
+    @Mock
+    private SpecificationStreamingRepository specificationStreamingRepository;
+
+    private final List<OffsetDateTime> requestedCreationTimestamps = new ArrayList<>();
+    private final List<Long> requestedIds = new ArrayList<>();
+
+    @Test
+    void loadPage_firstPageWithNextPage() {
+        // Given
+        when(specificationStreamingRepository.findAll(eq(ConsentEntity.class), any(), eq(3)))
+            .thenReturn(Arrays.asList(buildConsentEntity(1L), buildConsentEntity(2L), buildConsentEntity(3L)));
+
+        // When
+        ExportPage<Long> page = loadPage(null, 2);
+
+        // Then
+        assertEquals(Arrays.asList(1L, 2L), page.getItems());
+        assertNotNull(page.getNextCursor());
+        assertEquals(Collections.singletonList(null), requestedCreationTimestamps);
+        assertEquals(Collections.singletonList(null), requestedIds);
+    }
+
+    @Test
+    void loadPage_nextPageAfterCursor() {
+        // Given
+        String cursor = new ExportCursor(CREATION_TIMESTAMP, 2L).encode();
+        when(specificationStreamingRepository.findAll(eq(ConsentEntity.class), any(), eq(3)))
+            .thenReturn(Collections.singletonList(buildConsentEntity(3L)));
+
+        // When
+        ExportPage<Long> page = loadPage(cursor, 2);
+
+        // Then
+        assertEquals(Collections.singletonList(3L), page.getItems());
+        assertNull(page.getNextCursor());
+        assertEquals(Collections.singletonList(CREATION_TIMESTAMP), requestedCreationTimestamps);
+        assertEquals(Collections.singletonList(2L), requestedIds);
+    }
+
+    @Test
+    void loadPage_cursorOfPreviousPage() {
+        // Given
+        when(specificationStreamingRepository.findAll(eq(ConsentEntity.class), any(), eq(2)))
+            .thenReturn(Arrays.asList(buildConsentEntity(1L), buildConsentEntity(2L)))
+            .thenReturn(Collections.singletonList(buildConsentEntity(2L)));
+        String nextCursor = loadPage(null, 1).getNextCursor();
+
+        // When
+        ExportPage<Long> page = loadPage(nextCursor, 1);
+
+        // Then
+        assertEquals(Collections.singletonList(2L), page.getItems());
+        assertEquals(Arrays.asList(null, CREATION_TIMESTAMP), requestedCreationTimestamps);
+        assertEquals(Arrays.asList(null, 1L), requestedIds);
+    }
+
+    @Test
+    void loadPage_malformedCursor() {
+        // When
+        ExportPage<Long> page = loadPage(MALFORMED_CURSOR, 2);
+
+        // Then
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(specificationStreamingRepository, never()).findAll(any(), any(), anyInt());
+    }
+
+    @Test
+    void loadPage_defaultPageSize() {
+        // When
+        loadPage(null, 0);
+
+        // Then
+        verify(specificationStreamingRepository).findAll(eq(ConsentEntity.class), any(), eq(101));
+    }
+
+    @Test
+    void loadPage_pageSizeLimitedByMaxPageSize() {
+        // When
+        loadPage(null, 5000);
+
+        // Then
+        verify(specificationStreamingRepository).findAll(eq(ConsentEntity.class), any(), eq(1001));
+    }
+
+    private ExportPage<Long> loadPage(String cursor, int pageSize) {
+        BiFunction<OffsetDateTime, Long, Specification<ConsentEntity>> cursorSpecification = (creationTimestamp, id) -> {
+            requestedCreationTimestamps.add(creationTimestamp);
+            requestedIds.add(id);
+            return (root, query, criteriaBuilder) -> null;
+        };
+        return exportPageLoader.loadPage(ConsentEntity.class, (root, query, criteriaBuilder) -> null, cursorSpecification,
+                                         ConsentEntity::getCreationTimestamp, ConsentEntity::getId,
+                                         consents -> consents.stream().map(ConsentEntity::getId).collect(Collectors.toList()),
+                                         cursor, pageSize);
+    }
+
+    private ConsentEntity buildConsentEntity(Long id) {
+        ConsentEntity consentEntity = new ConsentEntity();
+        consentEntity.setId(id);
+        consentEntity.setCreationTimestamp(CREATION_TIMESTAMP);
+        return consentEntity;
+    }
+}
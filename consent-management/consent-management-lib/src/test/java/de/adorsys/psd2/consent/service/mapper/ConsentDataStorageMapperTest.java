@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.mapper;
+
+import de.adorsys.psd2.core.data.ais.AisConsentData;
+import de.adorsys.psd2.core.data.piis.v1.PiisConsentData;
+import de.adorsys.psd2.core.mapper.ConsentDataCodec;
+import de.adorsys.psd2.core.mapper.ConsentDataMapper;
+import de.adorsys.psd2.xs2a.core.ais.AccountAccessType;
+import de.adorsys.psd2.xs2a.core.consent.ConsentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsentDataStorageMapperTest {
+    private static final AisConsentData AIS_CONSENT_DATA = new AisConsentData(null, AccountAccessType.ALL_ACCOUNTS, null, true);
+    private static final PiisConsentData PIIS_CONSENT_DATA = new PiisConsentData("card number", LocalDate.of(2025, 12, 31), "card information", null);
+
+    private final ConsentDataMapper consentDataMapper = new ConsentDataMapper();
+    private ConsentDataStorageMapper consentDataStorageMapper;
+
+    @BeforeEach
+    void setUp() {
+        consentDataStorageMapper = new ConsentDataStorageMapper(consentDataMapper);
+    }
+
+    @Test
+    void mapToStoredData_compactEncodingDisabled() {
+        // When
+        byte[] actual = consentDataStorageMapper.mapToStoredData(AIS_CONSENT_DATA);
+
+        // Then
+        assertArrayEquals(consentDataMapper.getBytesFromConsentData(AIS_CONSENT_DATA), actual);
+    }
+
+    @Test
+    void mapToStoredData_compactEncodingEnabled() {
+        // Given
+        enableCompactEncoding();
+
+        // When
+        byte[] actual = consentDataStorageMapper.mapToStoredData(AIS_CONSENT_DATA);
+
+        // Then
+        assertTrue(ConsentDataCodec.isEncoded(actual));
+        assertEquals(AIS_CONSENT_DATA, consentDataMapper.mapToAisConsentData(actual));
+    }
+
+    @Test
+    void mapToStoredData_jsonBytes_compactEncodingDisabled() {
+        // Given
+        byte[] json = consentDataMapper.getBytesFromConsentData(PIIS_CONSENT_DATA);
+
+        // When
+        byte[] actual = consentDataStorageMapper.mapToStoredData(ConsentType.PIIS_TPP, json);
+
+        // Then
+        assertSame(json, actual);
+    }
+
+    @Test
+    void mapToStoredData_jsonBytes_compactEncodingEnabled() {
+        // Given
+        enableCompactEncoding();
+        byte[] json = consentDataMapper.getBytesFromConsentData(PIIS_CONSENT_DATA);
+
+        // When
+        byte[] actual = consentDataStorageMapper.mapToStoredData(ConsentType.PIIS_TPP, json);
+
+        // Then
+        assertTrue(ConsentDataCodec.isEncoded(actual));
+        assertTrue(actual.length < json.length);
+        assertEquals(PIIS_CONSENT_DATA, consentDataMapper.mapToPiisConsentData(actual));
+    }
+
+    @Test
+    void mapToStoredData_encodedBytes_compactEncodingEnabled() {
+        // Given
+        enableCompactEncoding();
+        byte[] encoded = consentDataMapper.getCompactBytesFromConsentData(AIS_CONSENT_DATA);
+
+        // When
+        byte[] actual = consentDataStorageMapper.mapToStoredData(ConsentType.AIS, encoded);
+
+        // Then
+        assertSame(encoded, actual);
+    }
+
+    @Test
+    void mapToStoredData_malformedJsonBytes_compactEncodingEnabled() {
+        // Given
+        enableCompactEncoding();
+        byte[] malformed = "{malformed".getBytes();
+
+        // When
+        byte[] actual = consentDataStorageMapper.mapToStoredData(ConsentType.AIS, malformed);
+
+        // Then
+        assertSame(malformed, actual);
+    }
+
+    private void enableCompactEncoding() {
+        ReflectionTestUtils.setField(consentDataStorageMapper, "compactEncodingEnabled", true);
+    }
+}
@@ -20,16 +20,19 @@ import de.adorsys.psd2.consent.domain.account.AisConsent;
 import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
 import de.adorsys.psd2.consent.repository.migration.ObsoleteAisConsentJpaRepository;
+import de.adorsys.psd2.consent.service.mapper.ConsentDataStorageMapper;
 import de.adorsys.psd2.core.data.ais.AisConsentData;
 import de.adorsys.psd2.core.mapper.ConsentDataMapper;
 import de.adorsys.psd2.xs2a.core.ais.AccountAccessType;
 import de.adorsys.xs2a.reader.JsonReader;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
 
@@ -52,9 +55,16 @@ class AisConsentLazyMigrationServiceTest {
 
     @Spy
     private ConsentDataMapper consentDataMapper = new ConsentDataMapper();
+    @Spy
+    private ConsentDataStorageMapper consentDataStorageMapper = new ConsentDataStorageMapper(consentDataMapper);
 
     private JsonReader jsonReader = new JsonReader();
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(aisConsentLazyMigrationService, "lazyMigrationEnabled", true);
+    }
+
     @Test
     void migrateIfNeeded() {
         // Given
@@ -94,4 +104,20 @@ class AisConsentLazyMigrationServiceTest {
         verify(obsoleteAisConsentJpaRepository, never()).findByExternalId(any());
         verify(consentJpaRepository, never()).save(any());
     }
+
+    @Test
+    void migrateIfNeeded_lazyMigrationDisabled() {
+        // Given
+        ReflectionTestUtils.setField(aisConsentLazyMigrationService, "lazyMigrationEnabled", false);
+        ConsentEntity consentEntity = new ConsentEntity();
+        consentEntity.setExternalId(EXTERNAL_ID);
+
+        // When
+        aisConsentLazyMigrationService.migrateIfNeeded(consentEntity);
+
+        // Then
+        verify(obsoleteAisConsentJpaRepository, never()).findByExternalId(any());
+        verify(consentJpaRepository, never()).save(any());
+        assertNull(consentEntity.getData());
+    }
 }
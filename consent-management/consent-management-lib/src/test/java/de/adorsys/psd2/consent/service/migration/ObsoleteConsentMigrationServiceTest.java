@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.migration;
+
+import de.adorsys.psd2.consent.domain.account.AisConsent;
+import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
+import de.adorsys.psd2.consent.domain.piis.PiisConsentEntity;
+import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.migration.ObsoleteAisConsentJpaRepository;
+import de.adorsys.psd2.consent.repository.migration.ObsoletePiisConsentJpaRepository;
+import de.adorsys.psd2.consent.service.mapper.ConsentDataStorageMapper;
+import de.adorsys.psd2.core.data.ais.AisConsentData;
+import de.adorsys.psd2.core.data.piis.v1.PiisConsentData;
+import de.adorsys.psd2.core.mapper.ConsentDataMapper;
+import de.adorsys.psd2.xs2a.core.ais.AccountAccessType;
+import de.adorsys.psd2.xs2a.core.consent.ConsentType;
+import de.adorsys.xs2a.reader.JsonReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ObsoleteConsentMigrationServiceTest {
+    private static final String AIS_EXTERNAL_ID = "4c4e9624-9eb6-4d3f-86cd-7f70a11c3b5e";
+    private static final String PIIS_EXTERNAL_ID = "5c4e9624-9eb6-4d3f-86cd-7f70a11c3b5e";
+    private static final String NOT_MIGRATABLE_EXTERNAL_ID = "6c4e9624-9eb6-4d3f-86cd-7f70a11c3b5e";
+
+    private ObsoleteConsentMigrationService obsoleteConsentMigrationService;
+
+    @Mock
+    private ConsentJpaRepository consentJpaRepository;
+    @Mock
+    private ObsoleteAisConsentJpaRepository obsoleteAisConsentJpaRepository;
+    @Mock
+    private ObsoletePiisConsentJpaRepository obsoletePiisConsentJpaRepository;
+
+    private ConsentDataMapper consentDataMapper = new ConsentDataMapper();
+    private JsonReader jsonReader = new JsonReader();
+
+    @BeforeEach
+    void setUp() {
+        ConsentDataStorageMapper consentDataStorageMapper = new ConsentDataStorageMapper(consentDataMapper);
+        AisConsentLazyMigrationService aisConsentLazyMigrationService = new AisConsentLazyMigrationService(obsoleteAisConsentJpaRepository, consentJpaRepository, consentDataStorageMapper);
+        PiisConsentLazyMigrationService piisConsentLazyMigrationService = new PiisConsentLazyMigrationService(obsoletePiisConsentJpaRepository, consentJpaRepository, consentDataStorageMapper);
+        obsoleteConsentMigrationService = new ObsoleteConsentMigrationService(consentJpaRepository, obsoleteAisConsentJpaRepository, obsoletePiisConsentJpaRepository,
+                                                                              aisConsentLazyMigrationService, piisConsentLazyMigrationService);
+    }
+
+    @Test
+    void findNotMigratedConsentIds() {
+        // Given
+        List<Long> ids = Arrays.asList(2L, 3L);
+        when(consentJpaRepository.findNotMigratedConsentIds(1L, 10L, "AIS", new HashSet<>(Arrays.asList("PIIS_ASPSP", "PIIS_TPP")), PageRequest.of(0, 2)))
+            .thenReturn(ids);
+
+        // When
+        List<Long> actual = obsoleteConsentMigrationService.findNotMigratedConsentIds(1L, 10L, 2);
+
+        // Then
+        assertEquals(ids, actual);
+    }
+
+    @Test
+    void migrateConsents() {
+        // Given
+        ConsentEntity aisConsent = buildConsent(AIS_EXTERNAL_ID, ConsentType.AIS);
+        ConsentEntity piisConsent = buildConsent(PIIS_EXTERNAL_ID, ConsentType.PIIS_TPP);
+        ConsentEntity notMigratableConsent = buildConsent(NOT_MIGRATABLE_EXTERNAL_ID, ConsentType.AIS);
+        List<Long> ids = Arrays.asList(1L, 2L, 3L);
+        when(consentJpaRepository.findAllById(ids)).thenReturn(Arrays.asList(aisConsent, piisConsent, notMigratableConsent));
+
+        AisConsent obsoleteAisConsent = jsonReader.getObjectFromFile("json/service/migration/ais-consent.json", AisConsent.class);
+        obsoleteAisConsent.setExternalId(AIS_EXTERNAL_ID);
+        when(obsoleteAisConsentJpaRepository.findAllByExternalIdIn(new HashSet<>(Arrays.asList(AIS_EXTERNAL_ID, NOT_MIGRATABLE_EXTERNAL_ID))))
+            .thenReturn(Collections.singletonList(obsoleteAisConsent));
+        PiisConsentEntity obsoletePiisConsent = jsonReader.getObjectFromFile("json/service/migration/piis-consent-entity.json", PiisConsentEntity.class);
+        obsoletePiisConsent.setExternalId(PIIS_EXTERNAL_ID);
+        when(obsoletePiisConsentJpaRepository.findAllByExternalIdIn(Collections.singleton(PIIS_EXTERNAL_ID)))
+            .thenReturn(Collections.singletonList(obsoletePiisConsent));
+
+        // When
+        int actual = obsoleteConsentMigrationService.migrateConsents(ids);
+
+        // Then
+        assertEquals(2, actual);
+        ArgumentCaptor<List<ConsentEntity>> savedCaptor = ArgumentCaptor.forClass(List.class);
+        verify(consentJpaRepository).saveAll(savedCaptor.capture());
+        assertEquals(Arrays.asList(aisConsent, piisConsent), savedCaptor.getValue());
+        verify(obsoleteAisConsentJpaRepository, never()).findByExternalId(any());
+        verify(obsoletePiisConsentJpaRepository, never()).findByExternalId(any());
+
+        AisConsentData aisConsentData = consentDataMapper.mapToAisConsentData(aisConsent.getData());
+        assertEquals(AccountAccessType.ALL_ACCOUNTS, aisConsentData.getAllPsd2());
+        assertTrue(aisConsentData.isCombinedServiceIndicator());
+        PiisConsentData piisConsentData = consentDataMapper.mapToPiisConsentData(piisConsent.getData());
+        assertEquals(jsonReader.getObjectFromFile("json/service/migration/piis-consent.json", PiisConsentData.class), piisConsentData);
+        assertNull(notMigratableConsent.getData());
+    }
+
+    @Test
+    void migrateConsents_alreadyMigrated() {
+        // Given
+        ConsentEntity consent = buildConsent(AIS_EXTERNAL_ID, ConsentType.AIS);
+        consent.setData("data".getBytes());
+        List<Long> ids = Collections.singletonList(1L);
+        when(consentJpaRepository.findAllById(ids)).thenReturn(Collections.singletonList(consent));
+
+        // When
+        int actual = obsoleteConsentMigrationService.migrateConsents(ids);
+
+        // Then
+        assertEquals(0, actual);
+        verifyNoInteractions(obsoleteAisConsentJpaRepository, obsoletePiisConsentJpaRepository);
+    }
+
+    @Test
+    void countNotMigratedConsents() {
+        when(consentJpaRepository.countNotMigratedConsents("AIS", new HashSet<>(Arrays.asList("PIIS_ASPSP", "PIIS_TPP")))).thenReturn(3L);
+
+        assertEquals(3L, obsoleteConsentMigrationService.countNotMigratedConsents());
+    }
+
+    @Test
+    void countNotMigratableConsents() {
+        // Given
+        when(consentJpaRepository.countByDataIsNull()).thenReturn(5L);
+        when(consentJpaRepository.countNotMigratedConsents("AIS", new HashSet<>(Arrays.asList("PIIS_ASPSP", "PIIS_TPP")))).thenReturn(3L);
+
+        // When
+        long actual = obsoleteConsentMigrationService.countNotMigratableConsents();
+
+        // Then
+        assertEquals(2L, actual);
+    }
+
+    private ConsentEntity buildConsent(String externalId, ConsentType consentType) {
+        ConsentEntity consent = new ConsentEntity();
+        consent.setExternalId(externalId);
+        consent.setConsentType(consentType.getName());
+        return consent;
+    }
+}
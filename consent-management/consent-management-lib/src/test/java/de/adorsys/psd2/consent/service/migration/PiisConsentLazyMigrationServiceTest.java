@@ -20,20 +20,24 @@ import de.adorsys.psd2.consent.domain.consent.ConsentEntity;
 import de.adorsys.psd2.consent.domain.piis.PiisConsentEntity;
 import de.adorsys.psd2.consent.repository.ConsentJpaRepository;
 import de.adorsys.psd2.consent.repository.migration.ObsoletePiisConsentJpaRepository;
+import de.adorsys.psd2.consent.service.mapper.ConsentDataStorageMapper;
 import de.adorsys.psd2.core.data.piis.v1.PiisConsentData;
 import de.adorsys.psd2.core.mapper.ConsentDataMapper;
 import de.adorsys.xs2a.reader.JsonReader;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -51,9 +55,16 @@ class PiisConsentLazyMigrationServiceTest {
 
     @Spy
     private ConsentDataMapper consentDataMapper = new ConsentDataMapper();
+    @Spy
+    private ConsentDataStorageMapper consentDataStorageMapper = new ConsentDataStorageMapper(consentDataMapper);
 
     private JsonReader jsonReader = new JsonReader();
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(piisConsentLazyMigrationService, "lazyMigrationEnabled", true);
+    }
+
     @Test
     void migrateIfNeeded() {
         // Given
@@ -91,4 +102,20 @@ class PiisConsentLazyMigrationServiceTest {
         verify(obsoletePiisConsentJpaRepository, never()).findByExternalId(any());
         verify(consentJpaRepository, never()).save(any());
     }
+
+    @Test
+    void migrateIfNeeded_lazyMigrationDisabled() {
+        // Given
+        ReflectionTestUtils.setField(piisConsentLazyMigrationService, "lazyMigrationEnabled", false);
+        ConsentEntity consentEntity = new ConsentEntity();
+        consentEntity.setExternalId(EXTERNAL_ID);
+
+        // When
+        piisConsentLazyMigrationService.migrateIfNeeded(consentEntity);
+
+        // Then
+        verify(obsoletePiisConsentJpaRepository, never()).findByExternalId(any());
+        verify(consentJpaRepository, never()).save(any());
+        assertNull(consentEntity.getData());
+    }
 }
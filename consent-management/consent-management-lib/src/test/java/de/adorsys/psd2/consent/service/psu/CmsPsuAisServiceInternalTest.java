@@ -42,6 +42,7 @@ import de.adorsys.psd2.consent.service.AisConsentUsageService;
 import de.adorsys.psd2.consent.service.mapper.AccessMapper;
 import de.adorsys.psd2.consent.service.mapper.AisConsentMapper;
 import de.adorsys.psd2.consent.service.mapper.CmsPsuAuthorisationMapper;
+import de.adorsys.psd2.consent.service.mapper.ConsentDataStorageMapper;
 import de.adorsys.psd2.consent.service.mapper.PsuDataMapper;
 import de.adorsys.psd2.consent.service.migration.AisConsentLazyMigrationService;
 import de.adorsys.psd2.core.data.AccountAccess;
@@ -121,7 +122,7 @@ class CmsPsuAisServiceInternalTest {
     @Mock
     private CmsPsuService cmsPsuService;
     @Mock
-    private ConsentDataMapper consentDataMapper;
+    private ConsentDataStorageMapper consentDataStorageMapper;
     @Mock
     private AisConsentLazyMigrationService aisConsentLazyMigrationService;
     @Mock
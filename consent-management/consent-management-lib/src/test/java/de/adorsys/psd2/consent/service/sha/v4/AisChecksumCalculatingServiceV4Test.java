@@ -0,0 +1,253 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.consent.service.sha.v4;
+
+import de.adorsys.psd2.consent.service.sha.ChecksumConstant;
+import de.adorsys.psd2.core.data.AccountAccess;
+import de.adorsys.psd2.core.data.Consent;
+import de.adorsys.psd2.core.data.ais.AisConsent;
+import de.adorsys.psd2.xs2a.core.consent.ConsentType;
+import de.adorsys.psd2.xs2a.core.profile.AccountReference;
+import de.adorsys.xs2a.reader.JsonReader;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AisChecksumCalculatingServiceV4Test {
+    private static final String VERSION_04 = "004";
+    private static final byte[] WRONG_CHECKSUM = "checksum in consent".getBytes();
+    private static final byte[] WRONG_CHECKSUM_WITH_2_PARTS = ("checksum in consent" + ChecksumConstant.DELIMITER + "second part==").getBytes();
+    private static final byte[] CHECKSUM_V3 = "003_%_dsuFMYCrZd1YWY7+3/zF7mgrO0PFjhkHn9foi2ylWZOzCWRaUBXNBXkllfmnQ8JXLFEZk3Ta7l+jbdRHHkYT0Q==".getBytes();
+
+    private JsonReader jsonReader = new JsonReader();
+
+    private final AisChecksumCalculatingServiceV4 aisChecksumCalculatingServiceV4 = new AisChecksumCalculatingServiceV4();
+
+    @Test
+    void calculateChecksumForConsent_tppAccesses() {
+        // given
+        AisConsent aisConsent = buildConsentTppIbanAndMaskedPan();
+
+        // when
+        byte[] actualResult = aisChecksumCalculatingServiceV4.calculateChecksumForConsent(aisConsent);
+
+        // then
+        String[] elements = new String(actualResult).split(ChecksumConstant.DELIMITER);
+        assertEquals(2, elements.length);
+        assertEquals(VERSION_04, elements[ChecksumConstant.VERSION_START_POSITION]);
+        assertTrue(aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(aisConsent, actualResult));
+    }
+
+    @Test
+    void calculateChecksumForConsent_aspspAccesses() {
+        // given
+        AisConsent aisConsent = buildConsentAspspIbanAndMaskedPan();
+
+        // when
+        byte[] actualResult = aisChecksumCalculatingServiceV4.calculateChecksumForConsent(aisConsent);
+
+        // then
+        assertEquals(3, new String(actualResult).split(ChecksumConstant.DELIMITER).length);
+        assertTrue(aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(aisConsent, actualResult));
+    }
+
+    @Test
+    void calculateChecksumForConsent_sameForEqualConsents() {
+        // when
+        byte[] firstResult = aisChecksumCalculatingServiceV4.calculateChecksumForConsent(buildConsentAspspIbanAndMaskedPan());
+        byte[] secondResult = aisChecksumCalculatingServiceV4.calculateChecksumForConsent(buildConsentAspspIbanAndMaskedPan());
+
+        // then
+        assertArrayEquals(firstResult, secondResult);
+    }
+
+    @Test
+    void calculateChecksumForConsent_independentOfReferenceOrder() {
+        // given
+        AisConsent aisConsent = buildConsentTppIbanAndMaskedPan();
+        byte[] checksum = aisChecksumCalculatingServiceV4.calculateChecksumForConsent(aisConsent);
+        Collections.reverse(aisConsent.getTppAccountAccesses().getAccounts());
+
+        // when
+        boolean actualResult = aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(aisConsent, checksum);
+
+        // then
+        assertTrue(actualResult);
+    }
+
+    @Test
+    void verifyConsentWithChecksum_changedValidUntil() {
+        // given
+        AisConsent aisConsent = buildConsentTppIbanAndMaskedPan();
+        byte[] checksum = aisChecksumCalculatingServiceV4.calculateChecksumForConsent(aisConsent);
+        aisConsent.setValidUntil(aisConsent.getValidUntil().plusDays(1));
+
+        // when
+        boolean actualResult = aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(aisConsent, checksum);
+
+        // then
+        assertFalse(actualResult);
+    }
+
+    @Test
+    void verifyConsentWithChecksum_changedTppAccess() {
+        // given
+        AisConsent aisConsent = buildConsentTppIbanAndMaskedPan();
+        byte[] checksum = aisChecksumCalculatingServiceV4.calculateChecksumForConsent(aisConsent);
+        aisConsent.getTppAccountAccesses().getAccounts().get(0).setIban("DE89370400440532013000");
+
+        // when
+        boolean actualResult = aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(aisConsent, checksum);
+
+        // then
+        assertFalse(actualResult);
+    }
+
+    @Test
+    void verifyConsentWithChecksum_changedAspspAccess() {
+        // given
+        AisConsent aisConsent = buildConsentAspspIbanAndMaskedPan();
+        byte[] checksum = aisChecksumCalculatingServiceV4.calculateChecksumForConsent(aisConsent);
+        aisConsent.getAspspAccountAccesses().getAccounts().get(0).setResourceId("22222-999999999");
+
+        // when
+        boolean actualResult = aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(aisConsent, checksum);
+
+        // then
+        assertFalse(actualResult);
+    }
+
+    @Test
+    void verifyConsentWithChecksum_addedAspspAccessOfNewType() {
+        // given
+        AisConsent aisConsent = buildConsentAspspIban();
+        byte[] checksum = aisChecksumCalculatingServiceV4.calculateChecksumForConsent(aisConsent);
+        AccountAccess aspspAccess = aisConsent.getAspspAccountAccesses();
+        List<AccountReference> accounts = new ArrayList<>(aspspAccess.getAccounts());
+        accounts.add(new AccountReference(null, "11111-999999999", null, null, null, "525412******3241", null, Currency.getInstance("EUR")));
+        aisConsent.setAspspAccountAccesses(new AccountAccess(accounts, aspspAccess.getBalances(), aspspAccess.getTransactions(), aspspAccess.getAdditionalInformationAccess()));
+
+        // when
+        boolean actualResult = aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(aisConsent, checksum);
+
+        // then
+        assertTrue(actualResult);
+    }
+
+    @Test
+    void verifyConsentWithChecksum_wrongChecksum() {
+        // given
+        AisConsent aisConsent = buildConsentTppIban();
+
+        // when
+        boolean actualResult = aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(aisConsent, WRONG_CHECKSUM);
+
+        // then
+        assertFalse(actualResult);
+    }
+
+    @Test
+    void verifyConsentWithChecksum_wrongChecksumWithTwoParts() {
+        // given
+        AisConsent aisConsent = buildConsentTppIban();
+
+        // when
+        boolean actualResult = aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(aisConsent, WRONG_CHECKSUM_WITH_2_PARTS);
+
+        // then
+        assertFalse(actualResult);
+    }
+
+    @Test
+    void verifyConsentWithChecksum_checksumOfPreviousVersion() {
+        // given
+        AisConsent aisConsent = buildConsentTppIbanAndMaskedPan();
+
+        // when
+        boolean actualResult = aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(aisConsent, CHECKSUM_V3);
+
+        // then
+        assertFalse(actualResult);
+    }
+
+    @Test
+    void verifyConsentWithChecksum_consent_is_null() {
+        // when
+        boolean actualResult = aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(null, WRONG_CHECKSUM);
+
+        // then
+        assertFalse(actualResult);
+    }
+
+    @Test
+    void verifyConsentWithChecksum_checksum_is_null() {
+        // given
+        AisConsent aisConsent = buildConsentAspspIbanAndMaskedPan();
+
+        // when
+        boolean actualResult = aisChecksumCalculatingServiceV4.verifyConsentWithChecksum(aisConsent, null);
+
+        // then
+        assertFalse(actualResult);
+    }
+
+    @Test
+    void calculateChecksumForConsent_consent_is_unknown_object() {
+        // when
+        byte[] actualResult = aisChecksumCalculatingServiceV4.calculateChecksumForConsent(new TestObject());
+
+        // then
+        assertArrayEquals(new byte[0], actualResult);
+    }
+
+    @Test
+    void getVersion() {
+        // when
+        String actualResult = aisChecksumCalculatingServiceV4.getVersion();
+
+        // then
+        assertEquals(VERSION_04, actualResult);
+    }
+
+    private AisConsent buildConsentTppIban() {
+        return jsonReader.getObjectFromFile("json/dedicated-ais-consent_tpp_access.json", AisConsent.class);
+    }
+
+    private AisConsent buildConsentAspspIban() {
+        return jsonReader.getObjectFromFile("json/dedicated-ais-consent_aspsp_access.json", AisConsent.class);
+    }
+
+    private AisConsent buildConsentTppIbanAndMaskedPan() {
+        return jsonReader.getObjectFromFile("json/dedicated-ais-consent_tpp_access_iban&maskedpan.json", AisConsent.class);
+    }
+
+    private AisConsent buildConsentAspspIbanAndMaskedPan() {
+        return jsonReader.getObjectFromFile("json/dedicated-ais-consent_aspsp_access_iban&maskedpan.json", AisConsent.class);
+    }
+
+    private static class TestObject extends Consent<Object> {
+        @Override
+        public ConsentType getConsentType() {
+            return null;
+        }
+    }
+}
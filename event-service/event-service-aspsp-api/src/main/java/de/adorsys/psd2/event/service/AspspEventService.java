@@ -19,6 +19,8 @@ package de.adorsys.psd2.event.service;
 import de.adorsys.psd2.event.core.model.EventOrigin;
 import de.adorsys.psd2.event.core.model.EventType;
 import de.adorsys.psd2.event.service.model.AspspEvent;
+import de.adorsys.psd2.event.service.model.AspspEventStatistics;
+import de.adorsys.psd2.event.service.model.EventStatisticsGranularity;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -84,4 +86,16 @@ public interface AspspEventService {
      * @return List of Event objects, recorded in given time period and from a specific origin
      */
     List<AspspEvent> getEventsForPeriodAndEventOrigin(@NotNull OffsetDateTime start, @NotNull OffsetDateTime end, @NotNull EventOrigin eventOrigin, @Nullable String instanceId);
+
+    /**
+     * Returns numbers of events per TPP, event type and event origin, recorded in given time period.
+     * The numbers are read from the pre-aggregated event statistics instead of the events themselves.
+     *
+     * @param start       First date of the period
+     * @param end         Last date of the period
+     * @param granularity Length of the periods the numbers are aggregated to
+     * @param instanceId  The id of particular service instance
+     * @return List of event numbers, ordered by the start of the period
+     */
+    List<AspspEventStatistics> getEventStatisticsForPeriod(@NotNull OffsetDateTime start, @NotNull OffsetDateTime end, @NotNull EventStatisticsGranularity granularity, @Nullable String instanceId);
 }
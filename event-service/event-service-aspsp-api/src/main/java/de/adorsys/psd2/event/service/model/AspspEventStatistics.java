@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.service.model;
+
+import de.adorsys.psd2.event.core.model.EventOrigin;
+import de.adorsys.psd2.event.core.model.EventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Contains the number of events of the same type and origin, sent by the same TPP within one period.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AspspEventStatistics {
+    /**
+     * Date and time (UTC) when the period starts.
+     */
+    private OffsetDateTime periodStart;
+
+    /**
+     * The id of particular service instance.
+     */
+    private String instanceId;
+
+    /**
+     * Authorization number of the TPP, "UNDEFINED" for events without TPP.
+     */
+    private String tppAuthorisationNumber;
+
+    /**
+     * Indicates what happened in the events.
+     */
+    private EventType eventType;
+
+    /**
+     * Indicates the origin of the events.
+     */
+    private EventOrigin eventOrigin;
+
+    /**
+     * Number of events recorded in the period.
+     */
+    private long eventCount;
+}
@@ -19,16 +19,23 @@ package de.adorsys.psd2.event.service;
 import de.adorsys.psd2.event.core.model.EventOrigin;
 import de.adorsys.psd2.event.core.model.EventType;
 import de.adorsys.psd2.event.persist.EventReportRepository;
+import de.adorsys.psd2.event.persist.model.EventStatisticsPO;
 import de.adorsys.psd2.event.persist.model.ReportEvent;
 import de.adorsys.psd2.event.service.mapper.AspspEventMapper;
 import de.adorsys.psd2.event.service.model.AspspEvent;
+import de.adorsys.psd2.event.service.model.AspspEventStatistics;
+import de.adorsys.psd2.event.service.model.EventStatisticsGranularity;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -65,4 +72,25 @@ public class AspspEventServiceImpl implements AspspEventService {
         List<ReportEvent> result = eventReportRepository.getEventsForPeriodAndEventOrigin(start, end, eventOrigin, instanceId);
         return eventBOMapper.toAspspEventList(result);
     }
+
+    @Override
+    public List<AspspEventStatistics> getEventStatisticsForPeriod(@NotNull OffsetDateTime start, @NotNull OffsetDateTime end, @NotNull EventStatisticsGranularity granularity, @Nullable String instanceId) {
+        List<EventStatisticsPO> statistics = eventReportRepository.getEventStatisticsForPeriod(start, end, instanceId);
+
+        // Rows are ordered by the period start, so the aggregated periods keep the order as well
+        Map<List<Object>, AspspEventStatistics> aggregated = new LinkedHashMap<>();
+        for (AspspEventStatistics item : eventBOMapper.toAspspEventStatisticsList(statistics)) {
+            item.setPeriodStart(granularity.truncate(item.getPeriodStart()));
+            aggregated.merge(getAggregationKey(item), item, (existing, added) -> {
+                existing.setEventCount(existing.getEventCount() + added.getEventCount());
+                return existing;
+            });
+        }
+        return new ArrayList<>(aggregated.values());
+    }
+
+    private List<Object> getAggregationKey(AspspEventStatistics statistics) {
+        return Arrays.asList(statistics.getPeriodStart(), statistics.getInstanceId(), statistics.getTppAuthorisationNumber(),
+                             statistics.getEventType(), statistics.getEventOrigin());
+    }
 }
@@ -16,9 +16,11 @@
 
 package de.adorsys.psd2.event.service.mapper;
 
+import de.adorsys.psd2.event.persist.model.EventStatisticsPO;
 import de.adorsys.psd2.event.persist.model.PsuIdDataPO;
 import de.adorsys.psd2.event.persist.model.ReportEvent;
 import de.adorsys.psd2.event.service.model.AspspEvent;
+import de.adorsys.psd2.event.service.model.AspspEventStatistics;
 import de.adorsys.psd2.event.service.model.AspspPsuIdData;
 import de.adorsys.psd2.mapper.Xs2aObjectMapper;
 import lombok.extern.slf4j.Slf4j;
@@ -45,6 +47,11 @@ public abstract class AspspEventMapper {
     @IterableMapping(nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT)
     public abstract List<AspspEvent> toAspspEventList(List<ReportEvent> events);
 
+    public abstract AspspEventStatistics toAspspEventStatistics(EventStatisticsPO statistics);
+
+    @IterableMapping(nullValueMappingStrategy = NullValueMappingStrategy.RETURN_DEFAULT)
+    public abstract List<AspspEventStatistics> toAspspEventStatisticsList(List<EventStatisticsPO> statistics);
+
     protected Object mapToPayload(byte[] array) {
         try {
             return xs2aObjectMapper.readValue(array, Object.class);
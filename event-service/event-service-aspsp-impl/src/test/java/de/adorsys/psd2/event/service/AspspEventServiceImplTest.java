@@ -19,7 +19,10 @@ package de.adorsys.psd2.event.service;
 import de.adorsys.psd2.event.core.model.EventOrigin;
 import de.adorsys.psd2.event.core.model.EventType;
 import de.adorsys.psd2.event.persist.EventReportRepository;
+import de.adorsys.psd2.event.persist.model.EventStatisticsPO;
 import de.adorsys.psd2.event.service.mapper.AspspEventMapper;
+import de.adorsys.psd2.event.service.model.AspspEventStatistics;
+import de.adorsys.psd2.event.service.model.EventStatisticsGranularity;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mapstruct.factory.Mappers;
@@ -29,8 +32,11 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -94,4 +100,44 @@ class AspspEventServiceImplTest {
 
         verify(eventReportRepository, times(1)).getEventsForPeriodAndEventType(eq(START), eq(END), eq(EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED), eq(INSTANCE_ID));
     }
+
+    @Test
+    void getEventStatisticsForPeriod_aggregatesToGranularity() {
+        List<EventStatisticsPO> statistics = Arrays.asList(buildEventStatisticsPO("2020-04-20T10:01:00Z", EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED, 2),
+                                                           buildEventStatisticsPO("2020-04-20T10:59:00Z", EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED, 3),
+                                                           buildEventStatisticsPO("2020-04-20T10:59:00Z", EventType.READ_ACCOUNT_LIST_REQUEST_RECEIVED, 7),
+                                                           buildEventStatisticsPO("2020-04-20T11:00:00Z", EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED, 1));
+        when(eventReportRepository.getEventStatisticsForPeriod(START, END, INSTANCE_ID)).thenReturn(statistics);
+
+        List<AspspEventStatistics> actual = aspspEventService.getEventStatisticsForPeriod(START, END, EventStatisticsGranularity.HOUR, INSTANCE_ID);
+
+        assertEquals(3, actual.size());
+        assertEquals(OffsetDateTime.parse("2020-04-20T10:00:00Z"), actual.get(0).getPeriodStart());
+        assertEquals(EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED, actual.get(0).getEventType());
+        assertEquals(5, actual.get(0).getEventCount());
+        assertEquals(EventType.READ_ACCOUNT_LIST_REQUEST_RECEIVED, actual.get(1).getEventType());
+        assertEquals(7, actual.get(1).getEventCount());
+        assertEquals(OffsetDateTime.parse("2020-04-20T11:00:00Z"), actual.get(2).getPeriodStart());
+        assertEquals(1, actual.get(2).getEventCount());
+    }
+
+    @Test
+    void getEventStatisticsForPeriod_empty() {
+        when(eventReportRepository.getEventStatisticsForPeriod(START, END, INSTANCE_ID)).thenReturn(Collections.emptyList());
+
+        List<AspspEventStatistics> actual = aspspEventService.getEventStatisticsForPeriod(START, END, EventStatisticsGranularity.DAY, INSTANCE_ID);
+
+        assertEquals(Collections.emptyList(), actual);
+    }
+
+    private EventStatisticsPO buildEventStatisticsPO(String periodStart, EventType eventType, long eventCount) {
+        EventStatisticsPO statistics = new EventStatisticsPO();
+        statistics.setPeriodStart(OffsetDateTime.parse(periodStart));
+        statistics.setInstanceId(INSTANCE_ID);
+        statistics.setTppAuthorisationNumber("12345987");
+        statistics.setEventType(eventType);
+        statistics.setEventOrigin(EventOrigin.TPP);
+        statistics.setEventCount(eventCount);
+        return statistics;
+    }
 }
@@ -19,9 +19,12 @@ package de.adorsys.psd2.report;
 import de.adorsys.psd2.event.core.model.EventOrigin;
 import de.adorsys.psd2.event.core.model.EventType;
 import de.adorsys.psd2.event.persist.EventReportRepository;
+import de.adorsys.psd2.event.persist.model.EventStatisticsPO;
 import de.adorsys.psd2.event.persist.model.ReportEvent;
 import de.adorsys.psd2.report.entity.EventEntityForReport;
+import de.adorsys.psd2.report.entity.EventStatisticsEntityForReport;
 import de.adorsys.psd2.report.jpa.EventReportJPARepository;
+import de.adorsys.psd2.report.jpa.EventStatisticsReportJPARepository;
 import de.adorsys.psd2.report.mapper.EventReportDBMapper;
 import lombok.RequiredArgsConstructor;
 import org.jetbrains.annotations.NotNull;
@@ -37,6 +40,7 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class EventReportRepositoryImpl implements EventReportRepository {
     private final EventReportJPARepository eventReportJPARepository;
+    private final EventStatisticsReportJPARepository eventStatisticsReportJPARepository;
     private final EventReportDBMapper eventReportDBMapper;
 
     @Override
@@ -68,4 +72,10 @@ public class EventReportRepositoryImpl implements EventReportRepository {
         List<EventEntityForReport> events = eventReportJPARepository.findByTimestampBetweenAndEventOriginAndInstanceIdOrderByTimestampAsc(start, end, eventOrigin, instanceId);
         return eventReportDBMapper.mapToAspspReportEvents(events);
     }
+
+    @Override
+    public List<EventStatisticsPO> getEventStatisticsForPeriod(@NotNull OffsetDateTime start, @NotNull OffsetDateTime end, @Nullable String instanceId) {
+        List<EventStatisticsEntityForReport> statistics = eventStatisticsReportJPARepository.getEventStatisticsForPeriod(start, end, instanceId);
+        return eventReportDBMapper.mapToEventStatisticsPOList(statistics);
+    }
 }
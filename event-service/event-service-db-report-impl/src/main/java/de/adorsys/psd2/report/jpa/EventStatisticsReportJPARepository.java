@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.report.jpa;
+
+import de.adorsys.psd2.report.entity.EventStatisticsEntityForReport;
+import de.adorsys.psd2.report.jpa.builder.EventReportSqlParameterSourceBuilder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class EventStatisticsReportJPARepository {
+    private static final String STATISTICS_REQUEST = "SELECT st.instance_id, st.tpp_authorisation_number, st.event_type, " +
+                                                         "st.event_origin, st.period_start, st.event_count " +
+                                                         "FROM %s.event_statistics st " +
+                                                         "WHERE st.period_start between :periodFrom and :periodTo " +
+                                                         "AND st.instance_id = :instanceId " +
+                                                         "ORDER BY st.period_start";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${spring.jpa.properties.hibernate.default_schema}")
+    private String schemaName;
+
+    public List<EventStatisticsEntityForReport> getEventStatisticsForPeriod(OffsetDateTime periodFrom, OffsetDateTime periodTo, String instanceId) {
+        EventReportSqlParameterSourceBuilder parameters = new EventReportSqlParameterSourceBuilder()
+                                                              .periodFrom(periodFrom)
+                                                              .periodTo(periodTo)
+                                                              .instanceId(instanceId)
+                                                              .build();
+
+        return namedParameterJdbcTemplate.query(String.format(STATISTICS_REQUEST, schemaName), parameters,
+                                                new BeanPropertyRowMapper<>(EventStatisticsEntityForReport.class));
+    }
+}
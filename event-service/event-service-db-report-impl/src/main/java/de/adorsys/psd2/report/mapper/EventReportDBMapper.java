@@ -16,13 +16,18 @@
 
 package de.adorsys.psd2.report.mapper;
 
+import de.adorsys.psd2.event.persist.model.EventStatisticsPO;
 import de.adorsys.psd2.event.persist.model.PsuIdDataPO;
 import de.adorsys.psd2.event.persist.model.ReportEvent;
+import de.adorsys.psd2.event.persist.payload.EventPayloadCodec;
 import de.adorsys.psd2.report.entity.EventEntityForReport;
+import de.adorsys.psd2.report.entity.EventStatisticsEntityForReport;
 import org.apache.commons.lang3.StringUtils;
 import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
+import org.mapstruct.Named;
 
 import java.util.*;
 import java.util.function.Function;
@@ -31,6 +36,7 @@ import java.util.stream.Collectors;
 @Mapper(componentModel = "spring")
 public interface EventReportDBMapper {
 
+    @Mapping(target = "payload", qualifiedByName = "decodePayload")
     ReportEvent mapToReportEvent(EventEntityForReport event);
 
     @AfterMapping
@@ -39,6 +45,11 @@ public interface EventReportDBMapper {
         reportEvent.setPsuIdData(getPsuIdDataPOSet(event));
     }
 
+    @Named("decodePayload")
+    default byte[] decodePayload(byte[] payload) {
+        return EventPayloadCodec.decompress(payload);
+    }
+
     default Set<PsuIdDataPO> getPsuIdDataPOSet(EventEntityForReport event) {
         Set<PsuIdDataPO> psus = new HashSet<>();
         if (StringUtils.isNotBlank(event.getPsuId())) {
@@ -67,4 +78,8 @@ public interface EventReportDBMapper {
                                                       .values();
         return new ArrayList<>(eventCollection);
     }
+
+    EventStatisticsPO mapToEventStatisticsPO(EventStatisticsEntityForReport statistics);
+
+    List<EventStatisticsPO> mapToEventStatisticsPOList(List<EventStatisticsEntityForReport> statistics);
 }
@@ -16,8 +16,13 @@
 
 package de.adorsys.psd2.report.mapper;
 
+import de.adorsys.psd2.event.core.model.EventOrigin;
+import de.adorsys.psd2.event.core.model.EventType;
+import de.adorsys.psd2.event.persist.model.EventStatisticsPO;
 import de.adorsys.psd2.event.persist.model.ReportEvent;
+import de.adorsys.psd2.event.persist.payload.EventPayloadCodec;
 import de.adorsys.psd2.report.entity.EventEntityForReport;
+import de.adorsys.psd2.report.entity.EventStatisticsEntityForReport;
 import de.adorsys.xs2a.reader.JsonReader;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,6 +30,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
@@ -59,9 +67,40 @@ class EventReportDBMapperTest {
         assertEquals(expectedReportEvent, actualReportEvent);
     }
 
+    @Test
+    void mapToReportEvent_compressedPayload() {
+        EventEntityForReport event = jsonReader.getObjectFromFile("json/event-entity-report.json", EventEntityForReport.class);
+        byte[] payload = ("{\"body\":\"" + "a".repeat(1024) + "\"}").getBytes();
+        event.setPayload(EventPayloadCodec.compress(payload, 6));
+
+        ReportEvent actualReportEvent = mapper.mapToReportEvent(event);
+
+        assertArrayEquals(payload, actualReportEvent.getPayload());
+    }
+
     @Test
     void mapToReportEvent_nullValue() {
         ReportEvent actualReportEvent = mapper.mapToReportEvent(null);
         assertNull(actualReportEvent);
     }
+
+    @Test
+    void mapToEventStatisticsPO() {
+        EventStatisticsEntityForReport statistics = new EventStatisticsEntityForReport();
+        statistics.setInstanceId("UNDEFINED");
+        statistics.setTppAuthorisationNumber("12345987");
+        statistics.setEventType("CREATE_AIS_CONSENT_REQUEST_RECEIVED");
+        statistics.setEventOrigin("TPP");
+        statistics.setPeriodStart(OffsetDateTime.parse("2020-04-20T10:01:00Z"));
+        statistics.setEventCount(5);
+
+        EventStatisticsPO actual = mapper.mapToEventStatisticsPO(statistics);
+
+        assertEquals("UNDEFINED", actual.getInstanceId());
+        assertEquals("12345987", actual.getTppAuthorisationNumber());
+        assertEquals(EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED, actual.getEventType());
+        assertEquals(EventOrigin.TPP, actual.getEventOrigin());
+        assertEquals(statistics.getPeriodStart(), actual.getPeriodStart());
+        assertEquals(5, actual.getEventCount());
+    }
 }
@@ -18,6 +18,7 @@ package de.adorsys.psd2.event.persist;
 
 import de.adorsys.psd2.event.core.model.EventOrigin;
 import de.adorsys.psd2.event.core.model.EventType;
+import de.adorsys.psd2.event.persist.model.EventStatisticsPO;
 import de.adorsys.psd2.event.persist.model.ReportEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -80,4 +81,14 @@ public interface EventReportRepository {
      * @return List of Event objects, recorded in given time period and from a specific origin
      */
     List<ReportEvent> getEventsForPeriodAndEventOrigin(@NotNull OffsetDateTime start, @NotNull OffsetDateTime end, @NotNull EventOrigin eventOrigin, @Nullable String instanceId);
+
+    /**
+     * Returns event counts aggregated per minute, TPP, event type and event origin, recorded in given time period
+     *
+     * @param start      First date of the period
+     * @param end        Last date of the period
+     * @param instanceId The id of particular service instance
+     * @return List of event counts, recorded in given time period
+     */
+    List<EventStatisticsPO> getEventStatisticsForPeriod(@NotNull OffsetDateTime start, @NotNull OffsetDateTime end, @Nullable String instanceId);
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.payload;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes event payloads for storage.
+ * <p>
+ * Compressed payloads are prefixed with a two byte header: a marker byte that can never start a JSON document
+ * and a format byte. Payloads without the header are treated as uncompressed, so rows written before the
+ * compression was enabled stay readable.
+ */
+public class EventPayloadCodec {
+    static final byte MARKER = 0x00;
+    static final byte FORMAT_DEFLATE = 0x01;
+    private static final int HEADER_LENGTH = 2;
+    private static final int BUFFER_SIZE = 4096;
+
+    private EventPayloadCodec() {
+    }
+
+    /**
+     * Compresses the given payload with deflate and prepends the format header.
+     * Returns the payload unchanged if compression doesn't make it smaller.
+     *
+     * @param payload raw event payload
+     * @param level   deflate compression level (0-9)
+     * @return encoded payload
+     */
+    public static byte[] compress(@Nullable byte[] payload, int level) {
+        if (payload == null || payload.length == 0 || isCompressed(payload)) {
+            return payload;
+        }
+
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(payload.length / 2 + HEADER_LENGTH);
+            outputStream.write(MARKER);
+            outputStream.write(FORMAT_DEFLATE);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                outputStream.write(buffer, 0, length);
+            }
+
+            byte[] compressed = outputStream.toByteArray();
+            return compressed.length < payload.length ? compressed : payload;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Restores the original payload. Payloads without the format header are returned as is.
+     *
+     * @param payload stored event payload
+     * @return raw event payload
+     */
+    public static byte[] decompress(@Nullable byte[] payload) {
+        if (!isCompressed(payload)) {
+            return payload;
+        }
+
+        if (payload[1] != FORMAT_DEFLATE) {
+            throw new IllegalArgumentException("Unknown event payload format: " + payload[1]);
+        }
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(payload, HEADER_LENGTH, payload.length - HEADER_LENGTH);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(payload.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Event payload is truncated");
+                }
+                outputStream.write(buffer, 0, length);
+            }
+            return outputStream.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Event payload can't be decompressed", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public static boolean isCompressed(@Nullable byte[] payload) {
+        return payload != null
+                   && payload.length >= HEADER_LENGTH
+                   && payload[0] == MARKER;
+    }
+}
@@ -20,9 +20,12 @@ import de.adorsys.psd2.event.persist.entity.EventEntity;
 import de.adorsys.psd2.event.persist.jpa.EventJPARepository;
 import de.adorsys.psd2.event.persist.mapper.EventDBMapper;
 import de.adorsys.psd2.event.persist.model.EventPO;
+import de.adorsys.psd2.event.persist.statistics.EventStatisticsCollector;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @RequiredArgsConstructor
@@ -30,12 +33,28 @@ import org.springframework.transaction.annotation.Transactional;
 public class EventRepositoryImpl implements EventRepository {
     private final EventJPARepository eventRepository;
     private final EventDBMapper eventDBMapper;
+    private final EventStatisticsCollector eventStatisticsCollector;
 
     @Override
     @Transactional
     public Long save(EventPO eventPO) {
         EventEntity entity = eventDBMapper.toEventEntity(eventPO);
         eventRepository.save(entity);
+        recordStatistics(entity);
         return entity.getId();
     }
+
+    private void recordStatistics(EventEntity entity) {
+        // events of rolled back transactions must not be counted
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventStatisticsCollector.record(entity);
+                }
+            });
+        } else {
+            eventStatisticsCollector.record(entity);
+        }
+    }
 }
@@ -30,7 +30,7 @@ public class EventEntity {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_generator")
-    @SequenceGenerator(name = "event_generator", sequenceName = "event_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "event_generator", sequenceName = "event_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "timestamp", nullable = false)
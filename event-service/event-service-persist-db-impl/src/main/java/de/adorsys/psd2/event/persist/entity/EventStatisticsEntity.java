@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.entity;
+
+import de.adorsys.psd2.event.core.model.EventOrigin;
+import de.adorsys.psd2.event.core.model.EventType;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.OffsetDateTime;
+
+@Data
+@Entity(name = "event_statistics")
+public class EventStatisticsEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_statistics_generator")
+    @SequenceGenerator(name = "event_statistics_generator", sequenceName = "event_statistics_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "instance_id", nullable = false, updatable = false)
+    private String instanceId;
+
+    @Column(name = "tpp_authorisation_number", nullable = false, updatable = false)
+    private String tppAuthorisationNumber;
+
+    @Column(name = "event_type", nullable = false, updatable = false)
+    @Enumerated(value = EnumType.STRING)
+    private EventType eventType;
+
+    @Column(name = "event_origin", nullable = false, updatable = false)
+    @Enumerated(value = EnumType.STRING)
+    private EventOrigin eventOrigin;
+
+    @Column(name = "period_start", nullable = false, updatable = false)
+    private OffsetDateTime periodStart;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.jpa;
+
+import de.adorsys.psd2.event.core.model.EventOrigin;
+import de.adorsys.psd2.event.core.model.EventType;
+import de.adorsys.psd2.event.persist.entity.EventStatisticsEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+
+@Repository
+public interface EventStatisticsJPARepository extends JpaRepository<EventStatisticsEntity, Long> {
+
+    @Modifying
+    @Query("UPDATE event_statistics s SET s.eventCount = s.eventCount + :count " +
+               "WHERE s.periodStart = :periodStart AND s.instanceId = :instanceId " +
+               "AND s.tppAuthorisationNumber = :tppAuthorisationNumber " +
+               "AND s.eventType = :eventType AND s.eventOrigin = :eventOrigin")
+    int incrementEventCount(@Param("periodStart") OffsetDateTime periodStart,
+                            @Param("instanceId") String instanceId,
+                            @Param("tppAuthorisationNumber") String tppAuthorisationNumber,
+                            @Param("eventType") EventType eventType,
+                            @Param("eventOrigin") EventOrigin eventOrigin,
+                            @Param("count") long count);
+}
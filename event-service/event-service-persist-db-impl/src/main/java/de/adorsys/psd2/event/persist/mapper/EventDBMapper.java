@@ -21,10 +21,11 @@ import de.adorsys.psd2.event.persist.model.EventPO;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "spring")
+@Mapper(componentModel = "spring", uses = EventPayloadMapper.class)
 public interface EventDBMapper {
 
     @Mapping(target = "psuData", source = "psuIdData")
     @Mapping(target = "instanceId", defaultValue = "UNDEFINED")
+    @Mapping(target = "payload", qualifiedByName = "encodePayload")
     EventEntity toEventEntity(EventPO eventPO);
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.mapper;
+
+import de.adorsys.psd2.event.persist.payload.EventPayloadCodec;
+import org.mapstruct.Named;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class EventPayloadMapper {
+    @Value("${cms.event.payload.compression.enabled:false}")
+    private boolean compressionEnabled;
+
+    @Value("${cms.event.payload.compression.min-size:512}")
+    private int compressionMinSize;
+
+    @Value("${cms.event.payload.compression.level:6}")
+    private int compressionLevel;
+
+    @Named("encodePayload")
+    public byte[] encodePayload(byte[] payload) {
+        if (!compressionEnabled || payload == null || payload.length < compressionMinSize) {
+            return payload;
+        }
+        return EventPayloadCodec.compress(payload, compressionLevel);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.statistics;
+
+import de.adorsys.psd2.event.persist.entity.EventEntity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts saved events in memory per {@link EventStatisticsKey} and periodically adds the counts to the
+ * event_statistics table, so that reports don't have to scan the event table.
+ * <p>
+ * Counters are kept in a {@link ConcurrentHashMap}, which locks only the bin of the updated key, so concurrent
+ * requests of different TPPs don't contend with each other. Flushing removes each counter atomically, events
+ * recorded afterwards start a new counter and are written with the next flush.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventStatisticsCollector {
+    private final EventStatisticsWriter eventStatisticsWriter;
+    private final ConcurrentMap<EventStatisticsKey, Long> counters = new ConcurrentHashMap<>();
+    private ScheduledExecutorService executor;
+
+    @Value("${cms.event.statistics.enabled:false}")
+    private boolean enabled;
+    @Value("${cms.event.statistics.flush-interval-ms:10000}")
+    private long flushIntervalMs;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-statistics-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+
+        executor.shutdown();
+        executor.awaitTermination(flushIntervalMs, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    public void record(EventEntity event) {
+        if (enabled) {
+            counters.merge(EventStatisticsKey.of(event), 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Writes all collected counts to the database. Counts that couldn't be written are kept for the next flush.
+     */
+    public synchronized void flush() {
+        List<EventStatisticsKey> keys = new ArrayList<>(counters.keySet());
+        for (EventStatisticsKey key : keys) {
+            Long count = counters.remove(key);
+            if (count == null) {
+                continue;
+            }
+
+            try {
+                upsert(key, count);
+            } catch (RuntimeException e) {
+                log.warn("Event statistics for {} couldn't be saved, will retry with the next flush: {}", key, e.getMessage());
+                counters.merge(key, count, Long::sum);
+            }
+        }
+    }
+
+    int getPendingKeysCount() {
+        return counters.size();
+    }
+
+    private void upsert(EventStatisticsKey key, long count) {
+        try {
+            eventStatisticsWriter.upsert(key, count);
+        } catch (DataIntegrityViolationException e) {
+            // The row has been inserted by another instance in the meantime
+            eventStatisticsWriter.upsert(key, count);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.statistics;
+
+import de.adorsys.psd2.event.core.model.EventOrigin;
+import de.adorsys.psd2.event.core.model.EventType;
+import de.adorsys.psd2.event.persist.entity.EventEntity;
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+/**
+ * Identifies one row of the event statistics: all events of the same type and origin, sent by the same TPP
+ * to the same service instance within one minute (UTC).
+ */
+@Value
+public class EventStatisticsKey {
+    static final String UNDEFINED = "UNDEFINED";
+
+    private String instanceId;
+    private String tppAuthorisationNumber;
+    private EventType eventType;
+    private EventOrigin eventOrigin;
+    private OffsetDateTime periodStart;
+
+    public static EventStatisticsKey of(EventEntity event) {
+        return new EventStatisticsKey(Optional.ofNullable(event.getInstanceId()).orElse(UNDEFINED),
+                                      Optional.ofNullable(event.getTppAuthorisationNumber()).orElse(UNDEFINED),
+                                      event.getEventType(),
+                                      event.getEventOrigin(),
+                                      event.getTimestamp()
+                                          .withOffsetSameInstant(ZoneOffset.UTC)
+                                          .truncatedTo(ChronoUnit.MINUTES));
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.statistics;
+
+import de.adorsys.psd2.event.persist.entity.EventStatisticsEntity;
+import de.adorsys.psd2.event.persist.jpa.EventStatisticsJPARepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class EventStatisticsWriter {
+    private final EventStatisticsJPARepository eventStatisticsJPARepository;
+
+    /**
+     * Adds the given count to the statistics row of the key, creating the row if it doesn't exist yet.
+     * A concurrent insert of the same row by another instance results in a
+     * {@link org.springframework.dao.DataIntegrityViolationException}, the call can be simply repeated then.
+     *
+     * @param key   statistics row key
+     * @param count number of events to add
+     */
+    @Transactional
+    public void upsert(EventStatisticsKey key, long count) {
+        int updated = eventStatisticsJPARepository.incrementEventCount(key.getPeriodStart(), key.getInstanceId(),
+                                                                       key.getTppAuthorisationNumber(),
+                                                                       key.getEventType(), key.getEventOrigin(),
+                                                                       count);
+        if (updated > 0) {
+            return;
+        }
+
+        EventStatisticsEntity entity = new EventStatisticsEntity();
+        entity.setInstanceId(key.getInstanceId());
+        entity.setTppAuthorisationNumber(key.getTppAuthorisationNumber());
+        entity.setEventType(key.getEventType());
+        entity.setEventOrigin(key.getEventOrigin());
+        entity.setPeriodStart(key.getPeriodStart());
+        entity.setEventCount(count);
+        eventStatisticsJPARepository.saveAndFlush(entity);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist;
+
+import de.adorsys.psd2.event.persist.entity.EventEntity;
+import de.adorsys.psd2.event.persist.jpa.EventJPARepository;
+import de.adorsys.psd2.event.persist.mapper.EventDBMapper;
+import de.adorsys.psd2.event.persist.model.EventPO;
+import de.adorsys.psd2.event.persist.statistics.EventStatisticsCollector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventRepositoryImplTest {
+    @InjectMocks
+    private EventRepositoryImpl eventRepository;
+    @Mock
+    private EventJPARepository eventJPARepository;
+    @Mock
+    private EventDBMapper eventDBMapper;
+    @Mock
+    private EventStatisticsCollector eventStatisticsCollector;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void save_statisticsRecordedAfterCommit() {
+        // Given
+        EventPO eventPO = new EventPO();
+        EventEntity eventEntity = new EventEntity();
+        when(eventDBMapper.toEventEntity(eventPO)).thenReturn(eventEntity);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        eventRepository.save(eventPO);
+
+        // Then
+        verify(eventJPARepository).save(eventEntity);
+        verify(eventStatisticsCollector, never()).record(any());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(eventStatisticsCollector).record(eventEntity);
+    }
+
+    @Test
+    void save_rolledBack_statisticsNotRecorded() {
+        // Given
+        EventPO eventPO = new EventPO();
+        when(eventDBMapper.toEventEntity(eventPO)).thenReturn(new EventEntity());
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        eventRepository.save(eventPO);
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        verify(eventStatisticsCollector, never()).record(any());
+    }
+
+    @Test
+    void save_noTransaction_statisticsRecordedImmediately() {
+        // Given
+        EventPO eventPO = new EventPO();
+        EventEntity eventEntity = new EventEntity();
+        when(eventDBMapper.toEventEntity(eventPO)).thenReturn(eventEntity);
+
+        // When
+        eventRepository.save(eventPO);
+
+        // Then
+        verify(eventStatisticsCollector).record(eventEntity);
+    }
+}
@@ -29,7 +29,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 @ExtendWith(SpringExtension.class)
-@ContextConfiguration(classes = {EventDBMapperImpl.class})
+@ContextConfiguration(classes = {EventDBMapperImpl.class, EventPayloadMapper.class})
 class EventDBMapperTest {
     private static final byte[] PAYLOAD = "payload".getBytes();
 
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.mapper;
+
+import de.adorsys.psd2.event.persist.payload.EventPayloadCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventPayloadMapperTest {
+    private static final byte[] SMALL_PAYLOAD = "{\"header\":\"value\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LARGE_PAYLOAD = ("{\"body\":\"" + "a".repeat(2048) + "\"}").getBytes(StandardCharsets.UTF_8);
+
+    private EventPayloadMapper eventPayloadMapper;
+
+    @BeforeEach
+    void setUp() {
+        eventPayloadMapper = new EventPayloadMapper();
+        ReflectionTestUtils.setField(eventPayloadMapper, "compressionEnabled", true);
+        ReflectionTestUtils.setField(eventPayloadMapper, "compressionMinSize", 512);
+        ReflectionTestUtils.setField(eventPayloadMapper, "compressionLevel", 6);
+    }
+
+    @Test
+    void encodePayload_compressionDisabled() {
+        ReflectionTestUtils.setField(eventPayloadMapper, "compressionEnabled", false);
+
+        byte[] actual = eventPayloadMapper.encodePayload(LARGE_PAYLOAD);
+
+        assertArrayEquals(LARGE_PAYLOAD, actual);
+    }
+
+    @Test
+    void encodePayload_payloadBelowMinSize() {
+        byte[] actual = eventPayloadMapper.encodePayload(SMALL_PAYLOAD);
+
+        assertArrayEquals(SMALL_PAYLOAD, actual);
+    }
+
+    @Test
+    void encodePayload_compressed() {
+        byte[] actual = eventPayloadMapper.encodePayload(LARGE_PAYLOAD);
+
+        assertTrue(EventPayloadCodec.isCompressed(actual));
+        assertTrue(actual.length < LARGE_PAYLOAD.length);
+        assertArrayEquals(LARGE_PAYLOAD, EventPayloadCodec.decompress(actual));
+    }
+
+    @Test
+    void encodePayload_nullValue() {
+        assertNull(eventPayloadMapper.encodePayload(null));
+    }
+}
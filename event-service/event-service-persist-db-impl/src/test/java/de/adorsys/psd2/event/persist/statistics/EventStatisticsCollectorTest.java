@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.statistics;
+
+import de.adorsys.psd2.event.core.model.EventOrigin;
+import de.adorsys.psd2.event.core.model.EventType;
+import de.adorsys.psd2.event.persist.entity.EventEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventStatisticsCollectorTest {
+    private static final String INSTANCE_ID = "UNDEFINED";
+    private static final String TPP_AUTHORISATION_NUMBER = "12345987";
+    private static final OffsetDateTime TIMESTAMP = OffsetDateTime.parse("2020-04-20T12:34:56.789+02:00");
+    private static final EventStatisticsKey KEY = new EventStatisticsKey(INSTANCE_ID, TPP_AUTHORISATION_NUMBER,
+                                                                         EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED,
+                                                                         EventOrigin.TPP,
+                                                                         OffsetDateTime.parse("2020-04-20T10:34:00Z"));
+
+    @InjectMocks
+    private EventStatisticsCollector eventStatisticsCollector;
+    @Mock
+    private EventStatisticsWriter eventStatisticsWriter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(eventStatisticsCollector, "enabled", true);
+    }
+
+    @Test
+    void flush_countsAggregatedPerMinute() {
+        eventStatisticsCollector.record(buildEvent(TIMESTAMP));
+        eventStatisticsCollector.record(buildEvent(TIMESTAMP.plusSeconds(2)));
+        eventStatisticsCollector.record(buildEvent(TIMESTAMP.plusMinutes(1)));
+
+        eventStatisticsCollector.flush();
+
+        verify(eventStatisticsWriter).upsert(KEY, 2);
+        verify(eventStatisticsWriter).upsert(new EventStatisticsKey(INSTANCE_ID, TPP_AUTHORISATION_NUMBER,
+                                                                    EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED,
+                                                                    EventOrigin.TPP,
+                                                                    OffsetDateTime.parse("2020-04-20T10:35:00Z")), 1);
+        assertEquals(0, eventStatisticsCollector.getPendingKeysCount());
+    }
+
+    @Test
+    void flush_nothingRecorded() {
+        eventStatisticsCollector.flush();
+
+        verify(eventStatisticsWriter, never()).upsert(any(), anyLong());
+    }
+
+    @Test
+    void record_disabled() {
+        ReflectionTestUtils.setField(eventStatisticsCollector, "enabled", false);
+
+        eventStatisticsCollector.record(buildEvent(TIMESTAMP));
+        eventStatisticsCollector.flush();
+
+        verify(eventStatisticsWriter, never()).upsert(any(), anyLong());
+    }
+
+    @Test
+    void record_withoutTppAuthorisationNumber() {
+        EventEntity event = buildEvent(TIMESTAMP);
+        event.setTppAuthorisationNumber(null);
+
+        eventStatisticsCollector.record(event);
+        eventStatisticsCollector.flush();
+
+        verify(eventStatisticsWriter).upsert(new EventStatisticsKey(INSTANCE_ID, EventStatisticsKey.UNDEFINED,
+                                                                    EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED,
+                                                                    EventOrigin.TPP, KEY.getPeriodStart()), 1);
+    }
+
+    @Test
+    void flush_concurrentInsertRetried() {
+        doThrow(new DataIntegrityViolationException("duplicate")).doNothing()
+            .when(eventStatisticsWriter).upsert(KEY, 1);
+
+        eventStatisticsCollector.record(buildEvent(TIMESTAMP));
+        eventStatisticsCollector.flush();
+
+        verify(eventStatisticsWriter, times(2)).upsert(KEY, 1);
+        assertEquals(0, eventStatisticsCollector.getPendingKeysCount());
+    }
+
+    @Test
+    void flush_failedCountsKeptForNextFlush() {
+        doThrow(new IllegalStateException("database is not available")).doNothing()
+            .when(eventStatisticsWriter).upsert(any(), anyLong());
+
+        eventStatisticsCollector.record(buildEvent(TIMESTAMP));
+        eventStatisticsCollector.flush();
+        assertEquals(1, eventStatisticsCollector.getPendingKeysCount());
+
+        eventStatisticsCollector.record(buildEvent(TIMESTAMP));
+        eventStatisticsCollector.flush();
+
+        verify(eventStatisticsWriter).upsert(KEY, 2);
+        assertEquals(0, eventStatisticsCollector.getPendingKeysCount());
+    }
+
+    private EventEntity buildEvent(OffsetDateTime timestamp) {
+        EventEntity event = new EventEntity();
+        event.setTimestamp(timestamp);
+        event.setTppAuthorisationNumber(TPP_AUTHORISATION_NUMBER);
+        event.setEventType(EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED);
+        event.setEventOrigin(EventOrigin.TPP);
+        return event;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.statistics;
+
+import de.adorsys.psd2.event.core.model.EventOrigin;
+import de.adorsys.psd2.event.core.model.EventType;
+import de.adorsys.psd2.event.persist.TestDBConfiguration;
+import de.adorsys.psd2.event.persist.entity.EventStatisticsEntity;
+import de.adorsys.psd2.event.persist.jpa.EventStatisticsJPARepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@ContextConfiguration(classes = TestDBConfiguration.class)
+class EventStatisticsWriterIT {
+    private static final EventStatisticsKey KEY = new EventStatisticsKey("UNDEFINED", "12345987",
+                                                                         EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED,
+                                                                         EventOrigin.TPP,
+                                                                         OffsetDateTime.parse("2020-04-20T10:34:00Z"));
+
+    @Autowired
+    private EventStatisticsWriter eventStatisticsWriter;
+    @Autowired
+    private EventStatisticsJPARepository eventStatisticsJPARepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    @Test
+    void upsert_insertsThenIncrements() {
+        eventStatisticsWriter.upsert(KEY, 2);
+        eventStatisticsWriter.upsert(KEY, 3);
+        testEntityManager.clear();
+
+        List<EventStatisticsEntity> statistics = eventStatisticsJPARepository.findAll();
+        assertEquals(1, statistics.size());
+        assertEquals(5, statistics.get(0).getEventCount());
+    }
+}
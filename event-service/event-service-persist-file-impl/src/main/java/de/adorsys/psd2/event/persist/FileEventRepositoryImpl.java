@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist;
+
+import de.adorsys.psd2.event.persist.file.EventFileWriter;
+import de.adorsys.psd2.event.persist.model.EventPO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of {@link EventRepository} that hands events over to {@link EventFileWriter}, which writes them
+ * to NDJSON files in a background thread
+ */
+@Service
+@RequiredArgsConstructor
+public class FileEventRepositoryImpl implements EventRepository {
+    private final EventFileWriter eventFileWriter;
+
+    @Override
+    public Long save(EventPO eventPO) {
+        eventFileWriter.offer(eventPO);
+        return 0L;
+    }
+}
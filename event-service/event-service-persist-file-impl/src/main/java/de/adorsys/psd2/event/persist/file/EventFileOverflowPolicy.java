@@ -0,0 +1,28 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.file;
+
+public enum EventFileOverflowPolicy {
+    /**
+     * Request thread waits for free space in the queue up to the configured timeout, event is dropped afterwards
+     */
+    BLOCK,
+    /**
+     * Event is dropped immediately if the queue is full
+     */
+    DROP
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.file;
+
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+public class EventFileProperties {
+    @Value("${cms.event.file.directory:events}")
+    private String directory;
+
+    @Value("${cms.event.file.prefix:events}")
+    private String prefix;
+
+    @Value("${cms.event.file.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${cms.event.file.overflow-policy:BLOCK}")
+    private EventFileOverflowPolicy overflowPolicy;
+
+    @Value("${cms.event.file.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    @Value("${cms.event.file.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${cms.event.file.max-file-size:104857600}")
+    private long maxFileSize;
+
+    @Value("${cms.event.file.roll-interval-ms:3600000}")
+    private long rollIntervalMs;
+
+    @Value("${cms.event.file.gzip-on-roll:false}")
+    private boolean gzipOnRoll;
+
+    @Value("${cms.event.file.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+}
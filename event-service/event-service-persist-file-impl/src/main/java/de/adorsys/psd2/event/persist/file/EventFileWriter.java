@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.file;
+
+import de.adorsys.psd2.event.persist.model.EventPO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes events to rolling NDJSON files in a dedicated thread.
+ * <p>
+ * Events are put into a bounded queue by request threads, the writer thread takes them in batches, serialises them
+ * directly into the buffered output of the current file and flushes the file once per batch.
+ * Remaining events are written on shutdown.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventFileWriter {
+    private static final int BATCH_SIZE = 1024;
+    private static final String WRITER_THREAD_NAME = "event-file-writer";
+
+    private final EventFileProperties eventFileProperties;
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    private BlockingQueue<EventPO> queue;
+    private RollingEventFile eventFile;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(eventFileProperties.getQueueCapacity());
+        eventFile = new RollingEventFile(eventFileProperties);
+        running = true;
+
+        writerThread = new Thread(this::writeEvents, WRITER_THREAD_NAME);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Puts given event into the write queue. If the queue is full, the event is handled according to the configured
+     * {@link EventFileOverflowPolicy}.
+     *
+     * @param event event to be written
+     * @return <code>true</code> if the event was accepted, <code>false</code> if it was dropped
+     */
+    public boolean offer(EventPO event) {
+        if (!running) {
+            log.warn("Event file writer is stopped, event has been dropped");
+            droppedEvents.incrementAndGet();
+            return false;
+        }
+
+        boolean accepted = enqueue(event);
+        if (!accepted) {
+            long dropped = droppedEvents.incrementAndGet();
+            log.warn("Event file queue is full, event has been dropped. Dropped events in total: {}", dropped);
+        }
+        return accepted;
+    }
+
+    public long getDroppedEventsCount() {
+        return droppedEvents.get();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        try {
+            writerThread.join(eventFileProperties.getShutdownTimeoutMs());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writerThread.isAlive()) {
+            log.warn("Event file writer hasn't finished in time, {} events may be lost", queue.size());
+        }
+    }
+
+    private boolean enqueue(EventPO event) {
+        if (eventFileProperties.getOverflowPolicy() == EventFileOverflowPolicy.DROP) {
+            return queue.offer(event);
+        }
+
+        try {
+            return queue.offer(event, eventFileProperties.getOfferTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void writeEvents() {
+        List<EventPO> batch = new ArrayList<>(BATCH_SIZE);
+        while (running || !queue.isEmpty()) {
+            try {
+                EventPO event = running
+                                    ? queue.poll(eventFileProperties.getFlushIntervalMs(), TimeUnit.MILLISECONDS)
+                                    : queue.poll();
+                if (event != null) {
+                    batch.add(event);
+                    queue.drainTo(batch, BATCH_SIZE - 1);
+                }
+                eventFile.write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException | RuntimeException e) {
+                log.error("{} events couldn't be written to file: {}", batch.size(), e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+
+        try {
+            eventFile.close();
+        } catch (IOException e) {
+            log.error("Event file couldn't be closed: {}", e.getMessage(), e);
+        }
+    }
+}
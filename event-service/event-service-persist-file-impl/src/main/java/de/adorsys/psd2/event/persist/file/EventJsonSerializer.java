@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.file;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import de.adorsys.psd2.event.persist.model.EventPO;
+import de.adorsys.psd2.event.persist.model.PsuIdDataPO;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes events as single line JSON objects directly into the generator of the current event file
+ */
+class EventJsonSerializer {
+    private static final char LINE_SEPARATOR = '\n';
+
+    void write(JsonGenerator generator, EventPO event) throws IOException {
+        generator.writeStartObject();
+        writeOptionalField(generator, "timestamp", event.getTimestamp() == null ? null : event.getTimestamp().toString());
+        writeOptionalField(generator, "eventOrigin", event.getEventOrigin() == null ? null : event.getEventOrigin().name());
+        writeOptionalField(generator, "eventType", event.getEventType() == null ? null : event.getEventType().name());
+        writeOptionalField(generator, "instanceId", event.getInstanceId());
+        writeOptionalField(generator, "internalRequestId", event.getInternalRequestId());
+        writeOptionalField(generator, "xRequestId", event.getXRequestId());
+        writeOptionalField(generator, "consentId", event.getConsentId());
+        writeOptionalField(generator, "paymentId", event.getPaymentId());
+        writeOptionalField(generator, "tppAuthorisationNumber", event.getTppAuthorisationNumber());
+        writePsuData(generator, event.getPsuIdData());
+        writePayload(generator, event.getPayload());
+        generator.writeEndObject();
+        generator.writeRaw(LINE_SEPARATOR);
+    }
+
+    private void writePsuData(JsonGenerator generator, @Nullable PsuIdDataPO psuIdData) throws IOException {
+        if (psuIdData == null) {
+            return;
+        }
+
+        generator.writeObjectFieldStart("psuData");
+        writeOptionalField(generator, "psuId", psuIdData.getPsuId());
+        writeOptionalField(generator, "psuIdType", psuIdData.getPsuIdType());
+        writeOptionalField(generator, "psuCorporateId", psuIdData.getPsuCorporateId());
+        writeOptionalField(generator, "psuCorporateIdType", psuIdData.getPsuCorporateIdType());
+        generator.writeEndObject();
+    }
+
+    private void writePayload(JsonGenerator generator, @Nullable byte[] payload) throws IOException {
+        if (payload == null || payload.length == 0) {
+            return;
+        }
+
+        generator.writeFieldName("payload");
+        String payloadValue = new String(payload, StandardCharsets.UTF_8);
+        if (isJsonDocument(payload)) {
+            generator.writeRawValue(payloadValue);
+        } else {
+            generator.writeString(payloadValue);
+        }
+    }
+
+    private boolean isJsonDocument(byte[] payload) {
+        byte first = payload[0];
+        byte last = payload[payload.length - 1];
+        return first == '{' && last == '}'
+                   || first == '[' && last == ']';
+    }
+
+    private void writeOptionalField(JsonGenerator generator, String name, @Nullable String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.file;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import de.adorsys.psd2.event.persist.model.EventPO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * NDJSON file that is rolled over once it exceeds the configured size or age.
+ * <p>
+ * Not thread-safe, is supposed to be used only by the writer thread of {@link EventFileWriter}.
+ */
+@Slf4j
+class RollingEventFile implements Closeable {
+    private static final DateTimeFormatter FILE_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String FILE_EXTENSION = ".ndjson";
+    private static final String GZIP_EXTENSION = ".gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final EventJsonSerializer eventJsonSerializer = new EventJsonSerializer();
+    private final Path directory;
+    private final String prefix;
+    private final long maxFileSize;
+    private final long rollIntervalMs;
+    private final boolean gzipOnRoll;
+
+    private Path currentPath;
+    private CountingOutputStream currentStream;
+    private JsonGenerator generator;
+    private long openedAt;
+    private int sequence;
+
+    RollingEventFile(EventFileProperties properties) {
+        this.directory = Paths.get(properties.getDirectory());
+        this.prefix = properties.getPrefix();
+        this.maxFileSize = properties.getMaxFileSize();
+        this.rollIntervalMs = properties.getRollIntervalMs();
+        this.gzipOnRoll = properties.isGzipOnRoll();
+    }
+
+    /**
+     * Writes given events to the current file and flushes it. The file is rolled over before writing,
+     * if it has reached its maximum size or age.
+     *
+     * @param events events to be written, may be empty to only check the roll over conditions
+     * @throws IOException if events couldn't be written, the current file is closed in this case
+     */
+    void write(List<EventPO> events) throws IOException {
+        if (generator != null && shouldRoll()) {
+            roll();
+        }
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        if (generator == null) {
+            open();
+        }
+
+        try {
+            for (EventPO event : events) {
+                eventJsonSerializer.write(generator, event);
+            }
+            generator.flush();
+        } catch (IOException | RuntimeException e) {
+            discard();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            roll();
+        }
+    }
+
+    private boolean shouldRoll() {
+        return currentStream.getByteCount() >= maxFileSize
+                   || System.currentTimeMillis() - openedAt >= rollIntervalMs;
+    }
+
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        currentPath = directory.resolve(prefix + "-" + FILE_NAME_FORMATTER.format(LocalDateTime.now()) + "-" + sequence++ + FILE_EXTENSION);
+        currentStream = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(currentPath), BUFFER_SIZE));
+        generator = jsonFactory.createGenerator(currentStream, JsonEncoding.UTF8);
+        generator.setRootValueSeparator(null);
+        // a partially written record must not be completed on closing the file after a failure
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        openedAt = System.currentTimeMillis();
+        log.debug("Event file {} has been opened", currentPath);
+    }
+
+    private void roll() throws IOException {
+        Path closedPath = currentPath;
+        try {
+            generator.close();
+        } finally {
+            generator = null;
+            currentStream = null;
+            currentPath = null;
+        }
+
+        if (gzipOnRoll) {
+            compress(closedPath);
+        }
+        log.debug("Event file {} has been closed", closedPath);
+    }
+
+    /**
+     * Closes the current file after a failed write, so that the next events are written to a new file instead of
+     * being appended to a partially written record
+     */
+    private void discard() {
+        Path discardedPath = currentPath;
+        try {
+            generator.close();
+        } catch (IOException e) {
+            log.warn("Event file {} couldn't be closed after failed write: {}", discardedPath, e.getMessage());
+        } finally {
+            generator = null;
+            currentStream = null;
+            currentPath = null;
+        }
+        log.warn("Event file {} has been closed after failed write, following events are written to a new file", discardedPath);
+    }
+
+    private void compress(Path path) throws IOException {
+        Path compressedPath = Paths.get(path.toString() + GZIP_EXTENSION);
+        try (InputStream inputStream = Files.newInputStream(path);
+             OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(compressedPath), BUFFER_SIZE)) {
+            IOUtils.copy(inputStream, outputStream, BUFFER_SIZE);
+        }
+        Files.delete(path);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist;
+
+import de.adorsys.psd2.event.persist.file.EventFileWriter;
+import de.adorsys.psd2.event.persist.model.EventPO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class FileEventRepositoryImplTest {
+    @Mock
+    private EventFileWriter eventFileWriter;
+
+    @InjectMocks
+    private FileEventRepositoryImpl fileEventRepository;
+
+    @Test
+    void save_shouldOfferEventToWriter() {
+        // Given
+        EventPO eventPO = new EventPO();
+
+        // When
+        Long savedEventId = fileEventRepository.save(eventPO);
+
+        // Then
+        assertNotNull(savedEventId);
+        verify(eventFileWriter).offer(eventPO);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.file;
+
+import de.adorsys.psd2.event.core.model.EventOrigin;
+import de.adorsys.psd2.event.core.model.EventType;
+import de.adorsys.psd2.event.persist.model.EventPO;
+import de.adorsys.psd2.event.persist.model.PsuIdDataPO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventFileWriterTest {
+    private static final String TIMESTAMP = "2019-07-09T13:29:50.042136+03:00";
+    private static final String PAYLOAD = "{\"requestUri\":\"/v1/consents\",\"body\":{\"frequencyPerDay\":4}}";
+
+    @TempDir
+    Path directory;
+
+    private EventFileProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EventFileProperties();
+        properties.setDirectory(directory.toString());
+        properties.setPrefix("events");
+        properties.setQueueCapacity(100);
+        properties.setOverflowPolicy(EventFileOverflowPolicy.BLOCK);
+        properties.setOfferTimeoutMs(100);
+        properties.setFlushIntervalMs(50);
+        properties.setMaxFileSize(1024 * 1024);
+        properties.setRollIntervalMs(60_000);
+        properties.setShutdownTimeoutMs(5_000);
+    }
+
+    @Test
+    void offer_shouldWriteEventsAsNdjson() throws IOException {
+        // Given
+        EventFileWriter eventFileWriter = new EventFileWriter(properties);
+        eventFileWriter.start();
+
+        // When
+        assertTrue(eventFileWriter.offer(buildEvent("consent 1")));
+        assertTrue(eventFileWriter.offer(buildEvent("consent 2")));
+        eventFileWriter.stop();
+
+        // Then
+        List<Path> files = listFiles();
+        assertEquals(1, files.size());
+        assertTrue(files.get(0).getFileName().toString().endsWith(".ndjson"));
+
+        List<String> lines = Files.readAllLines(files.get(0), StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertEquals("{\"timestamp\":\"" + TIMESTAMP + "\",\"eventOrigin\":\"TPP\",\"eventType\":\"CREATE_AIS_CONSENT_REQUEST_RECEIVED\","
+                         + "\"consentId\":\"consent 1\",\"psuData\":{\"psuId\":\"PSU ID\"},\"payload\":" + PAYLOAD + "}", lines.get(0));
+        assertTrue(lines.get(1).contains("\"consentId\":\"consent 2\""));
+    }
+
+    @Test
+    void offer_shouldRollAndCompressFiles() throws IOException {
+        // Given
+        properties.setMaxFileSize(1);
+        properties.setGzipOnRoll(true);
+        EventFileWriter eventFileWriter = new EventFileWriter(properties);
+        eventFileWriter.start();
+
+        // When
+        eventFileWriter.offer(buildEvent("consent 1"));
+        awaitWrittenFile();
+        eventFileWriter.offer(buildEvent("consent 2"));
+        eventFileWriter.stop();
+
+        // Then
+        List<Path> files = listFiles();
+        assertEquals(2, files.size());
+        for (Path file : files) {
+            assertTrue(file.getFileName().toString().endsWith(".ndjson.gz"));
+            assertEquals(1, readCompressedLines(file).size());
+        }
+    }
+
+    @Test
+    void offer_dropPolicy_shouldDropEventsWhenStopped() {
+        // Given
+        properties.setOverflowPolicy(EventFileOverflowPolicy.DROP);
+        EventFileWriter eventFileWriter = new EventFileWriter(properties);
+        eventFileWriter.start();
+        eventFileWriter.stop();
+
+        // When
+        boolean accepted = eventFileWriter.offer(buildEvent("consent 1"));
+
+        // Then
+        assertFalse(accepted);
+        assertEquals(1, eventFileWriter.getDroppedEventsCount());
+    }
+
+    private EventPO buildEvent(String consentId) {
+        EventPO event = new EventPO();
+        event.setTimestamp(OffsetDateTime.parse(TIMESTAMP));
+        event.setEventOrigin(EventOrigin.TPP);
+        event.setEventType(EventType.CREATE_AIS_CONSENT_REQUEST_RECEIVED);
+        event.setConsentId(consentId);
+        PsuIdDataPO psuIdData = new PsuIdDataPO();
+        psuIdData.setPsuId("PSU ID");
+        event.setPsuIdData(psuIdData);
+        event.setPayload(PAYLOAD.getBytes(StandardCharsets.UTF_8));
+        return event;
+    }
+
+    private void awaitWrittenFile() throws IOException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!hasWrittenFile() && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+    }
+
+    private boolean hasWrittenFile() throws IOException {
+        for (Path file : listFiles()) {
+            if (Files.size(file) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private List<String> readCompressedLines(Path file) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+}
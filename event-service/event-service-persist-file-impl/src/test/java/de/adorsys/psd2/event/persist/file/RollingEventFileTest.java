@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.event.persist.file;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.adorsys.psd2.event.persist.model.EventPO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollingEventFileTest {
+    @TempDir
+    Path directory;
+
+    private EventFileProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new EventFileProperties();
+        properties.setDirectory(directory.toString());
+        properties.setPrefix("events");
+        properties.setMaxFileSize(1024 * 1024);
+        properties.setRollIntervalMs(60_000);
+    }
+
+    @Test
+    void write_failedWrite_nextEventsWrittenToNewFile() throws IOException {
+        // Given
+        RollingEventFile rollingEventFile = new RollingEventFile(properties);
+        rollingEventFile.write(Collections.singletonList(buildEvent("consent 1")));
+        EventPO failingEvent = new EventPO() {
+            @Override
+            public String getPaymentId() {
+                throw new IllegalStateException("Event can't be serialised");
+            }
+        };
+        failingEvent.setConsentId("failing consent");
+
+        // When
+        assertThrows(IllegalStateException.class, () -> rollingEventFile.write(Collections.singletonList(failingEvent)));
+        rollingEventFile.write(Collections.singletonList(buildEvent("consent 2")));
+        rollingEventFile.close();
+
+        // Then
+        List<Path> files = listFiles();
+        assertEquals(2, files.size());
+        List<String> failedFileLines = Files.readAllLines(files.get(0), StandardCharsets.UTF_8);
+        assertTrue(failedFileLines.get(0).contains("\"consentId\":\"consent 1\""));
+        assertFalse(failedFileLines.get(failedFileLines.size() - 1).endsWith("}"));
+
+        List<String> newFileLines = Files.readAllLines(files.get(1), StandardCharsets.UTF_8);
+        assertEquals(1, newFileLines.size());
+        assertEquals("{\"consentId\":\"consent 2\"}", newFileLines.get(0));
+        assertValidJson(newFileLines.get(0));
+    }
+
+    private void assertValidJson(String line) throws IOException {
+        try (JsonParser parser = new JsonFactory().createParser(line)) {
+            while (parser.nextToken() != null) {
+                assertNotEquals(JsonToken.NOT_AVAILABLE, parser.currentToken());
+            }
+        }
+    }
+
+    private EventPO buildEvent(String consentId) {
+        EventPO event = new EventPO();
+        event.setConsentId(consentId);
+        return event;
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.core.mapper;
+
+import de.adorsys.psd2.core.data.ais.AisConsentData;
+import de.adorsys.psd2.core.data.piis.v1.PiisConsentData;
+import de.adorsys.psd2.xs2a.core.ais.AccountAccessType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Compact binary encoding of consent data.
+ * <p>
+ * Encoded data is prefixed with a two byte header: a marker byte that can never start a JSON document and a format
+ * byte, that identifies the type of consent data and the version of its encoding. It's followed by a byte with flags
+ * of present fields and the values of present fields. Data without the header is treated as JSON, so consents stored
+ * before the compact encoding was enabled stay readable.
+ */
+public class ConsentDataCodec {
+    static final byte MARKER = 0x00;
+    static final byte FORMAT_AIS_V1 = 0x01;
+    static final byte FORMAT_PIIS_V1 = 0x02;
+    private static final int HEADER_LENGTH = 2;
+
+    private static final int AIS_AVAILABLE_ACCOUNTS = 1;
+    private static final int AIS_ALL_PSD2 = 1 << 1;
+    private static final int AIS_AVAILABLE_ACCOUNTS_WITH_BALANCE = 1 << 2;
+    private static final int AIS_COMBINED_SERVICE_INDICATOR = 1 << 3;
+
+    private static final int PIIS_CARD_NUMBER = 1;
+    private static final int PIIS_CARD_EXPIRY_DATE = 1 << 1;
+    private static final int PIIS_CARD_INFORMATION = 1 << 2;
+    private static final int PIIS_REGISTRATION_INFORMATION = 1 << 3;
+
+    private ConsentDataCodec() {
+    }
+
+    public static boolean isEncoded(byte[] consentData) {
+        return consentData != null
+                   && consentData.length >= HEADER_LENGTH
+                   && consentData[0] == MARKER;
+    }
+
+    public static byte[] encodeAisConsentData(AisConsentData consentData) throws IOException {
+        int flags = flag(consentData.getAvailableAccounts() != null, AIS_AVAILABLE_ACCOUNTS)
+                        | flag(consentData.getAllPsd2() != null, AIS_ALL_PSD2)
+                        | flag(consentData.getAvailableAccountsWithBalance() != null, AIS_AVAILABLE_ACCOUNTS_WITH_BALANCE)
+                        | flag(consentData.isCombinedServiceIndicator(), AIS_COMBINED_SERVICE_INDICATOR);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream dataOutput = new DataOutputStream(outputStream);
+        writeHeader(dataOutput, FORMAT_AIS_V1, flags);
+        writeAccountAccessType(dataOutput, consentData.getAvailableAccounts());
+        writeAccountAccessType(dataOutput, consentData.getAllPsd2());
+        writeAccountAccessType(dataOutput, consentData.getAvailableAccountsWithBalance());
+        return outputStream.toByteArray();
+    }
+
+    public static AisConsentData decodeAisConsentData(byte[] consentData) throws IOException {
+        DataInputStream dataInput = readHeader(consentData, FORMAT_AIS_V1);
+        int flags = dataInput.readUnsignedByte();
+        return new AisConsentData(readAccountAccessType(dataInput, flags, AIS_AVAILABLE_ACCOUNTS),
+                                  readAccountAccessType(dataInput, flags, AIS_ALL_PSD2),
+                                  readAccountAccessType(dataInput, flags, AIS_AVAILABLE_ACCOUNTS_WITH_BALANCE),
+                                  isSet(flags, AIS_COMBINED_SERVICE_INDICATOR));
+    }
+
+    public static byte[] encodePiisConsentData(PiisConsentData consentData) throws IOException {
+        int flags = flag(consentData.getCardNumber() != null, PIIS_CARD_NUMBER)
+                        | flag(consentData.getCardExpiryDate() != null, PIIS_CARD_EXPIRY_DATE)
+                        | flag(consentData.getCardInformation() != null, PIIS_CARD_INFORMATION)
+                        | flag(consentData.getRegistrationInformation() != null, PIIS_REGISTRATION_INFORMATION);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        DataOutputStream dataOutput = new DataOutputStream(outputStream);
+        writeHeader(dataOutput, FORMAT_PIIS_V1, flags);
+        writeString(dataOutput, consentData.getCardNumber());
+        if (consentData.getCardExpiryDate() != null) {
+            dataOutput.writeLong(consentData.getCardExpiryDate().toEpochDay());
+        }
+        writeString(dataOutput, consentData.getCardInformation());
+        writeString(dataOutput, consentData.getRegistrationInformation());
+        return outputStream.toByteArray();
+    }
+
+    public static PiisConsentData decodePiisConsentData(byte[] consentData) throws IOException {
+        DataInputStream dataInput = readHeader(consentData, FORMAT_PIIS_V1);
+        int flags = dataInput.readUnsignedByte();
+        String cardNumber = readString(dataInput, flags, PIIS_CARD_NUMBER);
+        LocalDate cardExpiryDate = isSet(flags, PIIS_CARD_EXPIRY_DATE)
+                                       ? LocalDate.ofEpochDay(dataInput.readLong())
+                                       : null;
+        return new PiisConsentData(cardNumber,
+                                   cardExpiryDate,
+                                   readString(dataInput, flags, PIIS_CARD_INFORMATION),
+                                   readString(dataInput, flags, PIIS_REGISTRATION_INFORMATION));
+    }
+
+    private static void writeHeader(DataOutputStream dataOutput, byte format, int flags) throws IOException {
+        dataOutput.writeByte(MARKER);
+        dataOutput.writeByte(format);
+        dataOutput.writeByte(flags);
+    }
+
+    private static DataInputStream readHeader(byte[] consentData, byte format) throws IOException {
+        if (!isEncoded(consentData)) {
+            throw new IOException("Consent data is not encoded");
+        }
+        if (consentData[1] != format) {
+            throw new IOException("Unknown consent data format: " + consentData[1]);
+        }
+        return new DataInputStream(new ByteArrayInputStream(consentData, HEADER_LENGTH, consentData.length - HEADER_LENGTH));
+    }
+
+    private static void writeAccountAccessType(DataOutputStream dataOutput, AccountAccessType accountAccessType) throws IOException {
+        if (accountAccessType != null) {
+            dataOutput.writeUTF(accountAccessType.getDescription());
+        }
+    }
+
+    private static AccountAccessType readAccountAccessType(DataInputStream dataInput, int flags, int flag) throws IOException {
+        if (!isSet(flags, flag)) {
+            return null;
+        }
+        String description = dataInput.readUTF();
+        return AccountAccessType.getByDescription(description)
+                   .orElseThrow(() -> new IOException("Unknown account access type: " + description));
+    }
+
+    private static void writeString(DataOutputStream dataOutput, String value) throws IOException {
+        if (value != null) {
+            dataOutput.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream dataInput, int flags, int flag) throws IOException {
+        return isSet(flags, flag) ? dataInput.readUTF() : null;
+    }
+
+    private static int flag(boolean set, int flag) {
+        return set ? flag : 0;
+    }
+
+    private static boolean isSet(int flags, int flag) {
+        return (flags & flag) != 0;
+    }
+}
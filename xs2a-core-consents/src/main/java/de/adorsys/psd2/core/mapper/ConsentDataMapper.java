@@ -22,6 +22,7 @@ import de.adorsys.psd2.core.data.ais.AisConsentData;
 import de.adorsys.psd2.core.data.piis.v1.PiisConsentData;
 import de.adorsys.psd2.mapper.config.ObjectMapperConfig;
 import lombok.extern.slf4j.Slf4j;
+import org.mapstruct.Named;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -36,6 +37,9 @@ public class ConsentDataMapper {
             return AisConsentData.buildDefaultAisConsentData();
         }
         try {
+            if (ConsentDataCodec.isEncoded(consentData)) {
+                return ConsentDataCodec.decodeAisConsentData(consentData);
+            }
             return objectMapper.readValue(consentData, AisConsentData.class);
         } catch (IOException e) {
             log.info("Can't convert byte[] to AisConsentData: {}", e.getMessage());
@@ -48,6 +52,9 @@ public class ConsentDataMapper {
             return PiisConsentData.buildDefaultConsentData();
         }
         try {
+            if (ConsentDataCodec.isEncoded(consentData)) {
+                return ConsentDataCodec.decodePiisConsentData(consentData);
+            }
             return objectMapper.readValue(consentData, PiisConsentData.class);
         } catch (IOException e) {
             log.info("Can't convert byte[] to PiisConsentData: {}", e.getMessage());
@@ -64,6 +71,28 @@ public class ConsentDataMapper {
         }
     }
 
+    /**
+     * Converts consent data to the compact binary encoding of {@link ConsentDataCodec}.
+     * Consent data of unknown type or with values, that can't be encoded, is converted to JSON instead.
+     *
+     * @param consentData AIS or PIIS consent data
+     * @return encoded consent data
+     */
+    @Named("compactConsentData")
+    public byte[] getCompactBytesFromConsentData(Object consentData) {
+        try {
+            if (consentData instanceof AisConsentData) {
+                return ConsentDataCodec.encodeAisConsentData((AisConsentData) consentData);
+            }
+            if (consentData instanceof PiisConsentData) {
+                return ConsentDataCodec.encodePiisConsentData((PiisConsentData) consentData);
+            }
+        } catch (IOException e) {
+            log.info("Can't encode consentData compactly, JSON is used instead: {}", e.getMessage());
+        }
+        return getBytesFromConsentData(consentData);
+    }
+
     private ObjectMapper buildObjectMapper() {
         ObjectMapperConfig objectMapperConfig = new ObjectMapperConfig();
         return objectMapperConfig.xs2aObjectMapper();
@@ -22,7 +22,9 @@ import de.adorsys.xs2a.reader.JsonReader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 class ConsentDataMapperTest {
 
@@ -50,4 +52,55 @@ class ConsentDataMapperTest {
 
         assertEquals(consentData, consentDataMapper.mapToPiisConsentData(bytesFromConsentData));
     }
+
+    @Test
+    void mapToAisConsentData_compactBytes() {
+        AisConsentData consentData = jsonReader.getObjectFromFile("json/data/ais/ais-consent-data.json", AisConsentData.class);
+        byte[] compactBytes = consentDataMapper.getCompactBytesFromConsentData(consentData);
+
+        assertTrue(ConsentDataCodec.isEncoded(compactBytes));
+        assertTrue(compactBytes.length < consentDataMapper.getBytesFromConsentData(consentData).length);
+        assertEquals(consentData, consentDataMapper.mapToAisConsentData(compactBytes));
+    }
+
+    @Test
+    void mapToAisConsentData_compactBytesOfDefaultConsentData() {
+        AisConsentData consentData = AisConsentData.buildDefaultAisConsentData();
+        byte[] compactBytes = consentDataMapper.getCompactBytesFromConsentData(consentData);
+
+        assertEquals(consentData, consentDataMapper.mapToAisConsentData(compactBytes));
+    }
+
+    @Test
+    void mapToPiisConsentData_compactBytes() {
+        PiisConsentData consentData = jsonReader.getObjectFromFile("json/data/piis/piis-consent-data.json", PiisConsentData.class);
+        byte[] compactBytes = consentDataMapper.getCompactBytesFromConsentData(consentData);
+
+        assertTrue(ConsentDataCodec.isEncoded(compactBytes));
+        assertTrue(compactBytes.length < consentDataMapper.getBytesFromConsentData(consentData).length);
+        assertEquals(consentData, consentDataMapper.mapToPiisConsentData(compactBytes));
+    }
+
+    @Test
+    void mapToAisConsentData_compactBytesOfPiisConsentData() {
+        PiisConsentData consentData = jsonReader.getObjectFromFile("json/data/piis/piis-consent-data.json", PiisConsentData.class);
+        byte[] compactBytes = consentDataMapper.getCompactBytesFromConsentData(consentData);
+
+        assertNull(consentDataMapper.mapToAisConsentData(compactBytes));
+    }
+
+    @Test
+    void mapToPiisConsentData_truncatedCompactBytes() {
+        PiisConsentData consentData = jsonReader.getObjectFromFile("json/data/piis/piis-consent-data.json", PiisConsentData.class);
+        byte[] compactBytes = consentDataMapper.getCompactBytesFromConsentData(consentData);
+
+        assertNull(consentDataMapper.mapToPiisConsentData(Arrays.copyOf(compactBytes, compactBytes.length - 1)));
+    }
+
+    @Test
+    void getCompactBytesFromConsentData_unknownConsentData() {
+        String consentData = "consent data";
+
+        assertArrayEquals(consentDataMapper.getBytesFromConsentData(consentData), consentDataMapper.getCompactBytesFromConsentData(consentData));
+    }
 }
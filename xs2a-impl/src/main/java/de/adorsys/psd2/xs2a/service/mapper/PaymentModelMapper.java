@@ -42,6 +42,8 @@ public interface PaymentModelMapper {
 
     BulkPayment mapToXs2aPayment(BulkPaymentInitiationJson paymentRequest);
 
+    SinglePayment mapToXs2aPayment(PaymentInitiationBulkElementJson paymentRequest);
+
     Xs2aAmount mapToXs2aAmount(Amount amount);
 
     de.adorsys.psd2.xs2a.core.profile.AccountReference mapToAccountReference(AccountReference accountReference);
@@ -16,6 +16,7 @@
 
 package de.adorsys.psd2.xs2a.web.validator.body;
 
+import de.adorsys.psd2.mapper.JsonFieldValues;
 import de.adorsys.psd2.xs2a.core.domain.TppMessageInformation;
 import de.adorsys.psd2.xs2a.core.error.MessageError;
 import de.adorsys.psd2.xs2a.web.converter.LocalDateConverter;
@@ -37,7 +38,7 @@ import static de.adorsys.psd2.xs2a.core.error.MessageErrorCode.FORMAT_ERROR_WRON
 @Component
 @RequiredArgsConstructor
 public class DateFieldValidator {
-    private static final String DAY_OF_EXECUTION_FIELD_NAME = "dayOfExecution";
+    public static final String DAY_OF_EXECUTION_FIELD_NAME = "dayOfExecution";
     private static final String DAY_OF_MONTH_REGEX = "(0?[1-9]|[12]\\d|3[01])";
 
     private final ErrorBuildingService errorBuildingService;
@@ -53,6 +54,28 @@ public class DateFieldValidator {
             .ifPresent(day -> validateDayOfExecutionValue(day, messageError));
     }
 
+    public void validateDayOfExecution(JsonFieldValues fieldValues, MessageError messageError) {
+        fieldValues.getTopLevelValue(DAY_OF_EXECUTION_FIELD_NAME)
+            .ifPresent(day -> validateDayOfExecutionValue(day, messageError));
+    }
+
+    /**
+     * Validates format of the date fields, that have already been extracted from the request body
+     *
+     * @param fieldValues  values extracted from the body, must contain names of all given fields
+     * @param fields       date fields to be validated
+     * @param messageError error to be enriched
+     * @return enriched error
+     */
+    public MessageError validateDateFormat(JsonFieldValues fieldValues, Set<Xs2aRequestBodyDateField> fields, MessageError messageError) {
+        for (Xs2aRequestBodyDateField field : fields) {
+            fieldValues.getTopLevelValue(field.getFieldName())
+                .ifPresent(date -> convert(field.getFieldName(), date, field.getFormatter(), messageError));
+        }
+
+        return messageError;
+    }
+
     public MessageError validateRawDataDates(HttpServletRequest request, Set<Xs2aRequestBodyDateField> fields, MessageError messageError) {
         for (Xs2aRequestBodyDateField field : fields) {
             fieldExtractor.extractField(request, field.getFieldName(), messageError)
@@ -16,6 +16,7 @@
 
 package de.adorsys.psd2.xs2a.web.validator.body.payment;
 
+import de.adorsys.psd2.mapper.JsonFieldValues;
 import de.adorsys.psd2.mapper.Xs2aObjectMapper;
 import de.adorsys.psd2.model.FrequencyCode;
 import de.adorsys.psd2.xs2a.core.domain.TppMessageInformation;
@@ -36,6 +37,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -55,6 +58,7 @@ public class PaymentBodyValidatorImpl extends AbstractBodyValidatorImpl implemen
     static final String FREQUENCY_FIELD_NAME = "frequency";
     static final String BATCH_BOOKING_PREFERRED_FIELD_NAME = "batchBookingPreferred";
     static final String CURRENCY_STRING = "currency";
+    static final List<String> RAW_DATA_FIELD_NAMES = buildRawDataFieldNames();
 
     private DateFieldValidator dateFieldValidator;
     private CurrencyValidator currencyValidator;
@@ -104,37 +108,32 @@ public class PaymentBodyValidatorImpl extends AbstractBodyValidatorImpl implemen
 
     @Override
     public MessageError validateRawData(HttpServletRequest request, MessageError messageError) {
-        dateFieldValidator.validateDayOfExecution(request, messageError);
-        dateFieldValidator.validateDateFormat(request, PAYMENT_DATE_FIELDS.getDateFields(), messageError);
-
-        validateCurrency(request, messageError);
-        validateBulkPaymentFields(request, messageError);
-        validateFrequencyForPeriodicPayment(request, messageError);
-        validatePurposeCodes(request, messageError);
+        // the body of bulk payments can be large, so all fields are extracted in one pass
+        JsonFieldValues fieldValues = fieldExtractor.extractFieldValues(request, RAW_DATA_FIELD_NAMES, messageError);
+        dateFieldValidator.validateDayOfExecution(fieldValues, messageError);
+        dateFieldValidator.validateDateFormat(fieldValues, PAYMENT_DATE_FIELDS.getDateFields(), messageError);
+        validateCurrency(fieldValues, messageError);
+        validateBulkPaymentFields(request, fieldValues, messageError);
+        validateFrequencyForPeriodicPayment(request, fieldValues, messageError);
+        validatePurposeCodes(fieldValues, messageError);
 
         return messageError;
     }
 
-    private void validateCurrency(HttpServletRequest request, MessageError messageError) {
-        List<String> currencyList = getCurrencyOptionalString(request);
-        if (!currencyList.isEmpty()) {
-            currencyList.forEach(c -> currencyValidator.validateCurrency(c, messageError));
-        }
-    }
-
-    private List<String> getCurrencyOptionalString(HttpServletRequest request) {
-        return fieldExtractor.extractOptionalList(request, CURRENCY_STRING);
+    private void validateCurrency(JsonFieldValues fieldValues, MessageError messageError) {
+        fieldValues.getValues(CURRENCY_STRING)
+            .forEach(c -> currencyValidator.validateCurrency(c, messageError));
     }
 
-    private void validateBulkPaymentFields(HttpServletRequest request, MessageError messageError) {
+    private void validateBulkPaymentFields(HttpServletRequest request, JsonFieldValues fieldValues, MessageError messageError) {
         boolean isBulkPayment = getPathParameters(request).get(PAYMENT_SERVICE_PATH_VAR).equals(BULK_PAYMENT_PATH_VAR);
         if (isBulkPayment) {
-            validateBatchBookingPreferredField(request, messageError);
+            validateBatchBookingPreferredField(fieldValues, messageError);
         }
     }
 
-    private void validateBatchBookingPreferredField(HttpServletRequest request, MessageError messageError) {
-        Optional<String> fieldValue = fieldExtractor.extractOptionalField(request, BATCH_BOOKING_PREFERRED_FIELD_NAME);
+    private void validateBatchBookingPreferredField(JsonFieldValues fieldValues, MessageError messageError) {
+        Optional<String> fieldValue = fieldValues.getTopLevelValue(BATCH_BOOKING_PREFERRED_FIELD_NAME);
         if (fieldValue.isPresent()) {
             try {
                 BooleanUtils.toBoolean(fieldValue.get(), "true", "false");
@@ -144,10 +143,10 @@ public class PaymentBodyValidatorImpl extends AbstractBodyValidatorImpl implemen
         }
     }
 
-    private void validateFrequencyForPeriodicPayment(HttpServletRequest request, MessageError messageError) {
-        Optional<String> frequencyOptional = fieldExtractor.extractField(request, FREQUENCY_FIELD_NAME, messageError);
+    private void validateFrequencyForPeriodicPayment(HttpServletRequest request, JsonFieldValues fieldValues, MessageError messageError) {
         boolean isPeriodicPayment = getPathParameters(request).get(PAYMENT_SERVICE_PATH_VAR).equals(PERIODIC_PAYMENT_PATH_VAR);
         if (isPeriodicPayment) {
+            Optional<String> frequencyOptional = fieldValues.getTopLevelValue(FREQUENCY_FIELD_NAME);
             if (!frequencyOptional.isPresent()) {
                 errorBuildingService.enrichMessageError(messageError, TppMessageInformation.of(FORMAT_ERROR_NULL_VALUE, FREQUENCY_FIELD_NAME));
             } else if (FrequencyCode.fromValue(frequencyOptional.get()) == null) {
@@ -161,9 +160,8 @@ public class PaymentBodyValidatorImpl extends AbstractBodyValidatorImpl implemen
         return standardPaymentProductsResolver.isRawPaymentProduct(paymentProduct);
     }
 
-    private void validatePurposeCodes(HttpServletRequest request, MessageError messageError) {
-        List<String> purposeCodes = fieldExtractor.extractList(request, PURPOSE_CODE_FIELD_NAME, messageError);
-        boolean isPurposeCodeInvalid = purposeCodes.stream()
+    private void validatePurposeCodes(JsonFieldValues fieldValues, MessageError messageError) {
+        boolean isPurposeCodeInvalid = fieldValues.getValues(PURPOSE_CODE_FIELD_NAME).stream()
                                            .map(PurposeCode::fromValue)
                                            .anyMatch(Objects::isNull);
 
@@ -175,4 +173,12 @@ public class PaymentBodyValidatorImpl extends AbstractBodyValidatorImpl implemen
     private Map<String, String> getPathParameters(HttpServletRequest request) {
         return pathParameterExtractor.extractParameters(request);
     }
+
+    private static List<String> buildRawDataFieldNames() {
+        List<String> fieldNames = new ArrayList<>(Arrays.asList(CURRENCY_STRING, BATCH_BOOKING_PREFERRED_FIELD_NAME, FREQUENCY_FIELD_NAME,
+                                                                PURPOSE_CODE_FIELD_NAME, DateFieldValidator.DAY_OF_EXECUTION_FIELD_NAME));
+        PAYMENT_DATE_FIELDS.getDateFields()
+            .forEach(field -> fieldNames.add(field.getFieldName()));
+        return fieldNames;
+    }
 }
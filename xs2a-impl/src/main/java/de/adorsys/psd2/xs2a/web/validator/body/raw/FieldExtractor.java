@@ -17,6 +17,7 @@
 package de.adorsys.psd2.xs2a.web.validator.body.raw;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import de.adorsys.psd2.mapper.JsonFieldValues;
 import de.adorsys.psd2.mapper.Xs2aObjectMapper;
 import de.adorsys.psd2.xs2a.core.domain.TppMessageInformation;
 import de.adorsys.psd2.xs2a.core.error.MessageError;
@@ -27,6 +28,7 @@ import org.springframework.stereotype.Component;
 import javax.servlet.http.HttpServletRequest;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -80,6 +82,24 @@ public class FieldExtractor {
         }
     }
 
+    /**
+     * Extracts values of several fields by reading the request body only once
+     *
+     * @param request      HTTP request
+     * @param fieldNames   names of the fields to be extracted
+     * @param messageError error to be enriched, if the body couldn't be read
+     * @return extracted values
+     */
+    public JsonFieldValues extractFieldValues(HttpServletRequest request, Collection<String> fieldNames, MessageError messageError) {
+        try {
+            return xs2aObjectMapper.toJsonFieldValues(request.getInputStream(), fieldNames);
+        } catch (IOException e) {
+            errorBuildingService.enrichMessageError(messageError, TppMessageInformation.of(FORMAT_ERROR_DESERIALIZATION_FAIL));
+        }
+
+        return new JsonFieldValues();
+    }
+
     public <T> Optional<T> mapBodyToInstance(HttpServletRequest request, MessageError messageError, Class<T> clazz) {
         try {
             return Optional.of(xs2aObjectMapper.readValue(request.getInputStream(), clazz));
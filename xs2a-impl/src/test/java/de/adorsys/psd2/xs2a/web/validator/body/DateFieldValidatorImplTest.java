@@ -17,6 +17,7 @@
 package de.adorsys.psd2.xs2a.web.validator.body;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import de.adorsys.psd2.mapper.JsonFieldValues;
 import de.adorsys.psd2.mapper.Xs2aObjectMapper;
 import de.adorsys.psd2.xs2a.core.domain.TppMessageInformation;
 import de.adorsys.psd2.xs2a.core.error.ErrorType;
@@ -34,8 +35,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -167,4 +172,60 @@ class DateFieldValidatorImplTest {
         // Then
         assertTrue(messageError.getTppMessages().isEmpty());
     }
+
+    @Test
+    void validateDayOfExecution_fieldValues_wrongValue_error() {
+        // Given
+        JsonFieldValues fieldValues = buildFieldValues("{\"dayOfExecution\": \"" + WRONG_DAY_OF_MONTH + "\"}");
+
+        // When
+        validator.validateDayOfExecution(fieldValues, messageError);
+
+        // Then
+        assertEquals(DAY_OF_EXECUTION_WRONG_VALUE_ERROR, messageError);
+    }
+
+    @Test
+    void validateDayOfExecution_fieldValues_correctValue_success() {
+        // Given
+        JsonFieldValues fieldValues = buildFieldValues("{\"dayOfExecution\": " + CORRECT_DAY_OF_MONTH + "}");
+
+        // When
+        validator.validateDayOfExecution(fieldValues, messageError);
+
+        // Then
+        assertTrue(messageError.getTppMessages().isEmpty());
+    }
+
+    @Test
+    void validateDateFormat_fieldValues_wrongValue_error() {
+        // Given
+        JsonFieldValues fieldValues = buildFieldValues("{\"requestedExecutionDate\": \"" + WRONG_FORMAT_DATE + "\", " +
+                                                           "\"requestedExecutionTime\": \"" + CORRECT_FORMAT_TIME + "\"}");
+
+        // When
+        validator.validateDateFormat(fieldValues, EnumSet.of(Xs2aRequestBodyDateField.REQUESTED_EXECUTION_DATE, Xs2aRequestBodyDateField.REQUESTED_EXECUTION_TIME), messageError);
+
+        // Then
+        assertEquals(REQUESTED_EXECUTION_DATE_WRONG_VALUE_ERROR, messageError);
+        verifyNoInteractions(xs2aObjectMapper);
+    }
+
+    @Test
+    void validateDateFormat_fieldValues_nestedAndNullValuesIgnored_success() {
+        // Given
+        JsonFieldValues fieldValues = buildFieldValues("{\"requestedExecutionDate\": null, " +
+                                                           "\"payments\": [{\"requestedExecutionDate\": \"" + WRONG_FORMAT_DATE + "\"}]}");
+
+        // When
+        validator.validateDateFormat(fieldValues, Collections.singleton(Xs2aRequestBodyDateField.REQUESTED_EXECUTION_DATE), messageError);
+
+        // Then
+        assertTrue(messageError.getTppMessages().isEmpty());
+    }
+
+    private JsonFieldValues buildFieldValues(String body) {
+        return new Xs2aObjectMapper().toJsonFieldValues(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                                                        Arrays.asList(DAY_OF_EXECUTION_FIELD_NAME, REQUESTED_EXECUTION_DATE_FIELD_NAME, REQUESTED_EXECUTION_TIME_FIELD_NAME));
+    }
 }
@@ -16,6 +16,7 @@
 
 package de.adorsys.psd2.xs2a.web.validator.body.payment;
 
+import de.adorsys.psd2.mapper.JsonFieldValues;
 import de.adorsys.psd2.mapper.Xs2aObjectMapper;
 import de.adorsys.psd2.validator.payment.PaymentBodyFieldsValidator;
 import de.adorsys.psd2.xs2a.core.domain.TppMessageInformation;
@@ -40,9 +41,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
 import org.springframework.mock.web.MockHttpServletRequest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Collections;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -80,7 +82,6 @@ class PaymentBodyValidatorImplTest {
     private static final MessageError WRONG_CURRENCY_FORMAT =
         new MessageError(ErrorType.PIS_400, TppMessageInformation.of(FORMAT_ERROR_WRONG_FORMAT_VALUE, CURRENCY_STRING));
     private static final String VALID_FREQUENCY_CODE = "Annual";
-    private static final String CURRENCY_FIELD_NAME = "currency";
     private static final String CURRENCY_VALUE = "EUR";
 
     private PaymentBodyValidatorImpl validator;
@@ -113,6 +114,7 @@ class PaymentBodyValidatorImplTest {
         ErrorBuildingService errorService = new ErrorBuildingServiceMock(ErrorType.PIS_400);
         validator = new PaymentBodyValidatorImpl(errorService, xs2aObjectMapper, standardPaymentProductsResolver, tppRedirectUriBodyValidator,
                                                  dateFieldValidator, fieldExtractor, currencyValidator, pathParameterExtractor, countryPaymentValidatorResolver);
+        lenient().when(fieldExtractor.extractFieldValues(any(), any(), any())).thenReturn(new JsonFieldValues());
     }
 
     @Test
@@ -133,6 +135,26 @@ class PaymentBodyValidatorImplTest {
         verify(paymentBodyFieldsValidator, times(1)).validate(mockRequest, PAYMENT_SERVICE, messageError);
     }
 
+    @Test
+    void validate_dateFieldsValidatedFromSinglePass() {
+        // Given
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest();
+        Map<String, String> templates = buildTemplateVariables(JSON_PAYMENT_PRODUCT, PAYMENT_SERVICE);
+        when(pathParameterExtractor.extractParameters(mockRequest)).thenReturn(templates);
+        JsonFieldValues fieldValues = stubFieldValues(mockRequest, "{\"dayOfExecution\": \"5\", \"requestedExecutionDate\": \"2020-01-01\"}");
+        when(countryPaymentValidatorResolver.getPaymentBodyFieldValidator()).thenReturn(paymentBodyFieldsValidator);
+        when(paymentBodyFieldsValidator.validate(mockRequest, PAYMENT_SERVICE, messageError)).thenReturn(messageError);
+
+        // When
+        validator.validate(mockRequest, messageError);
+
+        // Then
+        assertEquals(Optional.of("2020-01-01"), fieldValues.getTopLevelValue("requestedExecutionDate"));
+        verify(dateFieldValidator).validateDayOfExecution(fieldValues, messageError);
+        verify(dateFieldValidator).validateDateFormat(fieldValues, Xs2aRequestBodyDateFields.PAYMENT_DATE_FIELDS.getDateFields(), messageError);
+        verify(fieldExtractor, never()).extractField(any(), any(), any());
+    }
+
     @Test
     void validate_dayOfExecutionWrongValue_wrongFormat_error() {
         // Given
@@ -140,13 +162,12 @@ class PaymentBodyValidatorImplTest {
         Map<String, String> templates = buildTemplateVariables(JSON_PAYMENT_PRODUCT, PAYMENT_SERVICE);
         when(pathParameterExtractor.extractParameters(mockRequest)).thenReturn(templates);
 
-        when(fieldExtractor.extractField(mockRequest, FREQUENCY_FIELD_NAME, messageError))
-            .thenReturn(Optional.of(VALID_FREQUENCY_CODE));
+        stubFieldValues(mockRequest, "{\"frequency\": \"" + VALID_FREQUENCY_CODE + "\"}");
 
         doAnswer((Answer<Void>) invocation -> {
             messageError.addTppMessage(TppMessageInformation.of(MessageErrorCode.FORMAT_ERROR_INVALID_DAY_OF_EXECUTION));
             return null;
-        }).when(dateFieldValidator).validateDayOfExecution(mockRequest, messageError);
+        }).when(dateFieldValidator).validateDayOfExecution(any(JsonFieldValues.class), eq(messageError));
 
         // When
         validator.validate(mockRequest, messageError);
@@ -162,7 +183,7 @@ class PaymentBodyValidatorImplTest {
         Map<String, String> templates = buildTemplateVariables(JSON_PAYMENT_PRODUCT, PAYMENT_SERVICE);
         when(pathParameterExtractor.extractParameters(mockRequest)).thenReturn(templates);
 
-        when(dateFieldValidator.validateDateFormat(mockRequest, Xs2aRequestBodyDateFields.PAYMENT_DATE_FIELDS.getDateFields(), messageError))
+        when(dateFieldValidator.validateDateFormat(any(JsonFieldValues.class), eq(Xs2aRequestBodyDateFields.PAYMENT_DATE_FIELDS.getDateFields()), eq(messageError)))
             .then((Answer<Void>) invocation -> {
                 TppMessageInformation tppMessageInformation = TppMessageInformation.of(MessageErrorCode.FORMAT_ERROR_WRONG_FORMAT_DATE_FIELD, "requestedExecutionDate", "ISO_DATE", "YYYY-MM-DD");
                 messageError.addTppMessage(tppMessageInformation);
@@ -200,7 +221,7 @@ class PaymentBodyValidatorImplTest {
         Map<String, String> templates = buildTemplateVariables(JSON_PAYMENT_PRODUCT, PAYMENT_SERVICE);
         when(pathParameterExtractor.extractParameters(mockRequest)).thenReturn(templates);
 
-        when(dateFieldValidator.validateDateFormat(mockRequest, Xs2aRequestBodyDateFields.PAYMENT_DATE_FIELDS.getDateFields(), messageError))
+        when(dateFieldValidator.validateDateFormat(any(JsonFieldValues.class), eq(Xs2aRequestBodyDateFields.PAYMENT_DATE_FIELDS.getDateFields()), eq(messageError)))
             .then((Answer<Void>) invocation -> {
                 TppMessageInformation tppMessageInformation = TppMessageInformation.of(MessageErrorCode.FORMAT_ERROR_WRONG_FORMAT_DATE_FIELD, "requestedExecutionTime", "ISO_DATE_TIME", "YYYY-MM-DD'T'HH:mm:ssZ");
                 messageError.addTppMessage(tppMessageInformation);
@@ -241,7 +262,7 @@ class PaymentBodyValidatorImplTest {
         when(countryPaymentValidatorResolver.getPaymentBodyFieldValidator()).thenReturn(paymentBodyFieldsValidator);
         when(paymentBodyFieldsValidator.validate(mockRequest, PAYMENT_SERVICE, messageError)).thenReturn(messageError);
 
-        when(fieldExtractor.extractOptionalList(mockRequest, CURRENCY_FIELD_NAME)).thenReturn(Collections.singletonList(CURRENCY_VALUE));
+        stubFieldValues(mockRequest, "{\"instructedAmount\": {\"currency\": \"" + CURRENCY_VALUE + "\"}}");
 
         // When
         validator.validate(mockRequest, messageError);
@@ -258,7 +279,7 @@ class PaymentBodyValidatorImplTest {
         when(pathParameterExtractor.extractParameters(mockRequest)).thenReturn(templates);
 
         String invalidCurrency = "EURf";
-        when(fieldExtractor.extractOptionalList(mockRequest, CURRENCY_STRING)).thenReturn(Collections.singletonList(invalidCurrency));
+        stubFieldValues(mockRequest, "{\"instructedAmount\": {\"currency\": \"" + invalidCurrency + "\"}}");
 
         doAnswer((Answer<Void>) invocation -> {
             TppMessageInformation tppMessageInformation = TppMessageInformation.of(MessageErrorCode.FORMAT_ERROR_WRONG_FORMAT_VALUE, "currency");
@@ -302,8 +323,7 @@ class PaymentBodyValidatorImplTest {
         Map<String, String> templates = buildTemplateVariables(JSON_PAYMENT_PRODUCT, PAYMENT_SERVICE);
         when(pathParameterExtractor.extractParameters(mockRequest)).thenReturn(templates);
 
-        when(fieldExtractor.extractList(mockRequest, PURPOSE_CODE_FIELD_NAME, messageError))
-            .thenReturn(Collections.singletonList(purposeCode));
+        stubFieldValues(mockRequest, "{\"purposeCode\": \"" + purposeCode + "\"}");
 
         // When
         validator.validate(mockRequest, messageError);
@@ -333,7 +353,7 @@ class PaymentBodyValidatorImplTest {
         Map<String, String> templates = buildTemplateVariables(JSON_PAYMENT_PRODUCT, PERIODIC_PAYMENT_PATH_VAR);
         when(pathParameterExtractor.extractParameters(mockRequest)).thenReturn(templates);
 
-        when(fieldExtractor.extractField(mockRequest, FREQUENCY_FIELD_NAME, messageError)).thenReturn(Optional.of(WRONG_FREQUENCY_STRING));
+        stubFieldValues(mockRequest, "{\"frequency\": \"" + WRONG_FREQUENCY_STRING + "\"}");
 
         // When
         validator.validate(mockRequest, messageError);
@@ -349,7 +369,7 @@ class PaymentBodyValidatorImplTest {
         Map<String, String> templates = buildTemplateVariables(JSON_PAYMENT_PRODUCT, BULK_PAYMENT_PATH_VAR);
         when(pathParameterExtractor.extractParameters(mockRequest)).thenReturn(templates);
 
-        when(fieldExtractor.extractOptionalField(mockRequest, BATCH_BOOKING_PREFERRED_FIELD_NAME)).thenReturn(Optional.of(WRONG_BATCH_BOOKING_PREFERRED_STRING));
+        stubFieldValues(mockRequest, "{\"batchBookingPreferred\": \"" + WRONG_BATCH_BOOKING_PREFERRED_STRING + "\"}");
 
         // When
         validator.validate(mockRequest, messageError);
@@ -358,6 +378,52 @@ class PaymentBodyValidatorImplTest {
         assertEquals(WRONG_BATCH_BOOKING_PREFERRED, messageError);
     }
 
+    @Test
+    void validate_frequencyOfNestedObject_shouldNotBeUsed() {
+        // Given
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest();
+        Map<String, String> templates = buildTemplateVariables(JSON_PAYMENT_PRODUCT, PERIODIC_PAYMENT_PATH_VAR);
+        when(pathParameterExtractor.extractParameters(mockRequest)).thenReturn(templates);
+
+        stubFieldValues(mockRequest, "{\"remittanceInformationStructured\": {\"frequency\": \"" + VALID_FREQUENCY_CODE + "\"}}");
+
+        // When
+        validator.validate(mockRequest, messageError);
+
+        // Then
+        assertEquals(NO_FREQUENCY, messageError);
+    }
+
+    @Test
+    void validate_currenciesOfBulkPayment_shouldValidateAll() {
+        // Given
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest();
+        Map<String, String> templates = buildTemplateVariables(JSON_PAYMENT_PRODUCT, BULK_PAYMENT_PATH_VAR);
+        when(pathParameterExtractor.extractParameters(mockRequest)).thenReturn(templates);
+
+        when(countryPaymentValidatorResolver.getPaymentBodyFieldValidator()).thenReturn(paymentBodyFieldsValidator);
+        when(paymentBodyFieldsValidator.validate(mockRequest, BULK_PAYMENT_PATH_VAR, messageError)).thenReturn(messageError);
+
+        stubFieldValues(mockRequest, "{\"batchBookingPreferred\": true, \"payments\": ["
+                                         + "{\"instructedAmount\": {\"currency\": \"EUR\"}},"
+                                         + "{\"instructedAmount\": {\"currency\": \"USD\"}}]}");
+
+        // When
+        validator.validate(mockRequest, messageError);
+
+        // Then
+        assertTrue(messageError.getTppMessages().isEmpty());
+        verify(currencyValidator).validateCurrency("EUR", messageError);
+        verify(currencyValidator).validateCurrency("USD", messageError);
+    }
+
+    private JsonFieldValues stubFieldValues(MockHttpServletRequest request, String body) {
+        JsonFieldValues fieldValues = new Xs2aObjectMapper().toJsonFieldValues(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                                                                               RAW_DATA_FIELD_NAMES);
+        when(fieldExtractor.extractFieldValues(request, RAW_DATA_FIELD_NAMES, messageError)).thenReturn(fieldValues);
+        return fieldValues;
+    }
+
     private Map<String, String> buildTemplateVariables(String paymentProduct, String paymentService) {
         Map<String, String> templates = new HashMap<>();
         templates.put(PAYMENT_PRODUCT_PATH_VAR, paymentProduct);
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018-2020 adorsys GmbH & Co KG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.adorsys.psd2.mapper;
+
+import java.util.*;
+
+/**
+ * Values of JSON fields collected by {@link Xs2aObjectMapper#toJsonFieldValues(java.io.InputStream, Collection)}
+ * in a single pass over the JSON content.
+ */
+public class JsonFieldValues {
+    private static final JsonFieldValues EMPTY = new JsonFieldValues();
+
+    private final Map<String, List<String>> values = new HashMap<>();
+    private final Map<String, String> topLevelValues = new HashMap<>();
+
+    static JsonFieldValues empty() {
+        return EMPTY;
+    }
+
+    void addValue(String fieldName, String value) {
+        values.computeIfAbsent(fieldName, k -> new ArrayList<>()).add(value);
+    }
+
+    void putTopLevelValue(String fieldName, String value) {
+        topLevelValues.put(fieldName, value);
+    }
+
+    /**
+     * Returns text values of all fields with given name at any depth of the JSON, like {@link com.fasterxml.jackson.databind.JsonNode#findValuesAsText(String)}
+     *
+     * @param fieldName name of the field
+     * @return values in the order of their appearance, empty list if there are no fields with given name
+     */
+    public List<String> getValues(String fieldName) {
+        return values.getOrDefault(fieldName, Collections.emptyList());
+    }
+
+    /**
+     * Returns value of the field of the root JSON object, if it is a scalar value other than null
+     *
+     * @param fieldName name of the field
+     * @return text of the value
+     */
+    public Optional<String> getTopLevelValue(String fieldName) {
+        return Optional.ofNullable(topLevelValues.get(fieldName));
+    }
+}
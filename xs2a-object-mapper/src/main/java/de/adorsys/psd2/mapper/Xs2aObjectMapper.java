@@ -16,6 +16,8 @@
 
 package de.adorsys.psd2.mapper;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -25,6 +27,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -76,6 +79,50 @@ public class Xs2aObjectMapper extends ObjectMapper {
         return values;
     }
 
+    /**
+     * Collects values of the fields with given names in a single streaming pass over the JSON content, without
+     * building a tree of the whole JSON, so that large bodies (e.g. bulk payments) are not parsed once for every field.
+     *
+     * @param stream     input stream used to read JSON content
+     * @param fieldNames names of the fields to be collected
+     * @return collected values, empty values if JSON is not valid
+     */
+    public JsonFieldValues toJsonFieldValues(InputStream stream, Collection<String> fieldNames) {
+        JsonFieldValues fieldValues = new JsonFieldValues();
+        try (JsonParser parser = getFactory().createParser(stream)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME && fieldNames.contains(parser.getCurrentName())) {
+                    collectFieldValue(parser, fieldValues);
+                }
+            }
+        } catch (IOException e) {
+            log.info("Couldn't extract fields {} from json: {}", fieldNames, e.getMessage());
+            return JsonFieldValues.empty();
+        }
+        return fieldValues;
+    }
+
+    private void collectFieldValue(JsonParser parser, JsonFieldValues fieldValues) throws IOException {
+        String fieldName = parser.getCurrentName();
+        boolean topLevel = parser.getParsingContext().getParent().inRoot();
+        JsonToken valueToken = parser.nextToken();
+
+        if (valueToken.isStructStart()) {
+            // the same as JsonNode#asText of container nodes, nested fields of the matched field are not collected
+            fieldValues.addValue(fieldName, "");
+            parser.skipChildren();
+        } else if (valueToken == JsonToken.VALUE_NULL) {
+            fieldValues.addValue(fieldName, "null");
+        } else {
+            String text = parser.getValueAsString();
+            fieldValues.addValue(fieldName, text);
+            if (topLevel) {
+                fieldValues.putTopLevelValue(fieldName, text);
+            }
+        }
+    }
+
     @Override
     public ObjectMapper copy() {
         _checkInvalidCopy(Xs2aObjectMapper.class);
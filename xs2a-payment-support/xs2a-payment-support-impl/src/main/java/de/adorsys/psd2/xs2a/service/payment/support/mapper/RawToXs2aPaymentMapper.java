@@ -16,8 +16,12 @@
 
 package de.adorsys.psd2.xs2a.service.payment.support.mapper;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import de.adorsys.psd2.mapper.Xs2aObjectMapper;
 import de.adorsys.psd2.model.BulkPaymentInitiationJson;
+import de.adorsys.psd2.model.PaymentInitiationBulkElementJson;
 import de.adorsys.psd2.model.PaymentInitiationJson;
 import de.adorsys.psd2.model.PeriodicPaymentInitiationJson;
 import de.adorsys.psd2.xs2a.domain.pis.BulkPayment;
@@ -30,11 +34,15 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class RawToXs2aPaymentMapper {
+    private static final String PAYMENTS_FIELD_NAME = "payments";
+
     private final PaymentModelMapper paymentModelMapper;
     private final Xs2aObjectMapper xs2aObjectMapper;
 
@@ -73,8 +81,7 @@ public class RawToXs2aPaymentMapper {
             return null;
         }
 
-        BulkPaymentInitiationJson paymentInitiationJson = readBytes(paymentBody, BulkPaymentInitiationJson.class);
-        BulkPayment bulkPayment = paymentModelMapper.mapToXs2aPayment(paymentInitiationJson);
+        BulkPayment bulkPayment = readBulkPayment(paymentBody);
 
         if (bulkPayment != null) {
             bulkPayment.setPaymentData(paymentBody);
@@ -83,6 +90,51 @@ public class RawToXs2aPaymentMapper {
         return bulkPayment;
     }
 
+    /**
+     * Reads bulk payment incrementally: every element of the payments array is deserialised and mapped to
+     * {@link SinglePayment} on its own, so that JSON model of the whole bulk is never kept in memory
+     * together with the mapped payments.
+     */
+    private BulkPayment readBulkPayment(byte[] paymentBody) {
+        try (JsonParser parser = xs2aObjectMapper.getFactory().createParser(paymentBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                log.warn("Couldn't deserialize payment from bytes");
+                return null;
+            }
+
+            ObjectNode bulkFields = xs2aObjectMapper.createObjectNode();
+            List<SinglePayment> payments = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && PAYMENTS_FIELD_NAME.equals(fieldName)) {
+                    payments = readBulkElements(parser);
+                } else {
+                    bulkFields.set(fieldName, xs2aObjectMapper.readTree(parser));
+                }
+            }
+
+            BulkPaymentInitiationJson bulkPaymentInitiationJson = xs2aObjectMapper.treeToValue(bulkFields, BulkPaymentInitiationJson.class);
+            BulkPayment bulkPayment = paymentModelMapper.mapToXs2aPayment(bulkPaymentInitiationJson);
+            if (bulkPayment != null && payments != null) {
+                bulkPayment.setPayments(payments);
+                paymentModelMapper.mapToXs2aPaymentAfterMapping(bulkPaymentInitiationJson, bulkPayment);
+            }
+            return bulkPayment;
+        } catch (IOException e) {
+            log.warn("Couldn't deserialize payment from bytes");
+            return null;
+        }
+    }
+
+    private List<SinglePayment> readBulkElements(JsonParser parser) throws IOException {
+        List<SinglePayment> payments = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            PaymentInitiationBulkElementJson bulkElementJson = xs2aObjectMapper.readValue(parser, PaymentInitiationBulkElementJson.class);
+            payments.add(paymentModelMapper.mapToXs2aPayment(bulkElementJson));
+        }
+        return payments;
+    }
+
     private <T> T readBytes(byte[] paymentBody, Class<T> clazz) {
         try {
             return xs2aObjectMapper.readValue(paymentBody, clazz);
@@ -18,6 +18,7 @@ package de.adorsys.psd2.xs2a.service.payment.support.mapper;
 
 import de.adorsys.psd2.mapper.Xs2aObjectMapper;
 import de.adorsys.psd2.model.BulkPaymentInitiationJson;
+import de.adorsys.psd2.model.PaymentInitiationBulkElementJson;
 import de.adorsys.psd2.model.PaymentInitiationJson;
 import de.adorsys.psd2.model.PeriodicPaymentInitiationJson;
 import de.adorsys.psd2.xs2a.domain.pis.BulkPayment;
@@ -31,6 +32,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.*;
@@ -168,8 +172,13 @@ public class RawToXs2aPaymentMapperTest {
     void mapToBulkPayment() {
         // Given
         BulkPaymentInitiationJson paymentInitiationJson = jsonReader.getObjectFromFile(BULK_PAYMENT_PSD2_JSON_PATH, BulkPaymentInitiationJson.class);
+        List<PaymentInitiationBulkElementJson> bulkElements = paymentInitiationJson.getPayments();
+        paymentInitiationJson.setPayments(new ArrayList<>());
         BulkPayment xs2aBulkPayment = jsonReader.getObjectFromFile(BULK_PAYMENT_XS2A_JSON_PATH, BulkPayment.class);
         when(paymentModelMapper.mapToXs2aPayment(paymentInitiationJson)).thenReturn(xs2aBulkPayment);
+        for (int i = 0; i < bulkElements.size(); i++) {
+            when(paymentModelMapper.mapToXs2aPayment(bulkElements.get(i))).thenReturn(xs2aBulkPayment.getPayments().get(i));
+        }
 
         byte[] paymentBody = jsonReader.getBytesFromFile(BULK_PAYMENT_PSD2_JSON_PATH);
         BulkPayment expectedBulkPayment = jsonReader.getObjectFromFile(BULK_PAYMENT_XS2A_JSON_PATH, BulkPayment.class);
@@ -180,6 +189,20 @@ public class RawToXs2aPaymentMapperTest {
 
         // Then
         assertEquals(expectedBulkPayment, actual);
+        verify(paymentModelMapper).mapToXs2aPaymentAfterMapping(paymentInitiationJson, actual);
+    }
+
+    @Test
+    void mapToBulkPayment_malformedBulkElement() {
+        // Given
+        byte[] paymentBody = "{\"batchBookingPreferred\": true, \"payments\": [{\"instructedAmount\": []}]}".getBytes();
+
+        // When
+        BulkPayment actual = rawToXs2aPaymentMapper.mapToBulkPayment(paymentBody);
+
+        // Then
+        assertNull(actual);
+        verify(paymentModelMapper, never()).mapToXs2aPayment(any(BulkPaymentInitiationJson.class));
     }
 
     @Test
@@ -205,7 +228,9 @@ public class RawToXs2aPaymentMapperTest {
     void mapToBulkPayment_nullBulkPayment() {
         // Given
         BulkPaymentInitiationJson paymentInitiationJson = jsonReader.getObjectFromFile(BULK_PAYMENT_PSD2_JSON_PATH, BulkPaymentInitiationJson.class);
+        paymentInitiationJson.setPayments(new ArrayList<>());
         when(paymentModelMapper.mapToXs2aPayment(paymentInitiationJson)).thenReturn(null);
+        when(paymentModelMapper.mapToXs2aPayment(any(PaymentInitiationBulkElementJson.class))).thenReturn(new SinglePayment());
 
         byte[] paymentBody = jsonReader.getBytesFromFile(BULK_PAYMENT_PSD2_JSON_PATH);
 
@@ -214,5 +239,6 @@ public class RawToXs2aPaymentMapperTest {
 
         // Then
         assertNull(actual);
+        verify(paymentModelMapper, never()).mapToXs2aPaymentAfterMapping(any(BulkPaymentInitiationJson.class), any(BulkPayment.class));
     }
 }